@@ -0,0 +1,34 @@
+package com.ntros.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the report every engine change is measured with: throughput, sampled latency
+ * percentiles and the GC profiler's allocation rate (gc.alloc.rate.norm is bytes per operation).
+ * Results are also written as JSON to target/jmh-result.json for comparing runs.
+ * <p>
+ * java -cp benchmarks/target/benchmarks.jar com.ntros.benchmark.BenchmarkRunner [regexp]
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "com.ntros.*")
+                .mode(Mode.Throughput)
+                .mode(Mode.SampleTime)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.ntros.cache;
+
+import com.ntros.model.market.Market;
+import com.ntros.model.order.Order;
+import com.ntros.model.order.Side;
+import com.ntros.model.product.MarketProduct;
+import com.ntros.model.product.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancel-heavy flow at constant depth: every operation cancels a random resting order and
+ * queues a replacement at the same price. Few price levels with deep queues is the worst case
+ * for a level that has to be scanned on removal.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderBookCancelStormBenchmark {
+
+    private static final String MARKET = "NYSE";
+    private static final String ISIN = "US0378331005";
+    private static final int PRICE_LEVELS = 8;
+
+    @Param({"TREE", "TICK", "LADDER", "OFF_HEAP"})
+    private OrderBookType bookType;
+
+    @Param({"1000", "10000", "100000"})
+    private int depth;
+
+    private OrderCache book;
+    private MarketProduct marketProduct;
+    private Order[] resting;
+    private SplittableRandom random;
+    private int nextOrderId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Market market = new Market();
+        market.setMarketCode(MARKET);
+        Product product = new Product();
+        product.setIsin(ISIN);
+        marketProduct = new MarketProduct();
+        marketProduct.setMarket(market);
+        marketProduct.setProduct(product);
+        marketProduct.setCurrentPrice(100);
+        marketProduct.setAvgDailyVolume(1_000_000);
+
+        book = bookType.create(MARKET);
+        book.registerInstrument(marketProduct);
+        random = new SplittableRandom(42);
+        resting = new Order[depth];
+        for (int i = 0; i < depth; i++) {
+            Side side = (i % 2 == 0) ? Side.BUY : Side.SELL;
+            // bids below the mid, asks above, so nothing would cross
+            BigDecimal price = BigDecimal.valueOf(side == Side.BUY ? 99 - i % PRICE_LEVELS : 101 + i % PRICE_LEVELS);
+            resting[i] = newOrder(side, price);
+            book.addOrder(resting[i]);
+        }
+    }
+
+    @Benchmark
+    public int cancelAndReplace() {
+        int slot = random.nextInt(depth);
+        Order cancelled = resting[slot];
+        book.removeOrder(cancelled.getOrderId());
+
+        Order replacement = newOrder(cancelled.getSide(), cancelled.getPrice());
+        book.addOrder(replacement);
+        resting[slot] = replacement;
+        return book.size();
+    }
+
+    private Order newOrder(Side side, BigDecimal price) {
+        return Order.builder()
+                .orderId(++nextOrderId)
+                .side(side)
+                .price(price)
+                .quantity(1)
+                .remainingQuantity(1)
+                .filledQuantity(0)
+                .marketProduct(marketProduct)
+                .build();
+    }
+}
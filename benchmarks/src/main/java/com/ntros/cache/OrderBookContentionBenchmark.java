@@ -0,0 +1,104 @@
+package com.ntros.cache;
+
+import com.ntros.model.market.Market;
+import com.ntros.model.order.Order;
+import com.ntros.model.order.Side;
+import com.ntros.model.product.MarketProduct;
+import com.ntros.model.product.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent cancel/replace flow on one market: every thread owns a set of resting orders on one of
+ * {@code isins} instruments, assigned round-robin, and keeps cancelling and re-queueing them.
+ * lockScope=ISIN runs the book as is, lockScope=SIDE wraps it in {@link SideLockedOrderCache} to get the
+ * market-wide bid/ask locking it replaced. Compare thread counts with -t, e.g.
+ * {@code java -jar benchmarks/target/benchmarks.jar OrderBookContentionBenchmark -t 8}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderBookContentionBenchmark {
+
+    private static final String MARKET = "NYSE";
+    private static final int ORDERS_PER_THREAD = 1024;
+    private static final int PRICE_LEVELS = 8;
+
+    @Param({"TREE", "TICK"})
+    private OrderBookType bookType;
+
+    @Param({"ISIN", "SIDE"})
+    private String lockScope;
+
+    @Param({"1", "4", "16"})
+    private int isins;
+
+    private OrderCache book;
+    private MarketProduct[] marketProducts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Market market = new Market();
+        market.setMarketCode(MARKET);
+
+        OrderCache orderBook = bookType.create(MARKET);
+        book = "SIDE".equals(lockScope) ? new SideLockedOrderCache(orderBook) : orderBook;
+        marketProducts = new MarketProduct[isins];
+        for (int i = 0; i < isins; i++) {
+            Product product = new Product();
+            product.setIsin(String.format("US%010d", i));
+            marketProducts[i] = new MarketProduct();
+            marketProducts[i].setMarket(market);
+            marketProducts[i].setProduct(product);
+            marketProducts[i].setCurrentPrice(100);
+            book.registerInstrument(marketProducts[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+
+        private Order[] resting;
+        private SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(OrderBookContentionBenchmark benchmark, ThreadParams threadParams) {
+            int thread = threadParams.getThreadIndex();
+            MarketProduct marketProduct = benchmark.marketProducts[thread % benchmark.isins];
+            random = new SplittableRandom(thread);
+            resting = new Order[ORDERS_PER_THREAD];
+            for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                Side side = (i % 2 == 0) ? Side.BUY : Side.SELL;
+                // bids below the mid, asks above, so nothing would cross
+                BigDecimal price = BigDecimal.valueOf(side == Side.BUY ? 99 - i % PRICE_LEVELS : 101 + i % PRICE_LEVELS);
+                resting[i] = Order.builder()
+                        .orderId(thread * ORDERS_PER_THREAD + i + 1)
+                        .side(side)
+                        .price(price)
+                        .quantity(1)
+                        .remainingQuantity(1)
+                        .filledQuantity(0)
+                        .marketProduct(marketProduct)
+                        .build();
+                benchmark.book.addOrder(resting[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public int cancelAndReplace(Writer writer) {
+        // the order id is free again once cancelled, so the same order is queued back at the tail of its level
+        Order order = writer.resting[writer.random.nextInt(ORDERS_PER_THREAD)];
+        book.removeOrder(order.getOrderId());
+        book.addOrder(order);
+        return order.getOrderId();
+    }
+}
@@ -0,0 +1,150 @@
+package com.ntros.cache;
+
+import com.ntros.model.market.Market;
+import com.ntros.model.order.Order;
+import com.ntros.model.order.Side;
+import com.ntros.model.product.MarketProduct;
+import com.ntros.model.product.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single book operations at a given resting depth, spread over {@link #PRICE_LEVELS} levels per side.
+ * addOrder and removeOrder work on batches of {@link #BATCH} orders that are taken back out, or put back in,
+ * outside the measurement, so the book stays at its depth.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderBookOperationsBenchmark {
+
+    private static final String MARKET = "NYSE";
+    private static final String ISIN = "US0378331005";
+    private static final String LIMIT_ORDER = "LIMIT";
+    private static final int PRICE_LEVELS = 100;
+    private static final int BATCH = 1000;
+
+    @Param({"TREE", "TICK", "LADDER", "OFF_HEAP"})
+    private OrderBookType bookType;
+
+    @Param({"1000", "10000", "100000"})
+    private int depth;
+
+    private OrderCache book;
+    private MarketProduct marketProduct;
+    private SplittableRandom random;
+    private int nextOrderId;
+
+    private BigDecimal crossingPrice;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Market market = new Market();
+        market.setMarketCode(MARKET);
+        Product product = new Product();
+        product.setIsin(ISIN);
+        marketProduct = new MarketProduct();
+        marketProduct.setMarket(market);
+        marketProduct.setProduct(product);
+        marketProduct.setCurrentPrice(100);
+        marketProduct.setAvgDailyVolume(1_000_000);
+
+        book = bookType.create(MARKET);
+        book.registerInstrument(marketProduct);
+        random = new SplittableRandom(42);
+        for (int i = 0; i < depth; i++) {
+            book.addOrder(newOrder(i % 2 == 0 ? Side.BUY : Side.SELL));
+        }
+        // a BUY limit that crosses the best 5 ask levels
+        crossingPrice = new BigDecimal("100.05");
+    }
+
+    /**
+     * Fresh orders for addOrder, taken out of the book again after each invocation.
+     */
+    @State(Scope.Thread)
+    public static class AddBatch {
+
+        private final Order[] orders = new Order[BATCH];
+        private OrderCache book;
+
+        @Setup(Level.Invocation)
+        public void setUp(OrderBookOperationsBenchmark benchmark) {
+            book = benchmark.book;
+            for (int i = 0; i < BATCH; i++) {
+                orders[i] = benchmark.newOrder(i % 2 == 0 ? Side.BUY : Side.SELL);
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            for (Order order : orders) {
+                book.removeOrder(order.getOrderId());
+            }
+        }
+    }
+
+    /**
+     * Orders added to the book before each removeOrder invocation.
+     */
+    @State(Scope.Thread)
+    public static class RemoveBatch {
+
+        private final Order[] orders = new Order[BATCH];
+
+        @Setup(Level.Invocation)
+        public void setUp(OrderBookOperationsBenchmark benchmark) {
+            for (int i = 0; i < BATCH; i++) {
+                orders[i] = benchmark.newOrder(i % 2 == 0 ? Side.BUY : Side.SELL);
+                benchmark.book.addOrder(orders[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int addOrder(AddBatch batch) {
+        for (Order order : batch.orders) {
+            book.addOrder(order);
+        }
+        return book.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int removeOrder(RemoveBatch batch) {
+        for (Order order : batch.orders) {
+            book.removeOrder(order.getOrderId());
+        }
+        return book.size();
+    }
+
+    @Benchmark
+    public List<RestingOrder> getMatchingOrders() {
+        return book.getMatchingOrders(crossingPrice, ISIN, Side.BUY, LIMIT_ORDER);
+    }
+
+    /**
+     * Bids on 99.99 and below, asks on 100.01 and above, one cent apart, so nothing would cross.
+     */
+    private Order newOrder(Side side) {
+        int level = 1 + random.nextInt(PRICE_LEVELS);
+        BigDecimal price = BigDecimal.valueOf(side == Side.BUY ? 10_000 - level : 10_000 + level, 2);
+        return Order.builder()
+                .orderId(++nextOrderId)
+                .side(side)
+                .price(price)
+                .quantity(1)
+                .remainingQuantity(1)
+                .filledQuantity(0)
+                .marketProduct(marketProduct)
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.ntros.cache;
+
+import com.ntros.model.order.Order;
+import com.ntros.model.order.Side;
+import com.ntros.model.product.MarketProduct;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static com.ntros.cache.LockingUtil.runSafe;
+import static com.ntros.model.order.Side.BUY;
+
+/**
+ * Baseline for contention benchmarks: serializes a book behind one bids lock and one asks lock per market,
+ * the way books were locked before per-ISIN locks. Every BUY on the market waits for every other BUY.
+ */
+final class SideLockedOrderCache implements OrderCache {
+
+    private final OrderCache delegate;
+    private final ReentrantLock bidsLock = new ReentrantLock();
+    private final ReentrantLock asksLock = new ReentrantLock();
+
+    SideLockedOrderCache(OrderCache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void addOrder(Order order) {
+        runSafe(() -> delegate.addOrder(order), getLock(order.getSide()));
+    }
+
+    @Override
+    public void restoreOrder(RestingOrder order) {
+        runSafe(() -> delegate.restoreOrder(order), getLock(order.getSide()));
+    }
+
+    @Override
+    public Optional<RestingOrder> getOrder(Integer orderId) {
+        return delegate.getOrder(orderId);
+    }
+
+    @Override
+    public Optional<RestingOrder> removeOrder(Integer orderId) {
+        return runSafe(() -> delegate.removeOrder(orderId), getLock(sideOf(orderId)));
+    }
+
+    @Override
+    public RestingOrder fillOrder(Integer orderId, int matchedQuantity) {
+        return runSafe(() -> delegate.fillOrder(orderId, matchedQuantity), getLock(sideOf(orderId)));
+    }
+
+    @Override
+    public Optional<RestingOrder> getBestOrder(String isin, Side side) {
+        return runSafe(() -> delegate.getBestOrder(isin, side), getLock(side));
+    }
+
+    @Override
+    public List<RestingOrder> getMatchingOrders(BigDecimal price, String isin, Side side, String orderType) {
+        return runSafe(() -> delegate.getMatchingOrders(price, isin, side, orderType), getLock(side == BUY ? Side.SELL : BUY));
+    }
+
+    @Override
+    public DepthSnapshot getDepth(String isin) {
+        return delegate.getDepth(isin);
+    }
+
+    @Override
+    public void forEachOrder(Consumer<RestingOrder> action) {
+        delegate.forEachOrder(action);
+    }
+
+    @Override
+    public String getMarket() {
+        return delegate.getMarket();
+    }
+
+    @Override
+    public void registerInstrument(MarketProduct marketProduct) {
+        delegate.registerInstrument(marketProduct);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    private Side sideOf(Integer orderId) {
+        return delegate.getOrder(orderId)
+                .map(RestingOrder::getSide)
+                .orElseThrow(() -> new NoSuchElementException(String.format("Order with ID: %s not found.", orderId)));
+    }
+
+    private ReentrantLock getLock(Side side) {
+        return (side == BUY) ? bidsLock : asksLock;
+    }
+}
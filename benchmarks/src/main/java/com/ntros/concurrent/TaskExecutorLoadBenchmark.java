@@ -0,0 +1,85 @@
+package com.ntros.concurrent;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
+/**
+ * Load test for the two taskExecutor modes: a burst of {@code requests} concurrent read requests, each one
+ * blocking query on a simulated connection pool of {@code DB_CONNECTIONS} connections taking
+ * {@code QUERY_MICROS} per query. PLATFORM is the taskExecutor AsyncConfig builds by default (5 threads, 1024
+ * queue, caller runs), VIRTUAL is {@link BoundedVirtualThreadExecutor} capped at the pool size.
+ * One operation is a whole burst, so the score is the time until every request has its result.
+ * VIRTUAL needs a JDK 21 runtime.
+ * <p>
+ * java -jar benchmarks/target/benchmarks.jar TaskExecutorLoadBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TaskExecutorLoadBenchmark {
+
+    private static final int DB_CONNECTIONS = 10;
+    private static final long QUERY_MICROS = 2_000;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private String mode;
+
+    @Param({"50", "200", "1000"})
+    private int requests;
+
+    private Executor executor;
+    private Semaphore connections;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        connections = new Semaphore(DB_CONNECTIONS, true);
+        if ("VIRTUAL".equals(mode)) {
+            executor = new BoundedVirtualThreadExecutor("load-", DB_CONNECTIONS, 30_000);
+            return;
+        }
+        WorkloadExecutor pool = new WorkloadExecutor("load", 5, 1024, true);
+        pool.initialize();
+        executor = pool;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (executor instanceof BoundedVirtualThreadExecutor virtual) {
+            virtual.close();
+        } else {
+            ((WorkloadExecutor) executor).shutdown();
+        }
+    }
+
+    @Benchmark
+    public long burst() {
+        CompletableFuture<?>[] results = new CompletableFuture<?>[requests];
+        for (int i = 0; i < requests; i++) {
+            results[i] = supplyAsync(this::query, executor);
+        }
+        CompletableFuture.allOf(results).join();
+        return connections.availablePermits();
+    }
+
+    private long query() {
+        connections.acquireUninterruptibly();
+        try {
+            TimeUnit.MICROSECONDS.sleep(QUERY_MICROS);
+            return System.nanoTime();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } finally {
+            connections.release();
+        }
+    }
+}
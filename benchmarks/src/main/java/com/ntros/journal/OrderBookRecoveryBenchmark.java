@@ -0,0 +1,176 @@
+package com.ntros.journal;
+
+import com.ntros.cache.OrderBookRegistry;
+import com.ntros.cache.OrderBookType;
+import com.ntros.cache.OrderCache;
+import com.ntros.cache.RestingOrder;
+import com.ntros.engine.MatchingEngine;
+import com.ntros.model.market.Market;
+import com.ntros.model.order.Order;
+import com.ntros.model.order.OrderType;
+import com.ntros.model.order.Side;
+import com.ntros.model.product.MarketProduct;
+import com.ntros.model.product.Product;
+import com.ntros.order.OpenOrderCount;
+import com.ntros.order.OpenOrderCountRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Startup time of a market with openOrders resting orders: coldLoad rests every order in chunks, as the
+ * streamed reload from the order table does once the rows are read, warmStart reads the snapshot and replays
+ * the recentEvents order events journaled after it. The database query itself is not part of coldLoad, so
+ * the gap is a floor.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class OrderBookRecoveryBenchmark {
+
+    private static final String MARKET = "NYSE";
+    private static final int PRICE_LEVELS = 64;
+    private static final int CHUNK_SIZE = 4096;
+
+    @Param({"100000", "1000000"})
+    private int openOrders;
+
+    @Param({"1000", "100000"})
+    private int recentEvents;
+
+    private final OrderType limit = new OrderType(1, "LIMIT");
+    private MarketProduct marketProduct;
+    private Order[] orders;
+    private Path directory;
+    private OpenOrderCountRepository openOrderCounts;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Market market = new Market();
+        market.setMarketCode(MARKET);
+        Product product = new Product();
+        product.setIsin("US0378331005");
+        marketProduct = new MarketProduct();
+        marketProduct.setMarket(market);
+        marketProduct.setProduct(product);
+
+        orders = new Order[openOrders + recentEvents];
+        for (int i = 0; i < orders.length; i++) {
+            Side side = (i % 2 == 0) ? Side.BUY : Side.SELL;
+            // bids below the mid, asks above, so nothing crosses
+            int price = side == Side.BUY ? 99 - i % PRICE_LEVELS : 101 + i % PRICE_LEVELS;
+            orders[i] = newOrder(i + 1, side, price);
+        }
+
+        // nothing crosses, so every order rests; the count query itself is not part of warmStart either
+        OpenOrderCount restingOrders = new OpenOrderCount(orders.length, orders.length);
+        openOrderCounts = new OpenOrderCountRepository(null) {
+            @Override
+            public OpenOrderCount countOpenOrders(String marketCode) {
+                return restingOrders;
+            }
+        };
+
+        // the book as the snapshot saw it, then recentEvents orders only in the journal
+        directory = Files.createTempDirectory("orderbook-recovery");
+        OrderEventJournal journal = new OrderEventJournal(directory.resolve("events"), 256 << 20);
+        journal.open();
+        OrderBookRegistry registry = registry();
+        MatchingEngine engine = new MatchingEngine(registry, Optional.of(journal));
+        restAll(engine, openOrders);
+        new OrderBookSnapshotter(registry, engine, journal, openOrderCounts, directory, 300).snapshotAll();
+        CompletableFuture<?> last = CompletableFuture.completedFuture(null);
+        for (int i = openOrders; i < orders.length; i++) {
+            last = engine.submit(orders[i]);
+        }
+        last.join();
+        engine.shutdown();
+        journal.close();
+    }
+
+    @Benchmark
+    public int coldLoad() {
+        MatchingEngine engine = new MatchingEngine(registry());
+        try {
+            List<CompletableFuture<Integer>> rested = new ArrayList<>();
+            for (int from = 0; from < orders.length; from += CHUNK_SIZE) {
+                List<RestingOrder> chunk = new ArrayList<>(CHUNK_SIZE);
+                for (int i = from; i < Math.min(from + CHUNK_SIZE, orders.length); i++) {
+                    chunk.add(RestingOrder.of(orders[i]));
+                }
+                rested.add(engine.onBook(MARKET, book -> {
+                    chunk.forEach(book::restoreOrder);
+                    return chunk.size();
+                }));
+            }
+            CompletableFuture.allOf(rested.toArray(CompletableFuture[]::new)).join();
+            return engine.onBook(MARKET, OrderCache::size).join();
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Benchmark
+    public int warmStart() {
+        OrderBookRegistry registry = registry();
+        OrderEventJournal journal = new OrderEventJournal(directory.resolve("events"), 256 << 20);
+        journal.open();
+        MatchingEngine engine = new MatchingEngine(registry, Optional.of(journal));
+        try {
+            if (!new OrderBookSnapshotter(registry, engine, journal, openOrderCounts, directory, 300).recover()) {
+                throw new IllegalStateException("Recovery fell back to a cold load");
+            }
+            return engine.onBook(MARKET, OrderCache::size).join();
+        } finally {
+            engine.shutdown();
+            journal.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private static OrderBookRegistry registry() {
+        OrderBookRegistry registry = new OrderBookRegistry(OrderBookType.TREE);
+        registry.addMarket(MARKET);
+        return registry;
+    }
+
+    private void restAll(MatchingEngine engine, int count) {
+        CompletableFuture<?> last = CompletableFuture.completedFuture(null);
+        for (int i = 0; i < count; i++) {
+            last = engine.rest(orders[i]);
+        }
+        last.join();
+    }
+
+    private Order newOrder(int orderId, Side side, int price) {
+        return Order.builder()
+                .orderId(orderId)
+                .side(side)
+                .price(BigDecimal.valueOf(price))
+                .quantity(1)
+                .remainingQuantity(1)
+                .filledQuantity(0)
+                .marketProduct(marketProduct)
+                .orderType(limit)
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.ntros.processor.order.execution;
+
+import com.ntros.cache.PriceTicks;
+import com.ntros.cache.RestingOrder;
+import com.ntros.engine.Fill;
+import com.ntros.engine.MatchingEngine;
+import com.ntros.ledger.PositionLedger;
+import com.ntros.ledger.WalletLedger;
+import com.ntros.metrics.OrderMetrics;
+import com.ntros.model.account.Account;
+import com.ntros.model.market.Market;
+import com.ntros.model.order.Order;
+import com.ntros.model.order.Side;
+import com.ntros.model.portfolio.Portfolio;
+import com.ntros.model.product.MarketProduct;
+import com.ntros.model.product.Product;
+import com.ntros.model.wallet.Wallet;
+import com.ntros.service.fill.FillBatch;
+import com.ntros.service.fill.FillPersistenceService;
+import com.ntros.service.order.OrderService;
+import com.ntros.service.portfolio.PortfolioService;
+import com.ntros.service.position.PositionService;
+import com.ntros.service.transaction.TransactionService;
+import com.ntros.service.wallet.WalletService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * {@link AbstractOrderExecutor#settleFill} for every fill of a match cycle against stub-only mocks, so the numbers
+ * cover the settlement arithmetic, entity updates and netting into the cycle's FillBatch without any database work.
+ * A BUY for the full resting quantity has swept {@code matchingOrders} asks, the fills are built once up front
+ * as the MatchingEngine would return them.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderFulfillmentBenchmark {
+
+    private static final int QUANTITY = 10;
+
+    @Param({"1", "10", "100"})
+    private int matchingOrders;
+
+    private AbstractOrderExecutor executor;
+    private Order incomingOrder;
+    private List<Order> restingOrders;
+    private List<Fill> fills;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // stubOnly: mocks keep no invocation history, which would otherwise grow for the whole run
+        MatchingEngine matchingEngine = mock(MatchingEngine.class, withSettings().stubOnly());
+        OrderService orderService = mock(OrderService.class, withSettings().stubOnly());
+        TransactionService transactionService = mock(TransactionService.class, withSettings().stubOnly());
+        PositionService positionService = mock(PositionService.class, withSettings().stubOnly());
+        WalletService walletService = mock(WalletService.class, withSettings().stubOnly());
+        PortfolioService portfolioService = mock(PortfolioService.class, withSettings().stubOnly());
+        Portfolio portfolio = new Portfolio();
+        portfolio.setPortfolioId(1);
+        when(portfolioService.getPortfolioByAccount(any())).thenReturn(portfolio);
+        FillPersistenceService fillPersistenceService = mock(FillPersistenceService.class, withSettings().stubOnly());
+        WalletLedger walletLedger = mock(WalletLedger.class, withSettings().stubOnly());
+        PositionLedger positionLedger = mock(PositionLedger.class, withSettings().stubOnly());
+        executor = new LimitOrderExecutor(Runnable::run, matchingEngine, orderService, transactionService,
+                positionService, walletService, portfolioService, fillPersistenceService, walletLedger, positionLedger, OrderMetrics.NONE);
+
+        Market market = new Market();
+        market.setMarketCode("NYSE");
+        Product product = new Product();
+        product.setProductId(1);
+        product.setIsin("US0378331005");
+        MarketProduct marketProduct = new MarketProduct();
+        marketProduct.setMarket(market);
+        marketProduct.setProduct(product);
+
+        incomingOrder = newOrder(0, Side.BUY, new BigDecimal("101.00"), QUANTITY * matchingOrders, marketProduct);
+        restingOrders = new ArrayList<>(matchingOrders);
+        fills = new ArrayList<>(matchingOrders);
+        for (int i = 1; i <= matchingOrders; i++) {
+            Order restingOrder = newOrder(i, Side.SELL, BigDecimal.valueOf(10_000 + i % 100, 2), QUANTITY, marketProduct);
+            restingOrders.add(restingOrder);
+            // each ask is filled in full and leaves the book
+            fills.add(Fill.of(RestingOrder.of(i, i, product.getIsin(), Side.SELL,
+                    PriceTicks.ORDER_PRICE.toTicks(restingOrder.getPrice(), RoundingMode.HALF_UP), 0L, 0),
+                    QUANTITY, restingOrder.getPrice()));
+        }
+        incomingOrder.adjustQuantity(QUANTITY * matchingOrders);
+    }
+
+    @Benchmark
+    public FillBatch settleFills() {
+        FillBatch batch = new FillBatch();
+        Map<String, Portfolio> portfolios = new HashMap<>();
+        for (int i = 0; i < fills.size(); i++) {
+            executor.settleFill(incomingOrder, restingOrders.get(i), fills.get(i), batch, portfolios);
+        }
+        return batch;
+    }
+
+    private static Order newOrder(int id, Side side, BigDecimal price, int quantity, MarketProduct marketProduct) {
+        Wallet wallet = new Wallet();
+        wallet.setWalletId(id);
+        Account account = new Account();
+        account.setAccountId(id);
+        account.setAccountNumber(String.valueOf(id));
+        wallet.setAccount(account);
+        wallet.setBalance(new BigDecimal("1000000000.00"));
+        return Order.builder()
+                .orderId(id)
+                .side(side)
+                .price(price)
+                .quantity(quantity)
+                .remainingQuantity(quantity)
+                .filledQuantity(0)
+                .wallet(wallet)
+                .marketProduct(marketProduct)
+                .build();
+    }
+}
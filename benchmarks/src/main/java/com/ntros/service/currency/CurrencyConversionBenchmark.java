@@ -0,0 +1,123 @@
+package com.ntros.service.currency;
+
+import com.ntros.exception.NotFoundException;
+import com.ntros.model.currency.Currency;
+import com.ntros.model.currency.CurrencyExchangeRate;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link CurrencyUtils#getScale} and {@link CurrencyExchangeRateDataService#convert} over an in-memory repository.
+ * path picks the conversion route: a direct rate, one shared base currency (CAD -> USD -> GBP),
+ * or two bases (CHF -> EUR -> USD -> CAD).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CurrencyConversionBenchmark {
+
+    @Param({"DIRECT", "BASE", "INTERMEDIATE_BASE"})
+    private String path;
+
+    @Param({"1250", "1234.567800", "98765432109876543.21"})
+    private String amount;
+
+    private CurrencyExchangeRateDataService exchangeRateService;
+    private BigDecimal amountValue;
+    private String source;
+    private String target;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Currency> currencies = Stream.of("USD", "EUR", "CAD", "GBP", "CHF")
+                .map(CurrencyConversionBenchmark::currency)
+                .collect(Collectors.toMap(Currency::getCurrencyCode, Function.identity()));
+        List<CurrencyExchangeRate> rates = List.of(
+                rate(currencies, "USD", "EUR", "0.921500"),
+                rate(currencies, "EUR", "USD", "1.085200"),
+                rate(currencies, "CAD", "USD", "0.731400"),
+                rate(currencies, "USD", "GBP", "0.787300"),
+                rate(currencies, "CHF", "EUR", "1.046100"),
+                rate(currencies, "USD", "CAD", "1.367200"));
+
+        exchangeRateService = new CurrencyExchangeRateDataService(InMemoryExchangeRateRepository.of(rates), new CurrencyService() {
+            @Override
+            public CompletableFuture<Currency> getCurrencyByCodeAsync(String code) {
+                return CompletableFuture.completedFuture(getCurrencyByCode(code));
+            }
+
+            @Override
+            public Currency getCurrencyByCode(String code) {
+                Currency currency = currencies.get(code);
+                if (currency == null) {
+                    throw NotFoundException.with(code);
+                }
+                return currency;
+            }
+
+            @Override
+            public CompletableFuture<Void> activateAll() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<Void> deleteCurrency(int currencyId) {
+                throw new UnsupportedOperationException();
+            }
+        });
+
+        amountValue = new BigDecimal(amount);
+        switch (path) {
+            case "DIRECT" -> {
+                source = "USD";
+                target = "EUR";
+            }
+            case "BASE" -> {
+                source = "CAD";
+                target = "GBP";
+            }
+            case "INTERMEDIATE_BASE" -> {
+                source = "CHF";
+                target = "CAD";
+            }
+            default -> throw new IllegalArgumentException(path);
+        }
+    }
+
+    @Benchmark
+    public int getScale() {
+        return CurrencyUtils.getScale(amountValue);
+    }
+
+    @Benchmark
+    public BigDecimal convert() {
+        return exchangeRateService.convert(amountValue, source, target);
+    }
+
+    private static Currency currency(String code) {
+        Currency currency = new Currency();
+        currency.setCurrencyCode(code);
+        currency.setCurrencyName(code);
+        currency.setActive(true);
+        return currency;
+    }
+
+    private static CurrencyExchangeRate rate(Map<String, Currency> currencies, String source, String target, String rate) {
+        CurrencyExchangeRate exchangeRate = new CurrencyExchangeRate();
+        exchangeRate.setSourceCurrency(currencies.get(source));
+        exchangeRate.setTargetCurrency(currencies.get(target));
+        exchangeRate.setExchangeRate(new BigDecimal(rate));
+        return exchangeRate;
+    }
+}
@@ -0,0 +1,48 @@
+package com.ntros.service.currency;
+
+import com.ntros.currency.CurrencyExchangeRateRepository;
+import com.ntros.model.currency.Currency;
+import com.ntros.model.currency.CurrencyExchangeRate;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link CurrencyExchangeRateRepository} over a map keyed by "SOURCE/TARGET" currency codes.
+ * Only the lookups the conversion path uses are implemented, anything else throws.
+ */
+final class InMemoryExchangeRateRepository {
+
+    private InMemoryExchangeRateRepository() {
+    }
+
+    static CurrencyExchangeRateRepository of(List<CurrencyExchangeRate> exchangeRates) {
+        Map<String, CurrencyExchangeRate> rates = new HashMap<>();
+        exchangeRates.forEach(rate -> rates.put(key(rate.getSourceCurrency().getCurrencyCode(), rate.getTargetCurrency().getCurrencyCode()), rate));
+
+        return (CurrencyExchangeRateRepository) Proxy.newProxyInstance(
+                CurrencyExchangeRateRepository.class.getClassLoader(),
+                new Class<?>[]{CurrencyExchangeRateRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findExchangeRateBySourceAndTarget" ->
+                            Optional.ofNullable(rates.get(key((Currency) args[0], (Currency) args[1])));
+                    case "findExchangeRateValueBySourceAndTarget" ->
+                            Optional.ofNullable(rates.get(key((Currency) args[0], (Currency) args[1])))
+                                    .map(CurrencyExchangeRate::getExchangeRate);
+                    case "findExchangeRateBySourceCodeAndTargetCode" ->
+                            Optional.ofNullable(rates.get(key((String) args[0], (String) args[1])));
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static String key(Currency source, Currency target) {
+        return key(source.getCurrencyCode(), target.getCurrencyCode());
+    }
+
+    private static String key(String source, String target) {
+        return source + "/" + target;
+    }
+}
@@ -1,36 +1,111 @@
 package com.ntros.config;
 
+import com.ntros.concurrent.BoundedVirtualThreadExecutor;
+import com.ntros.concurrent.WorkloadExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.Map;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ThreadPoolExecutor;
 
+/**
+ * One executor per workload, each sized and queued on its own:
+ * - intakeExecutor: order requests, a full queue answers 429
+ * - matchingExecutor: settlement of fills and cancellations after the engine's writer thread is done with an
+ *   order, intake turns orders away while its queue is full. Should it fill up regardless, settlement runs on
+ *   the writer thread, which stalls that market rather than losing fills
+ * - taskExecutor: blocking service and persistence work, a full queue runs the task on the caller
+ * - readExecutor: read APIs, a full queue answers 429
+ * With "spring.threads.virtual.enabled" the service and read work runs on virtual threads instead, at most as many
+ * tasks at once as the Hikari pool has connections, and Tomcat serves requests on virtual threads too.
+ * Virtual threads need a JDK 21 runtime, on older JDKs the property is ignored and the platform executors are used.
+ * Matching keeps its own platform thread per market either way.
+ * The queue depth of every executor is exported as "workload.queue.size", tagged with the bean name.
+ */
 @Configuration
 @EnableAsync
+@Slf4j
 public class AsyncConfig implements AsyncConfigurer {
 
+    private static final long AWAIT_TERMINATION_MILLIS = 30_000;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int dbPoolSize;
+
+    @Value("${executor.persistence.threads:5}")
+    private int persistenceThreads;
+
+    @Value("${executor.persistence.queue-capacity:1024}")
+    private int persistenceQueueCapacity;
+
+    @Value("${executor.read.threads:4}")
+    private int readThreads;
+
+    @Value("${executor.read.queue-capacity:256}")
+    private int readQueueCapacity;
+
+    @PostConstruct
+    void checkVirtualThreads() {
+        if (virtualThreads && !JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            log.warn("Virtual threads need Java 21, running on {}: using platform thread executors", JavaVersion.getJavaVersion());
+            virtualThreads = false;
+        }
+    }
+
     @Override
     @Bean(name = "taskExecutor") // overriding the default Spring taskExecutor
     public Executor getAsyncExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(1024);
-        executor.setThreadNamePrefix("Async-");
+        if (virtualThreads) {
+            return new BoundedVirtualThreadExecutor("Async-", dbPoolSize, AWAIT_TERMINATION_MILLIS);
+        }
+        return new WorkloadExecutor("Async", persistenceThreads, persistenceQueueCapacity, true);
+    }
 
-        // Graceful shutdown
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(30);
+    @Bean(name = "intakeExecutor")
+    public WorkloadExecutor intakeExecutor(@Value("${executor.intake.threads:4}") int threads,
+                                           @Value("${executor.intake.queue-capacity:256}") int queueCapacity) {
+        return new WorkloadExecutor("intake", threads, queueCapacity, false);
+    }
 
-        // Custom rejection handler
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    @Bean(name = "matchingExecutor")
+    public WorkloadExecutor matchingExecutor(@Value("${executor.matching.threads:4}") int threads,
+                                             @Value("${executor.matching.queue-capacity:1024}") int queueCapacity) {
+        return new WorkloadExecutor("matching", threads, queueCapacity, true);
+    }
 
-        executor.initialize();
-        return executor;
+    @Bean(name = "readExecutor")
+    public Executor readExecutor() {
+        if (virtualThreads) {
+            return new BoundedVirtualThreadExecutor("read-", readThreads, AWAIT_TERMINATION_MILLIS);
+        }
+        return new WorkloadExecutor("read", readThreads, readQueueCapacity, false);
     }
 
-}
\ No newline at end of file
+    @Bean
+    public MeterBinder executorQueueMetrics(Map<String, Executor> executors) {
+        return registry -> executors.forEach((name, executor) -> {
+            if (executor instanceof WorkloadExecutor workload) {
+                Gauge.builder("workload.queue.size", workload, e -> e.getThreadPoolExecutor().getQueue().size())
+                        .description("Tasks waiting for a thread of the executor")
+                        .tag("executor", name)
+                        .register(registry);
+            } else if (executor instanceof BoundedVirtualThreadExecutor virtual) {
+                Gauge.builder("workload.queue.size", virtual, BoundedVirtualThreadExecutor::getQueuedTasks)
+                        .description("Tasks waiting for a thread of the executor")
+                        .tag("executor", name)
+                        .register(registry);
+            }
+        });
+    }
+}
@@ -1,31 +1,149 @@
 package com.ntros.config;
 
-import com.ntros.cache.OrderBook;
-import com.ntros.model.order.Order;
-import com.ntros.order.OrderRepository;
+import com.ntros.cache.OrderBookRegistry;
+import com.ntros.cache.PriceTicks;
+import com.ntros.cache.RestingOrder;
+import com.ntros.engine.MatchingEngine;
+import com.ntros.journal.FillJournalPersister;
+import com.ntros.journal.OrderBookSnapshotter;
+import com.ntros.model.order.Side;
+import com.ntros.order.OpenOrderRow;
+import com.ntros.order.OpenOrderStreamRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Loads the order books in the background once the application has started, so the HTTP listener serves
+ * everything but order placement meanwhile. A market takes orders once its book is loaded, see
+ * {@link OrderBookRegistry#isReady}.
+ * Books are recovered from snapshots if enabled, otherwise every market's open orders are streamed from the
+ * database on "orderbook.warmup.threads" threads and rested by the market's matching thread in chunks.
+ * With the fill journal enabled, loading waits until the fills journaled before the restart are written, so the
+ * books and the ledgers, which load lazily once orders are taken, don't read stale balances.
+ */
 @Component
 @Slf4j
 public class StartupCacheInitializer implements CommandLineRunner {
 
+    private static final int CHUNK_SIZE = 4096;
 
-    private final OrderRepository orderRepository;
+    private final OpenOrderStreamRepository openOrderStreamRepository;
+    private final OrderBookRegistry orderBookRegistry;
+    private final MatchingEngine matchingEngine;
+    private final Optional<OrderBookSnapshotter> snapshotter;
+    private final Optional<FillJournalPersister> fillJournalPersister;
+    private final int warmupThreads;
 
-    public StartupCacheInitializer(OrderRepository orderRepository) {
-        this.orderRepository = orderRepository;
+    public StartupCacheInitializer(OpenOrderStreamRepository openOrderStreamRepository,
+                                   OrderBookRegistry orderBookRegistry, MatchingEngine matchingEngine,
+                                   Optional<OrderBookSnapshotter> snapshotter,
+                                   Optional<FillJournalPersister> fillJournalPersister,
+                                   @Value("${orderbook.warmup.threads:4}") int warmupThreads) {
+        this.openOrderStreamRepository = openOrderStreamRepository;
+        this.orderBookRegistry = orderBookRegistry;
+        this.matchingEngine = matchingEngine;
+        this.snapshotter = snapshotter;
+        this.fillJournalPersister = fillJournalPersister;
+        this.warmupThreads = warmupThreads;
     }
 
     @Override
     public void run(String... args) {
-        List<Order> allOpen = orderRepository.findAllOpen();
-        List<Order> allPartial = orderRepository.findAllPartial();
-        allOpen.addAll(allPartial);
-        allOpen.forEach(order -> OrderBook.forMarket(order.market()).addOrder(order));
-      log.info("Initialized Order Book");
+        Thread warmup = new Thread(this::initialize, "orderbook-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
+
+    private void initialize() {
+        fillJournalPersister.ifPresent(persister -> {
+            log.info("Waiting for the fill journal replay, records to write: {}", persister.getLag());
+            persister.awaitReplay();
+        });
+        Set<String> markets = orderBookRegistry.getMarkets();
+        // snapshots plus the order events after them, if enabled and usable
+        if (snapshotter.map(OrderBookSnapshotter::recover).orElse(false)) {
+            markets.forEach(orderBookRegistry::markReady);
+            log.info("Initialized Order Book from snapshots");
+        } else {
+            loadFromDatabase(markets);
+            // the next startup replays from here instead of reloading
+            snapshotter.ifPresent(OrderBookSnapshotter::snapshotAll);
+        }
+        snapshotter.ifPresent(OrderBookSnapshotter::schedule);
+    }
+
+    private void loadFromDatabase(Set<String> markets) {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(warmupThreads, markets.size())));
+        try {
+            CompletableFuture.allOf(markets.stream()
+                            .map(market -> CompletableFuture.runAsync(() -> loadMarket(market), pool)
+                                    .exceptionally(ex -> {
+                                        // stays closed for orders rather than match against a partial book
+                                        log.error("Could not load order book for market: {}", market, ex);
+                                        return null;
+                                    }))
+                            .toArray(CompletableFuture[]::new))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+        log.info("Initialized Order Book");
+    }
+
+    private void loadMarket(String market) {
+        long start = System.nanoTime();
+        List<CompletableFuture<Integer>> rested = new ArrayList<>();
+        List<RestingOrder> chunk = new ArrayList<>(CHUNK_SIZE);
+        // one ISIN instance per instrument, as for orders copied from entities
+        Map<String, String> isins = new HashMap<>();
+        AtomicInteger count = new AtomicInteger();
+
+        openOrderStreamRepository.streamOpenOrders(market, row -> {
+            chunk.add(toRestingOrder(row, isins));
+            count.incrementAndGet();
+            if (chunk.size() == CHUNK_SIZE) {
+                rested.add(rest(market, List.copyOf(chunk)));
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            rested.add(rest(market, List.copyOf(chunk)));
+        }
+        CompletableFuture.allOf(rested.toArray(CompletableFuture[]::new)).join();
+
+        orderBookRegistry.markReady(market);
+        log.info("Loaded {} open orders for market: {} in {} ms", count.get(), market, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // books are written only by their market's matching thread
+    private CompletableFuture<Integer> rest(String market, List<RestingOrder> orders) {
+        return matchingEngine.onBook(market, book -> {
+            orders.forEach(book::restoreOrder);
+            return orders.size();
+        });
+    }
+
+    private static RestingOrder toRestingOrder(OpenOrderRow row, Map<String, String> isins) {
+        return RestingOrder.of(row.getOrderId(),
+                row.getWalletId(),
+                isins.computeIfAbsent(row.getIsin(), isin -> isin),
+                Side.valueOf(row.getSide()),
+                PriceTicks.ORDER_PRICE.toTicks(row.getPrice(), RoundingMode.HALF_UP),
+                row.getPlacedAt(),
+                row.getRemainingQuantity());
     }
 }
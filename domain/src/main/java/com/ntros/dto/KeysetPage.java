@@ -0,0 +1,27 @@
+package com.ntros.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of rows in id order. The next page is requested with after = nextCursor,
+ * which is null once the last page was returned.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class KeysetPage<T> {
+    private final List<T> items;
+    private final Integer nextCursor;
+
+    /**
+     * A page read with the given limit. Only a full page can have rows after it.
+     */
+    public static <T> KeysetPage<T> of(List<T> items, int limit, Function<T, Integer> id) {
+        return new KeysetPage<>(items, items.size() < limit ? null : id.apply(items.get(items.size() - 1)));
+    }
+}
@@ -1,10 +1,12 @@
 package com.ntros.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 
 @Data
 @RequiredArgsConstructor
+@AllArgsConstructor
 public class PositionDTO {
 
     // portfol
@@ -11,6 +11,7 @@ import java.math.BigDecimal;
 @RequiredArgsConstructor
 public class TransactionDTO {
 
+    private Integer transactionId;
     private String transactionType;
     private String accNum;
     private String accName;
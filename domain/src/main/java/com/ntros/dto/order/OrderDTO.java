@@ -12,6 +12,7 @@ import java.math.BigDecimal;
 @OrderTypeSupported
 public class OrderDTO {
 
+    private Integer orderId;
     private String orderType; // buy or sell
     private String currentStatus;
 
@@ -56,6 +56,12 @@ public class Order { // TODO: Add expiryDate field for TTL in cache
     @Column(name = "remaining_quantity", nullable = false)
     private int remainingQuantity;
 
+    // latest of orderStatuses, queried instead of the status history
+    @Enumerated(EnumType.STRING)
+    @Column(name = "current_status", nullable = false)
+    @Builder.Default
+    private CurrentOrderStatus currentStatus = CurrentOrderStatus.OPEN;
+
     // optimistic lock mechanism
     @Version
     private Long version;
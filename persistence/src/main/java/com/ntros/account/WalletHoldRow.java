@@ -0,0 +1,19 @@
+package com.ntros.account;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * Funds a resting BUY order still holds: its limit price for every unit left to fill.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class WalletHoldRow {
+    private final int orderId;
+    private final BigDecimal price;
+    private final int remainingQuantity;
+}
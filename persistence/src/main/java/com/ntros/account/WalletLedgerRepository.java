@@ -0,0 +1,47 @@
+package com.ntros.account;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads what the wallet ledger needs to take over a wallet: its stored balance and the funds its resting
+ * BUY orders hold. Both are read with plain JDBC, without loading the entity graph.
+ */
+@Repository
+public class WalletLedgerRepository {
+
+    private static final String SELECT_BALANCE = """
+            SELECT balance FROM wallet WHERE wallet_id = ?""";
+    // MARKET orders never rest, their unfilled quantity holds nothing
+    private static final String SELECT_HOLDS = """
+            SELECT o.order_id, o.price, o.remaining_quantity
+            FROM `order` o
+            JOIN order_type ot ON ot.order_type_id = o.order_type_id
+            WHERE o.wallet_id = ? AND o.side = 'BUY' AND o.current_status IN ('OPEN', 'PARTIALLY_FILLED')
+                AND o.remaining_quantity > 0 AND ot.order_type_name <> 'MARKET'""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public WalletLedgerRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<BigDecimal> findBalance(int walletId) {
+        return jdbcTemplate.query(SELECT_BALANCE, rs -> rs.next() ? Optional.of(rs.getBigDecimal(1)) : Optional.empty(), walletId);
+    }
+
+    /**
+     * Open and partially filled BUY orders of the wallet that rest in a book.
+     */
+    public List<WalletHoldRow> findHolds(int walletId) {
+        return jdbcTemplate.query(SELECT_HOLDS, (rs, rowNum) -> new WalletHoldRow(rs.getInt("order_id"),
+                rs.getBigDecimal("price"),
+                rs.getInt("remaining_quantity")), walletId);
+    }
+}
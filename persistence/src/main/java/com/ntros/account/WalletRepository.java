@@ -8,7 +8,6 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -56,9 +55,4 @@ public interface WalletRepository extends JpaRepository<Wallet, Integer> {
             JOIN account a ON w.account_id = a.account_id
             WHERE c.currency_code = ?1 AND a.account_number = ?2""", nativeQuery = true)
     int deleteByCurrencyCodeAccountNumber(String currencyCode, String accountNumber);
-
-    @Modifying
-    @Transactional
-    @Query(value = "UPDATE Wallet w SET balance = :balance WHERE w = :wallet")
-    void updateBalance(Wallet wallet, @Param("balance") BigDecimal balance);
 }
@@ -0,0 +1,18 @@
+package com.ntros.fill;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A fill journal record the database rejected, parked to be retried.
+ */
+@Getter
+@ToString(exclude = "payload")
+@RequiredArgsConstructor
+public class DeadLetterRow {
+    private final long sequence;
+    // the record as it was journaled
+    private final byte[] payload;
+    private final int attempts;
+}
@@ -0,0 +1,227 @@
+package com.ntros.fill;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes the rows of a match cycle with one JDBC batch per statement.
+ * No statement needs a generated key back: orders are updated by id, order_status and transaction rows only
+ * reference existing orders, and positions are addressed by their (portfolio_id, product_id) unique key.
+ * AUTO_INCREMENT ids are left to MySQL, which assigns them to a whole multi-row insert when the batch is
+ * rewritten by the driver (rewriteBatchedStatements=true on the datasource URL).
+ * Every statement commutes with the others of its kind, so batches can be applied in any order.
+ */
+@Repository
+public class FillBatchRepository {
+
+    // fills only ever grow filled_quantity and shrink remaining_quantity, so the furthest state wins
+    private static final String UPDATE_ORDER = """
+            UPDATE `order` SET filled_quantity = GREATEST(filled_quantity, ?),
+                remaining_quantity = LEAST(remaining_quantity, ?), version = version + 1
+            WHERE order_id = ?""";
+    // statuses only move forward and FILLED and CANCELLED are final, any other transition is a no-op
+    private static final String UPDATE_CURRENT_STATUS = """
+            UPDATE `order` SET current_status = ?
+            WHERE order_id = ? AND current_status NOT IN ('FILLED', 'CANCELLED') AND FIELD(current_status, 'OPEN', 'PARTIALLY_FILLED', 'FILLED', 'CANCELLED')
+                <= FIELD(?, 'OPEN', 'PARTIALLY_FILLED', 'FILLED', 'CANCELLED')""";
+    // history rows only for the transitions UPDATE_CURRENT_STATUS applies, so it has to run before it
+    private static final String INSERT_ORDER_STATUS = """
+            INSERT INTO order_status (order_id, current_status, updated_date)
+            SELECT order_id, ?, ? FROM `order`
+            WHERE order_id = ? AND current_status NOT IN ('FILLED', 'CANCELLED') AND FIELD(current_status, 'OPEN', 'PARTIALLY_FILLED', 'FILLED', 'CANCELLED')
+                <= FIELD(?, 'OPEN', 'PARTIALLY_FILLED', 'FILLED', 'CANCELLED')""";
+    private static final String INSERT_TRANSACTION = """
+            INSERT INTO `transaction` (transaction_type_id, wallet_id, portfolio_id, market_product_id, order_id,
+                quantity, price, currency, transaction_date)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+    private static final String DEDUCT_POSITION = """
+            UPDATE `position` SET quantity = quantity - ?, version = version + 1
+            WHERE portfolio_id = ? AND product_id = ? AND quantity >= ?""";
+    private static final String ADD_POSITION = """
+            INSERT INTO `position` (portfolio_id, product_id, quantity, version) VALUES (?, ?, ?, 0)
+            ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), version = version + 1""";
+    // wallets per UPDATE_WALLETS statement
+    private static final int WALLET_CHUNK_SIZE = 500;
+    private static final String SELECT_CHECKPOINT = """
+            SELECT last_sequence FROM fill_journal_checkpoint WHERE journal_name = ?""";
+    private static final String UPSERT_CHECKPOINT = """
+            INSERT INTO fill_journal_checkpoint (journal_name, last_sequence) VALUES (?, ?)
+            ON DUPLICATE KEY UPDATE last_sequence = GREATEST(last_sequence, VALUES(last_sequence))""";
+    private static final String INSERT_DEAD_LETTER = """
+            INSERT INTO fill_dead_letter (journal_name, sequence, payload, error, attempts) VALUES (?, ?, ?, ?, 1)""";
+    private static final String SELECT_DEAD_LETTERS = """
+            SELECT sequence, payload, attempts FROM fill_dead_letter WHERE journal_name = ? ORDER BY sequence""";
+    private static final String UPDATE_DEAD_LETTER = """
+            UPDATE fill_dead_letter SET error = ?, attempts = attempts + 1 WHERE journal_name = ? AND sequence = ?""";
+    private static final String DELETE_DEAD_LETTER = """
+            DELETE FROM fill_dead_letter WHERE journal_name = ? AND sequence = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public FillBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void updateOrders(List<OrderFillRow> orders) {
+        jdbcTemplate.batchUpdate(UPDATE_ORDER, orders.stream()
+                .map(order -> new Object[]{
+                        order.getFilledQuantity(),
+                        order.getRemainingQuantity(),
+                        order.getOrderId()})
+                .toList());
+    }
+
+    /**
+     * Keeps order.current_status in step with the status history.
+     */
+    public void updateCurrentStatuses(List<OrderStatusRow> orderStatuses) {
+        jdbcTemplate.batchUpdate(UPDATE_CURRENT_STATUS, orderStatuses.stream()
+                .map(status -> new Object[]{
+                        status.getCurrentStatus(),
+                        status.getOrderId(),
+                        status.getCurrentStatus()})
+                .toList());
+    }
+
+    /**
+     * Appends to the status history, skipping the transitions {@link #updateCurrentStatuses} would reject.
+     * Must run before it, while current_status still holds the status the transition starts from.
+     */
+    public void insertOrderStatuses(List<OrderStatusRow> orderStatuses) {
+        jdbcTemplate.batchUpdate(INSERT_ORDER_STATUS, orderStatuses.stream()
+                .map(status -> new Object[]{
+                        status.getCurrentStatus(),
+                        status.getUpdatedDate(),
+                        status.getOrderId(),
+                        status.getCurrentStatus()})
+                .toList());
+    }
+
+    public void insertTransactions(List<TransactionRow> transactions) {
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions.stream()
+                .map(tx -> new Object[]{
+                        tx.getTransactionTypeId(),
+                        tx.getWalletId(),
+                        tx.getPortfolioId(),
+                        tx.getMarketProductId(),
+                        tx.getOrderId(),
+                        tx.getQuantity(),
+                        tx.getPrice(),
+                        tx.getCurrency(),
+                        tx.getTransactionDate()})
+                .toList());
+    }
+
+    /**
+     * Takes quantity off existing positions, only where enough is held.
+     *
+     * @param deductions - deltas with a positive quantity to deduct
+     * @return update count per delta, 0 if the position is missing or holds less than the quantity
+     */
+    public int[] deductPositions(List<PositionDelta> deductions) {
+        return jdbcTemplate.batchUpdate(DEDUCT_POSITION, deductions.stream()
+                .map(delta -> new Object[]{
+                        delta.getQuantity(),
+                        delta.getPortfolioId(),
+                        delta.getProductId(),
+                        delta.getQuantity()})
+                .toList());
+    }
+
+    /**
+     * Adds quantity to positions, creating the ones that don't exist yet.
+     */
+    public void addPositions(List<PositionDelta> additions) {
+        jdbcTemplate.batchUpdate(ADD_POSITION, additions.stream()
+                .map(delta -> new Object[]{
+                        delta.getPortfolioId(),
+                        delta.getProductId(),
+                        delta.getQuantity()})
+                .toList());
+    }
+
+    /**
+     * Applies balance changes relative to the stored balance, so concurrent cycles on a wallet don't overwrite each other.
+     * Up to WALLET_CHUNK_SIZE wallets go in one statement, and rows are locked in wallet id order so two cycles
+     * touching the same wallets can't deadlock.
+     *
+     * @param wallets - at most one delta per wallet
+     */
+    public void updateWallets(List<WalletDelta> wallets) {
+        List<WalletDelta> sorted = wallets.stream()
+                .sorted(Comparator.comparingInt(WalletDelta::getWalletId))
+                .toList();
+        for (int from = 0; from < sorted.size(); from += WALLET_CHUNK_SIZE) {
+            List<WalletDelta> chunk = sorted.subList(from, Math.min(from + WALLET_CHUNK_SIZE, sorted.size()));
+            jdbcTemplate.update(updateWalletsSql(chunk.size()), updateWalletsArgs(chunk));
+        }
+    }
+
+    // UPDATE wallet SET balance = balance + CASE wallet_id WHEN ? THEN ? ... END ... WHERE wallet_id IN (?, ...)
+    private static String updateWalletsSql(int size) {
+        return "UPDATE wallet SET balance = balance + CASE wallet_id"
+                + " WHEN ? THEN ?".repeat(size)
+                + " END, version = version + 1 WHERE wallet_id IN ("
+                + String.join(", ", Collections.nCopies(size, "?"))
+                + ")";
+    }
+
+    private static Object[] updateWalletsArgs(List<WalletDelta> chunk) {
+        List<Object> args = new ArrayList<>(chunk.size() * 3);
+        for (WalletDelta delta : chunk) {
+            args.add(delta.getWalletId());
+            args.add(delta.getAmount());
+        }
+        for (WalletDelta delta : chunk) {
+            args.add(delta.getWalletId());
+        }
+        return args.toArray();
+    }
+
+    /**
+     * Sequence of the last journal record applied to the database, 0 if none was.
+     */
+    public long findCheckpoint(String journalName) {
+        return jdbcTemplate.query(SELECT_CHECKPOINT, rs -> rs.next() ? rs.getLong(1) : 0L, journalName);
+    }
+
+    /**
+     * Moves the checkpoint forward, meant to run in the transaction that wrote the records up to lastSequence.
+     */
+    public void saveCheckpoint(String journalName, long lastSequence) {
+        jdbcTemplate.update(UPSERT_CHECKPOINT, journalName, lastSequence);
+    }
+
+    public void insertDeadLetter(String journalName, long sequence, byte[] payload, String error) {
+        jdbcTemplate.update(INSERT_DEAD_LETTER, journalName, sequence, payload, abbreviate(error));
+    }
+
+    public List<DeadLetterRow> findDeadLetters(String journalName) {
+        return jdbcTemplate.query(SELECT_DEAD_LETTERS,
+                (rs, rowNum) -> new DeadLetterRow(rs.getLong(1), rs.getBytes(2), rs.getInt(3)),
+                journalName);
+    }
+
+    /**
+     * Records another failed attempt at a parked record.
+     */
+    public void updateDeadLetter(String journalName, long sequence, String error) {
+        jdbcTemplate.update(UPDATE_DEAD_LETTER, abbreviate(error), journalName, sequence);
+    }
+
+    public void deleteDeadLetter(String journalName, long sequence) {
+        jdbcTemplate.update(DELETE_DEAD_LETTER, journalName, sequence);
+    }
+
+    // fits fill_dead_letter.error
+    private static String abbreviate(String error) {
+        return error == null || error.length() <= 512 ? error : error.substring(0, 512);
+    }
+}
@@ -0,0 +1,17 @@
+package com.ntros.fill;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Quantities of an order after a match cycle.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class OrderFillRow {
+    private final int orderId;
+    private final int filledQuantity;
+    private final int remainingQuantity;
+}
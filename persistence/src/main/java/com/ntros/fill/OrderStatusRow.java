@@ -0,0 +1,16 @@
+package com.ntros.fill;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class OrderStatusRow {
+    private final int orderId;
+    private final String currentStatus;
+    private final OffsetDateTime updatedDate;
+}
@@ -0,0 +1,17 @@
+package com.ntros.fill;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Net quantity change of one position, keyed like the position table: (portfolio_id, product_id).
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class PositionDelta {
+    private final int portfolioId;
+    private final int productId;
+    private final int quantity;
+}
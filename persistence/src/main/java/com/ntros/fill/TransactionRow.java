@@ -0,0 +1,26 @@
+package com.ntros.fill;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Transaction table row, referencing its type, wallet, portfolio, market product and order by id.
+ */
+@Getter
+@Builder
+@ToString
+public class TransactionRow {
+    private final int transactionTypeId;
+    private final int walletId;
+    private final int portfolioId;
+    private final int marketProductId;
+    private final int orderId;
+    private final int quantity;
+    private final BigDecimal price;
+    private final String currency;
+    private final OffsetDateTime transactionDate;
+}
@@ -0,0 +1,18 @@
+package com.ntros.fill;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * Net balance change of one wallet, negative for debits.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class WalletDelta {
+    private final int walletId;
+    private final BigDecimal amount;
+}
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -20,6 +21,24 @@ public interface MarketProductRepository extends JpaRepository<MarketProduct, In
             "WHERE p.isin = :isin AND m.marketCode = :code")
     Optional<MarketProduct> findByProductIsinMarketCode(@Param("isin") String isin, @Param("code") String code);
 
+    @Query(value = "SELECT mp FROM MarketProduct mp " +
+            "JOIN FETCH mp.product p " +
+            "JOIN mp.market m " +
+            "WHERE m.marketCode = :code")
+    List<MarketProduct> findAllByMarketCode(@Param("code") String code);
+
+    /**
+     * Every market product with its product and market, in one statement.
+     */
+    @Query(value = "SELECT mp FROM MarketProduct mp " +
+            "JOIN FETCH mp.product p " +
+            "JOIN FETCH p.productType " +
+            "JOIN FETCH p.sector " +
+            "JOIN FETCH p.region " +
+            "JOIN FETCH mp.market m " +
+            "JOIN FETCH m.currency")
+    List<MarketProduct> findAllWithProductAndMarket();
+
     @Query("SELECT mp.currentPrice From MarketProduct mp " +
             "JOIN mp.market m " +
             "JOIN mp.product p " +
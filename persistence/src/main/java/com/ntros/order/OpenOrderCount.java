@@ -0,0 +1,18 @@
+package com.ntros.order;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Number of open orders of a market and the highest order id among them, enough to tell whether an order
+ * book rebuilt without the database holds what the database does.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class OpenOrderCount {
+    private final int count;
+    // 0 without open orders
+    private final int maxOrderId;
+}
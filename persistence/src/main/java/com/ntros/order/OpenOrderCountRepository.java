@@ -0,0 +1,35 @@
+package com.ntros.order;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Counts the open orders of a market that its order book rests, the same rows
+ * {@link OpenOrderStreamRepository} streams, without reading them.
+ */
+@Repository
+public class OpenOrderCountRepository {
+
+    private static final String COUNT_OPEN_ORDERS = """
+            SELECT COUNT(*) AS order_count, COALESCE(MAX(o.order_id), 0) AS max_order_id
+            FROM `order` o
+            JOIN market_product mp ON mp.market_product_id = o.market_product_id
+            JOIN market m ON m.market_id = mp.market_id
+            JOIN order_type ot ON ot.order_type_id = o.order_type_id
+            WHERE m.market_code = ? AND o.current_status IN ('OPEN', 'PARTIALLY_FILLED')
+                AND o.remaining_quantity > 0 AND ot.order_type_name <> 'MARKET'""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OpenOrderCountRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public OpenOrderCount countOpenOrders(String marketCode) {
+        return jdbcTemplate.queryForObject(COUNT_OPEN_ORDERS,
+                (rs, rowNum) -> new OpenOrderCount(rs.getInt("order_count"), rs.getInt("max_order_id")),
+                marketCode);
+    }
+}
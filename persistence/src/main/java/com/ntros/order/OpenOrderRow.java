@@ -0,0 +1,25 @@
+package com.ntros.order;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * Matching fields of an open or partially filled order, read without loading the entity graph.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class OpenOrderRow {
+    private final int orderId;
+    private final int walletId;
+    private final int marketProductId;
+    private final String isin;
+    private final String side;
+    private final BigDecimal price;
+    // epoch millis
+    private final long placedAt;
+    private final int remainingQuantity;
+}
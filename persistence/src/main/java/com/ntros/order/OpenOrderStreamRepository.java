@@ -0,0 +1,56 @@
+package com.ntros.order;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+/**
+ * Streams the open orders of a market for rebuilding its order book, one row at a time.
+ * The query runs with a fetch size of Integer.MIN_VALUE, which makes MySQL Connector/J stream the result
+ * instead of buffering it, so memory stays flat however many orders rest. The connection is held until
+ * the last row is handled.
+ */
+@Repository
+public class OpenOrderStreamRepository {
+
+    // grouped by market_product_id, oldest first within an instrument so books get their time priority back
+    private static final String SELECT_OPEN_ORDERS = """
+            SELECT o.order_id, o.wallet_id, o.market_product_id, p.isin, o.side, o.price, o.placed_at,
+                o.remaining_quantity
+            FROM `order` o
+            JOIN market_product mp ON mp.market_product_id = o.market_product_id
+            JOIN market m ON m.market_id = mp.market_id
+            JOIN product p ON p.product_id = mp.product_id
+            JOIN order_type ot ON ot.order_type_id = o.order_type_id
+            WHERE m.market_code = ? AND o.current_status IN ('OPEN', 'PARTIALLY_FILLED')
+                AND o.remaining_quantity > 0 AND ot.order_type_name <> 'MARKET'
+            ORDER BY o.market_product_id, o.placed_at, o.order_id""";
+
+    private final JdbcTemplate streamingTemplate;
+
+    @Autowired
+    public OpenOrderStreamRepository(JdbcTemplate jdbcTemplate) {
+        streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    /**
+     * Hands every open order of the market to the consumer on the calling thread, in book order.
+     */
+    public void streamOpenOrders(String marketCode, Consumer<OpenOrderRow> consumer) {
+        streamingTemplate.query(SELECT_OPEN_ORDERS, rs -> {
+            Timestamp placedAt = rs.getTimestamp("placed_at");
+            consumer.accept(new OpenOrderRow(rs.getInt("order_id"),
+                    rs.getInt("wallet_id"),
+                    rs.getInt("market_product_id"),
+                    rs.getString("isin"),
+                    rs.getString("side"),
+                    rs.getBigDecimal("price"),
+                    placedAt == null ? 0L : placedAt.getTime(),
+                    rs.getInt("remaining_quantity")));
+        }, marketCode);
+    }
+}
@@ -0,0 +1,87 @@
+package com.ntros.order;
+
+import com.ntros.dto.order.OrderDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read side of the order API: rows are selected straight into OrderDTOs in order_id order, optionally filtered
+ * by current status, without loading the entity graph.
+ * Pages are keyset-based (order_id > after), so every page is an index range scan however deep it is.
+ * Streams run with a fetch size of Integer.MIN_VALUE, which makes MySQL Connector/J hand over one row at a time.
+ */
+@Repository
+public class OrderReadRepository {
+
+    private static final String SELECT_ORDERS = """
+            SELECT o.order_id, ot.order_type_name, o.current_status, a.account_number, c.currency_code, p.isin,
+                m.market_code, o.price, o.quantity, o.filled_quantity, o.remaining_quantity, o.side
+            FROM `order` o
+            JOIN order_type ot ON ot.order_type_id = o.order_type_id
+            JOIN wallet w ON w.wallet_id = o.wallet_id
+            JOIN account a ON a.account_id = w.account_id
+            JOIN currency c ON c.currency_id = w.currency_id
+            JOIN market_product mp ON mp.market_product_id = o.market_product_id
+            JOIN product p ON p.product_id = mp.product_id
+            JOIN market m ON m.market_id = mp.market_id
+            WHERE o.order_id > ?""";
+    // idx_order_current_status holds (current_status, order_id), so a status filter stays a range scan
+    private static final String BY_STATUS = " AND o.current_status = ?";
+    private static final String ORDER_BY = " ORDER BY o.order_id";
+
+    private static final RowMapper<OrderDTO> ORDER_DTO = (rs, rowNum) -> {
+        OrderDTO dto = new OrderDTO();
+        dto.setOrderId(rs.getInt("order_id"));
+        dto.setOrderType(rs.getString("order_type_name"));
+        dto.setCurrentStatus(rs.getString("current_status"));
+        dto.setAccountNumber(rs.getString("account_number"));
+        dto.setCurrencyCode(rs.getString("currency_code"));
+        dto.setProductIsin(rs.getString("isin"));
+        dto.setMarketCode(rs.getString("market_code"));
+        dto.setPrice(rs.getBigDecimal("price"));
+        dto.setQuantity(rs.getInt("quantity"));
+        dto.setFilledQuantity(rs.getInt("filled_quantity"));
+        dto.setRemainingQuantity(rs.getInt("remaining_quantity"));
+        dto.setTransactionType(rs.getString("side"));
+        return dto;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingTemplate;
+
+    @Autowired
+    public OrderReadRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    /**
+     * @param status - current status to filter on, null for all orders
+     */
+    public List<OrderDTO> findPage(String status, int afterOrderId, int limit) {
+        return status == null
+                ? jdbcTemplate.query(SELECT_ORDERS + ORDER_BY + " LIMIT ?", ORDER_DTO, afterOrderId, limit)
+                : jdbcTemplate.query(SELECT_ORDERS + BY_STATUS + ORDER_BY + " LIMIT ?", ORDER_DTO, afterOrderId, status, limit);
+    }
+
+    /**
+     * Hands every order after the given id to the consumer on the calling thread.
+     *
+     * @param status - current status to filter on, null for all orders
+     */
+    public void stream(String status, int afterOrderId, Consumer<OrderDTO> consumer) {
+        RowCallbackHandler handler = rs -> consumer.accept(ORDER_DTO.mapRow(rs, 0));
+        if (status == null) {
+            streamingTemplate.query(SELECT_ORDERS + ORDER_BY, handler, afterOrderId);
+        } else {
+            streamingTemplate.query(SELECT_ORDERS + BY_STATUS + ORDER_BY, handler, afterOrderId, status);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.ntros.position;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Units a resting SELL order still holds.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class PositionHoldRow {
+    private final int orderId;
+    private final int remainingQuantity;
+}
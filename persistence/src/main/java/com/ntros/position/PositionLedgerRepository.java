@@ -0,0 +1,53 @@
+package com.ntros.position;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Reads what the position ledger needs to take over an (account, product) position: its stored quantity and
+ * the units its resting SELL orders hold. Both are read with plain JDBC, without loading the entity graph.
+ */
+@Repository
+public class PositionLedgerRepository {
+
+    private static final String SELECT_QUANTITY = """
+            SELECT pos.quantity
+            FROM `position` pos
+            JOIN portfolio pf ON pf.portfolio_id = pos.portfolio_id
+            WHERE pf.account_id = ? AND pos.product_id = ?""";
+    // SELL orders of every wallet of the account, MARKET orders never rest
+    private static final String SELECT_HOLDS = """
+            SELECT o.order_id, o.remaining_quantity
+            FROM `order` o
+            JOIN wallet w ON w.wallet_id = o.wallet_id
+            JOIN market_product mp ON mp.market_product_id = o.market_product_id
+            JOIN order_type ot ON ot.order_type_id = o.order_type_id
+            WHERE w.account_id = ? AND mp.product_id = ? AND o.side = 'SELL'
+                AND o.current_status IN ('OPEN', 'PARTIALLY_FILLED') AND o.remaining_quantity > 0
+                AND ot.order_type_name <> 'MARKET'""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public PositionLedgerRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return quantity held by the account's portfolio, 0 if it has no position in the product
+     */
+    public int findQuantity(int accountId, int productId) {
+        return jdbcTemplate.query(SELECT_QUANTITY, rs -> rs.next() ? rs.getInt(1) : 0, accountId, productId);
+    }
+
+    /**
+     * Open and partially filled SELL orders of the account in the product that rest in a book.
+     */
+    public List<PositionHoldRow> findHolds(int accountId, int productId) {
+        return jdbcTemplate.query(SELECT_HOLDS, (rs, rowNum) -> new PositionHoldRow(rs.getInt("order_id"),
+                rs.getInt("remaining_quantity")), accountId, productId);
+    }
+}
@@ -1,16 +1,34 @@
 package com.ntros.position;
 
+import com.ntros.dto.PositionDTO;
 import com.ntros.model.Position;
 import com.ntros.model.account.Account;
 import com.ntros.model.product.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface PositionRepository extends JpaRepository<Position, Integer> {
 
+    /**
+     * All positions with their portfolio, account and product columns, read in one query without loading
+     * the entities behind them.
+     * Constructor argument order follows the PositionDTO fields.
+     */
+    @Query("SELECT new com.ntros.dto.PositionDTO(pos.quantity, pf.portfolioName, a.accountName, a.accountNumber, " +
+            "pr.productName, pr.isin) " +
+            "FROM Position pos " +
+            "JOIN pos.portfolio pf " +
+            "JOIN pf.account a " +
+            "JOIN pos.product pr " +
+            "ORDER BY pos.positionId")
+    List<PositionDTO> findAllPositionDTOs();
+
     @Query("SELECT pos FROM Position pos " +
             "JOIN pos.portfolio pf " +
             "JOIN pos.product pr " +
@@ -48,5 +66,28 @@ public interface PositionRepository extends JpaRepository<Position, Integer> {
             "WHERE pf.account.accountNumber = :accountNumber AND pr.isin = :isin")
     Optional<Integer> findQuantityByAccountNumberProductIsin(@Param("accountNumber") String accountNumber, @Param("isin") String isin);
 
+    /**
+     * Adds quantity to the account's position in the product, creating it if it doesn't exist yet.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO `position` (portfolio_id, product_id, quantity, version)
+            SELECT pf.portfolio_id, :productId, :quantity, 0 FROM portfolio pf WHERE pf.account_id = :accountId
+            ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), version = version + 1""", nativeQuery = true)
+    int addQuantity(@Param("accountId") int accountId, @Param("productId") int productId, @Param("quantity") int quantity);
+
+    /**
+     * Takes quantity off the account's position in the product, only if it holds enough.
+     *
+     * @return 1 if the position was changed, 0 if it is missing or holds less than the quantity
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE `position` pos JOIN portfolio pf ON pf.portfolio_id = pos.portfolio_id
+            SET pos.quantity = pos.quantity - :quantity, pos.version = pos.version + 1
+            WHERE pf.account_id = :accountId AND pos.product_id = :productId AND pos.quantity >= :quantity""", nativeQuery = true)
+    int deductQuantity(@Param("accountId") int accountId, @Param("productId") int productId, @Param("quantity") int quantity);
 
 }
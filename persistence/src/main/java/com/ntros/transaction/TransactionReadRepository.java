@@ -0,0 +1,76 @@
+package com.ntros.transaction;
+
+import com.ntros.dto.TransactionDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.lang.String.format;
+
+/**
+ * Read side of the transaction API: rows are selected straight into TransactionDTOs in transaction_id order,
+ * without loading the entity graph. Pages are keyset-based (transaction_id > after), streams run with a fetch
+ * size of Integer.MIN_VALUE so MySQL Connector/J hands over one row at a time.
+ */
+@Repository
+public class TransactionReadRepository {
+
+    private static final String SELECT_TRANSACTIONS = """
+            SELECT t.transaction_id, tt.transaction_type_name, a.account_number, a.account_name, p.product_name,
+                p.isin, m.market_code, t.price, t.quantity, t.currency, t.transaction_date
+            FROM `transaction` t
+            JOIN transaction_type tt ON tt.transaction_type_id = t.transaction_type_id
+            JOIN wallet w ON w.wallet_id = t.wallet_id
+            JOIN account a ON a.account_id = w.account_id
+            JOIN market_product mp ON mp.market_product_id = t.market_product_id
+            JOIN product p ON p.product_id = mp.product_id
+            JOIN market m ON m.market_id = mp.market_id""";
+    private static final String AFTER_ID = " WHERE t.transaction_id > ?";
+    private static final String ORDER_BY = " ORDER BY t.transaction_id";
+
+    private static final RowMapper<TransactionDTO> TRANSACTION_DTO = (rs, rowNum) -> {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setTransactionId(rs.getInt("transaction_id"));
+        dto.setTransactionType(rs.getString("transaction_type_name"));
+        dto.setAccNum(rs.getString("account_number"));
+        dto.setAccName(rs.getString("account_name"));
+        dto.setProdName(rs.getString("product_name"));
+        dto.setProdIsin(rs.getString("isin"));
+        dto.setMarketCode(rs.getString("market_code"));
+        dto.setPrice(rs.getBigDecimal("price"));
+        dto.setQuantity(rs.getInt("quantity"));
+        dto.setCurrency(rs.getString("currency"));
+        OffsetDateTime date = rs.getObject("transaction_date", OffsetDateTime.class);
+        dto.setDate(date == null ? null : date.toString());
+        dto.setTxGenName(format("%s_%s_%s_%s", dto.getAccNum(), dto.getAccName(), dto.getMarketCode(), dto.getProdName()));
+        return dto;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingTemplate;
+
+    @Autowired
+    public TransactionReadRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    public List<TransactionDTO> findPage(int afterTransactionId, int limit) {
+        return jdbcTemplate.query(SELECT_TRANSACTIONS + AFTER_ID + ORDER_BY + " LIMIT ?", TRANSACTION_DTO, afterTransactionId, limit);
+    }
+
+    /**
+     * Hands every transaction after the given id to the consumer on the calling thread.
+     */
+    public void stream(int afterTransactionId, Consumer<TransactionDTO> consumer) {
+        RowCallbackHandler handler = rs -> consumer.accept(TRANSACTION_DTO.mapRow(rs, 0));
+        streamingTemplate.query(SELECT_TRANSACTIONS + AFTER_ID + ORDER_BY, handler, afterTransactionId);
+    }
+}
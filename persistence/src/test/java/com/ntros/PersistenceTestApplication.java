@@ -0,0 +1,10 @@
+package com.ntros;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Boot configuration for the repository slice tests, the application class lives in bootstrap.
+ */
+@SpringBootApplication
+public class PersistenceTestApplication {
+}
@@ -0,0 +1,157 @@
+package com.ntros;
+
+import com.ntros.model.User;
+import com.ntros.model.account.Account;
+import com.ntros.model.account.RiskTolerance;
+import com.ntros.model.currency.Currency;
+import com.ntros.model.market.Market;
+import com.ntros.model.order.CurrentOrderStatus;
+import com.ntros.model.order.Order;
+import com.ntros.model.order.OrderType;
+import com.ntros.model.order.Side;
+import com.ntros.model.portfolio.Portfolio;
+import com.ntros.model.portfolio.RiskLevel;
+import com.ntros.model.product.MarketProduct;
+import com.ntros.model.product.Product;
+import com.ntros.model.product.ProductType;
+import com.ntros.model.product.Region;
+import com.ntros.model.product.Sector;
+import com.ntros.model.transaction.Transaction;
+import com.ntros.model.transaction.TransactionType;
+import com.ntros.model.wallet.Wallet;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Persists the rows an order or a transaction references: one USD currency, one NYSE listing,
+ * a LIMIT order type and a BUY transaction type, plus an account, portfolio and wallet per trader.
+ */
+public class TradeFixture {
+
+    private final TestEntityManager entityManager;
+    private final Currency currency;
+    private final MarketProduct marketProduct;
+    private final OrderType orderType;
+    private final TransactionType transactionType;
+
+    public TradeFixture(TestEntityManager entityManager) {
+        this.entityManager = entityManager;
+
+        currency = new Currency();
+        currency.setCurrencyCode("USD");
+        currency.setCurrencyName("US Dollar");
+        entityManager.persist(currency);
+
+        Market market = new Market();
+        market.setCurrency(currency);
+        market.setMarketName("New York Stock Exchange");
+        market.setMarketCode("NYSE");
+        entityManager.persist(market);
+
+        ProductType productType = new ProductType();
+        productType.setProductTypeName("EQUITY");
+        Sector sector = new Sector();
+        sector.setSectorName("Technology");
+        Region region = new Region();
+        region.setRegionName("North America");
+        entityManager.persist(productType);
+        entityManager.persist(sector);
+        entityManager.persist(region);
+
+        Product product = new Product();
+        product.setProductType(productType);
+        product.setSector(sector);
+        product.setRegion(region);
+        product.setProductName("Apple");
+        product.setIsin("US0378331005");
+        entityManager.persist(product);
+
+        marketProduct = new MarketProduct();
+        marketProduct.setMarket(market);
+        marketProduct.setProduct(product);
+        marketProduct.setSymbol("AAPL");
+        entityManager.persist(marketProduct);
+
+        orderType = new OrderType();
+        orderType.setOrderTypeName("LIMIT");
+        entityManager.persist(orderType);
+
+        transactionType = new TransactionType();
+        transactionType.setTransactionTypeName("BUY");
+        entityManager.persist(transactionType);
+    }
+
+    /**
+     * A trader with an account "Account i" numbered i, a portfolio and a USD wallet.
+     */
+    public Portfolio portfolio(int i) {
+        User user = new User();
+        user.setFirstName("First" + i);
+        user.setLastName("Last" + i);
+        user.setUsername("user" + i);
+        user.setPasswordHash("hash");
+        user.setEmail("user" + i + "@example.com");
+        entityManager.persist(user);
+
+        Account account = new Account();
+        account.setAccountName("Account " + i);
+        account.setAccountNumber(String.format("%012d", i));
+        account.setTotalBalance(BigDecimal.ZERO);
+        account.setRiskTolerance(RiskTolerance.MODERATE);
+        account.setUser(user);
+        account.setCreatedDate(OffsetDateTime.now());
+        entityManager.persist(account);
+
+        Portfolio portfolio = new Portfolio();
+        portfolio.setAccount(account);
+        portfolio.setPortfolioName("Portfolio " + i);
+        portfolio.setRiskLevel(RiskLevel.MODERATE);
+        portfolio.setUsingMargin(false);
+        entityManager.persist(portfolio);
+        return portfolio;
+    }
+
+    public Wallet wallet(Portfolio portfolio) {
+        Wallet wallet = new Wallet();
+        wallet.setAccount(portfolio.getAccount());
+        wallet.setCurrency(currency);
+        wallet.setBalance(new BigDecimal("1000.00"));
+        entityManager.persist(wallet);
+        return wallet;
+    }
+
+    public Order order(Wallet wallet, CurrentOrderStatus status) {
+        Order order = Order.builder()
+                .orderType(orderType)
+                .wallet(wallet)
+                .marketProduct(marketProduct)
+                .side(Side.BUY)
+                .price(new BigDecimal("100.00"))
+                .quantity(10)
+                .filledQuantity(status == CurrentOrderStatus.FILLED ? 10 : 0)
+                .remainingQuantity(status == CurrentOrderStatus.FILLED ? 0 : 10)
+                .placedAt(OffsetDateTime.now())
+                .currentStatus(status)
+                .build();
+        entityManager.persist(order);
+        return order;
+    }
+
+    public Transaction transaction(Order order, Portfolio portfolio) {
+        Transaction transaction = Transaction.builder()
+                .transactionType(transactionType)
+                .wallet(order.getWallet())
+                .portfolio(portfolio)
+                .marketProduct(marketProduct)
+                .order(order)
+                .quantity(order.getFilledQuantity())
+                .price(order.getPrice())
+                .currency(currency.getCurrencyCode())
+                .transactionDate(OffsetDateTime.now())
+                .build();
+        entityManager.persist(transaction);
+        return transaction;
+    }
+}
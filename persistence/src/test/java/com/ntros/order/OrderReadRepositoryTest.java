@@ -0,0 +1,74 @@
+package com.ntros.order;
+
+import com.ntros.StatementCountingDataSource;
+import com.ntros.TradeFixture;
+import com.ntros.dto.order.OrderDTO;
+import com.ntros.model.order.CurrentOrderStatus;
+import com.ntros.model.portfolio.Portfolio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// MySQL syntax for the backtick-quoted `order` table, lower case identifiers so quoted and unquoted names match
+@DataJpaTest(properties = "spring.datasource.url=jdbc:hsqldb:mem:orders;sql.syntax_mys=true;sql.lowercase_ident=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderReadRepositoryTest {
+
+    private static final int ORDERS = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private StatementCountingDataSource statements;
+    private OrderReadRepository orderReadRepository;
+
+    @BeforeEach
+    void setUp() {
+        TradeFixture fixture = new TradeFixture(entityManager);
+        // a trader each, so a per-row lookup of account or wallet would show up as extra statements
+        for (int i = 0; i < ORDERS; i++) {
+            Portfolio portfolio = fixture.portfolio(i);
+            fixture.order(fixture.wallet(portfolio), i % 2 == 0 ? CurrentOrderStatus.OPEN : CurrentOrderStatus.FILLED);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statements = new StatementCountingDataSource(dataSource);
+        orderReadRepository = new OrderReadRepository(new JdbcTemplate(statements));
+    }
+
+    @Test
+    void findPage_readsEveryOrderInOneStatement() {
+        List<OrderDTO> orders = orderReadRepository.findPage(null, 0, 100);
+
+        assertEquals(ORDERS, orders.size());
+        OrderDTO first = orders.get(0);
+        assertEquals("LIMIT", first.getOrderType());
+        assertEquals("000000000000", first.getAccountNumber());
+        assertEquals("USD", first.getCurrencyCode());
+        assertEquals("US0378331005", first.getProductIsin());
+        assertEquals("NYSE", first.getMarketCode());
+        assertEquals(1, statements.getStatementCount(), "Orders should be read with a single query.");
+    }
+
+    @Test
+    void findPage_byStatus_readsInOneStatement() {
+        List<OrderDTO> orders = orderReadRepository.findPage(CurrentOrderStatus.OPEN.name(), 0, 100);
+
+        assertEquals(3, orders.size());
+        orders.forEach(order -> assertEquals("OPEN", order.getCurrentStatus()));
+        assertEquals(1, statements.getStatementCount(), "Orders should be read with a single query.");
+    }
+}
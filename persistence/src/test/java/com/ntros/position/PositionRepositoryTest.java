@@ -0,0 +1,117 @@
+package com.ntros.position;
+
+import com.ntros.dto.PositionDTO;
+import com.ntros.model.Position;
+import com.ntros.model.User;
+import com.ntros.model.account.Account;
+import com.ntros.model.account.RiskTolerance;
+import com.ntros.model.portfolio.Portfolio;
+import com.ntros.model.portfolio.RiskLevel;
+import com.ntros.model.product.Product;
+import com.ntros.model.product.ProductType;
+import com.ntros.model.product.Region;
+import com.ntros.model.product.Sector;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PositionRepositoryTest {
+
+    private static final int POSITIONS = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PositionRepository positionRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        ProductType productType = new ProductType();
+        productType.setProductTypeName("EQUITY");
+        Sector sector = new Sector();
+        sector.setSectorName("Technology");
+        Region region = new Region();
+        region.setRegionName("North America");
+        entityManager.persist(productType);
+        entityManager.persist(sector);
+        entityManager.persist(region);
+
+        for (int i = 0; i < POSITIONS; i++) {
+            Portfolio portfolio = createPortfolio(i);
+            Product product = new Product();
+            product.setProductType(productType);
+            product.setSector(sector);
+            product.setRegion(region);
+            product.setProductName("Product " + i);
+            product.setIsin(String.format("US%010d", i));
+            entityManager.persist(product);
+
+            Position position = new Position();
+            position.setPortfolio(portfolio);
+            position.setProduct(product);
+            position.setQuantity(10 * (i + 1));
+            entityManager.persist(position);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllPositionDTOs_readsEveryPositionInOneStatement() {
+        List<PositionDTO> positions = positionRepository.findAllPositionDTOs();
+
+        assertEquals(POSITIONS, positions.size());
+        assertEquals("Portfolio 0", positions.get(0).getPortName());
+        assertEquals("Account 0", positions.get(0).getAccName());
+        assertEquals("US0000000000", positions.get(0).getProdIsin());
+        assertEquals(10, positions.get(0).getQuantity());
+        assertEquals(1, statistics.getPrepareStatementCount(), "Positions should be read with a single query.");
+        assertEquals(0, statistics.getEntityLoadCount(), "No entities should be loaded for the projection.");
+    }
+
+    private Portfolio createPortfolio(int i) {
+        User user = new User();
+        user.setFirstName("First" + i);
+        user.setLastName("Last" + i);
+        user.setUsername("user" + i);
+        user.setPasswordHash("hash");
+        user.setEmail("user" + i + "@example.com");
+        entityManager.persist(user);
+
+        Account account = new Account();
+        account.setAccountName("Account " + i);
+        account.setAccountNumber(String.format("%012d", i));
+        account.setTotalBalance(BigDecimal.ZERO);
+        account.setRiskTolerance(RiskTolerance.MODERATE);
+        account.setUser(user);
+        account.setCreatedDate(OffsetDateTime.now());
+        entityManager.persist(account);
+
+        Portfolio portfolio = new Portfolio();
+        portfolio.setAccount(account);
+        portfolio.setPortfolioName("Portfolio " + i);
+        portfolio.setRiskLevel(RiskLevel.MODERATE);
+        portfolio.setUsingMargin(false);
+        entityManager.persist(portfolio);
+        return portfolio;
+    }
+}
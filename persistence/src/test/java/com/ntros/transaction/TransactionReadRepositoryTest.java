@@ -0,0 +1,66 @@
+package com.ntros.transaction;
+
+import com.ntros.StatementCountingDataSource;
+import com.ntros.TradeFixture;
+import com.ntros.dto.TransactionDTO;
+import com.ntros.model.order.CurrentOrderStatus;
+import com.ntros.model.portfolio.Portfolio;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// MySQL syntax for the backtick-quoted `transaction` table, lower case identifiers so quoted and unquoted names match
+@DataJpaTest(properties = "spring.datasource.url=jdbc:hsqldb:mem:transactions;sql.syntax_mys=true;sql.lowercase_ident=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TransactionReadRepositoryTest {
+
+    private static final int TRANSACTIONS = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private StatementCountingDataSource statements;
+    private TransactionReadRepository transactionReadRepository;
+
+    @BeforeEach
+    void setUp() {
+        TradeFixture fixture = new TradeFixture(entityManager);
+        // a trader each, so a per-row lookup of account, wallet or product would show up as extra statements
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            Portfolio portfolio = fixture.portfolio(i);
+            fixture.transaction(fixture.order(fixture.wallet(portfolio), CurrentOrderStatus.FILLED), portfolio);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statements = new StatementCountingDataSource(dataSource);
+        transactionReadRepository = new TransactionReadRepository(new JdbcTemplate(statements));
+    }
+
+    @Test
+    void findPage_readsEveryTransactionInOneStatement() {
+        List<TransactionDTO> transactions = transactionReadRepository.findPage(0, 100);
+
+        assertEquals(TRANSACTIONS, transactions.size());
+        TransactionDTO first = transactions.get(0);
+        assertEquals("BUY", first.getTransactionType());
+        assertEquals("000000000000", first.getAccNum());
+        assertEquals("Account 0", first.getAccName());
+        assertEquals("US0378331005", first.getProdIsin());
+        assertEquals("NYSE", first.getMarketCode());
+        assertEquals(10, first.getQuantity());
+        assertEquals(1, statements.getStatementCount(), "Transactions should be read with a single query.");
+    }
+}
@@ -1,24 +1,35 @@
 package com.ntros.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.ntros.handler.RestExceptionHandlerRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 @RestController
 @Slf4j
 public abstract class AbstractApiController {
 
     @Autowired
-    @Qualifier("taskExecutor")
+    @Qualifier("readExecutor")
     protected Executor executor;
 
+    @Autowired
+    protected ObjectMapper objectMapper;
+
     protected <T> ResponseEntity<?> handleResponseAsync(T obj, Throwable ex) {
         if (ex == null) {
             return ResponseEntity.ok(obj);
@@ -36,5 +47,25 @@ public abstract class AbstractApiController {
         return ResponseEntity.status(failureHttpStatus).body(Map.of("error", ex.getMessage()));
     }
 
+    /**
+     * Writes rows as newline-delimited JSON while the source reads them, nothing is collected in memory.
+     *
+     * @param source - reads the rows and hands each one to the given consumer
+     */
+    protected <T> ResponseEntity<StreamingResponseBody> streamNdjson(Consumer<Consumer<T>> source) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        StreamingResponseBody body = out -> source.accept(row -> {
+            try {
+                out.write(writer.writeValueAsBytes(row));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
 
 }
@@ -32,8 +32,8 @@ public class AccountController extends AbstractApiController {
             @Pattern(regexp = "\\d+", message = "ACCOUNT_NUMBER must be a number.")
             String accountNumber) {
         return accountService.getAccountByAccountNumber(accountNumber)
-                .thenApplyAsync(accountConverter::toDTO)
-                .handleAsync(this::handleResponseAsync);
+                .thenApplyAsync(accountConverter::toDTO, executor)
+                .handleAsync(this::handleResponseAsync, executor);
     }
 
     @GetMapping("/all")
@@ -42,8 +42,8 @@ public class AccountController extends AbstractApiController {
                 .thenApplyAsync(accounts ->
                         accounts.stream()
                                 .map(accountConverter::toDTO)
-                                .collect(Collectors.toList()))
-                .handleAsync(this::handleResponseAsync);
+                                .collect(Collectors.toList()), executor)
+                .handleAsync(this::handleResponseAsync, executor);
     }
 
 }
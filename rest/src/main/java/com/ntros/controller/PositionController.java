@@ -1,6 +1,5 @@
 package com.ntros.controller;
 
-import com.ntros.converter.PositionConverter;
 import com.ntros.service.position.PositionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -9,7 +8,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
 
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 
@@ -18,21 +16,16 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 public class PositionController extends AbstractApiController {
 
     private final PositionService positionService;
-    private final PositionConverter positionConverter;
 
     @Autowired
-    public PositionController(PositionService positionService, PositionConverter positionConverter) {
+    public PositionController(PositionService positionService) {
         this.positionService = positionService;
-        this.positionConverter = positionConverter;
     }
 
     @GetMapping("/all")
     public CompletableFuture<ResponseEntity<?>> getAllPositions() {
         return positionService.getAllPositionsAsync()
-                .thenApplyAsync(positions -> positions.stream()
-                        .map(positionConverter::toDTO)
-                        .collect(Collectors.toList()))
-                .handleAsync(this::handleResponseAsync);
+                .handleAsync(this::handleResponseAsync, executor);
     }
 
 }
@@ -1,37 +1,43 @@
 package com.ntros.controller;
 
-import com.ntros.converter.TransactionConverter;
+import com.ntros.dto.TransactionDTO;
 import com.ntros.service.transaction.TransactionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
 
+/**
+ * Transactions in transaction_id order, as keyset pages or, with "Accept: application/x-ndjson", streamed
+ * one per line.
+ */
 @RestController
 @RequestMapping("api/tx")
 public class TransactionController extends AbstractApiController {
 
     private final TransactionService transactionService;
-    private final TransactionConverter transactionConverter;
 
     @Autowired
-    public TransactionController(TransactionService transactionService, TransactionConverter transactionConverter) {
+    public TransactionController(TransactionService transactionService) {
         this.transactionService = transactionService;
-        this.transactionConverter = transactionConverter;
     }
 
-    @GetMapping("/all")
-    CompletableFuture<ResponseEntity<?>> getAllTransactions() {
-        return transactionService.getAllTransactionsAsync()
-                .thenApplyAsync(transactions ->
-                        transactions.stream()
-                                .map(transactionConverter::toDTO)
-                                .collect(Collectors.toList()))
-                .handleAsync(this::handleResponseAsync);
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
+    CompletableFuture<ResponseEntity<?>> getAllTransactions(@RequestParam(defaultValue = "0") int after,
+                                                            @RequestParam(defaultValue = "100") int limit) {
+        return transactionService.getTransactionsPage(after, limit)
+                .handleAsync(this::handleResponseAsync, executor);
+    }
+
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> streamAllTransactions(@RequestParam(defaultValue = "0") int after) {
+        return this.<TransactionDTO>streamNdjson(consumer -> transactionService.streamTransactions(after, consumer));
     }
 
 }
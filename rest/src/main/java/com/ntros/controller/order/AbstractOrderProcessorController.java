@@ -21,15 +21,19 @@ public abstract class AbstractOrderProcessorController<T extends OrderRequest, R
     protected final OrderProcessor<T, R> orderProcessor;
 
     @Autowired
-    public AbstractOrderProcessorController(@Qualifier("taskExecutor") Executor executor, OrderProcessor<T, R> orderProcessor) {
+    public AbstractOrderProcessorController(@Qualifier("intakeExecutor") Executor executor, OrderProcessor<T, R> orderProcessor) {
         this.executor = executor;
         this.orderProcessor = orderProcessor;
     }
 
+    /**
+     * Runs on the intake executor. A full intake queue, or a full matching queue once the request is picked up,
+     * answers 429.
+     */
     @Override
     public CompletableFuture<ResponseEntity<?>> process(T orderRequest) {
         return supplyAsync(() -> orderProcessor.processOrder(orderRequest), executor)
-                .handleAsync((this::handleResponseAsync), executor);
+                .handle(this::handleResponseAsync);
     }
 
 
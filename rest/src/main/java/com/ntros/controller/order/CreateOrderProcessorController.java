@@ -3,6 +3,7 @@ package com.ntros.controller.order;
 import com.ntros.dto.order.request.CreateOrderRequest;
 import com.ntros.dto.order.response.CreateOrderResponse;
 import com.ntros.processor.order.OrderProcessor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -15,7 +16,7 @@ import java.util.concurrent.Executor;
 public class CreateOrderProcessorController extends AbstractOrderProcessorController<CreateOrderRequest, CreateOrderResponse> {
 
 
-    public CreateOrderProcessorController(Executor executor, OrderProcessor<CreateOrderRequest, CreateOrderResponse> orderProcessor) {
+    public CreateOrderProcessorController(@Qualifier("intakeExecutor") Executor executor, OrderProcessor<CreateOrderRequest, CreateOrderResponse> orderProcessor) {
         super(executor, orderProcessor);
     }
 
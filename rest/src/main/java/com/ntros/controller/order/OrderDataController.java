@@ -1,72 +1,90 @@
 package com.ntros.controller.order;
 
 import com.ntros.controller.AbstractApiController;
-import com.ntros.converter.order.OrderDataConverter;
+import com.ntros.dto.order.OrderDTO;
+import com.ntros.model.order.CurrentOrderStatus;
 import com.ntros.service.order.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
 
+/**
+ * Orders in order_id order. JSON responses are keyset pages: pass the returned nextCursor as "after" to get
+ * the next one. With "Accept: application/x-ndjson" every order after "after" is streamed, one per line.
+ */
 @RestController
 @RequestMapping("api/orders")
 public class OrderDataController extends AbstractApiController {
 
     private final OrderService orderService;
-    private final OrderDataConverter orderDataConverter;
 
     @Autowired
-    public OrderDataController(OrderService orderService, OrderDataConverter orderDataConverter) {
+    public OrderDataController(OrderService orderService) {
         this.orderService = orderService;
-        this.orderDataConverter = orderDataConverter;
-
     }
 
-    @GetMapping("/all")
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
-    public CompletableFuture<ResponseEntity<?>> getAllOrders() {
-        return orderService.getAllOrders()
-                .thenApplyAsync(orders -> orders.stream()
-                        .map(orderDataConverter::toDTO)
-                        .collect(Collectors.toList()), executor)
-                .handleAsync(this::handleResponseAsync, executor);
+    public CompletableFuture<ResponseEntity<?>> getAllOrders(@RequestParam(defaultValue = "0") int after,
+                                                             @RequestParam(defaultValue = "100") int limit) {
+        return getOrdersPage(null, after, limit);
+    }
+
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllOrders(@RequestParam(defaultValue = "0") int after) {
+        return streamOrders(null, after);
     }
 
-    @GetMapping("/open")
+    @GetMapping(value = "/open", produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
-    public CompletableFuture<ResponseEntity<?>> getAllOpenOrders() {
-        return orderService.getAllOpenOrders()
-                .thenApplyAsync(orders -> orders.stream()
-                        .map(orderDataConverter::toDTO)
-                        .collect(Collectors.toList()), executor)
-                .handleAsync(this::handleResponseAsync, executor);
+    public CompletableFuture<ResponseEntity<?>> getAllOpenOrders(@RequestParam(defaultValue = "0") int after,
+                                                                 @RequestParam(defaultValue = "100") int limit) {
+        return getOrdersPage(CurrentOrderStatus.OPEN, after, limit);
+    }
 
+    @GetMapping(value = "/open", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOpenOrders(@RequestParam(defaultValue = "0") int after) {
+        return streamOrders(CurrentOrderStatus.OPEN, after);
     }
 
-    @GetMapping("/filled")
+    @GetMapping(value = "/filled", produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
-    public CompletableFuture<ResponseEntity<?>> getAllFilledOrders() {
-        return orderService.getAllFilledOrders()
-                .thenApplyAsync(orders -> orders.stream()
-                        .map(orderDataConverter::toDTO)
-                        .collect(Collectors.toList()), executor)
-                .handleAsync(this::handleResponseAsync, executor);
+    public CompletableFuture<ResponseEntity<?>> getAllFilledOrders(@RequestParam(defaultValue = "0") int after,
+                                                                   @RequestParam(defaultValue = "100") int limit) {
+        return getOrdersPage(CurrentOrderStatus.FILLED, after, limit);
+    }
 
+    @GetMapping(value = "/filled", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFilledOrders(@RequestParam(defaultValue = "0") int after) {
+        return streamOrders(CurrentOrderStatus.FILLED, after);
     }
 
-    @GetMapping("/partial")
+    @GetMapping(value = "/partial", produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
-    public CompletableFuture<ResponseEntity<?>> getAllPartialOrders() {
-        return orderService.getAllPartialOrders()
-                .thenApplyAsync(orders -> orders.stream()
-                        .map(orderDataConverter::toDTO)
-                        .collect(Collectors.toList()), executor)
+    public CompletableFuture<ResponseEntity<?>> getAllPartialOrders(@RequestParam(defaultValue = "0") int after,
+                                                                    @RequestParam(defaultValue = "100") int limit) {
+        return getOrdersPage(CurrentOrderStatus.PARTIALLY_FILLED, after, limit);
+    }
+
+    @GetMapping(value = "/partial", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPartialOrders(@RequestParam(defaultValue = "0") int after) {
+        return streamOrders(CurrentOrderStatus.PARTIALLY_FILLED, after);
+    }
+
+    private CompletableFuture<ResponseEntity<?>> getOrdersPage(CurrentOrderStatus status, int after, int limit) {
+        return orderService.getOrdersPage(status, after, limit)
                 .handleAsync(this::handleResponseAsync, executor);
+    }
 
+    private ResponseEntity<StreamingResponseBody> streamOrders(CurrentOrderStatus status, int after) {
+        return this.<OrderDTO>streamNdjson(consumer -> orderService.streamOrders(status, after, consumer));
     }
 }
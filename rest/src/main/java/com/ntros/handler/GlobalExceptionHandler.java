@@ -1,5 +1,6 @@
 package com.ntros.handler;
 
+import com.ntros.exception.ServiceBusyException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.MessageSourceResolvable;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
@@ -46,4 +47,13 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
+    /**
+     * A workload executor turned the request away before the controller got a future back.
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<?> handleServiceBusyException(ServiceBusyException ex) {
+        log.warn(ex.getMessage());
+        return RestExceptionHandlerRegistry.handleException(ex);
+    }
+
 }
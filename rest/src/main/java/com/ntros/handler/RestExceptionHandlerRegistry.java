@@ -17,6 +17,8 @@ final public class RestExceptionHandlerRegistry {
         HANDLERS = Set.of(
                 GenericExceptionHandler.of(NotFoundException.class, HttpStatus.NOT_FOUND, Throwable::getMessage),
                 GenericExceptionHandler.of(InvalidArgumentException.class, HttpStatus.BAD_REQUEST, Throwable::getMessage),
+                GenericExceptionHandler.of(MarketNotReadyException.class, HttpStatus.SERVICE_UNAVAILABLE, Throwable::getMessage),
+                GenericExceptionHandler.of(ServiceBusyException.class, HttpStatus.TOO_MANY_REQUESTS, Throwable::getMessage),
                 GenericExceptionHandler.of(DataConstraintFailureException.class, HttpStatus.INTERNAL_SERVER_ERROR, Throwable::getMessage),
                 GenericExceptionHandler.of(DataAccessViolationException.class, HttpStatus.INTERNAL_SERVER_ERROR, Throwable::getMessage),
                 GenericExceptionHandler.of(OrderProcessingException.class, HttpStatus.INTERNAL_SERVER_ERROR, Throwable::getMessage),
@@ -0,0 +1,44 @@
+package com.ntros.cache;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregated resting interest at one price, as published in a {@link DepthSnapshot}.
+ */
+public final class DepthLevel {
+
+    private final long priceTicks;
+    private final long quantity;
+    private final int orderCount;
+
+    DepthLevel(long priceTicks, long quantity, int orderCount) {
+        this.priceTicks = priceTicks;
+        this.quantity = quantity;
+        this.orderCount = orderCount;
+    }
+
+    static DepthLevel of(PriceLevel level) {
+        return new DepthLevel(level.peek().getPriceTicks(), level.quantity(), level.size());
+    }
+
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
+    public BigDecimal getPrice() {
+        return PriceTicks.ORDER_PRICE.toPrice(priceTicks);
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s x %d (%d orders)", getPrice(), quantity, orderCount);
+    }
+}
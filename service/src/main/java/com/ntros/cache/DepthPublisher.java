@@ -0,0 +1,47 @@
+package com.ntros.cache;
+
+import com.ntros.model.order.Side;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Holds the latest {@link DepthSnapshot} per ISIN. Writers publish while holding the lock that guards the
+ * ISIN's price levels, readers only do a map lookup and get whatever snapshot was published last.
+ */
+final class DepthPublisher {
+
+    // price levels per side in a snapshot
+    private final int depth;
+    private final Map<String, DepthSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    DepthPublisher(int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Depth levels must be positive: " + depth);
+        }
+        this.depth = depth;
+    }
+
+    DepthSnapshot get(String isin) {
+        DepthSnapshot snapshot = snapshots.get(isin);
+        return snapshot != null ? snapshot : DepthSnapshot.empty(isin);
+    }
+
+    /**
+     * Publishes the side's best levels after a change at the given price, unless the change is below the published depth.
+     *
+     * @param topLevels - best levels of the side up to the given depth, best price first, read under the caller's lock
+     */
+    void publish(String isin, Side side, long priceTicks, IntFunction<List<DepthLevel>> topLevels) {
+        DepthSnapshot current = get(isin);
+        if (current.isAffectedBy(side, priceTicks, depth)) {
+            snapshots.put(isin, current.withSide(side, topLevels.apply(depth)));
+        }
+    }
+
+    void clear() {
+        snapshots.clear();
+    }
+}
@@ -0,0 +1,91 @@
+package com.ntros.cache;
+
+import com.ntros.model.order.Side;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.ntros.model.order.Side.BUY;
+
+/**
+ * Immutable view of the best price levels on both sides of one instrument, as many as its {@link DepthPublisher} keeps.
+ * Books publish a new snapshot after each mutation that changes those levels, so readers such as
+ * market data and risk checks never take a book lock and never see a half-applied change.
+ * The version grows by one with every snapshot published for the ISIN.
+ */
+public final class DepthSnapshot {
+
+    // the default of "orderbook.depth.levels"
+    public static final int DEFAULT_LEVELS = 10;
+
+    private final String isin;
+    private final long version;
+    // best price first
+    private final List<DepthLevel> bids;
+    private final List<DepthLevel> asks;
+
+    private DepthSnapshot(String isin, long version, List<DepthLevel> bids, List<DepthLevel> asks) {
+        this.isin = isin;
+        this.version = version;
+        this.bids = bids;
+        this.asks = asks;
+    }
+
+    static DepthSnapshot empty(String isin) {
+        return new DepthSnapshot(isin, 0, List.of(), List.of());
+    }
+
+    /**
+     * Next version with one side replaced, the other side is shared.
+     */
+    DepthSnapshot withSide(Side side, List<DepthLevel> levels) {
+        return (side == BUY)
+                ? new DepthSnapshot(isin, version + 1, List.copyOf(levels), asks)
+                : new DepthSnapshot(isin, version + 1, bids, List.copyOf(levels));
+    }
+
+    /**
+     * A change at a price worse than a full side's last level cannot move the published levels.
+     */
+    boolean isAffectedBy(Side side, long priceTicks, int depth) {
+        List<DepthLevel> levels = getSide(side);
+        if (levels.size() < depth) {
+            return true;
+        }
+        long lastTicks = levels.get(levels.size() - 1).getPriceTicks();
+        return (side == BUY) ? priceTicks >= lastTicks : priceTicks <= lastTicks;
+    }
+
+    public String getIsin() {
+        return isin;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<DepthLevel> getBids() {
+        return bids;
+    }
+
+    public List<DepthLevel> getAsks() {
+        return asks;
+    }
+
+    public List<DepthLevel> getSide(Side side) {
+        return (side == BUY) ? bids : asks;
+    }
+
+    public Optional<DepthLevel> getBestBid() {
+        return bids.isEmpty() ? Optional.empty() : Optional.of(bids.get(0));
+    }
+
+    public Optional<DepthLevel> getBestAsk() {
+        return asks.isEmpty() ? Optional.empty() : Optional.of(asks.get(0));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DepthSnapshot{isin=%s, version=%d, bids=%s, asks=%s}", isin, version, bids, asks);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ntros.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One lock per ISIN, shared by both sides of the instrument, so operations on different instruments never contend.
+ * Locks are created on first use and kept for the life of the book: the set of listed ISINs is small and stable.
+ */
+final class InstrumentLocks {
+
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    ReentrantLock of(String isin) {
+        ReentrantLock lock = locks.get(isin);
+        return lock != null ? lock : locks.computeIfAbsent(isin, k -> new ReentrantLock());
+    }
+}
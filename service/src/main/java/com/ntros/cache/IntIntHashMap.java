@@ -0,0 +1,123 @@
+package com.ntros.cache;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing int -> int map with linear probing and backward shift deletion.
+ * Two primitive arrays and no per-entry objects, so large maps add nothing for the GC to trace.
+ * Key 0 marks an empty bucket and cannot be stored.
+ * Not thread-safe, callers guard it with the owning book's lock.
+ */
+final class IntIntHashMap {
+
+    private static final int EMPTY = 0;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    IntIntHashMap(int expectedSize) {
+        allocate(Math.max(16, Integer.highestOneBit(Math.max(expectedSize, 1) * 2 - 1) << 1));
+    }
+
+    int get(int key, int missingValue) {
+        for (int i = indexOf(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            if (keys[i] == EMPTY) {
+                return missingValue;
+            }
+        }
+    }
+
+    boolean containsKey(int key) {
+        for (int i = indexOf(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return true;
+            }
+            if (keys[i] == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    void put(int key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key 0 is reserved for empty buckets.");
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+        for (int i = indexOf(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return;
+            }
+        }
+    }
+
+    int remove(int key, int missingValue) {
+        int i = indexOf(key);
+        while (keys[i] != key) {
+            if (keys[i] == EMPTY) {
+                return missingValue;
+            }
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+
+        // shift back followers whose probe sequence runs through the gap
+        int gap = i;
+        for (int j = (gap + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = indexOf(keys[j]);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private int indexOf(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,95 @@
+package com.ntros.cache;
+
+import com.ntros.model.product.MarketProduct;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decides which instruments get an array-backed {@link PriceLadder} window around their mid price, and how wide.
+ * Only liquid products pay for the window: those trading at least minAvgDailyVolume a day, unless the product's
+ * ISIN has an override, which sets its width whatever its volume; a width of 0 keeps it sorted only.
+ */
+public final class LadderPolicy {
+
+    public static final LadderPolicy DISABLED = new LadderPolicy(0, Double.MAX_VALUE, Map.of());
+    // the defaults of the "orderbook.ladder.*" properties
+    public static final LadderPolicy DEFAULT = of(4096, 10_000);
+
+    private final int width;
+    private final double minAvgDailyVolume;
+    // ISIN -> width
+    private final Map<String, Integer> overrides;
+
+    private LadderPolicy(int width, double minAvgDailyVolume, Map<String, Integer> overrides) {
+        this.width = width;
+        this.minAvgDailyVolume = minAvgDailyVolume;
+        this.overrides = overrides;
+    }
+
+    /**
+     * @param width             - price levels held in the array window, centered on the mid
+     * @param minAvgDailyVolume - liquidity threshold for a product to get a window
+     */
+    public static LadderPolicy of(int width, double minAvgDailyVolume) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("Ladder width must be positive: " + width);
+        }
+        return new LadderPolicy(width, minAvgDailyVolume, Map.of());
+    }
+
+    /**
+     * Builds the policy from the "orderbook.ladder.*" properties.
+     *
+     * @param overrides - per-ISIN widths as ISIN=width pairs separated by commas, blank for none
+     */
+    public static LadderPolicy of(int width, double minAvgDailyVolume, String overrides) {
+        return of(width, minAvgDailyVolume).withOverrides(parseOverrides(overrides));
+    }
+
+    /**
+     * @param overrides - ISIN -> window width, 0 for no window
+     */
+    public LadderPolicy withOverrides(Map<String, Integer> overrides) {
+        overrides.forEach((isin, overrideWidth) -> {
+            if (overrideWidth < 0) {
+                throw new IllegalArgumentException(String.format("Ladder width of ISIN %s must not be negative: %s", isin, overrideWidth));
+            }
+        });
+        return new LadderPolicy(width, minAvgDailyVolume, Map.copyOf(overrides));
+    }
+
+    public boolean appliesTo(MarketProduct marketProduct) {
+        return widthFor(marketProduct) > 0;
+    }
+
+    /**
+     * @return width of the product's window, 0 if it gets none
+     */
+    public int widthFor(MarketProduct marketProduct) {
+        Integer override = overrides.get(marketProduct.getProduct().getIsin());
+        if (override != null) {
+            return override;
+        }
+        return width > 0 && marketProduct.getAvgDailyVolume() >= minAvgDailyVolume ? width : 0;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    private static Map<String, Integer> parseOverrides(String property) {
+        Map<String, Integer> overrides = new HashMap<>();
+        for (String entry : property.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] isinAndWidth = entry.split("=");
+            if (isinAndWidth.length != 2) {
+                throw new IllegalArgumentException("Ladder override must be ISIN=width: " + entry);
+            }
+            overrides.put(isinAndWidth[0].trim(), Integer.parseInt(isinAndWidth[1].trim()));
+        }
+        return overrides;
+    }
+}
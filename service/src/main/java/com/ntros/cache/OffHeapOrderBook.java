@@ -0,0 +1,428 @@
+package com.ntros.cache;
+
+import com.ntros.model.order.Order;
+import com.ntros.model.order.Side;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static com.ntros.cache.LockingUtil.runSafe;
+import static com.ntros.cache.OffHeapSlots.NIL;
+import static com.ntros.cache.OrderCacheValidator.validateOrder;
+import static com.ntros.model.order.Side.BUY;
+
+/**
+ * In-Memory Cache for OPEN, PARTIALLY_FILLED orders with the resting orders stored off-heap. One instance per Market.
+ * Same contract as {@link TickOrderBook}. Order slots and price-level queues live in direct {@link OffHeapSlots}
+ * arenas with free-list reuse, and FIFO links are slot indexes. The heap only keeps primitive order id indexes
+ * and one sorted price index per ISIN and side, so GC work does not grow with book depth.
+ * Every ISIN has its own arenas, guarded by its lock from {@link InstrumentLocks} like the other books, so
+ * instruments never contend. The market-wide order id index only maps an id to its ISIN, under a lock held
+ * for the lookup alone, and is always taken after an ISIN's lock.
+ * Reads return {@link RestingOrder} copies of the slots.
+ */
+@Slf4j
+public class OffHeapOrderBook implements OrderCache {
+
+    private static final String MARKET_ORDER = "MARKET";
+    private static final String LIMIT_ORDER = "LIMIT";
+    private static final Side[] SIDES = Side.values();
+    private static final int NO_INSTRUMENT = -1;
+    // the default of "orderbook.offheap.chunk-slots"
+    static final int DEFAULT_SLOTS_PER_CHUNK = 1 << 12;
+
+    // order slot layout
+    private static final int ORDER_ID = 0;
+    private static final int WALLET_ID = 4;
+    private static final int REMAINING_QUANTITY = 8;
+    private static final int PREV = 12;
+    private static final int NEXT = 16;
+    private static final int LEVEL = 20;
+    private static final int SIDE = 24;
+    private static final int PRICE_TICKS = 32;
+    private static final int PLACED_AT = 40;
+    private static final int ORDER_SLOT_BYTES = 48;
+
+    // price level slot layout
+    private static final int HEAD = 0;
+    private static final int TAIL = 4;
+    private static final int SIZE = 8;
+    private static final int QUANTITY = 16;
+    private static final int LEVEL_SLOT_BYTES = 24;
+
+    private final String market;
+    private final PriceTicks priceTicks = PriceTicks.ORDER_PRICE;
+    // per instrument, its arenas only take memory once it rests an order
+    private final int slotsPerChunk;
+
+    // ISIN -> arenas and price indexes of the instrument, kept for the life of the book
+    private final Map<String, Instrument> instruments;
+    // instrument id -> instrument
+    private final List<Instrument> instrumentsById;
+
+    // order id -> instrument id, guarded by indexLock
+    private final IntIntHashMap instrumentsByOrderId;
+    private final ReentrantLock indexLock;
+
+    // cache locks, an ISIN's arenas and ladders on both sides are only touched under its lock
+    private final InstrumentLocks instrumentLocks;
+    // read path, never locked
+    private final DepthPublisher depthPublisher;
+
+    /**
+     * @param slotsPerChunk - order slots each instrument takes memory for at a time
+     */
+    public OffHeapOrderBook(String market, int slotsPerChunk) {
+        this(market, slotsPerChunk, DepthSnapshot.DEFAULT_LEVELS);
+    }
+
+    /**
+     * @param slotsPerChunk - order slots each instrument takes memory for at a time
+     * @param depthLevels   - price levels per side in the published {@link DepthSnapshot}s
+     */
+    public OffHeapOrderBook(String market, int slotsPerChunk, int depthLevels) {
+        this.market = market;
+        this.slotsPerChunk = slotsPerChunk;
+
+        instruments = new ConcurrentHashMap<>();
+        instrumentsById = new CopyOnWriteArrayList<>();
+        instrumentsByOrderId = new IntIntHashMap(slotsPerChunk);
+        indexLock = new ReentrantLock();
+        instrumentLocks = new InstrumentLocks();
+        depthPublisher = new DepthPublisher(depthLevels);
+    }
+
+    @Override
+    public void addOrder(Order order) {
+        validateOrder(order, market);
+        RestingOrder restingOrder = RestingOrder.of(order);
+
+        if (!rest(restingOrder)) {
+            log.info("Order with ID: {} already exists.", order.getOrderId());
+            return;
+        }
+        log.debug("Added Order: {} to OrderBook.\nOrder count={} for market={}", restingOrder, size(), market);
+    }
+
+    @Override
+    public void restoreOrder(RestingOrder order) {
+        rest(order);
+    }
+
+    @Override
+    public void forEachOrder(Consumer<RestingOrder> action) {
+        instrumentsById.forEach(instrument -> runSafe(() -> {
+            for (Side side : SIDES) {
+                instrument.ladder(side).forEachInRange(Long.MIN_VALUE, Long.MAX_VALUE, false, level -> {
+                    for (int slot = instrument.levelSlots.getInt(level, HEAD); slot != NIL; slot = instrument.orderSlots.getInt(slot, NEXT)) {
+                        action.accept(instrument.read(slot));
+                    }
+                });
+            }
+        }, instrumentLocks.of(instrument.isin)));
+    }
+
+    @Override
+    public Optional<RestingOrder> removeOrder(Integer id) {
+        Instrument instrument = instrumentOf(id);
+        RestingOrder order = instrument == null ? null : runSafe(() -> {
+            int slot = instrument.slotsByOrderId.remove(id, NIL);
+            if (slot == NIL) {
+                return null;
+            }
+            unindex(id);
+            RestingOrder removed = instrument.read(slot);
+            instrument.unlinkAndFree(slot);
+            publishDepth(instrument, removed);
+            return removed;
+        }, instrumentLocks.of(instrument.isin));
+        if (order == null) {
+            throw new NoSuchElementException(String.format("Order with ID: %s not found.", id));
+        }
+        return Optional.of(order);
+    }
+
+    @Override
+    public RestingOrder fillOrder(Integer id, int matchedQuantity) {
+        Instrument instrument = instrumentOf(id);
+        RestingOrder order = instrument == null ? null : runSafe(() -> {
+            int slot = instrument.slotsByOrderId.get(id, NIL);
+            if (slot == NIL) {
+                return null;
+            }
+            OffHeapSlots orderSlots = instrument.orderSlots;
+            OffHeapSlots levelSlots = instrument.levelSlots;
+            int remainingQuantity = orderSlots.getInt(slot, REMAINING_QUANTITY) - matchedQuantity;
+            orderSlots.putInt(slot, REMAINING_QUANTITY, remainingQuantity);
+            int level = orderSlots.getInt(slot, LEVEL);
+            levelSlots.putLong(level, QUANTITY, levelSlots.getLong(level, QUANTITY) - matchedQuantity);
+            RestingOrder filled = instrument.read(slot);
+            if (remainingQuantity <= 0) {
+                instrument.slotsByOrderId.remove(id, NIL);
+                unindex(id);
+                instrument.unlinkAndFree(slot);
+            }
+            publishDepth(instrument, filled);
+            return filled;
+        }, instrumentLocks.of(instrument.isin));
+        if (order == null) {
+            throw new NoSuchElementException(String.format("Order with ID: %s not found.", id));
+        }
+        return order;
+    }
+
+    @Override
+    public Optional<RestingOrder> getBestOrder(String isin, Side side) {
+        Instrument instrument = instruments.get(isin);
+        if (instrument == null) {
+            return Optional.empty();
+        }
+        return runSafe(() -> {
+            Integer bestLevel = instrument.ladder(side).best();
+            return bestLevel == null
+                    ? Optional.<RestingOrder>empty()
+                    : Optional.of(instrument.read(instrument.levelSlots.getInt(bestLevel, HEAD)));
+        }, instrumentLocks.of(isin));
+    }
+
+    /**
+     * Same ranges as {@link TickOrderBook#getMatchingOrders}.
+     */
+    @Override
+    public List<RestingOrder> getMatchingOrders(BigDecimal price, String isin, Side side, String orderType) {
+        boolean isMarket = switch (orderType) {
+            case MARKET_ORDER -> true;
+            case LIMIT_ORDER -> false;
+            default -> throw new IllegalArgumentException(String.format("Unsupported order type: %s", orderType));
+        };
+        long from = isMarket ? priceTicks.toTicks(price, RoundingMode.CEILING) : Long.MIN_VALUE;
+        long to = isMarket ? Long.MAX_VALUE : priceTicks.toTicks(price, RoundingMode.FLOOR);
+
+        Instrument instrument = instruments.get(isin);
+        if (instrument == null) {
+            return List.of(); // no orders for the ISIN
+        }
+        return runSafe(() -> {
+            List<RestingOrder> matching = new ArrayList<>();
+            instrument.ladder(side == BUY ? Side.SELL : BUY).forEachInRange(from, to, side != BUY, level -> {
+                for (int slot = instrument.levelSlots.getInt(level, HEAD); slot != NIL; slot = instrument.orderSlots.getInt(slot, NEXT)) {
+                    matching.add(instrument.read(slot));
+                }
+            });
+            return List.copyOf(matching);
+        }, instrumentLocks.of(isin));
+    }
+
+    @Override
+    public DepthSnapshot getDepth(String isin) {
+        return depthPublisher.get(isin);
+    }
+
+    @Override
+    public Optional<RestingOrder> getOrder(Integer id) {
+        Instrument instrument = instrumentOf(id);
+        if (instrument == null) {
+            return Optional.empty();
+        }
+        return runSafe(() -> {
+            int slot = instrument.slotsByOrderId.get(id, NIL);
+            return slot == NIL ? Optional.<RestingOrder>empty() : Optional.of(instrument.read(slot));
+        }, instrumentLocks.of(instrument.isin));
+    }
+
+    @Override
+    public String getMarket() {
+        return market;
+    }
+
+    @Override
+    public int size() {
+        return runSafe(instrumentsByOrderId::size, indexLock);
+    }
+
+    @Override
+    public void clear() {
+        instrumentsById.forEach(instrument -> runSafe(instrument::clear, instrumentLocks.of(instrument.isin)));
+        runSafe(instrumentsByOrderId::clear, indexLock);
+        depthPublisher.clear();
+        log.info("Cleared OrderBook for Market: {}", market);
+    }
+
+    /**
+     * Copies the entry into a slot at the tail of its level.
+     *
+     * @return false if the order is already in the book
+     */
+    private boolean rest(RestingOrder restingOrder) {
+        Instrument instrument = instruments.computeIfAbsent(restingOrder.getIsin(), this::newInstrument);
+        return runSafe(() -> {
+            boolean added = runSafe(() -> {
+                if (instrumentsByOrderId.containsKey(restingOrder.getOrderId())) {
+                    return false;
+                }
+                instrumentsByOrderId.put(restingOrder.getOrderId(), instrument.id);
+                return true;
+            }, indexLock);
+            if (!added) {
+                return false;
+            }
+            int level = instrument.ladder(restingOrder.getSide())
+                    .computeIfAbsent(restingOrder.getPriceTicks(), k -> instrument.newLevel());
+            int slot = instrument.orderSlots.allocate();
+            instrument.write(slot, restingOrder, level);
+            instrument.append(level, slot);
+            instrument.slotsByOrderId.put(restingOrder.getOrderId(), slot);
+            publishDepth(instrument, restingOrder);
+            return true;
+        }, instrumentLocks.of(instrument.isin));
+    }
+
+    /**
+     * @return null if the order is not in the book
+     */
+    private Instrument instrumentOf(int orderId) {
+        int instrumentId = runSafe(() -> instrumentsByOrderId.get(orderId, NO_INSTRUMENT), indexLock);
+        return instrumentId == NO_INSTRUMENT ? null : instrumentsById.get(instrumentId);
+    }
+
+    private void unindex(int orderId) {
+        runSafe(() -> instrumentsByOrderId.remove(orderId, NO_INSTRUMENT), indexLock);
+    }
+
+    // called by computeIfAbsent, once per ISIN
+    private Instrument newInstrument(String isin) {
+        return runSafe(() -> {
+            Instrument instrument = new Instrument(isin, instrumentsById.size(), slotsPerChunk);
+            instrumentsById.add(instrument);
+            return instrument;
+        }, indexLock);
+    }
+
+    /**
+     * Publishes the depth of the order's side after a change at its price. Called under the ISIN's lock.
+     */
+    private void publishDepth(Instrument instrument, RestingOrder order) {
+        depthPublisher.publish(order.getIsin(), order.getSide(), order.getPriceTicks(), depth -> {
+            List<DepthLevel> levels = new ArrayList<>(depth);
+            instrument.ladder(order.getSide()).forEachBest(depth, level -> levels.add(new DepthLevel(
+                    instrument.orderSlots.getLong(instrument.levelSlots.getInt(level, HEAD), PRICE_TICKS),
+                    instrument.levelSlots.getLong(level, QUANTITY),
+                    instrument.levelSlots.getInt(level, SIZE))));
+            return levels;
+        });
+    }
+
+    /**
+     * Order and level slots of one ISIN with its price index per side (price ticks -> level slot).
+     * Touched only under the ISIN's lock.
+     */
+    private static final class Instrument {
+        private final String isin;
+        private final int id;
+        private final OffHeapSlots orderSlots;
+        private final OffHeapSlots levelSlots;
+        // order id -> order slot
+        private final IntIntHashMap slotsByOrderId;
+        private PriceLadder<Integer> bids;
+        private PriceLadder<Integer> asks;
+
+        private Instrument(String isin, int id, int slotsPerChunk) {
+            this.isin = isin;
+            this.id = id;
+            orderSlots = new OffHeapSlots(ORDER_SLOT_BYTES, slotsPerChunk);
+            levelSlots = new OffHeapSlots(LEVEL_SLOT_BYTES, Math.max(slotsPerChunk >> 4, 2));
+            slotsByOrderId = new IntIntHashMap(16);
+            bids = new PriceLadder<>(BUY, 0, 0);
+            asks = new PriceLadder<>(Side.SELL, 0, 0);
+        }
+
+        private PriceLadder<Integer> ladder(Side side) {
+            return (side == BUY) ? bids : asks;
+        }
+
+        private int newLevel() {
+            int level = levelSlots.allocate();
+            levelSlots.putInt(level, HEAD, NIL);
+            levelSlots.putInt(level, TAIL, NIL);
+            levelSlots.putInt(level, SIZE, 0);
+            levelSlots.putLong(level, QUANTITY, 0);
+            return level;
+        }
+
+        private void append(int level, int slot) {
+            int tail = levelSlots.getInt(level, TAIL);
+            orderSlots.putInt(slot, PREV, tail);
+            orderSlots.putInt(slot, NEXT, NIL);
+            if (tail == NIL) {
+                levelSlots.putInt(level, HEAD, slot);
+            } else {
+                orderSlots.putInt(tail, NEXT, slot);
+            }
+            levelSlots.putInt(level, TAIL, slot);
+            levelSlots.putInt(level, SIZE, levelSlots.getInt(level, SIZE) + 1);
+            levelSlots.putLong(level, QUANTITY, levelSlots.getLong(level, QUANTITY) + orderSlots.getInt(slot, REMAINING_QUANTITY));
+        }
+
+        /**
+         * Unlinks the order from its level, drops the level once empty and returns both slots to their free lists.
+         */
+        private void unlinkAndFree(int slot) {
+            int level = orderSlots.getInt(slot, LEVEL);
+            int prev = orderSlots.getInt(slot, PREV);
+            int next = orderSlots.getInt(slot, NEXT);
+            if (prev == NIL) {
+                levelSlots.putInt(level, HEAD, next);
+            } else {
+                orderSlots.putInt(prev, NEXT, next);
+            }
+            if (next == NIL) {
+                levelSlots.putInt(level, TAIL, prev);
+            } else {
+                orderSlots.putInt(next, PREV, prev);
+            }
+            int levelSize = levelSlots.getInt(level, SIZE) - 1;
+            levelSlots.putInt(level, SIZE, levelSize);
+            levelSlots.putLong(level, QUANTITY, levelSlots.getLong(level, QUANTITY) - orderSlots.getInt(slot, REMAINING_QUANTITY));
+
+            if (levelSize == 0) {
+                ladder(SIDES[orderSlots.getByte(slot, SIDE)]).remove(orderSlots.getLong(slot, PRICE_TICKS));
+                levelSlots.free(level);
+            }
+            orderSlots.free(slot);
+        }
+
+        private void write(int slot, RestingOrder order, int level) {
+            orderSlots.putInt(slot, ORDER_ID, order.getOrderId());
+            orderSlots.putInt(slot, WALLET_ID, order.getWalletId());
+            orderSlots.putInt(slot, REMAINING_QUANTITY, order.getRemainingQuantity());
+            orderSlots.putInt(slot, LEVEL, level);
+            orderSlots.putByte(slot, SIDE, (byte) order.getSide().ordinal());
+            orderSlots.putLong(slot, PRICE_TICKS, order.getPriceTicks());
+            orderSlots.putLong(slot, PLACED_AT, order.getPlacedAt());
+        }
+
+        private RestingOrder read(int slot) {
+            return new RestingOrder(orderSlots.getInt(slot, ORDER_ID),
+                    orderSlots.getInt(slot, WALLET_ID),
+                    isin,
+                    SIDES[orderSlots.getByte(slot, SIDE)],
+                    orderSlots.getLong(slot, PRICE_TICKS),
+                    orderSlots.getLong(slot, PLACED_AT),
+                    orderSlots.getInt(slot, REMAINING_QUANTITY));
+        }
+
+        private void clear() {
+            bids = new PriceLadder<>(BUY, 0, 0);
+            asks = new PriceLadder<>(Side.SELL, 0, 0);
+            slotsByOrderId.clear();
+            orderSlots.clear();
+            levelSlots.clear();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.ntros.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arena of fixed-size slots in direct ByteBuffers, addressed by int slot index.
+ * Memory is taken in chunks of slotsPerChunk slots and never handed back while the arena lives:
+ * freed slots go on a free list threaded through their first int and are reused first.
+ * Not thread-safe, callers guard it with the owning book's lock.
+ */
+final class OffHeapSlots {
+
+    static final int NIL = -1;
+
+    private final int slotBytes;
+    private final int chunkShift;
+    private final int chunkMask;
+    private final List<ByteBuffer> chunks;
+
+    private int freeHead;
+    private int nextUnused;
+    private int used;
+
+    /**
+     * @param slotBytes     - bytes per slot
+     * @param slotsPerChunk - rounded up to a power of two
+     */
+    OffHeapSlots(int slotBytes, int slotsPerChunk) {
+        if (slotBytes < Integer.BYTES) {
+            throw new IllegalArgumentException("Slot must fit the free list link: " + slotBytes);
+        }
+        int chunkSlots = Integer.highestOneBit(Math.max(slotsPerChunk, 2) - 1) << 1;
+        this.slotBytes = slotBytes;
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkSlots);
+        this.chunkMask = chunkSlots - 1;
+        this.chunks = new ArrayList<>();
+        this.freeHead = NIL;
+    }
+
+    int allocate() {
+        used++;
+        if (freeHead != NIL) {
+            int slot = freeHead;
+            freeHead = getInt(slot, 0);
+            return slot;
+        }
+        if (nextUnused >>> chunkShift == chunks.size()) {
+            chunks.add(ByteBuffer.allocateDirect(slotBytes << chunkShift));
+        }
+        return nextUnused++;
+    }
+
+    void free(int slot) {
+        putInt(slot, 0, freeHead);
+        freeHead = slot;
+        used--;
+    }
+
+    int getInt(int slot, int offset) {
+        return chunkOf(slot).getInt(offsetOf(slot) + offset);
+    }
+
+    void putInt(int slot, int offset, int value) {
+        chunkOf(slot).putInt(offsetOf(slot) + offset, value);
+    }
+
+    long getLong(int slot, int offset) {
+        return chunkOf(slot).getLong(offsetOf(slot) + offset);
+    }
+
+    void putLong(int slot, int offset, long value) {
+        chunkOf(slot).putLong(offsetOf(slot) + offset, value);
+    }
+
+    byte getByte(int slot, int offset) {
+        return chunkOf(slot).get(offsetOf(slot) + offset);
+    }
+
+    void putByte(int slot, int offset, byte value) {
+        chunkOf(slot).put(offsetOf(slot) + offset, value);
+    }
+
+    /**
+     * Forgets every slot but keeps the chunks for reuse.
+     */
+    void clear() {
+        freeHead = NIL;
+        nextUnused = 0;
+        used = 0;
+    }
+
+    int used() {
+        return used;
+    }
+
+    long reservedBytes() {
+        return (long) chunks.size() * (slotBytes << chunkShift);
+    }
+
+    private ByteBuffer chunkOf(int slot) {
+        return chunks.get(slot >>> chunkShift);
+    }
+
+    private int offsetOf(int slot) {
+        return (slot & chunkMask) * slotBytes;
+    }
+}
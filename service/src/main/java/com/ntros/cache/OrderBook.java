@@ -7,13 +7,14 @@ import lombok.extern.slf4j.Slf4j;
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import static com.ntros.cache.LockingUtil.runSafe;
+import static com.ntros.cache.OrderCacheValidator.validateOrder;
 import static com.ntros.model.order.Side.BUY;
 
 /**
- * In-Memory Cache for OPEN, PARTIALLY_FILLED orders. One instance per Market.
+ * In-Memory Cache for OPEN, PARTIALLY_FILLED orders. One instance per Market, see {@link OrderBookRegistry}.
  */
 @Slf4j
 public class OrderBook implements OrderCache {
@@ -23,108 +24,114 @@ public class OrderBook implements OrderCache {
 
     private final String market;
 
-    // Primary index: ISIN -> Secondary index (price -> orders)
-    private final Map<String, TreeMap<BigDecimal, List<Order>>> bids;
-    private final Map<String, TreeMap<BigDecimal, List<Order>>> asks;
-    private final Map<Integer, Order> orders;
+    // Primary index: ISIN -> Secondary index (price -> FIFO level)
+    private final Map<String, TreeMap<BigDecimal, PriceLevel>> bids;
+    private final Map<String, TreeMap<BigDecimal, PriceLevel>> asks;
+    // order id -> resting entry, which is also its handle into the price level
+    private final Map<Integer, RestingOrder> orders;
 
-    // cache locks
-    private final ReentrantLock bidsLock;
-    private final ReentrantLock asksLock;
+    // cache locks, an ISIN's price indexes on both sides are only touched under its lock
+    private final InstrumentLocks instrumentLocks;
+    // read path, never locked
+    private final DepthPublisher depthPublisher;
 
-    private OrderBook(String market) {
+    OrderBook(String market) {
+        this(market, DepthSnapshot.DEFAULT_LEVELS);
+    }
+
+    /**
+     * @param depthLevels - price levels per side in the published {@link DepthSnapshot}s
+     */
+    OrderBook(String market, int depthLevels) {
         this.market = market;
 
-        bidsLock = new ReentrantLock();
-        asksLock = new ReentrantLock();
+        instrumentLocks = new InstrumentLocks();
+        depthPublisher = new DepthPublisher(depthLevels);
 
         bids = new ConcurrentHashMap<>();
         asks = new ConcurrentHashMap<>();
         orders = new ConcurrentHashMap<>();
     }
 
-    /**
-     * Instance control with Init-on-demand Holder class: <a href="https://en.wikipedia.org/wiki/Initialization-on-demand_holder_idiom">...</a>.
-     * Creates multiple predefined instances of an OrderBook per market.
-     */
-    private static class InstanceHolder {
-        static final Map<String, OrderBook> INSTANCES;
-        static final List<String> SUPPORTED_MARKETS;
-
-        static {
-            INSTANCES = new ConcurrentHashMap<>();
-            SUPPORTED_MARKETS = List.of("NYSE", "NASDAQ", "TSX", "BMV", "LSE", "Euronext", "FWB", "TSE", "KRX");
-            SUPPORTED_MARKETS.forEach(market -> INSTANCES.put(market, new OrderBook(market)));
-        }
-    }
-
-    /**
-     * Gets an OrderBook for a specific market.
-     * The very 1st call will initialize the InstanceHolder class and the OrderBook instances.
-     *
-     * @param market - to retrieve an OrderBook
-     * @return - OrderBook
-     */
-    public static OrderBook forMarket(String market) {
-        OrderBook orderBook = InstanceHolder.INSTANCES.get(market);
-        if (orderBook == null) {
-            throw new IllegalArgumentException(String.format("Unsupported market: %s", market));
-        }
-        return orderBook;
-    }
-
     @Override
     public void addOrder(Order order) {
-        validateOrder(order);
-        var isinIndex = getIsinIndex(order.getSide());
-
+        validateOrder(order, market);
         if (orders.containsKey(order.getOrderId())) {
             log.info("Order with ID: {} already exists.", order.getOrderId());
             return;
         }
 
-        // prices creates a new [price:map] entry if none exists for the price key
-        var priceIndex = isinIndex.computeIfAbsent(order.isin(), k -> initializeInnerMap(order.getSide()));
+        RestingOrder restingOrder = RestingOrder.of(order);
+        rest(restingOrder);
+        log.debug("Added Order: {} to OrderBook.\nOrder count={} for market={}", restingOrder, orders.size(), market);
+    }
 
-        // get or create the price level list
-        runSafe(() -> {
-            var ordersAtPrice = priceIndex.computeIfAbsent(order.getPrice(), k -> new ArrayList<>());
-            ordersAtPrice.add(order);
-        }, getLock(order.getSide()));
+    @Override
+    public void restoreOrder(RestingOrder order) {
+        if (!orders.containsKey(order.getOrderId())) {
+            rest(order);
+        }
+    }
 
-        orders.put(order.getOrderId(), order);
-        log.info("Added Order: {} to OrderBook.\nOrder count={} for market={}", order, orders.size(), market);
+    @Override
+    public void forEachOrder(Consumer<RestingOrder> action) {
+        forEachLevel(bids, action);
+        forEachLevel(asks, action);
     }
 
     @Override
-    public Optional<Order> removeOrder(Integer id) {
-        Order order = orders.remove(id);
+    public Optional<RestingOrder> removeOrder(Integer id) {
+        RestingOrder order = orders.remove(id);
         if (order == null) {
             throw new NoSuchElementException(String.format("Order with ID: %s not found.", id));
         }
 
         var isinIndex = getIsinIndex(order.getSide());
 
-        isinIndex.computeIfPresent(order.isin(), (isin, priceIndex) -> runSafe(() -> {
-            priceIndex.computeIfPresent(order.getPrice(), (price, ordersAtPrice) -> {
-                ordersAtPrice.remove(order);
-                // ff the list becomes empty, remove the price index
-                return ordersAtPrice.isEmpty() ? null : ordersAtPrice;
+        runSafe(() -> {
+            isinIndex.computeIfPresent(order.getIsin(), (isin, priceIndex) -> {
+                PriceLevel ordersAtPrice = order.level;
+                if (ordersAtPrice != null) {
+                    ordersAtPrice.unlink(order);
+                    // if the level becomes empty, remove the price index
+                    if (ordersAtPrice.isEmpty()) {
+                        priceIndex.remove(order.getPrice());
+                    }
+                }
+                // if the price index becomes empty, remove the ISIN
+                return priceIndex.isEmpty() ? null : priceIndex;
             });
-            // if the price index becomes empty, remove the ISIN
-            return priceIndex.isEmpty() ? null : priceIndex;
-        }, getLock(order.getSide())));
+            publishDepth(order);
+        }, instrumentLocks.of(order.getIsin()));
         return Optional.of(order);
     }
 
 
+    @Override
+    public RestingOrder fillOrder(Integer id, int matchedQuantity) {
+        RestingOrder order = orders.get(id);
+        if (order == null) {
+            throw new NoSuchElementException(String.format("Order with ID: %s not found.", id));
+        }
+        runSafe(() -> {
+            order.fill(matchedQuantity);
+            if (order.getRemainingQuantity() > 0) {
+                publishDepth(order);
+            }
+        }, instrumentLocks.of(order.getIsin()));
+        if (order.getRemainingQuantity() <= 0) {
+            removeOrder(id);
+        }
+        return order;
+    }
+
     /**
      * map.keys = [1, 2, 3, 4, 5, 6, 7], x = 5
      * map.tail(x, true) = [5, 6, 7]
      * map.head(x, true) = [1, 2, 3, 4, 5]
      */
     @Override
-    public List<Order> getMatchingOrders(BigDecimal price, String isin, Side side, String orderType) {
+    public List<RestingOrder> getMatchingOrders(BigDecimal price, String isin, Side side, String orderType) {
         var isinIndex = getMatchingIsinIndex(side);
 
         return runSafe(() -> {
@@ -134,18 +141,39 @@ public class OrderBook implements OrderCache {
             }
 
             // get the price range by order type
-            SortedMap<BigDecimal, List<Order>> priceRange = switch (orderType) {
+            SortedMap<BigDecimal, PriceLevel> priceRange = switch (orderType) {
                 case MARKET_ORDER -> (side == BUY) ? priceIndex.tailMap(price, true) : priceIndex.headMap(price, true);
                 case LIMIT_ORDER -> (side == BUY) ? priceIndex.headMap(price, true) : priceIndex.tailMap(price, true);
                 default -> throw new IllegalArgumentException(String.format("Unsupported order type: %s", orderType));
             };
 
-            return priceRange.values().stream().flatMap(List::stream).toList();
-        }, getLock(side));
+            List<RestingOrder> matching = new ArrayList<>();
+            priceRange.values().forEach(ordersAtPrice -> ordersAtPrice.addAllTo(matching));
+            return List.copyOf(matching);
+        }, instrumentLocks.of(isin));
     }
 
     @Override
-    public Optional<Order> getOrder(Integer id) {
+    public Optional<RestingOrder> getBestOrder(String isin, Side side) {
+        var isinIndex = getIsinIndex(side);
+
+        return runSafe(() -> {
+            var priceIndex = isinIndex.get(isin);
+            if (priceIndex == null || priceIndex.isEmpty()) {
+                return Optional.<RestingOrder>empty();
+            }
+            // price levels are sorted best-first and orders within a level keep arrival order
+            return Optional.ofNullable(priceIndex.firstEntry().getValue().peek());
+        }, instrumentLocks.of(isin));
+    }
+
+    @Override
+    public DepthSnapshot getDepth(String isin) {
+        return depthPublisher.get(isin);
+    }
+
+    @Override
+    public Optional<RestingOrder> getOrder(Integer id) {
         return Optional.ofNullable(orders.get(id));
     }
 
@@ -164,40 +192,52 @@ public class OrderBook implements OrderCache {
         bids.clear();
         asks.clear();
         orders.clear();
+        depthPublisher.clear();
         log.info("Cleared OrderBook for Market: {}", market);
     }
 
-    private TreeMap<BigDecimal, List<Order>> initializeInnerMap(Side side) {
-        return (side == BUY) ? new TreeMap<>(Comparator.reverseOrder()) : new TreeMap<>(Comparator.naturalOrder());
+    private void rest(RestingOrder restingOrder) {
+        var isinIndex = getIsinIndex(restingOrder.getSide());
+
+        runSafe(() -> {
+            // prices creates a new [price:map] entry if none exists for the price key
+            var priceIndex = isinIndex.computeIfAbsent(restingOrder.getIsin(), k -> initializeInnerMap(restingOrder.getSide()));
+            // get or create the price level and queue the order at its tail
+            priceIndex.computeIfAbsent(restingOrder.getPrice(), k -> new PriceLevel()).append(restingOrder);
+            publishDepth(restingOrder);
+        }, instrumentLocks.of(restingOrder.getIsin()));
+
+        orders.put(restingOrder.getOrderId(), restingOrder);
     }
 
-    private Map<String, TreeMap<BigDecimal, List<Order>>> getIsinIndex(Side side) {
-        return (side == BUY) ? bids : asks;
+    private void forEachLevel(Map<String, TreeMap<BigDecimal, PriceLevel>> isinIndex, Consumer<RestingOrder> action) {
+        isinIndex.forEach((isin, priceIndex) -> runSafe(() ->
+                priceIndex.values().forEach(level -> level.forEach(action)),
+                instrumentLocks.of(isin)));
     }
 
-    private Map<String, TreeMap<BigDecimal, List<Order>>> getMatchingIsinIndex(Side side) {
-        return (side == BUY) ? asks : bids;
+    /**
+     * Publishes the depth of the order's side after a change at its price. Called under the ISIN's lock.
+     */
+    private void publishDepth(RestingOrder order) {
+        depthPublisher.publish(order.getIsin(), order.getSide(), order.getPriceTicks(), depth -> {
+            var priceIndex = getIsinIndex(order.getSide()).get(order.getIsin());
+            return priceIndex == null ? List.of() : priceIndex.values().stream()
+                    .limit(depth)
+                    .map(DepthLevel::of)
+                    .toList();
+        });
     }
 
-    private ReentrantLock getLock(Side side) {
-        return (side == BUY) ? bidsLock : asksLock;
+    private TreeMap<BigDecimal, PriceLevel> initializeInnerMap(Side side) {
+        return (side == BUY) ? new TreeMap<>(Comparator.reverseOrder()) : new TreeMap<>(Comparator.naturalOrder());
     }
 
-    private void validateOrder(Order order) {
-        if (order == null) {
-            throw new IllegalArgumentException("Order cannot be null.");
-        }
-        if (order.getOrderId() == null || order.getOrderId() <= 0) {
-            throw new IllegalArgumentException("Invalid order ID: " + order.getOrderId());
-        }
-        if (order.getPrice() == null || order.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Invalid order price: " + order.getPrice());
-        }
-        if (order.getQuantity() <= 0 && order.getRemainingQuantity() <= 0) {
-            throw new IllegalArgumentException("Invalid order quantity: " + order.getQuantity());
-        }
-        if (!order.market().equals(market)) {
-            throw new IllegalArgumentException(String.format("Invalid market code for order: %s. Expected: %s.", order.market(), market));
-        }
+    private Map<String, TreeMap<BigDecimal, PriceLevel>> getIsinIndex(Side side) {
+        return (side == BUY) ? bids : asks;
+    }
+
+    private Map<String, TreeMap<BigDecimal, PriceLevel>> getMatchingIsinIndex(Side side) {
+        return (side == BUY) ? asks : bids;
     }
 }
@@ -0,0 +1,205 @@
+package com.ntros.cache;
+
+import com.ntros.market.MarketRepository;
+import com.ntros.marketproduct.MarketProductRepository;
+import com.ntros.model.market.Market;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of order books per market, backed by the market table.
+ * Known market codes are loaded on startup, but a book is only built on first use.
+ * A new book registers the market's products so it can size per-ISIN structures from avg_daily_volume.
+ * Markets can be added, removed or re-synced with the database at runtime; a market with resting orders is
+ * closed through the MatchingEngine, which hands them over to be cancelled.
+ * The book implementation is picked with the "orderbook.type" property, TREE by default, and can be set per market
+ * with "orderbook.market-types" as MARKET=TYPE pairs separated by commas. Within a LADDER book, instruments get
+ * their windows from the {@link LadderPolicy} built from "orderbook.ladder.width", "orderbook.ladder.min-adv" and the
+ * per-ISIN widths of "orderbook.ladder.overrides".
+ * OFF_HEAP books grow their arenas by "orderbook.offheap.chunk-slots" order slots at a time.
+ * Every book publishes "orderbook.depth.levels" price levels per side in its depth snapshots.
+ * Markets known on startup are not ready for orders until their books are loaded, see {@link #markReady}.
+ */
+@Component
+@Slf4j
+public class OrderBookRegistry {
+
+    private final MarketRepository marketRepository;
+    private final MarketProductRepository marketProductRepository;
+    private final OrderBookType bookType;
+    // market code -> book type, for markets that don't use bookType
+    private final Map<String, OrderBookType> marketTypes;
+    private final LadderPolicy ladderPolicy;
+    private final int offHeapSlotsPerChunk;
+    private final int depthLevels;
+
+    private final Set<String> markets;
+    // market code -> book, created lazily
+    private final Map<String, OrderCache> books;
+    // markets whose books are still being loaded on startup
+    private final Set<String> loadingMarkets;
+
+    @Autowired
+    public OrderBookRegistry(MarketRepository marketRepository,
+                             MarketProductRepository marketProductRepository,
+                             @Value("${orderbook.type:TREE}") String bookType,
+                             @Value("${orderbook.market-types:}") String marketTypes,
+                             @Value("${orderbook.ladder.width:4096}") int ladderWidth,
+                             @Value("${orderbook.ladder.min-adv:10000}") double ladderMinAvgDailyVolume,
+                             @Value("${orderbook.ladder.overrides:}") String ladderOverrides,
+                             @Value("${orderbook.offheap.chunk-slots:4096}") int offHeapSlotsPerChunk,
+                             @Value("${orderbook.depth.levels:10}") int depthLevels) {
+        this.marketRepository = marketRepository;
+        this.marketProductRepository = marketProductRepository;
+        this.bookType = OrderBookType.valueOf(bookType.toUpperCase());
+        this.marketTypes = parseMarketTypes(marketTypes);
+        this.ladderPolicy = LadderPolicy.of(ladderWidth, ladderMinAvgDailyVolume, ladderOverrides);
+        this.offHeapSlotsPerChunk = offHeapSlotsPerChunk;
+        this.depthLevels = depthLevels;
+
+        markets = ConcurrentHashMap.newKeySet();
+        books = new ConcurrentHashMap<>();
+        loadingMarkets = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Standalone registry without a database, markets are only added explicitly.
+     */
+    public OrderBookRegistry(OrderBookType bookType) {
+        this(bookType, Map.of());
+    }
+
+    /**
+     * Standalone registry without a database, with a book type per market for some of them.
+     */
+    public OrderBookRegistry(OrderBookType bookType, Map<String, OrderBookType> marketTypes) {
+        this.marketRepository = null;
+        this.marketProductRepository = null;
+        this.bookType = bookType;
+        this.marketTypes = Map.copyOf(marketTypes);
+        this.ladderPolicy = LadderPolicy.DEFAULT;
+        this.offHeapSlotsPerChunk = OffHeapOrderBook.DEFAULT_SLOTS_PER_CHUNK;
+        this.depthLevels = DepthSnapshot.DEFAULT_LEVELS;
+
+        markets = ConcurrentHashMap.newKeySet();
+        books = new ConcurrentHashMap<>();
+        loadingMarkets = ConcurrentHashMap.newKeySet();
+    }
+
+    @PostConstruct
+    public void loadMarkets() {
+        refreshMarkets();
+        loadingMarkets.addAll(markets);
+        log.info("Loaded {} markets for {} order books: {}, overrides: {}", markets.size(), bookType, markets, marketTypes);
+    }
+
+    /**
+     * Gets the book for a market, building it on first use.
+     *
+     * @param market - market code
+     * @return - OrderCache for the market
+     */
+    public OrderCache forMarket(String market) {
+        if (market == null || !markets.contains(market)) {
+            throw new IllegalArgumentException(String.format("Unsupported market: %s", market));
+        }
+        return books.computeIfAbsent(market, this::createBook);
+    }
+
+    public void addMarket(String market) {
+        if (markets.add(market)) {
+            log.info("Added market: {}", market);
+        }
+    }
+
+    /**
+     * Stops serving a market. Its book, if one was built, is handed back to the caller.
+     * Called by {@link com.ntros.engine.MatchingEngine#closeMarket} once the book's resting orders are taken off it.
+     */
+    public Optional<OrderCache> removeMarket(String market) {
+        markets.remove(market);
+        loadingMarkets.remove(market);
+        OrderCache removed = books.remove(market);
+        log.info("Removed market: {}", market);
+        return Optional.ofNullable(removed);
+    }
+
+    /**
+     * Re-syncs the registry with the market table: new codes are added right away.
+     * Deleted codes are only returned, they are served until their resting orders are cancelled and the market
+     * is closed through the MatchingEngine.
+     *
+     * @return codes of served markets no longer in the market table
+     */
+    public Set<String> refreshMarkets() {
+        if (marketRepository == null) {
+            return Set.of();
+        }
+        Set<String> current = marketRepository.findAll().stream()
+                .map(Market::getMarketCode)
+                .collect(Collectors.toSet());
+        current.forEach(this::addMarket);
+        return markets.stream()
+                .filter(market -> !current.contains(market))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Opens a market loaded on startup for orders.
+     */
+    public void markReady(String market) {
+        if (loadingMarkets.remove(market)) {
+            log.info("Order book ready: {}", market);
+        }
+    }
+
+    /**
+     * @return false while the market's book is being loaded on startup, true otherwise
+     */
+    public boolean isReady(String market) {
+        return !loadingMarkets.contains(market);
+    }
+
+    public boolean hasMarket(String market) {
+        return markets.contains(market);
+    }
+
+    public Set<String> getMarkets() {
+        return Set.copyOf(markets);
+    }
+
+    private OrderCache createBook(String market) {
+        OrderBookType type = marketTypes.getOrDefault(market, bookType);
+        OrderCache book = type.create(market, ladderPolicy, offHeapSlotsPerChunk, depthLevels);
+        if (marketProductRepository != null) {
+            marketProductRepository.findAllByMarketCode(market).forEach(book::registerInstrument);
+        }
+        log.info("Created {} order book for market: {}", type, market);
+        return book;
+    }
+
+    private static Map<String, OrderBookType> parseMarketTypes(String property) {
+        Map<String, OrderBookType> types = new HashMap<>();
+        for (String entry : property.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] marketAndType = entry.split("=");
+            if (marketAndType.length != 2) {
+                throw new IllegalArgumentException("Order book type override must be MARKET=TYPE: " + entry);
+            }
+            types.put(marketAndType[0].trim(), OrderBookType.valueOf(marketAndType[1].trim().toUpperCase()));
+        }
+        return Map.copyOf(types);
+    }
+}
@@ -0,0 +1,155 @@
+package com.ntros.cache;
+
+import com.ntros.model.order.Side;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Point-in-time copy of a market's resting orders, tagged with the last book event it includes.
+ * Binary layout: a magic number, format, market, sequence and order count, then each order with its ISIN as an
+ * index into a dictionary built inline on first use, and a CRC32 of everything before it.
+ * Orders are kept oldest first within each price level, so restoring them in order keeps time priority.
+ */
+public final class OrderBookSnapshot {
+
+    private static final int MAGIC = 0x4F42534E;
+    private static final byte FORMAT = 1;
+
+    private final String market;
+    private final long sequence;
+    private final List<RestingOrder> orders;
+
+    private OrderBookSnapshot(String market, long sequence, List<RestingOrder> orders) {
+        this.market = market;
+        this.sequence = sequence;
+        this.orders = orders;
+    }
+
+    /**
+     * Copies the book's orders. Must run on the market's writer thread so nothing changes the book meanwhile,
+     * the copy is encoded off it.
+     *
+     * @param sequence - last book event applied to the book
+     */
+    public static OrderBookSnapshot of(OrderCache book, long sequence) {
+        List<RestingOrder> orders = new ArrayList<>(book.size());
+        book.forEachOrder(order -> orders.add(RestingOrder.of(order.getOrderId(),
+                order.getWalletId(),
+                order.getIsin(),
+                order.getSide(),
+                order.getPriceTicks(),
+                order.getPlacedAt(),
+                order.getRemainingQuantity())));
+        return new OrderBookSnapshot(book.getMarket(), sequence, orders);
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + orders.size() * 40);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT);
+            out.writeUTF(market);
+            out.writeLong(sequence);
+            out.writeInt(orders.size());
+            Map<String, Integer> isins = new HashMap<>();
+            for (RestingOrder order : orders) {
+                Integer isinId = isins.get(order.getIsin());
+                if (isinId == null) {
+                    isinId = isins.size();
+                    isins.put(order.getIsin(), isinId);
+                    out.writeInt(isinId);
+                    out.writeUTF(order.getIsin());
+                } else {
+                    out.writeInt(isinId);
+                }
+                out.writeInt(order.getOrderId());
+                out.writeInt(order.getWalletId());
+                out.writeByte(order.getSide().ordinal());
+                out.writeLong(order.getPriceTicks());
+                out.writeLong(order.getPlacedAt());
+                out.writeInt(order.getRemainingQuantity());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        return ByteBuffer.allocate(bytes.size() + Integer.BYTES)
+                .put(bytes.toByteArray())
+                .putInt((int) crc.getValue())
+                .array();
+    }
+
+    /**
+     * Reads a snapshot written by {@link #encode}.
+     *
+     * @throws IllegalStateException if the data is truncated, corrupt or not a snapshot
+     */
+    public static OrderBookSnapshot decode(byte[] data) {
+        if (data.length < Integer.BYTES * 2) {
+            throw new IllegalStateException("Order book snapshot is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - Integer.BYTES);
+        ByteBuffer in = ByteBuffer.wrap(data);
+        if ((int) crc.getValue() != in.getInt(data.length - Integer.BYTES)) {
+            throw new IllegalStateException("Order book snapshot checksum does not match");
+        }
+        if (in.getInt() != MAGIC || in.get() != FORMAT) {
+            throw new IllegalStateException("Unknown order book snapshot format");
+        }
+        String market = readString(in);
+        long sequence = in.getLong();
+        int count = in.getInt();
+        Side[] sides = Side.values();
+        List<RestingOrder> orders = new ArrayList<>(count);
+        List<String> isins = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int isinId = in.getInt();
+            if (isinId == isins.size()) {
+                // first use, restored entries of an instrument share this instance
+                isins.add(readString(in));
+            }
+            orders.add(RestingOrder.of(in.getInt(),
+                    in.getInt(),
+                    isins.get(isinId),
+                    sides[in.get()],
+                    in.getLong(),
+                    in.getLong(),
+                    in.getInt()));
+        }
+        return new OrderBookSnapshot(market, sequence, orders);
+    }
+
+    // DataOutputStream.writeUTF format, the ISINs and market codes are ASCII
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public String getMarket() {
+        return market;
+    }
+
+    /**
+     * Last book event the snapshot includes, replay starts after it.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public List<RestingOrder> getOrders() {
+        return orders;
+    }
+}
@@ -0,0 +1,41 @@
+package com.ntros.cache;
+
+/**
+ * Available OrderCache implementations.
+ */
+public enum OrderBookType {
+
+    /**
+     * BigDecimal price levels in a TreeMap.
+     */
+    TREE,
+
+    /**
+     * Fixed-point long price ticks in a sorted primitive index.
+     */
+    TICK,
+
+    /**
+     * TICK book with an array-backed price ladder around the mid for liquid instruments.
+     */
+    LADDER,
+
+    /**
+     * Tick price levels with order slots and level queues in off-heap arenas, one set per instrument.
+     */
+    OFF_HEAP;
+
+    /**
+     * @param ladderPolicy - ladder windows of a LADDER book, unused by the other types
+     * @param slotsPerChunk - order slots an OFF_HEAP instrument takes memory for at a time, unused by the other types
+     * @param depthLevels   - price levels per side in the published depth snapshots
+     */
+    OrderCache create(String market, LadderPolicy ladderPolicy, int slotsPerChunk, int depthLevels) {
+        return switch (this) {
+            case TREE -> new OrderBook(market, depthLevels);
+            case TICK -> new TickOrderBook(market, LadderPolicy.DISABLED, depthLevels);
+            case LADDER -> new TickOrderBook(market, ladderPolicy, depthLevels);
+            case OFF_HEAP -> new OffHeapOrderBook(market, slotsPerChunk, depthLevels);
+        };
+    }
+}
@@ -2,23 +2,64 @@ package com.ntros.cache;
 
 import com.ntros.model.order.Order;
 import com.ntros.model.order.Side;
+import com.ntros.model.product.MarketProduct;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+/**
+ * Resting orders are kept as compact {@link RestingOrder} entries, the entity is only read on the way in.
+ */
 public interface OrderCache {
 
     void addOrder(Order order);
 
-    Optional<Order> getOrder(Integer orderId);
+    /**
+     * Rests an entry taken from a snapshot or replayed from a journal, skipping the checks and logging of
+     * {@link #addOrder}. Entries of a price level have to be restored oldest first.
+     * The entry must be new or a copy, never one resting in another book.
+     */
+    void restoreOrder(RestingOrder order);
 
-    Optional<Order> removeOrder(Integer orderId);
+    Optional<RestingOrder> getOrder(Integer orderId);
 
-    List<Order> getMatchingOrders(BigDecimal price, String isin, Side side, String orderType);
+    Optional<RestingOrder> removeOrder(Integer orderId);
+
+    /**
+     * Takes matched quantity off a resting order. The order leaves the book once nothing remains.
+     *
+     * @return the order's entry right after the fill
+     */
+    RestingOrder fillOrder(Integer orderId, int matchedQuantity);
+
+    /**
+     * Best resting order on the given side of the book for an ISIN: the oldest order at the best price.
+     */
+    Optional<RestingOrder> getBestOrder(String isin, Side side);
+
+    List<RestingOrder> getMatchingOrders(BigDecimal price, String isin, Side side, String orderType);
+
+    /**
+     * Latest published depth of the ISIN. Lock-free: never waits for, or blocks, the book's writers.
+     */
+    DepthSnapshot getDepth(String isin);
+
+    /**
+     * Visits every resting order, oldest first within each price level, for snapshots.
+     * Meant for the market's writer thread: the book must not change during the walk.
+     */
+    void forEachOrder(Consumer<RestingOrder> action);
 
     String getMarket();
 
+    /**
+     * Lets an implementation tune its per-instrument structures before orders arrive. No-op by default.
+     */
+    default void registerInstrument(MarketProduct marketProduct) {
+    }
+
     int size();
 
     void clear();
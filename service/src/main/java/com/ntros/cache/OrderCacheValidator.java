@@ -0,0 +1,33 @@
+package com.ntros.cache;
+
+import com.ntros.model.order.Order;
+
+import java.math.BigDecimal;
+
+/**
+ * Admission checks shared by all OrderCache implementations.
+ */
+final class OrderCacheValidator {
+
+    private OrderCacheValidator() {
+
+    }
+
+    static void validateOrder(Order order, String market) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null.");
+        }
+        if (order.getOrderId() == null || order.getOrderId() <= 0) {
+            throw new IllegalArgumentException("Invalid order ID: " + order.getOrderId());
+        }
+        if (order.getPrice() == null || order.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Invalid order price: " + order.getPrice());
+        }
+        if (order.getQuantity() <= 0 && order.getRemainingQuantity() <= 0) {
+            throw new IllegalArgumentException("Invalid order quantity: " + order.getQuantity());
+        }
+        if (!order.market().equals(market)) {
+            throw new IllegalArgumentException(String.format("Invalid market code for order: %s. Expected: %s.", order.market(), market));
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.ntros.cache;
+
+import com.ntros.model.order.Side;
+
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+import static com.ntros.model.order.Side.BUY;
+
+/**
+ * One side of an instrument's book, keyed by fixed-point price ticks.
+ * Levels close to the mid live in a contiguous array indexed by tick offset from the window base,
+ * with a cursor on the best level: level lookup, insertion and top-of-book are O(1).
+ * Prices outside the window fall back to a sorted {@link TickPriceIndex}.
+ * A zero width ladder is a plain TickPriceIndex.
+ * Not thread-safe, callers guard it with the owning book's locks.
+ *
+ * @param <L> price level type
+ */
+final class PriceLadder<L> {
+
+    private final boolean bidSide;
+    private final Object[] window;
+    private final TickPriceIndex<L> overflow;
+
+    // tick of window[0]
+    private long baseTick;
+    private int windowLevels;
+    // window index of the highest bid / lowest ask, -1 if the window is empty
+    private int bestIndex;
+
+    PriceLadder(Side side, long midTick, int width) {
+        this(side, midTick, width, TickPriceIndex.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param overflowLevels initial capacity of the sorted overflow index
+     */
+    PriceLadder(Side side, long midTick, int width, int overflowLevels) {
+        bidSide = side == BUY;
+        window = new Object[Math.max(width, 0)];
+        overflow = new TickPriceIndex<>(overflowLevels);
+        baseTick = midTick - window.length / 2;
+        bestIndex = -1;
+    }
+
+    L get(long tick) {
+        int slot = slotOf(tick);
+        return slot >= 0 ? levelAt(slot) : overflow.get(tick);
+    }
+
+    L computeIfAbsent(long tick, LongFunction<L> levelFactory) {
+        if (isEmpty() && window.length > 0 && slotOf(tick) < 0) {
+            // the market moved away while the side was empty, re-center instead of spilling into the overflow
+            baseTick = tick - window.length / 2;
+        }
+        int slot = slotOf(tick);
+        if (slot < 0) {
+            return overflow.computeIfAbsent(tick, levelFactory);
+        }
+        L level = levelAt(slot);
+        if (level == null) {
+            level = levelFactory.apply(tick);
+            window[slot] = level;
+            windowLevels++;
+            if (bestIndex < 0 || isBetter(slot, bestIndex)) {
+                bestIndex = slot;
+            }
+        }
+        return level;
+    }
+
+    L remove(long tick) {
+        int slot = slotOf(tick);
+        if (slot < 0) {
+            return overflow.remove(tick);
+        }
+        L level = levelAt(slot);
+        if (level != null) {
+            window[slot] = null;
+            windowLevels--;
+            if (slot == bestIndex) {
+                bestIndex = nextBest(slot);
+            }
+        }
+        return level;
+    }
+
+    /**
+     * @return highest bid or lowest ask level, null if the side is empty
+     */
+    L best() {
+        if (!overflow.isEmpty()) {
+            // overflow holds the best level only when it sits beyond the window's far edge
+            int candidate = bidSide ? overflow.size() - 1 : 0;
+            long tick = overflow.tickAt(candidate);
+            if (bestIndex < 0 || (bidSide ? tick > baseTick + bestIndex : tick < baseTick + bestIndex)) {
+                return overflow.levelAt(candidate);
+            }
+        }
+        return bestIndex >= 0 ? levelAt(bestIndex) : null;
+    }
+
+    /**
+     * Visits every level with from <= tick <= to, ascending or descending by price.
+     */
+    void forEachInRange(long from, long to, boolean descending, Consumer<L> action) {
+        long windowEnd = baseTick + window.length;
+        if (descending) {
+            forEachOverflow(Math.max(from, windowEnd), to, true, action);
+            forEachInWindow(Math.max(from, baseTick), Math.min(to, windowEnd - 1), true, action);
+            forEachOverflow(from, Math.min(to, baseTick - 1), true, action);
+        } else {
+            forEachOverflow(from, Math.min(to, baseTick - 1), false, action);
+            forEachInWindow(Math.max(from, baseTick), Math.min(to, windowEnd - 1), false, action);
+            forEachOverflow(Math.max(from, windowEnd), to, false, action);
+        }
+    }
+
+    /**
+     * Visits up to maxLevels levels, best price first, without scanning the rest of the side.
+     */
+    void forEachBest(int maxLevels, Consumer<L> action) {
+        int visited = 0;
+        int overflowLevels = overflow.size();
+        if (bidSide) {
+            // overflow levels above the window are better than any level in it
+            int aboveWindow = overflow.lowerBound(baseTick + window.length);
+            for (int i = overflowLevels - 1; i >= aboveWindow && visited < maxLevels; i--, visited++) {
+                action.accept(overflow.levelAt(i));
+            }
+            for (int i = bestIndex; i >= 0 && visited < maxLevels; i--) {
+                if (window[i] != null) {
+                    action.accept(levelAt(i));
+                    visited++;
+                }
+            }
+            for (int i = aboveWindow - 1; i >= 0 && visited < maxLevels; i--, visited++) {
+                action.accept(overflow.levelAt(i));
+            }
+        } else {
+            // overflow levels below the window are better than any level in it
+            int belowWindow = overflow.lowerBound(baseTick);
+            for (int i = 0; i < belowWindow && visited < maxLevels; i++, visited++) {
+                action.accept(overflow.levelAt(i));
+            }
+            for (int i = bestIndex; i >= 0 && i < window.length && visited < maxLevels; i++) {
+                if (window[i] != null) {
+                    action.accept(levelAt(i));
+                    visited++;
+                }
+            }
+            for (int i = belowWindow; i < overflowLevels && visited < maxLevels; i++, visited++) {
+                action.accept(overflow.levelAt(i));
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return windowLevels == 0 && overflow.isEmpty();
+    }
+
+    private void forEachInWindow(long from, long to, boolean descending, Consumer<L> action) {
+        if (from > to) {
+            return;
+        }
+        int first = (int) (from - baseTick);
+        int last = (int) (to - baseTick);
+        if (descending) {
+            for (int i = last; i >= first; i--) {
+                acceptIfPresent(i, action);
+            }
+        } else {
+            for (int i = first; i <= last; i++) {
+                acceptIfPresent(i, action);
+            }
+        }
+    }
+
+    private void forEachOverflow(long from, long to, boolean descending, Consumer<L> action) {
+        if (from > to || overflow.isEmpty()) {
+            return;
+        }
+        int first = overflow.lowerBound(from);
+        int last = overflow.upperBound(to) - 1;
+        if (descending) {
+            for (int i = last; i >= first; i--) {
+                action.accept(overflow.levelAt(i));
+            }
+        } else {
+            for (int i = first; i <= last; i++) {
+                action.accept(overflow.levelAt(i));
+            }
+        }
+    }
+
+    private void acceptIfPresent(int slot, Consumer<L> action) {
+        L level = levelAt(slot);
+        if (level != null) {
+            action.accept(level);
+        }
+    }
+
+    /**
+     * Walks away from the removed best level towards worse prices. Amortized by the levels the book traded through.
+     */
+    private int nextBest(int removedSlot) {
+        if (windowLevels == 0) {
+            return -1;
+        }
+        if (bidSide) {
+            for (int i = removedSlot - 1; i >= 0; i--) {
+                if (window[i] != null) {
+                    return i;
+                }
+            }
+        } else {
+            for (int i = removedSlot + 1; i < window.length; i++) {
+                if (window[i] != null) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private boolean isBetter(int slot, int otherSlot) {
+        return bidSide ? slot > otherSlot : slot < otherSlot;
+    }
+
+    private int slotOf(long tick) {
+        long offset = tick - baseTick;
+        return (offset >= 0 && offset < window.length) ? (int) offset : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private L levelAt(int slot) {
+        return (L) window[slot];
+    }
+}
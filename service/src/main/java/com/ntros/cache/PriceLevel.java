@@ -0,0 +1,100 @@
+package com.ntros.cache;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * FIFO queue of resting orders at one price, built as an intrusive doubly linked list.
+ * Orders join at the tail and each {@link RestingOrder} carries its own links,
+ * so cancels and fills unlink in O(1) without scanning the level or comparing orders.
+ * Time priority is the list order itself. The level also keeps the total remaining quantity for depth snapshots.
+ * Not thread-safe, callers guard it with the owning book's locks.
+ */
+final class PriceLevel {
+
+    private RestingOrder head;
+    private RestingOrder tail;
+    private int size;
+    private long quantity;
+
+    /**
+     * Queues the order behind every order already resting at this price.
+     */
+    void append(RestingOrder order) {
+        order.level = this;
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.next = order;
+            order.prev = tail;
+        }
+        tail = order;
+        size++;
+        quantity += order.getRemainingQuantity();
+    }
+
+    /**
+     * Unlinks the order if it still rests at this level, unlinking twice is a no-op.
+     */
+    void unlink(RestingOrder order) {
+        if (order.level != this) {
+            return;
+        }
+        if (order.prev == null) {
+            head = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        if (order.next == null) {
+            tail = order.prev;
+        } else {
+            order.next.prev = order.prev;
+        }
+        order.prev = null;
+        order.next = null;
+        order.level = null;
+        size--;
+        quantity -= order.getRemainingQuantity();
+    }
+
+    /**
+     * Takes filled quantity off the level total, see {@link RestingOrder#fill}.
+     */
+    void reduceQuantity(int filledQuantity) {
+        quantity -= filledQuantity;
+    }
+
+    /**
+     * @return oldest order at this price, null if the level is empty
+     */
+    RestingOrder peek() {
+        return head;
+    }
+
+    /**
+     * Appends the level's orders to the target in time priority.
+     */
+    void addAllTo(List<RestingOrder> target) {
+        for (RestingOrder order = head; order != null; order = order.next) {
+            target.add(order);
+        }
+    }
+
+    void forEach(Consumer<RestingOrder> action) {
+        for (RestingOrder order = head; order != null; order = order.next) {
+            action.accept(order);
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long quantity() {
+        return quantity;
+    }
+}
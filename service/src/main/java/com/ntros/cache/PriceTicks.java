@@ -0,0 +1,61 @@
+package com.ntros.cache;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static java.lang.String.format;
+
+/**
+ * Fixed-point price representation. A price is stored as a primitive long count of ticks,
+ * where one tick is 10^-scale of the currency unit. Ticks compare with plain long comparison,
+ * so the book never allocates or compares BigDecimals on the hot path.
+ */
+public final class PriceTicks {
+
+    // order.price is DECIMAL(10, 2) -> one tick = 0.01
+    public static final PriceTicks ORDER_PRICE = new PriceTicks(2);
+
+    private final int scale;
+
+    private PriceTicks(int scale) {
+        this.scale = scale;
+    }
+
+    public static PriceTicks ofScale(int scale) {
+        if (scale < 0) {
+            throw new IllegalArgumentException("Invalid price scale: " + scale);
+        }
+        return scale == ORDER_PRICE.scale ? ORDER_PRICE : new PriceTicks(scale);
+    }
+
+    /**
+     * Converts an on-tick price. Prices with more decimals than the tick size are rejected.
+     */
+    public long toTicks(BigDecimal price) {
+        try {
+            return price.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException(format("Price %s is not on a %s tick.", price, tickSize()), ex);
+        }
+    }
+
+    /**
+     * Converts any price, rounding off-tick prices with the given mode.
+     * Used for range bounds: FLOOR for inclusive upper bounds, CEILING for inclusive lower bounds.
+     */
+    public long toTicks(BigDecimal price, RoundingMode roundingMode) {
+        return price.setScale(scale, roundingMode).unscaledValue().longValueExact();
+    }
+
+    public BigDecimal toPrice(long ticks) {
+        return BigDecimal.valueOf(ticks, scale);
+    }
+
+    public BigDecimal tickSize() {
+        return BigDecimal.ONE.movePointLeft(scale);
+    }
+
+    public int getScale() {
+        return scale;
+    }
+}
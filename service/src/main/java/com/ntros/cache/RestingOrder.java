@@ -0,0 +1,119 @@
+package com.ntros.cache;
+
+import com.ntros.model.order.Order;
+import com.ntros.model.order.Side;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Compact book entry for a resting order, decoupled from the JPA {@link Order} entity.
+ * Holds only what matching needs: ids, side, price ticks, remaining quantity and arrival time,
+ * so resting depth no longer pins order statuses, wallets or market product graphs.
+ * Identity is the order id; there is no value equals/hashCode to walk.
+ * The entry also serves as its own node in the {@link PriceLevel} queue it rests in.
+ * Remaining quantity is only changed through {@link OrderCache#fillOrder} on the matching engine's writer thread.
+ * Entities are looked up by order id when fills are persisted.
+ */
+public final class RestingOrder {
+
+    private final int orderId;
+    private final int walletId;
+    // shared with the Product entity, never copied per order
+    private final String isin;
+    private final Side side;
+    private final long priceTicks;
+    // epoch millis
+    private final long placedAt;
+    private int remainingQuantity;
+
+    // intrusive FIFO links, owned by PriceLevel
+    PriceLevel level;
+    RestingOrder prev;
+    RestingOrder next;
+
+    RestingOrder(int orderId, int walletId, String isin, Side side, long priceTicks, long placedAt,
+                         int remainingQuantity) {
+        this.orderId = orderId;
+        this.walletId = walletId;
+        this.isin = isin;
+        this.side = side;
+        this.priceTicks = priceTicks;
+        this.placedAt = placedAt;
+        this.remainingQuantity = remainingQuantity;
+    }
+
+    /**
+     * Copies the matching fields of a validated order. Prices are rounded to the
+     * order.price column scale the same way the database stores them.
+     */
+    public static RestingOrder of(Order order) {
+        return new RestingOrder(order.getOrderId(),
+                walletIdOf(order),
+                order.isin(),
+                order.getSide(),
+                PriceTicks.ORDER_PRICE.toTicks(order.getPrice(), RoundingMode.HALF_UP),
+                order.getPlacedAt() == null ? 0L : order.getPlacedAt().toInstant().toEpochMilli(),
+                order.getRemainingQuantity());
+    }
+
+    /**
+     * Entry with the given fields, for orders read back from a snapshot or journal.
+     */
+    public static RestingOrder of(int orderId, int walletId, String isin, Side side, long priceTicks, long placedAt,
+                                  int remainingQuantity) {
+        return new RestingOrder(orderId, walletId, isin, side, priceTicks, placedAt, remainingQuantity);
+    }
+
+    private static int walletIdOf(Order order) {
+        return (order.getWallet() == null || order.getWallet().getWalletId() == null) ? 0 : order.getWallet().getWalletId();
+    }
+
+    /**
+     * Takes matched quantity off the order, see {@link OrderCache#fillOrder}.
+     */
+    void fill(int matchedQuantity) {
+        remainingQuantity -= matchedQuantity;
+        if (level != null) {
+            level.reduceQuantity(matchedQuantity);
+        }
+    }
+
+    public int getOrderId() {
+        return orderId;
+    }
+
+    public int getWalletId() {
+        return walletId;
+    }
+
+    public String getIsin() {
+        return isin;
+    }
+
+    public Side getSide() {
+        return side;
+    }
+
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
+    public BigDecimal getPrice() {
+        return PriceTicks.ORDER_PRICE.toPrice(priceTicks);
+    }
+
+    public long getPlacedAt() {
+        return placedAt;
+    }
+
+    public int getRemainingQuantity() {
+        return remainingQuantity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RestingOrder(orderId=%d, side=%s, price=%s, remainingQuantity=%d)",
+                orderId, side, getPrice(), remainingQuantity);
+    }
+}
@@ -0,0 +1,282 @@
+package com.ntros.cache;
+
+import com.ntros.model.order.Order;
+import com.ntros.model.order.Side;
+import com.ntros.model.product.MarketProduct;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static com.ntros.cache.LockingUtil.runSafe;
+import static com.ntros.cache.OrderCacheValidator.validateOrder;
+import static com.ntros.model.order.Side.BUY;
+
+/**
+ * In-Memory Cache for OPEN, PARTIALLY_FILLED orders keyed by fixed-point price ticks. One instance per Market.
+ * Same contract as {@link OrderBook}, but price levels live in a {@link PriceLadder} over primitive longs.
+ * Prices are converted once on the way in, by {@link RestingOrder}; all level lookups and range scans compare longs.
+ * Instruments accepted by the {@link LadderPolicy} get an array window around their mid price,
+ * every other instrument keeps its levels in a sorted {@link TickPriceIndex}.
+ */
+@Slf4j
+public class TickOrderBook implements OrderCache {
+
+    private static final String MARKET_ORDER = "MARKET";
+    private static final String LIMIT_ORDER = "LIMIT";
+    private static final int MIN_OVERFLOW_LEVELS = 16;
+    private static final int MAX_OVERFLOW_LEVELS = 1024;
+
+    private final String market;
+    // resting orders carry ticks at the order price scale
+    private final PriceTicks priceTicks = PriceTicks.ORDER_PRICE;
+    private final LadderPolicy ladderPolicy;
+
+    // Primary index: ISIN -> Secondary index (price ticks -> FIFO level)
+    private final Map<String, PriceLadder<PriceLevel>> bids;
+    private final Map<String, PriceLadder<PriceLevel>> asks;
+    // order id -> resting entry, which is also its handle into the price level
+    private final Map<Integer, RestingOrder> orders;
+    // ISIN -> mid price ticks, for instruments that get a ladder window
+    private final Map<String, Long> ladderMids;
+    // ISIN -> width of the ladder window, for the same instruments
+    private final Map<String, Integer> ladderWidths;
+    // ISIN -> expected number of sorted price levels per side
+    private final Map<String, Integer> levelHints;
+
+    // cache locks, an ISIN's ladders on both sides are only touched under its lock
+    private final InstrumentLocks instrumentLocks;
+    // read path, never locked
+    private final DepthPublisher depthPublisher;
+
+    public TickOrderBook(String market) {
+        this(market, LadderPolicy.DISABLED);
+    }
+
+    public TickOrderBook(String market, LadderPolicy ladderPolicy) {
+        this(market, ladderPolicy, DepthSnapshot.DEFAULT_LEVELS);
+    }
+
+    /**
+     * @param depthLevels - price levels per side in the published {@link DepthSnapshot}s
+     */
+    public TickOrderBook(String market, LadderPolicy ladderPolicy, int depthLevels) {
+        this.market = market;
+        this.ladderPolicy = ladderPolicy;
+
+        instrumentLocks = new InstrumentLocks();
+        depthPublisher = new DepthPublisher(depthLevels);
+
+        bids = new ConcurrentHashMap<>();
+        asks = new ConcurrentHashMap<>();
+        orders = new ConcurrentHashMap<>();
+        ladderMids = new ConcurrentHashMap<>();
+        ladderWidths = new ConcurrentHashMap<>();
+        levelHints = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gives the instruments the {@link LadderPolicy} picks a ladder window centered on their current price,
+     * and sizes the sorted levels of every instrument from its avg_daily_volume.
+     * Applies to sides created after the call, so register before loading orders.
+     */
+    @Override
+    public void registerInstrument(MarketProduct marketProduct) {
+        int levels = (int) Math.sqrt(Math.max(marketProduct.getAvgDailyVolume(), 0));
+        levelHints.put(marketProduct.getProduct().getIsin(), Math.min(Math.max(levels, MIN_OVERFLOW_LEVELS), MAX_OVERFLOW_LEVELS));
+        int width = ladderPolicy.widthFor(marketProduct);
+        if (width > 0) {
+            long midTick = priceTicks.toTicks(BigDecimal.valueOf(marketProduct.getCurrentPrice()), RoundingMode.HALF_UP);
+            ladderWidths.put(marketProduct.getProduct().getIsin(), width);
+            ladderMids.put(marketProduct.getProduct().getIsin(), midTick);
+            log.info("Using price ladder of {} levels for ISIN: {} in market: {}", width, marketProduct.getProduct().getIsin(), market);
+        }
+    }
+
+    @Override
+    public void addOrder(Order order) {
+        validateOrder(order, market);
+        if (orders.containsKey(order.getOrderId())) {
+            log.info("Order with ID: {} already exists.", order.getOrderId());
+            return;
+        }
+        RestingOrder restingOrder = RestingOrder.of(order);
+        rest(restingOrder);
+        log.debug("Added Order: {} to OrderBook.\nOrder count={} for market={}", restingOrder, orders.size(), market);
+    }
+
+    @Override
+    public void restoreOrder(RestingOrder order) {
+        if (!orders.containsKey(order.getOrderId())) {
+            rest(order);
+        }
+    }
+
+    @Override
+    public void forEachOrder(Consumer<RestingOrder> action) {
+        forEachLevel(bids, action);
+        forEachLevel(asks, action);
+    }
+
+    @Override
+    public Optional<RestingOrder> removeOrder(Integer id) {
+        RestingOrder order = orders.remove(id);
+        if (order == null) {
+            throw new NoSuchElementException(String.format("Order with ID: %s not found.", id));
+        }
+        var isinIndex = getIsinIndex(order.getSide());
+
+        runSafe(() -> {
+            isinIndex.computeIfPresent(order.getIsin(), (isin, priceIndex) -> {
+                PriceLevel ordersAtPrice = order.level;
+                if (ordersAtPrice != null) {
+                    ordersAtPrice.unlink(order);
+                    if (ordersAtPrice.isEmpty()) {
+                        priceIndex.remove(order.getPriceTicks());
+                    }
+                }
+                // ladder windows are kept for reuse
+                return priceIndex.isEmpty() && !ladderMids.containsKey(isin) ? null : priceIndex;
+            });
+            publishDepth(order);
+        }, instrumentLocks.of(order.getIsin()));
+        return Optional.of(order);
+    }
+
+    @Override
+    public RestingOrder fillOrder(Integer id, int matchedQuantity) {
+        RestingOrder order = orders.get(id);
+        if (order == null) {
+            throw new NoSuchElementException(String.format("Order with ID: %s not found.", id));
+        }
+        runSafe(() -> {
+            order.fill(matchedQuantity);
+            if (order.getRemainingQuantity() > 0) {
+                publishDepth(order);
+            }
+        }, instrumentLocks.of(order.getIsin()));
+        if (order.getRemainingQuantity() <= 0) {
+            removeOrder(id);
+        }
+        return order;
+    }
+
+    @Override
+    public Optional<RestingOrder> getBestOrder(String isin, Side side) {
+        var isinIndex = getIsinIndex(side);
+
+        return runSafe(() -> {
+            var priceIndex = isinIndex.get(isin);
+            PriceLevel bestLevel = priceIndex == null ? null : priceIndex.best();
+            return bestLevel == null ? Optional.<RestingOrder>empty() : Optional.ofNullable(bestLevel.peek());
+        }, instrumentLocks.of(isin));
+    }
+
+    /**
+     * Same ranges as {@link OrderBook#getMatchingOrders}, expressed in ticks:
+     * MARKET -> levels >= price, LIMIT -> levels <= price.
+     * Asks are returned ascending for BUY, bids descending for SELL.
+     */
+    @Override
+    public List<RestingOrder> getMatchingOrders(BigDecimal price, String isin, Side side, String orderType) {
+        var isinIndex = getMatchingIsinIndex(side);
+        boolean isMarket = switch (orderType) {
+            case MARKET_ORDER -> true;
+            case LIMIT_ORDER -> false;
+            default -> throw new IllegalArgumentException(String.format("Unsupported order type: %s", orderType));
+        };
+        long from = isMarket ? priceTicks.toTicks(price, RoundingMode.CEILING) : Long.MIN_VALUE;
+        long to = isMarket ? Long.MAX_VALUE : priceTicks.toTicks(price, RoundingMode.FLOOR);
+
+        return runSafe(() -> {
+            var priceIndex = isinIndex.get(isin);
+            if (priceIndex == null) {
+                return List.<RestingOrder>of(); // no orders for the ISIN
+            }
+            List<RestingOrder> matching = new ArrayList<>();
+            priceIndex.forEachInRange(from, to, side != BUY, ordersAtPrice -> ordersAtPrice.addAllTo(matching));
+            return List.copyOf(matching);
+        }, instrumentLocks.of(isin));
+    }
+
+    @Override
+    public DepthSnapshot getDepth(String isin) {
+        return depthPublisher.get(isin);
+    }
+
+    @Override
+    public Optional<RestingOrder> getOrder(Integer id) {
+        return Optional.ofNullable(orders.get(id));
+    }
+
+    @Override
+    public String getMarket() {
+        return market;
+    }
+
+    @Override
+    public int size() {
+        return orders.size();
+    }
+
+    @Override
+    public void clear() {
+        bids.clear();
+        asks.clear();
+        orders.clear();
+        depthPublisher.clear();
+        log.info("Cleared OrderBook for Market: {}", market);
+    }
+
+    private void rest(RestingOrder restingOrder) {
+        var isinIndex = getIsinIndex(restingOrder.getSide());
+
+        runSafe(() -> {
+            isinIndex.computeIfAbsent(restingOrder.getIsin(), isin -> newLadder(isin, restingOrder.getSide()))
+                    .computeIfAbsent(restingOrder.getPriceTicks(), k -> new PriceLevel())
+                    .append(restingOrder);
+            publishDepth(restingOrder);
+        }, instrumentLocks.of(restingOrder.getIsin()));
+
+        orders.put(restingOrder.getOrderId(), restingOrder);
+    }
+
+    private void forEachLevel(Map<String, PriceLadder<PriceLevel>> isinIndex, Consumer<RestingOrder> action) {
+        isinIndex.forEach((isin, priceIndex) -> runSafe(() ->
+                priceIndex.forEachInRange(Long.MIN_VALUE, Long.MAX_VALUE, false, level -> level.forEach(action)),
+                instrumentLocks.of(isin)));
+    }
+
+    /**
+     * Publishes the depth of the order's side after a change at its price. Called under the ISIN's lock.
+     */
+    private void publishDepth(RestingOrder order) {
+        depthPublisher.publish(order.getIsin(), order.getSide(), order.getPriceTicks(), depth -> {
+            var priceIndex = getIsinIndex(order.getSide()).get(order.getIsin());
+            List<DepthLevel> levels = new ArrayList<>(depth);
+            if (priceIndex != null) {
+                priceIndex.forEachBest(depth, level -> levels.add(DepthLevel.of(level)));
+            }
+            return levels;
+        });
+    }
+
+    private PriceLadder<PriceLevel> newLadder(String isin, Side side) {
+        Long midTick = ladderMids.get(isin);
+        int levels = levelHints.getOrDefault(isin, MIN_OVERFLOW_LEVELS);
+        return midTick == null
+                ? new PriceLadder<>(side, 0, 0, levels)
+                : new PriceLadder<>(side, midTick, ladderWidths.get(isin), levels);
+    }
+
+    private Map<String, PriceLadder<PriceLevel>> getIsinIndex(Side side) {
+        return (side == BUY) ? bids : asks;
+    }
+
+    private Map<String, PriceLadder<PriceLevel>> getMatchingIsinIndex(Side side) {
+        return (side == BUY) ? asks : bids;
+    }
+}
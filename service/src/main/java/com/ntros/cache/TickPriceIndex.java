@@ -0,0 +1,106 @@
+package com.ntros.cache;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * Sorted price-level index over primitive long ticks.
+ * Keys are kept ascending in a long[] with a parallel array of levels: lookups are a binary search,
+ * iteration is a linear scan, and no boxed Long or BigDecimal key is ever allocated.
+ * Not thread-safe, callers guard it with the owning book's locks.
+ *
+ * @param <L> price level type
+ */
+final class TickPriceIndex<L> {
+
+    static final int DEFAULT_CAPACITY = 16;
+
+    private long[] ticks;
+    private Object[] levels;
+    private int size;
+
+    TickPriceIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    TickPriceIndex(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        ticks = new long[capacity];
+        levels = new Object[capacity];
+    }
+
+    L get(long key) {
+        int index = Arrays.binarySearch(ticks, 0, size, key);
+        return index >= 0 ? levelAt(index) : null;
+    }
+
+    L computeIfAbsent(long key, LongFunction<L> levelFactory) {
+        int index = Arrays.binarySearch(ticks, 0, size, key);
+        if (index >= 0) {
+            return levelAt(index);
+        }
+        int insertAt = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(ticks, insertAt, ticks, insertAt + 1, size - insertAt);
+        System.arraycopy(levels, insertAt, levels, insertAt + 1, size - insertAt);
+
+        L level = levelFactory.apply(key);
+        ticks[insertAt] = key;
+        levels[insertAt] = level;
+        size++;
+        return level;
+    }
+
+    L remove(long key) {
+        int index = Arrays.binarySearch(ticks, 0, size, key);
+        if (index < 0) {
+            return null;
+        }
+        L level = levelAt(index);
+        System.arraycopy(ticks, index + 1, ticks, index, size - index - 1);
+        System.arraycopy(levels, index + 1, levels, index, size - index - 1);
+        levels[--size] = null;
+        return level;
+    }
+
+    /**
+     * @return index of the first key >= given ticks, size if none
+     */
+    int lowerBound(long key) {
+        int index = Arrays.binarySearch(ticks, 0, size, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * @return index of the first key > given ticks, size if none
+     */
+    int upperBound(long key) {
+        int index = Arrays.binarySearch(ticks, 0, size, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    long tickAt(int index) {
+        return ticks[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    L levelAt(int index) {
+        return (L) levels[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ticks.length) {
+            int newCapacity = Math.max(capacity, ticks.length << 1);
+            ticks = Arrays.copyOf(ticks, newCapacity);
+            levels = Arrays.copyOf(levels, newCapacity);
+        }
+    }
+}
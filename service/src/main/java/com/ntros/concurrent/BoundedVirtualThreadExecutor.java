@@ -0,0 +1,61 @@
+package com.ntros.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs every task on its own virtual thread, with at most {@code permits} tasks running at once.
+ * Blocking service work mostly holds a JDBC connection, so the permits are matched to the connection pool:
+ * tasks over the limit park on the semaphore, which is free for a virtual thread, instead of waiting in the
+ * pool for a connection and timing out. The caller never blocks, so matching threads can hand work over safely.
+ * Virtual threads need a JDK 21 runtime, on older JDKs the constructor throws UnsupportedOperationException.
+ */
+@Slf4j
+public class BoundedVirtualThreadExecutor implements Executor, AutoCloseable {
+
+    private final SimpleAsyncTaskExecutor delegate;
+    private final Semaphore permits;
+
+    public BoundedVirtualThreadExecutor(String threadNamePrefix, int maxConcurrency, long terminationTimeoutMillis) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be positive: " + maxConcurrency);
+        }
+        delegate = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        delegate.setVirtualThreads(true);
+        // tracks running tasks so close() waits for them
+        delegate.setTaskTerminationTimeout(terminationTimeoutMillis);
+        permits = new Semaphore(maxConcurrency, true);
+        log.info("Virtual thread executor '{}' running at most {} tasks at once", threadNamePrefix, maxConcurrency);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * @return tasks started and waiting for a permit
+     */
+    public int getQueuedTasks() {
+        return permits.getQueueLength();
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
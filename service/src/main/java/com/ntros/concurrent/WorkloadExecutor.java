@@ -0,0 +1,44 @@
+package com.ntros.concurrent;
+
+import com.ntros.exception.ServiceBusyException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static java.lang.String.format;
+
+/**
+ * Fixed-size pool with a bounded queue, one per workload so a burst on one cannot starve the others.
+ * A task offered to a full queue fails with {@link ServiceBusyException} unless the pool is built to run
+ * it on the caller instead. {@link #isSaturated()} lets callers turn work away before they commit to it.
+ */
+public class WorkloadExecutor extends ThreadPoolTaskExecutor {
+
+    private final String name;
+
+    public WorkloadExecutor(String name, int threads, int queueCapacity, boolean callerRunsWhenFull) {
+        this.name = name;
+        setCorePoolSize(threads);
+        setMaxPoolSize(threads);
+        setQueueCapacity(queueCapacity);
+        setThreadNamePrefix(name + "-");
+        setWaitForTasksToCompleteOnShutdown(true);
+        setAwaitTerminationSeconds(30);
+        setRejectedExecutionHandler(callerRunsWhenFull
+                ? new ThreadPoolExecutor.CallerRunsPolicy()
+                : (task, pool) -> {
+                    throw ServiceBusyException.with(format("The %s queue is full, retry later.", name));
+                });
+    }
+
+    /**
+     * @return true when no queue slot is left for another task
+     */
+    public boolean isSaturated() {
+        return getThreadPoolExecutor().getQueue().remainingCapacity() == 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ntros.engine;
+
+import com.ntros.cache.OrderCache;
+import com.ntros.cache.RestingOrder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Single change the matching engine made to a book: an order rested, a resting order filled, or one removed.
+ * Replaying a market's events in order on top of a snapshot rebuilds the book, time priority included.
+ */
+@Getter
+@ToString
+public class BookEvent {
+
+    public enum Type {
+        ADDED, FILLED, REMOVED
+    }
+
+    private final Type type;
+
+    private final int orderId;
+
+    // matched quantity of a FILLED event
+    private final int quantity;
+
+    // rested entry of an ADDED event
+    private final RestingOrder order;
+
+    private BookEvent(Type type, int orderId, int quantity, RestingOrder order) {
+        this.type = type;
+        this.orderId = orderId;
+        this.quantity = quantity;
+        this.order = order;
+    }
+
+    public static BookEvent added(RestingOrder order) {
+        return new BookEvent(Type.ADDED, order.getOrderId(), order.getRemainingQuantity(), order);
+    }
+
+    public static BookEvent filled(int orderId, int quantity) {
+        return new BookEvent(Type.FILLED, orderId, quantity, null);
+    }
+
+    public static BookEvent removed(int orderId) {
+        return new BookEvent(Type.REMOVED, orderId, 0, null);
+    }
+
+    /**
+     * Repeats the change on a book. Orders the book doesn't hold are skipped, they left it before the snapshot.
+     */
+    public void applyTo(OrderCache book) {
+        switch (type) {
+            case ADDED -> book.restoreOrder(order);
+            case FILLED -> {
+                if (book.getOrder(orderId).isPresent()) {
+                    book.fillOrder(orderId, quantity);
+                }
+            }
+            case REMOVED -> {
+                if (book.getOrder(orderId).isPresent()) {
+                    book.removeOrder(orderId);
+                }
+            }
+        }
+    }
+}
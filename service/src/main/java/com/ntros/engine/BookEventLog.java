@@ -0,0 +1,32 @@
+package com.ntros.engine;
+
+import java.util.List;
+
+/**
+ * Where the MatchingEngine records the changes it makes to the books.
+ */
+public interface BookEventLog {
+
+    BookEventLog NONE = new BookEventLog() {
+        @Override
+        public void append(String market, List<BookEvent> events) {
+        }
+
+        @Override
+        public long getLastSequence() {
+            return 0;
+        }
+    };
+
+    /**
+     * Records the events of one engine task, in the order they were applied.
+     * Called on the market's writer thread, so a market's events are appended in book order.
+     */
+    void append(String market, List<BookEvent> events);
+
+    /**
+     * Sequence of the last appended record. Read on a market's writer thread it covers every event of that market
+     * applied so far, and none that follows.
+     */
+    long getLastSequence();
+}
@@ -0,0 +1,47 @@
+package com.ntros.engine;
+
+import com.ntros.cache.RestingOrder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * Single execution of an incoming order against a resting order.
+ * Quantity and price are fixed by the matching engine at match time, together with the resting
+ * order's remaining quantity right after this fill. Only the resting order id is kept,
+ * the entity is loaded when the fill is persisted.
+ */
+@Getter
+@ToString
+public class Fill {
+
+    private final int restingOrderId;
+
+    private final int restingRemainingQuantity;
+
+    private final int quantity;
+
+    private final BigDecimal price;
+
+    private Fill(int restingOrderId, int restingRemainingQuantity, int quantity, BigDecimal price) {
+        this.restingOrderId = restingOrderId;
+        this.restingRemainingQuantity = restingRemainingQuantity;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    /**
+     * @param restingOrder - resting order, already reduced by the matched quantity
+     */
+    public static Fill of(RestingOrder restingOrder, int quantity, BigDecimal price) {
+        if (restingOrder == null) {
+            throw new IllegalArgumentException("Cannot build Fill with empty resting order.");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Cannot build Fill with non-positive quantity: " + quantity);
+        }
+        return new Fill(restingOrder.getOrderId(), restingOrder.getRemainingQuantity(), quantity, price);
+    }
+
+}
@@ -0,0 +1,300 @@
+package com.ntros.engine;
+
+import com.ntros.cache.OrderBookRegistry;
+import com.ntros.cache.OrderCache;
+import com.ntros.cache.PriceTicks;
+import com.ntros.cache.RestingOrder;
+import com.ntros.exception.ServiceBusyException;
+import com.ntros.metrics.OrderMetrics;
+import com.ntros.metrics.OrderMetrics.Stage;
+import com.ntros.model.order.Order;
+import com.ntros.model.order.Side;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.ntros.model.order.Side.BUY;
+import static com.ntros.model.order.Side.SELL;
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+
+/**
+ * Single-writer matching engine. Every market gets one dedicated platform thread fed by its own queue,
+ * and that thread is the only one allowed to mutate the market's OrderBook.
+ * A queue holds up to "executor.matching.writer-queue-capacity" tasks, a task offered to a full queue fails
+ * with {@link ServiceBusyException}; {@link #isSaturated} lets order intake turn orders away before that.
+ * Incoming orders are matched in place against the opposite side with price-time priority:
+ * best price first, oldest order first within a price level.
+ * Quantities of the incoming order and of the book's resting entries are adjusted on the writer thread,
+ * so executors only settle and persist the returned fills.
+ * Every change to a book is also recorded in the {@link BookEventLog}, if one is configured, from the same thread.
+ * Queue wait and match time are recorded per order, book size and queue length are gauged per market.
+ */
+@Component
+@Slf4j
+public class MatchingEngine {
+
+    private static final String LIMIT_ORDER = "LIMIT";
+    private static final String MARKET_ORDER = "MARKET";
+    static final int DEFAULT_WRITER_QUEUE_CAPACITY = 10_000;
+
+    private final OrderBookRegistry orderBookRegistry;
+    private final BookEventLog bookEventLog;
+    private final OrderMetrics orderMetrics;
+    private final int writerQueueCapacity;
+
+    // market code -> single writer thread
+    private final Map<String, ThreadPoolExecutor> writers;
+
+    public MatchingEngine(OrderBookRegistry orderBookRegistry) {
+        this(orderBookRegistry, Optional.empty());
+    }
+
+    public MatchingEngine(OrderBookRegistry orderBookRegistry, Optional<BookEventLog> bookEventLog) {
+        this(orderBookRegistry, bookEventLog, OrderMetrics.NONE, DEFAULT_WRITER_QUEUE_CAPACITY);
+    }
+
+    @Autowired
+    public MatchingEngine(OrderBookRegistry orderBookRegistry, Optional<BookEventLog> bookEventLog,
+                          OrderMetrics orderMetrics,
+                          @Value("${executor.matching.writer-queue-capacity:10000}") int writerQueueCapacity) {
+        if (writerQueueCapacity <= 0) {
+            throw new IllegalArgumentException(String.format("Writer queue capacity must be positive: %s", writerQueueCapacity));
+        }
+        this.orderBookRegistry = orderBookRegistry;
+        this.bookEventLog = bookEventLog.orElse(BookEventLog.NONE);
+        this.orderMetrics = orderMetrics;
+        this.writerQueueCapacity = writerQueueCapacity;
+        writers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Matches the incoming order on its market's writer thread.
+     * Unfilled LIMIT quantity is rested in the book; unfilled MARKET quantity is not.
+     * A MARKET BUY spends at most its price times its quantity, the funds its wallet holds for it, and stops
+     * before a fill it can't afford. Other order types, such as STOP orders which need a trigger price first, are rejected.
+     *
+     * @param incomingOrder - order to match
+     * @return fills in execution order, empty if nothing crossed
+     * @throws ServiceBusyException if the market's writer queue is full
+     */
+    public CompletableFuture<List<Fill>> submit(Order incomingOrder) {
+        if (!isLimit(incomingOrder) && !isMarket(incomingOrder)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(String.format("Unsupported order type: %s",
+                    incomingOrder.getOrderType() == null ? null : incomingOrder.getOrderType().getOrderTypeName())));
+        }
+        long queuedAt = System.nanoTime();
+        return supplyAsync(() -> {
+            long matchStart = System.nanoTime();
+            orderMetrics.record(Stage.MATCH_QUEUE, queuedAt);
+            List<Fill> fills = match(incomingOrder);
+            orderMetrics.record(Stage.MATCH, matchStart);
+            return fills;
+        }, writerFor(incomingOrder.market()));
+    }
+
+    /**
+     * Rests an already persisted order without matching it. Not recorded in the event log, a book built
+     * this way must be snapshotted before it is recovered from.
+     */
+    public CompletableFuture<Void> rest(Order order) {
+        return runAsync(() -> orderBookRegistry.forMarket(order.market()).addOrder(order), writerFor(order.market()));
+    }
+
+    /**
+     * Removes a resting order from its book, if it is still resting.
+     */
+    public CompletableFuture<Optional<RestingOrder>> cancel(Order order) {
+        return supplyAsync(() -> {
+            OrderCache book = orderBookRegistry.forMarket(order.market());
+            if (book.getOrder(order.getOrderId()).isEmpty()) {
+                return Optional.<RestingOrder>empty();
+            }
+            Optional<RestingOrder> removed = book.removeOrder(order.getOrderId());
+            bookEventLog.append(order.market(), List.of(BookEvent.removed(order.getOrderId())));
+            return removed;
+        }, writerFor(order.market()));
+    }
+
+    /**
+     * Takes every resting order off a market's book on its writer thread, after the tasks already queued,
+     * removes the market from the registry and stops the writer. Orders submitted after that fail.
+     *
+     * @return the orders that were resting, to be cancelled by the caller
+     */
+    public CompletableFuture<List<RestingOrder>> closeMarket(String market) {
+        ThreadPoolExecutor writer = (ThreadPoolExecutor) writerFor(market);
+        return supplyAsync(() -> {
+            OrderCache book = orderBookRegistry.forMarket(market);
+            List<RestingOrder> resting = new ArrayList<>(book.size());
+            book.forEachOrder(resting::add);
+            book.clear();
+            if (!resting.isEmpty()) {
+                bookEventLog.append(market, resting.stream().map(order -> BookEvent.removed(order.getOrderId())).toList());
+            }
+            orderBookRegistry.removeMarket(market);
+            return resting;
+        }, writer).whenComplete((resting, ex) -> {
+            writers.remove(market, writer);
+            writer.shutdown();
+            log.info("Stopped matching engine writer for market: {}", market);
+        });
+    }
+
+    /**
+     * Runs a task against a market's book on its writer thread, in line with matching.
+     * Used to snapshot and restore books while nothing else changes them.
+     */
+    public <T> CompletableFuture<T> onBook(String market, Function<OrderCache, T> task) {
+        return supplyAsync(() -> task.apply(orderBookRegistry.forMarket(market)), writerFor(market));
+    }
+
+    /**
+     * @return true when no queue slot is left on the market's writer for another order
+     */
+    public boolean isSaturated(String market) {
+        ThreadPoolExecutor writer = writers.get(market);
+        return writer != null && writer.getQueue().remainingCapacity() == 0;
+    }
+
+    /**
+     * @return true if the order's unfilled quantity is rested in the book after matching
+     */
+    public boolean restsUnfilled(Order order) {
+        return isLimit(order);
+    }
+
+    private List<Fill> match(Order incomingOrder) {
+        OrderCache book = orderBookRegistry.forMarket(incomingOrder.market());
+        Side restingSide = incomingOrder.getSide() == BUY ? SELL : BUY;
+        boolean isLimit = isLimit(incomingOrder);
+        long limitTicks = isLimit ? limitTicks(incomingOrder) : 0L;
+        // funds held for a MARKET BUY, what it may still spend at any price
+        BigDecimal budget = !isLimit && incomingOrder.getSide() == BUY
+                ? incomingOrder.getPrice().multiply(BigDecimal.valueOf(incomingOrder.getRemainingQuantity()))
+                : null;
+        List<Fill> fills = new ArrayList<>();
+        List<BookEvent> events = new ArrayList<>();
+
+        while (incomingOrder.getRemainingQuantity() > 0) {
+            Optional<RestingOrder> best = book.getBestOrder(incomingOrder.isin(), restingSide);
+            if (best.isEmpty() || (isLimit && !crosses(incomingOrder.getSide(), limitTicks, best.get()))) {
+                break;
+            }
+            RestingOrder restingOrder = best.get();
+            int matchedQuantity = Math.min(incomingOrder.getRemainingQuantity(), restingOrder.getRemainingQuantity());
+            if (matchedQuantity <= 0) {
+                // nothing left to trade against
+                book.removeOrder(restingOrder.getOrderId());
+                events.add(BookEvent.removed(restingOrder.getOrderId()));
+                continue;
+            }
+            if (budget != null) {
+                matchedQuantity = budget.divideToIntegralValue(restingOrder.getPrice())
+                        .min(BigDecimal.valueOf(matchedQuantity))
+                        .intValue();
+                if (matchedQuantity == 0) {
+                    break;
+                }
+                budget = budget.subtract(restingOrder.getPrice().multiply(BigDecimal.valueOf(matchedQuantity)));
+            }
+            incomingOrder.adjustQuantity(matchedQuantity);
+            // resting order sets the execution price, fully filled resting orders leave the book
+            RestingOrder filled = book.fillOrder(restingOrder.getOrderId(), matchedQuantity);
+            fills.add(Fill.of(filled, matchedQuantity, filled.getPrice()));
+            events.add(BookEvent.filled(restingOrder.getOrderId(), matchedQuantity));
+        }
+
+        if (incomingOrder.getRemainingQuantity() > 0 && isLimit) {
+            book.addOrder(incomingOrder);
+            events.add(BookEvent.added(RestingOrder.of(incomingOrder)));
+        }
+        if (!events.isEmpty()) {
+            bookEventLog.append(incomingOrder.market(), events);
+        }
+        log.info("Matched order {} with {} fills. Remaining quantity: {}",
+                incomingOrder.getOrderId(), fills.size(), incomingOrder.getRemainingQuantity());
+        return fills;
+    }
+
+    /**
+     * MARKET orders cross any resting price.
+     * LIMIT BUY crosses asks priced <= limit, LIMIT SELL crosses bids priced >= limit.
+     */
+    private boolean crosses(Side incomingSide, long limitTicks, RestingOrder restingOrder) {
+        return incomingSide == BUY
+                ? restingOrder.getPriceTicks() <= limitTicks
+                : restingOrder.getPriceTicks() >= limitTicks;
+    }
+
+    /**
+     * Limit price in ticks, rounded towards the side of the book the order may trade at.
+     */
+    private long limitTicks(Order incomingOrder) {
+        RoundingMode roundingMode = incomingOrder.getSide() == BUY ? RoundingMode.FLOOR : RoundingMode.CEILING;
+        return PriceTicks.ORDER_PRICE.toTicks(incomingOrder.getPrice(), roundingMode);
+    }
+
+    private boolean isLimit(Order order) {
+        return order.getOrderType() != null && LIMIT_ORDER.equalsIgnoreCase(order.getOrderType().getOrderTypeName());
+    }
+
+    private boolean isMarket(Order order) {
+        return order.getOrderType() != null && MARKET_ORDER.equalsIgnoreCase(order.getOrderType().getOrderTypeName());
+    }
+
+    private ExecutorService writerFor(String market) {
+        ExecutorService writer = writers.get(market);
+        if (writer != null) {
+            return writer;
+        }
+        // no writer is started, or restarted after closeMarket, for a market that isn't served
+        if (!orderBookRegistry.hasMarket(market)) {
+            throw new IllegalArgumentException(String.format("Unsupported market: %s", market));
+        }
+        return writers.computeIfAbsent(market, this::startWriter);
+    }
+
+    private ThreadPoolExecutor startWriter(String market) {
+        ThreadPoolExecutor writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(writerQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "match-" + market);
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> {
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException(String.format("Matching engine writer for market %s is stopped", market));
+                    }
+                    throw ServiceBusyException.with(String.format("The matching queue of market %s is full, retry later.", market));
+                });
+        orderMetrics.registerMarket(market, writer,
+                ignored -> orderBookRegistry.getMarkets().contains(market) ? orderBookRegistry.forMarket(market).size() : 0,
+                pool -> pool.getQueue().size());
+        return writer;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.values().forEach(ExecutorService::shutdown);
+        log.info("Stopped matching engine writers for markets: {}", writers.keySet());
+    }
+}
@@ -0,0 +1,13 @@
+package com.ntros.exception;
+
+public class MarketNotReadyException extends RuntimeException {
+
+    private MarketNotReadyException(String message) {
+        super(message);
+    }
+
+    public static MarketNotReadyException with(String message) {
+        return new MarketNotReadyException(message);
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.ntros.exception;
+
+public class ServiceBusyException extends RuntimeException {
+
+    private ServiceBusyException(String message) {
+        super(message);
+    }
+
+    public static ServiceBusyException with(String message) {
+        return new ServiceBusyException(message);
+    }
+
+}
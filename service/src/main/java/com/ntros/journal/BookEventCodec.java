@@ -0,0 +1,96 @@
+package com.ntros.journal;
+
+import com.ntros.cache.RestingOrder;
+import com.ntros.engine.BookEvent;
+import com.ntros.model.order.Side;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary form of one engine task's book events: a format byte, the market, the event count, then each event's
+ * type and order id followed by the rested entry for ADDED or the matched quantity for FILLED.
+ */
+final class BookEventCodec {
+
+    private static final byte FORMAT = 1;
+
+    private BookEventCodec() {
+    }
+
+    static byte[] encode(String market, List<BookEvent> events) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + events.size() * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeUTF(market);
+            out.writeInt(events.size());
+            for (BookEvent event : events) {
+                out.writeByte(event.getType().ordinal());
+                out.writeInt(event.getOrderId());
+                switch (event.getType()) {
+                    case ADDED -> {
+                        RestingOrder order = event.getOrder();
+                        out.writeInt(order.getWalletId());
+                        out.writeUTF(order.getIsin());
+                        out.writeByte(order.getSide().ordinal());
+                        out.writeLong(order.getPriceTicks());
+                        out.writeLong(order.getPlacedAt());
+                        out.writeInt(order.getRemainingQuantity());
+                    }
+                    case FILLED -> out.writeInt(event.getQuantity());
+                    case REMOVED -> {
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    static String decodeMarket(ByteBuffer in) {
+        byte format = in.get();
+        if (format != FORMAT) {
+            throw new IllegalStateException(String.format("Unknown order event record format: %s", format));
+        }
+        return readString(in);
+    }
+
+    /**
+     * Reads the events that follow {@link #decodeMarket}.
+     */
+    static List<BookEvent> decodeEvents(ByteBuffer in) {
+        BookEvent.Type[] types = BookEvent.Type.values();
+        Side[] sides = Side.values();
+        int count = in.getInt();
+        List<BookEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BookEvent.Type type = types[in.get()];
+            int orderId = in.getInt();
+            events.add(switch (type) {
+                case ADDED -> BookEvent.added(RestingOrder.of(orderId,
+                        in.getInt(),
+                        readString(in),
+                        sides[in.get()],
+                        in.getLong(),
+                        in.getLong(),
+                        in.getInt()));
+                case FILLED -> BookEvent.filled(orderId, in.getInt());
+                case REMOVED -> BookEvent.removed(orderId);
+            });
+        }
+        return events;
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
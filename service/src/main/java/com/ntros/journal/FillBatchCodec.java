@@ -0,0 +1,163 @@
+package com.ntros.journal;
+
+import com.ntros.fill.OrderFillRow;
+import com.ntros.fill.OrderStatusRow;
+import com.ntros.fill.PositionDelta;
+import com.ntros.fill.TransactionRow;
+import com.ntros.fill.WalletDelta;
+import com.ntros.service.fill.FillBatch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Binary form of a FillBatch for the journal: a format byte, then each section as a count followed by its rows.
+ * Only ids and values are written, never entities.
+ */
+final class FillBatchCodec {
+
+    private static final byte FORMAT = 1;
+
+    private FillBatchCodec() {
+    }
+
+    static byte[] encode(FillBatch batch) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+
+            List<OrderFillRow> orderFills = batch.getOrderFills();
+            out.writeInt(orderFills.size());
+            for (OrderFillRow row : orderFills) {
+                out.writeInt(row.getOrderId());
+                out.writeInt(row.getFilledQuantity());
+                out.writeInt(row.getRemainingQuantity());
+            }
+            List<OrderStatusRow> orderStatuses = batch.getOrderStatuses();
+            out.writeInt(orderStatuses.size());
+            for (OrderStatusRow row : orderStatuses) {
+                out.writeInt(row.getOrderId());
+                writeString(out, row.getCurrentStatus());
+                writeDateTime(out, row.getUpdatedDate());
+            }
+            List<TransactionRow> transactions = batch.getTransactions();
+            out.writeInt(transactions.size());
+            for (TransactionRow row : transactions) {
+                out.writeInt(row.getTransactionTypeId());
+                out.writeInt(row.getWalletId());
+                out.writeInt(row.getPortfolioId());
+                out.writeInt(row.getMarketProductId());
+                out.writeInt(row.getOrderId());
+                out.writeInt(row.getQuantity());
+                writeDecimal(out, row.getPrice());
+                writeString(out, row.getCurrency());
+                writeDateTime(out, row.getTransactionDate());
+            }
+            List<WalletDelta> wallets = batch.getWallets();
+            out.writeInt(wallets.size());
+            for (WalletDelta delta : wallets) {
+                out.writeInt(delta.getWalletId());
+                writeDecimal(out, delta.getAmount());
+            }
+            List<PositionDelta> positions = batch.getPositions();
+            out.writeInt(positions.size());
+            for (PositionDelta delta : positions) {
+                out.writeInt(delta.getPortfolioId());
+                out.writeInt(delta.getProductId());
+                out.writeInt(delta.getQuantity());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    static FillBatch decode(ByteBuffer in) {
+        byte format = in.get();
+        if (format != FORMAT) {
+            throw new IllegalStateException(String.format("Unknown fill journal record format: %s", format));
+        }
+        FillBatch batch = new FillBatch();
+        for (int i = in.getInt(); i > 0; i--) {
+            batch.addOrderFill(new OrderFillRow(in.getInt(), in.getInt(), in.getInt()));
+        }
+        for (int i = in.getInt(); i > 0; i--) {
+            batch.addOrderStatus(new OrderStatusRow(in.getInt(), readString(in), readDateTime(in)));
+        }
+        for (int i = in.getInt(); i > 0; i--) {
+            batch.addTransaction(TransactionRow.builder()
+                    .transactionTypeId(in.getInt())
+                    .walletId(in.getInt())
+                    .portfolioId(in.getInt())
+                    .marketProductId(in.getInt())
+                    .orderId(in.getInt())
+                    .quantity(in.getInt())
+                    .price(readDecimal(in))
+                    .currency(readString(in))
+                    .transactionDate(readDateTime(in))
+                    .build());
+        }
+        for (int i = in.getInt(); i > 0; i--) {
+            batch.addWalletDelta(in.getInt(), readDecimal(in));
+        }
+        for (int i = in.getInt(); i > 0; i--) {
+            batch.addPositionDelta(in.getInt(), in.getInt(), in.getInt());
+        }
+        return batch;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer in) {
+        int scale = in.getInt();
+        byte[] unscaled = new byte[in.get()];
+        in.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeDateTime(DataOutputStream out, OffsetDateTime value) throws IOException {
+        out.writeLong(value.toEpochSecond());
+        out.writeInt(value.getNano());
+        out.writeInt(value.getOffset().getTotalSeconds());
+    }
+
+    private static OffsetDateTime readDateTime(ByteBuffer in) {
+        Instant instant = Instant.ofEpochSecond(in.getLong(), in.getInt());
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds(in.getInt()));
+    }
+}
@@ -0,0 +1,37 @@
+package com.ntros.journal;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Journal of match-cycle fill batches, written by the JournalFillPersistenceService and drained by the
+ * FillJournalPersister.
+ */
+@Component
+@ConditionalOnProperty(name = "fill.journal.enabled", havingValue = "true")
+public class FillJournal extends MappedJournal {
+
+    public static final String NAME = "fills";
+
+    @Autowired
+    public FillJournal(@Value("${fill.journal.dir:journal}") String directory,
+                       @Value("${fill.journal.segment-size:67108864}") int segmentSize,
+                       @Value("${fill.journal.force:false}") boolean force) {
+        this(Path.of(directory), segmentSize, force);
+    }
+
+    public FillJournal(Path directory, int segmentSize, boolean force) {
+        super(directory, segmentSize, force);
+    }
+
+    @Override
+    @PreDestroy
+    public synchronized void close() {
+        super.close();
+    }
+}
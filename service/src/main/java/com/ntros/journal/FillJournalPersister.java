@@ -0,0 +1,206 @@
+package com.ntros.journal;
+
+import com.ntros.exception.InvalidArgumentException;
+import com.ntros.fill.DeadLetterRow;
+import com.ntros.service.fill.FillBatch;
+import com.ntros.service.fill.FillPersistenceDataService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drains the fill journal into MySQL on a single background thread.
+ * Up to "fill.journal.batch-size" records are merged into one FillBatch and written in one transaction,
+ * together with the journal checkpoint. On startup the persister resumes after the checkpoint, which replays
+ * whatever a crash left unwritten, and nothing twice.
+ * Database failures are retried with backoff. A merged batch rejected for insufficient assets is retried
+ * record by record. A record that is still rejected is parked in fill_dead_letter, in the transaction that moves
+ * the checkpoint past it, so it can't block the journal and isn't lost: its fills already happened in the books
+ * and the ledgers. Parked records are retried every "fill.journal.dead-letter-retry-millis" until they apply.
+ * The ledgers load balances from the database, so nothing may read them before the records journaled ahead of
+ * the restart are written, see {@link #awaitReplay}.
+ */
+@Component
+@ConditionalOnProperty(name = "fill.journal.enabled", havingValue = "true")
+@Slf4j
+public class FillJournalPersister {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final FillJournal fillJournal;
+    private final FillPersistenceDataService fillPersistenceService;
+    private final int batchSize;
+    private final long deadLetterRetryNanos;
+
+    private final List<FillBatch> pending = new ArrayList<>();
+    // completed once the records journaled before start() are in the database
+    private final CompletableFuture<Void> replayed = new CompletableFuture<>();
+    private long replayTarget;
+    private MappedJournal.Cursor cursor;
+    private Thread thread;
+    private volatile boolean running;
+    private volatile long checkpoint;
+    private long nextDeadLetterRetry;
+
+    @Autowired
+    public FillJournalPersister(FillJournal fillJournal, FillPersistenceDataService fillPersistenceService,
+                                @Value("${fill.journal.batch-size:500}") int batchSize,
+                                @Value("${fill.journal.dead-letter-retry-millis:30000}") long deadLetterRetryMillis) {
+        this.fillJournal = fillJournal;
+        this.fillPersistenceService = fillPersistenceService;
+        this.batchSize = batchSize;
+        this.deadLetterRetryNanos = TimeUnit.MILLISECONDS.toNanos(deadLetterRetryMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        checkpoint = fillPersistenceService.getCheckpoint(FillJournal.NAME);
+        fillJournal.open(checkpoint);
+        cursor = fillJournal.cursor(checkpoint);
+        replayTarget = fillJournal.getLastSequence();
+        log.info("Starting fill journal persister at checkpoint {}, records to replay: {}",
+                checkpoint, replayTarget - checkpoint);
+        if (checkpoint >= replayTarget) {
+            replayed.complete(null);
+        }
+
+        nextDeadLetterRetry = System.nanoTime();
+        running = true;
+        thread = new Thread(this::run, "fill-journal-persister");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Records appended but not yet in the database.
+     */
+    public long getLag() {
+        return fillJournal.getLastSequence() - checkpoint;
+    }
+
+    /**
+     * Blocks until the records journaled before the restart are written, after which the database balances
+     * include every fill the books and ledgers made.
+     */
+    public void awaitReplay() {
+        replayed.join();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(30));
+        log.info("Stopped fill journal persister at checkpoint {}, lag: {}", checkpoint, getLag());
+    }
+
+    private void run() {
+        long backoffMillis = 100;
+        // keeps draining after stop() until the journal is written
+        while (running || !pending.isEmpty() || fillJournal.getLastSequence() > cursor.getSequence()) {
+            try {
+                if (running && System.nanoTime() - nextDeadLetterRetry >= 0) {
+                    retryDeadLetters();
+                    nextDeadLetterRetry = System.nanoTime() + deadLetterRetryNanos;
+                }
+                if (!drain()) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                if (!replayed.isDone() && checkpoint >= replayTarget) {
+                    log.info("Replayed fill journal up to {}", checkpoint);
+                    replayed.complete(null);
+                }
+                backoffMillis = 100;
+            } catch (RuntimeException ex) {
+                if (!running) {
+                    log.error("Fill journal persister stopped with {} records unwritten", getLag(), ex);
+                    replayed.completeExceptionally(ex);
+                    return;
+                }
+                log.error("Could not write fill journal after checkpoint {}, retrying in {} ms", checkpoint, backoffMillis, ex);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+                backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Writes the next group of records. A failed group stays pending and is retried as is.
+     *
+     * @return false if there was nothing to write
+     */
+    private boolean drain() {
+        if (pending.isEmpty()) {
+            ByteBuffer record;
+            while (pending.size() < batchSize && (record = cursor.next()) != null) {
+                pending.add(FillBatchCodec.decode(record));
+            }
+            if (pending.isEmpty()) {
+                return false;
+            }
+        }
+        long lastSequence = cursor.getSequence();
+        long firstSequence = lastSequence - pending.size() + 1;
+        if (checkpoint >= firstSequence) {
+            // a record by record retry failed part way, the head is already written
+            pending.subList(0, (int) (checkpoint - firstSequence + 1)).clear();
+            firstSequence = checkpoint + 1;
+        }
+        if (!pending.isEmpty()) {
+            FillBatch merged = new FillBatch();
+            pending.forEach(merged::merge);
+            try {
+                fillPersistenceService.persist(merged, FillJournal.NAME, lastSequence);
+            } catch (InvalidArgumentException ex) {
+                persistOneByOne(firstSequence);
+            }
+        }
+        pending.clear();
+        checkpoint = lastSequence;
+        fillJournal.release(lastSequence);
+        return true;
+    }
+
+    private void persistOneByOne(long firstSequence) {
+        for (int i = 0; i < pending.size(); i++) {
+            long sequence = firstSequence + i;
+            try {
+                fillPersistenceService.persist(pending.get(i), FillJournal.NAME, sequence);
+            } catch (InvalidArgumentException ex) {
+                log.error("Parking fill journal record {} as a dead letter: {}", sequence, ex.getMessage());
+                fillPersistenceService.park(FillJournal.NAME, sequence, FillBatchCodec.encode(pending.get(i)), ex.getMessage());
+            }
+            checkpoint = sequence;
+        }
+    }
+
+    /**
+     * Writes the parked records that apply by now, e.g. once the assets they deduct were credited.
+     * Rows of different records commute, so parked records can be written after later ones.
+     */
+    private void retryDeadLetters() {
+        for (DeadLetterRow deadLetter : fillPersistenceService.getDeadLetters(FillJournal.NAME)) {
+            try {
+                fillPersistenceService.persistDeadLetter(FillBatchCodec.decode(ByteBuffer.wrap(deadLetter.getPayload())),
+                        FillJournal.NAME, deadLetter.getSequence());
+                log.info("Wrote parked fill journal record {} after {} attempts", deadLetter.getSequence(), deadLetter.getAttempts());
+            } catch (InvalidArgumentException ex) {
+                fillPersistenceService.recordDeadLetterAttempt(FillJournal.NAME, deadLetter.getSequence(), ex.getMessage());
+                log.warn("Parked fill journal record {} still rejected after {} attempts: {}",
+                        deadLetter.getSequence(), deadLetter.getAttempts() + 1, ex.getMessage());
+            }
+        }
+    }
+}
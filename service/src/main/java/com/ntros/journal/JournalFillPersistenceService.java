@@ -0,0 +1,36 @@
+package com.ntros.journal;
+
+import com.ntros.service.fill.FillBatch;
+import com.ntros.service.fill.FillPersistenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Write-behind persistence: a match cycle's batch is appended to the fill journal and the cycle is acknowledged
+ * without waiting for MySQL. The FillJournalPersister writes the journal to the database in the background.
+ * Enabled with "fill.journal.enabled=true", otherwise batches are written by the FillPersistenceDataService.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "fill.journal.enabled", havingValue = "true")
+public class JournalFillPersistenceService implements FillPersistenceService {
+
+    private final FillJournal fillJournal;
+
+    @Autowired
+    public JournalFillPersistenceService(FillJournal fillJournal) {
+        this.fillJournal = fillJournal;
+    }
+
+    @Override
+    public CompletableFuture<Void> persist(FillBatch batch) {
+        if (!batch.isEmpty()) {
+            fillJournal.append(FillBatchCodec.encode(batch));
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,290 @@
+package com.ntros.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of records in memory-mapped segment files.
+ * A record is [payload length][crc32 of payload][sequence][payload], sequences start at 1 and have no gaps.
+ * Each segment is named after the sequence of its first record, a length of -1 marks the end of a full segment.
+ * An append returns once the record is in the mapped file, so it survives a crash of the process; with
+ * force set it is also flushed to the device, which survives a crash of the host.
+ * One writer at a time, any number of readers through {@link Cursor}.
+ */
+@Slf4j
+public class MappedJournal {
+
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean force;
+
+    // first sequence -> segment file
+    private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private final CRC32 crc = new CRC32();
+
+    // guarded by this
+    private MappedByteBuffer writeBuffer;
+    private long writeSegment;
+    // segments filled since the last sync, without force
+    private final List<MappedByteBuffer> unsynced = new ArrayList<>();
+    // last appended sequence, published after the record is written
+    private volatile long lastSequence = -1;
+
+    public MappedJournal(Path directory, int segmentSize, boolean force) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.force = force;
+    }
+
+    /**
+     * Recovers the segments on disk and positions the writer after the last intact record.
+     * A torn record at the tail, left by a crash mid-append, is overwritten by the next append.
+     *
+     * @param checkpoint - last sequence its consumer has already applied; a journal that is behind it, because
+     *                   its files were lost or deleted, starts over at the next sequence
+     */
+    public synchronized void open(long checkpoint) {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                        .forEach(file -> segments.put(firstSequence(file), file));
+            }
+            if (segments.isEmpty()) {
+                startSegment(checkpoint + 1);
+            } else {
+                writeSegment = segments.lastKey();
+                writeBuffer = map(segments.lastEntry().getValue(), FileChannel.MapMode.READ_WRITE);
+                long sequence = writeSegment;
+                while (readRecord(writeBuffer, sequence) != null) {
+                    sequence++;
+                }
+                lastSequence = sequence - 1;
+                if (lastSequence < checkpoint) {
+                    log.warn("Journal {} ends at {} behind checkpoint {}, starting a new segment", directory, lastSequence, checkpoint);
+                    startSegment(checkpoint + 1);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        log.info("Opened journal in {}: segments: {}, last sequence: {}", directory, segments.size(), lastSequence);
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @return - sequence of the record
+     */
+    public synchronized long append(byte[] payload) {
+        if (writeBuffer == null) {
+            throw new IllegalStateException(String.format("Journal %s is not open.", directory));
+        }
+        int size = HEADER_SIZE + payload.length;
+        if (size + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException(String.format("Journal record of %s bytes exceeds segment size: %s", size, segmentSize));
+        }
+        long sequence = lastSequence + 1;
+        if (writeBuffer.remaining() < size + Integer.BYTES) {
+            // keeps room for the end marker in every segment
+            writeBuffer.putInt(END_OF_SEGMENT);
+            flush(writeBuffer.position() - Integer.BYTES, Integer.BYTES);
+            if (!force) {
+                unsynced.add(writeBuffer);
+            }
+            startSegment(sequence);
+        }
+        int position = writeBuffer.position();
+        crc.reset();
+        crc.update(payload);
+        // the length goes last, a reader never sees a length without the rest of the record
+        writeBuffer.position(position + Integer.BYTES);
+        writeBuffer.putInt((int) crc.getValue())
+                .putLong(sequence)
+                .put(payload);
+        writeBuffer.putInt(position, payload.length);
+        flush(position, size);
+
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    /**
+     * Reader positioned after the given sequence.
+     */
+    public Cursor cursor(long afterSequence) {
+        return new Cursor(afterSequence);
+    }
+
+    /**
+     * Deletes segments whose records are all at or below the checkpoint. The segment being written is kept.
+     */
+    public void release(long checkpoint) {
+        for (Long first : segments.keySet()) {
+            Long next = segments.higherKey(first);
+            if (next == null || next - 1 > checkpoint) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(segments.remove(first));
+                log.info("Released journal segment {}", first);
+            } catch (IOException ex) {
+                log.error("Could not delete journal segment {}", first, ex);
+            }
+        }
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Oldest sequence still on disk, records before it were released.
+     */
+    public long getFirstSequence() {
+        return segments.firstKey();
+    }
+
+    /**
+     * Flushes every record appended so far to the device, for journals that do not force each append.
+     */
+    public synchronized void sync() {
+        unsynced.forEach(MappedByteBuffer::force);
+        unsynced.clear();
+        if (writeBuffer != null) {
+            writeBuffer.force();
+        }
+    }
+
+    public synchronized void close() {
+        sync();
+    }
+
+    private void startSegment(long firstSequence) {
+        Path file = directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        writeBuffer = map(file, FileChannel.MapMode.READ_WRITE);
+        writeSegment = firstSequence;
+        segments.put(firstSequence, file);
+        lastSequence = firstSequence - 1;
+    }
+
+    private void flush(int position, int length) {
+        if (force) {
+            writeBuffer.force(position, length);
+        }
+    }
+
+    private MappedByteBuffer map(Path file, FileChannel.MapMode mode) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(mode, 0, segmentSize);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Reads the record at the buffer's position if it is intact and carries the expected sequence,
+     * moving the position past it.
+     *
+     * @return payload, null at the end of the written records
+     */
+    private static ByteBuffer readRecord(ByteBuffer buffer, long expectedSequence) {
+        int position = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || length > buffer.remaining() - HEADER_SIZE
+                || buffer.getLong(position + 2 * Integer.BYTES) != expectedSequence) {
+            return null;
+        }
+        ByteBuffer payload = buffer.slice(position + HEADER_SIZE, length);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload.duplicate());
+        if ((int) checksum.getValue() != buffer.getInt(position + Integer.BYTES)) {
+            return null;
+        }
+        buffer.position(position + HEADER_SIZE + length);
+        return payload;
+    }
+
+    private static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Reads records in sequence order, up to the last one appended. Not thread-safe.
+     */
+    public final class Cursor {
+
+        private ByteBuffer buffer;
+        private long sequence;
+
+        private Cursor(long afterSequence) {
+            sequence = afterSequence;
+        }
+
+        /**
+         * @return payload of the next record, null if none was appended yet
+         */
+        public ByteBuffer next() {
+            long next = sequence + 1;
+            if (next > lastSequence) {
+                return null;
+            }
+            if (buffer == null || isEndOfSegment()) {
+                openSegment(next);
+            }
+            ByteBuffer payload = readRecord(buffer, next);
+            if (payload == null) {
+                throw new IllegalStateException(String.format("Journal record %s is missing or corrupt", next));
+            }
+            sequence = next;
+            return payload;
+        }
+
+        /**
+         * Sequence of the last record returned.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        private boolean isEndOfSegment() {
+            return buffer.remaining() < HEADER_SIZE || buffer.getInt(buffer.position()) == END_OF_SEGMENT;
+        }
+
+        private void openSegment(long next) {
+            var segment = segments.floorEntry(next);
+            if (segment == null) {
+                throw new IllegalStateException(String.format("Journal has no segment for record %s", next));
+            }
+            buffer = map(segment.getValue(), FileChannel.MapMode.READ_ONLY);
+            // skips the records the cursor was created after
+            for (long skipped = segment.getKey(); skipped < next; skipped++) {
+                if (readRecord(buffer, skipped) == null) {
+                    throw new IllegalStateException(String.format("Journal record %s is missing or corrupt", skipped));
+                }
+            }
+        }
+    }
+}
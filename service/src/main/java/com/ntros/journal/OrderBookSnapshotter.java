@@ -0,0 +1,250 @@
+package com.ntros.journal;
+
+import com.ntros.cache.OrderBookRegistry;
+import com.ntros.cache.OrderBookSnapshot;
+import com.ntros.cache.OrderCache;
+import com.ntros.engine.BookEvent;
+import com.ntros.engine.MatchingEngine;
+import com.ntros.order.OpenOrderCount;
+import com.ntros.order.OpenOrderCountRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Periodically writes a snapshot of every market's book, tagged with the last order event it includes, and
+ * rebuilds the books on startup from those snapshots plus the order events journaled after them.
+ * Recovery falls back to a full reload from the database when a market has no usable snapshot, the
+ * journal no longer reaches back to it, or a recovered book does not hold the open orders the database does,
+ * as after a host crash took the journal's unsynced tail. The journal is synced at every snapshot, so it
+ * never ends before a snapshot's sequence.
+ * Enabled with "orderbook.snapshot.enabled=true", snapshots are written every "orderbook.snapshot.interval-seconds".
+ */
+@Component
+@ConditionalOnProperty(name = "orderbook.snapshot.enabled", havingValue = "true")
+@Slf4j
+public class OrderBookSnapshotter {
+
+    private static final String SUFFIX = ".snapshot";
+
+    private final OrderBookRegistry orderBookRegistry;
+    private final MatchingEngine matchingEngine;
+    private final OrderEventJournal eventJournal;
+    private final OpenOrderCountRepository openOrderCountRepository;
+    private final Path directory;
+    private final long intervalSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public OrderBookSnapshotter(OrderBookRegistry orderBookRegistry, MatchingEngine matchingEngine,
+                                OrderEventJournal eventJournal, OpenOrderCountRepository openOrderCountRepository,
+                                @Value("${orderbook.snapshot.dir:snapshots}") String directory,
+                                @Value("${orderbook.snapshot.interval-seconds:300}") long intervalSeconds) {
+        this(orderBookRegistry, matchingEngine, eventJournal, openOrderCountRepository, Path.of(directory), intervalSeconds);
+    }
+
+    public OrderBookSnapshotter(OrderBookRegistry orderBookRegistry, MatchingEngine matchingEngine,
+                                OrderEventJournal eventJournal, OpenOrderCountRepository openOrderCountRepository,
+                                Path directory, long intervalSeconds) {
+        this.orderBookRegistry = orderBookRegistry;
+        this.matchingEngine = matchingEngine;
+        this.eventJournal = eventJournal;
+        this.openOrderCountRepository = openOrderCountRepository;
+        this.directory = directory;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    /**
+     * Restores every market's book from its snapshot and replays the order events after it, then checks each
+     * book's open order count and highest order id against the database.
+     * Markets are restored in parallel, each on its own writer thread.
+     *
+     * @return false if the books must be loaded from the database instead, they are left empty
+     */
+    public boolean recover() {
+        Set<String> markets = orderBookRegistry.getMarkets();
+        Map<String, OrderBookSnapshot> snapshots = readSnapshots();
+        if (!snapshots.keySet().containsAll(markets)) {
+            log.info("No order book snapshot for markets: {}", markets.stream().filter(market -> !snapshots.containsKey(market)).toList());
+            return false;
+        }
+        long from = markets.stream().mapToLong(market -> snapshots.get(market).getSequence()).min().orElse(0);
+        long to = markets.stream().mapToLong(market -> snapshots.get(market).getSequence()).max().orElse(0);
+        if (eventJournal.getFirstSequence() > from + 1 || eventJournal.getLastSequence() < to) {
+            log.warn("Order event journal {}..{} does not cover the snapshots at {}..{}",
+                    eventJournal.getFirstSequence(), eventJournal.getLastSequence(), from, to);
+            return false;
+        }
+
+        try {
+            Map<String, List<List<BookEvent>>> replay = new HashMap<>();
+            eventJournal.replay(from, (sequence, market, events) -> {
+                OrderBookSnapshot snapshot = snapshots.get(market);
+                // markets dropped since, and events the snapshot already includes
+                if (snapshot != null && markets.contains(market) && sequence > snapshot.getSequence()) {
+                    replay.computeIfAbsent(market, key -> new ArrayList<>()).add(events);
+                }
+            });
+            Map<String, CompletableFuture<OpenOrderCount>> recovered = new HashMap<>();
+            markets.forEach(market -> recovered.put(market, matchingEngine.onBook(market, book -> {
+                book.clear();
+                snapshots.get(market).getOrders().forEach(book::restoreOrder);
+                replay.getOrDefault(market, List.of()).forEach(events -> events.forEach(event -> event.applyTo(book)));
+                return countOrders(book);
+            })));
+            List<String> mismatched = new ArrayList<>();
+            for (String market : markets) {
+                OpenOrderCount inBook = recovered.get(market).join();
+                OpenOrderCount inDatabase = openOrderCountRepository.countOpenOrders(market);
+                if (inBook.getCount() != inDatabase.getCount() || inBook.getMaxOrderId() != inDatabase.getMaxOrderId()) {
+                    log.warn("Recovered order book of market: {} holds {}, the database {}", market, inBook, inDatabase);
+                    mismatched.add(market);
+                }
+            }
+            if (!mismatched.isEmpty()) {
+                clearBooks(markets);
+                return false;
+            }
+            log.info("Recovered {} order books from snapshots, replayed order events {}..{}",
+                    markets.size(), from + 1, eventJournal.getLastSequence());
+            return true;
+        } catch (RuntimeException ex) {
+            log.error("Could not recover order books from snapshots", ex);
+            clearBooks(markets);
+            return false;
+        }
+    }
+
+    /**
+     * Snapshots every market, then releases the journal segments all snapshots include.
+     * Each book is copied on its writer thread between engine tasks and written to disk off it, once the
+     * journal is synced past the copies' sequences.
+     */
+    public void snapshotAll() {
+        Set<String> markets = orderBookRegistry.getMarkets();
+        List<CompletableFuture<OrderBookSnapshot>> copies = markets.stream()
+                .map(market -> matchingEngine.onBook(market, book -> OrderBookSnapshot.of(book, eventJournal.getLastSequence())))
+                .toList();
+        CompletableFuture.allOf(copies.toArray(CompletableFuture[]::new)).join();
+        // a snapshot must not outlive the journal records it includes, or the next records reuse its sequences
+        eventJournal.sync();
+        long released = Long.MAX_VALUE;
+        for (CompletableFuture<OrderBookSnapshot> copy : copies) {
+            OrderBookSnapshot snapshot = copy.join();
+            write(snapshot);
+            released = Math.min(released, snapshot.getSequence());
+        }
+        deleteSnapshotsExcept(markets);
+        if (released != Long.MAX_VALUE) {
+            eventJournal.release(released);
+        }
+        log.info("Wrote order book snapshots of {} markets, journal released up to {}", markets.size(), released);
+    }
+
+    public void schedule() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "orderbook-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshotAll();
+            } catch (RuntimeException ex) {
+                log.error("Could not write order book snapshots", ex);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static OpenOrderCount countOrders(OrderCache book) {
+        int[] maxOrderId = new int[1];
+        book.forEachOrder(order -> maxOrderId[0] = Math.max(maxOrderId[0], order.getOrderId()));
+        return new OpenOrderCount(book.size(), maxOrderId[0]);
+    }
+
+    private void clearBooks(Set<String> markets) {
+        CompletableFuture.allOf(markets.stream()
+                        .map(market -> matchingEngine.onBook(market, book -> {
+                            book.clear();
+                            return 0;
+                        }))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    private Map<String, OrderBookSnapshot> readSnapshots() {
+        Map<String, OrderBookSnapshot> snapshots = new HashMap<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).forEach(file -> {
+                try {
+                    OrderBookSnapshot snapshot = OrderBookSnapshot.decode(Files.readAllBytes(file));
+                    snapshots.put(snapshot.getMarket(), snapshot);
+                } catch (IOException | RuntimeException ex) {
+                    log.warn("Skipping unreadable order book snapshot {}", file, ex);
+                }
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return snapshots;
+    }
+
+    private void write(OrderBookSnapshot snapshot) {
+        Path file = directory.resolve(snapshot.getMarket() + SUFFIX);
+        Path tmp = directory.resolve(snapshot.getMarket() + SUFFIX + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            Files.write(tmp, snapshot.encode());
+            // readers see the previous snapshot or this one, never a partial file
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void deleteSnapshotsExcept(Set<String> markets) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).toList()) {
+                String name = file.getFileName().toString();
+                if (!markets.contains(name.substring(0, name.length() - SUFFIX.length()))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
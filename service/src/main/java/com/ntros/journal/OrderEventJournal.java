@@ -0,0 +1,72 @@
+package com.ntros.journal;
+
+import com.ntros.engine.BookEvent;
+import com.ntros.engine.BookEventLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Journal of the MatchingEngine's book events, one record per engine task. Together with the latest
+ * snapshots it rebuilds the order books on startup, see {@link OrderBookSnapshotter}.
+ * Records no snapshot needs any longer are released by the snapshotter.
+ */
+@Component
+@ConditionalOnProperty(name = "orderbook.snapshot.enabled", havingValue = "true")
+public class OrderEventJournal extends MappedJournal implements BookEventLog {
+
+    @Autowired
+    public OrderEventJournal(@Value("${orderbook.snapshot.dir:snapshots}") String directory,
+                             @Value("${orderbook.snapshot.segment-size:67108864}") int segmentSize) {
+        this(Path.of(directory).resolve("events"), segmentSize);
+    }
+
+    public OrderEventJournal(Path directory, int segmentSize) {
+        // no sync per append: synced at every snapshot, and a tail lost in a host crash fails the snapshotter's
+        // check against the database, which then reloads the books from it
+        super(directory, segmentSize, false);
+    }
+
+    /**
+     * Opens the journal where it ended, before the engine takes orders.
+     */
+    @PostConstruct
+    public void open() {
+        open(0);
+    }
+
+    @Override
+    public void append(String market, List<BookEvent> events) {
+        append(BookEventCodec.encode(market, events));
+    }
+
+    /**
+     * Reads every record after the given sequence, oldest first.
+     */
+    public void replay(long afterSequence, RecordHandler handler) {
+        Cursor cursor = cursor(afterSequence);
+        for (ByteBuffer record = cursor.next(); record != null; record = cursor.next()) {
+            String market = BookEventCodec.decodeMarket(record);
+            handler.accept(cursor.getSequence(), market, BookEventCodec.decodeEvents(record));
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public synchronized void close() {
+        super.close();
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler {
+
+        void accept(long sequence, String market, List<BookEvent> events);
+    }
+}
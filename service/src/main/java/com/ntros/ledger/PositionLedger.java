@@ -0,0 +1,187 @@
+package com.ntros.ledger;
+
+import com.ntros.exception.InvalidArgumentException;
+import com.ntros.position.PositionHoldRow;
+import com.ntros.position.PositionLedgerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Authoritative quantities of the positions that trade, held in memory and keyed by (account, product).
+ * A SELL order holds every unit it may still fill, from before it is created until it is filled, cancelled or,
+ * for orders that don't rest, done matching. Units are checked against the quantity net of every hold under
+ * the position's lock, so concurrent orders can't sell the same units twice.
+ * A position is loaded on first use with the holds of its resting SELL orders. The database is only written
+ * by settlement, which adds the net quantity changes of a cycle to its FillBatch as batched upserts.
+ */
+@Component
+@Slf4j
+public class PositionLedger {
+
+    private final PositionLedgerRepository positionLedgerRepository;
+
+    // (accountId, productId) -> quantity and holds
+    private final Map<Long, PositionAccount> positions;
+    // orderId -> hold of a SELL order
+    private final Map<Integer, Hold> holds;
+
+    @Autowired
+    public PositionLedger(PositionLedgerRepository positionLedgerRepository) {
+        this.positionLedgerRepository = positionLedgerRepository;
+        positions = new ConcurrentHashMap<>();
+        holds = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Holds units of the position for a SELL order that is about to be created.
+     * The hold is tied to the order with {@link #assign} once it has an id, or given back with {@link #release(Hold)}.
+     *
+     * @throws InvalidArgumentException if the position net of its holds doesn't cover the quantity
+     */
+    public Hold reserve(int accountId, int productId, int quantity) {
+        long key = key(accountId, productId);
+        PositionAccount position = positionFor(key);
+        synchronized (position) {
+            int available = position.quantity - position.held;
+            if (available < quantity) {
+                throw InvalidArgumentException.with(
+                        format("Not enough assets to sell. Requested sells=%s, available quantity=%s", quantity, available));
+            }
+            position.held += quantity;
+        }
+        return new Hold(key, quantity);
+    }
+
+    public void assign(Hold hold, int orderId) {
+        holds.put(orderId, hold);
+    }
+
+    /**
+     * Gives back what is left of a hold not assigned to an order.
+     */
+    public void release(Hold hold) {
+        PositionAccount position = positionFor(hold.key);
+        synchronized (position) {
+            position.held -= hold.remainingQuantity;
+            hold.remainingQuantity = 0;
+        }
+    }
+
+    /**
+     * Gives back what is left of an order's hold, once it is cancelled or won't fill any further.
+     * A no-op for orders without a hold.
+     */
+    public void release(int orderId) {
+        Hold hold = holds.remove(orderId);
+        if (hold != null) {
+            release(hold);
+        }
+    }
+
+    /**
+     * Takes the units of a SELL fill off the position and consumes their hold.
+     */
+    public void deliver(int accountId, int productId, int orderId, int quantity) {
+        PositionAccount position = positionFor(key(accountId, productId));
+        synchronized (position) {
+            position.quantity -= quantity;
+            Hold hold = holds.get(orderId);
+            if (hold != null) {
+                int consumed = Math.min(quantity, hold.remainingQuantity);
+                position.held -= consumed;
+                hold.remainingQuantity -= consumed;
+                if (hold.remainingQuantity == 0) {
+                    holds.remove(orderId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the units of a BUY fill to the position.
+     */
+    public void receive(int accountId, int productId, int quantity) {
+        PositionAccount position = positionFor(key(accountId, productId));
+        synchronized (position) {
+            position.quantity += quantity;
+        }
+    }
+
+    /**
+     * Moves the position by a signed quantity without touching its holds, as when the units of fills that
+     * could not be settled are taken back.
+     */
+    public void adjust(int accountId, int productId, int quantity) {
+        PositionAccount position = positionFor(key(accountId, productId));
+        synchronized (position) {
+            position.quantity += quantity;
+        }
+    }
+
+    public int getQuantity(int accountId, int productId) {
+        PositionAccount position = positionFor(key(accountId, productId));
+        synchronized (position) {
+            return position.quantity;
+        }
+    }
+
+    /**
+     * @return quantity net of the units held by open SELL orders
+     */
+    public int getAvailable(int accountId, int productId) {
+        PositionAccount position = positionFor(key(accountId, productId));
+        synchronized (position) {
+            return position.quantity - position.held;
+        }
+    }
+
+    private PositionAccount positionFor(long key) {
+        return positions.computeIfAbsent(key, this::load);
+    }
+
+    // holds taken after this point go through the ledger, so the stored ones are read exactly once
+    private PositionAccount load(long key) {
+        int accountId = (int) (key >>> 32);
+        int productId = (int) key;
+        PositionAccount position = new PositionAccount(positionLedgerRepository.findQuantity(accountId, productId));
+        for (PositionHoldRow row : positionLedgerRepository.findHolds(accountId, productId)) {
+            holds.put(row.getOrderId(), new Hold(key, row.getRemainingQuantity()));
+            position.held += row.getRemainingQuantity();
+        }
+        log.info("Loaded position of account {} in product {} into the ledger. Quantity: {}, held: {}",
+                accountId, productId, position.quantity, position.held);
+        return position;
+    }
+
+    private static long key(int accountId, int productId) {
+        return ((long) accountId << 32) | (productId & 0xFFFFFFFFL);
+    }
+
+    private static final class PositionAccount {
+        private int quantity;
+        private int held;
+
+        private PositionAccount(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+
+    /**
+     * Units held for a SELL order. Changed only under its position's lock.
+     */
+    public static final class Hold {
+        private final long key;
+        private int remainingQuantity;
+
+        private Hold(long key, int remainingQuantity) {
+            this.key = key;
+            this.remainingQuantity = remainingQuantity;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.ntros.ledger;
+
+import com.ntros.account.WalletHoldRow;
+import com.ntros.account.WalletLedgerRepository;
+import com.ntros.exception.InvalidArgumentException;
+import com.ntros.exception.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Authoritative balances of the wallets that trade, held in memory and keyed by wallet id.
+ * A BUY order holds its limit price for every unit it may still fill, from before it is created until it is
+ * filled, cancelled or, for orders that don't rest, done matching. Funds are checked against the balance net
+ * of every hold under the wallet's lock, so concurrent orders can't spend the same funds twice.
+ * Fills debit the actual cost and consume the filled units' hold; SELL fills credit the proceeds.
+ * A wallet is loaded on first use with the holds of its resting BUY orders. The database is only written by
+ * settlement, which adds the net balance changes of a cycle to its FillBatch.
+ */
+@Component
+@Slf4j
+public class WalletLedger {
+
+    private final WalletLedgerRepository walletLedgerRepository;
+
+    // walletId -> balance and holds
+    private final Map<Integer, WalletAccount> wallets;
+    // orderId -> hold of a BUY order
+    private final Map<Integer, Hold> holds;
+
+    @Autowired
+    public WalletLedger(WalletLedgerRepository walletLedgerRepository) {
+        this.walletLedgerRepository = walletLedgerRepository;
+        wallets = new ConcurrentHashMap<>();
+        holds = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Holds price * quantity of the wallet's funds for an order that is about to be created.
+     * The hold is tied to the order with {@link #assign} once it has an id, or given back with {@link #release(Hold)}.
+     *
+     * @throws InvalidArgumentException if the wallet's balance net of its holds doesn't cover the amount
+     */
+    public Hold reserve(int walletId, BigDecimal price, int quantity) {
+        WalletAccount account = accountFor(walletId);
+        BigDecimal amount = price.multiply(BigDecimal.valueOf(quantity));
+        synchronized (account) {
+            BigDecimal available = account.balance.subtract(account.held);
+            if (available.compareTo(amount) < 0) {
+                throw InvalidArgumentException.with(format("Not enough funds to complete the buy order. Available funds: %s", available));
+            }
+            account.held = account.held.add(amount);
+        }
+        return new Hold(walletId, price, quantity);
+    }
+
+    public void assign(Hold hold, int orderId) {
+        holds.put(orderId, hold);
+    }
+
+    /**
+     * Gives back what is left of a hold not assigned to an order.
+     */
+    public void release(Hold hold) {
+        WalletAccount account = accountFor(hold.walletId);
+        synchronized (account) {
+            account.held = account.held.subtract(hold.price.multiply(BigDecimal.valueOf(hold.remainingQuantity)));
+            hold.remainingQuantity = 0;
+        }
+    }
+
+    /**
+     * Gives back what is left of an order's hold, once it is cancelled or won't fill any further.
+     * A no-op for orders without a hold.
+     */
+    public void release(int orderId) {
+        Hold hold = holds.remove(orderId);
+        if (hold != null) {
+            release(hold);
+        }
+    }
+
+    /**
+     * Takes the cost of a BUY fill off the wallet and consumes the hold of the filled units.
+     */
+    public void debit(int walletId, int orderId, int quantity, BigDecimal cost) {
+        WalletAccount account = accountFor(walletId);
+        synchronized (account) {
+            account.balance = account.balance.subtract(cost);
+            Hold hold = holds.get(orderId);
+            if (hold != null) {
+                int consumed = Math.min(quantity, hold.remainingQuantity);
+                account.held = account.held.subtract(hold.price.multiply(BigDecimal.valueOf(consumed)));
+                hold.remainingQuantity -= consumed;
+                if (hold.remainingQuantity == 0) {
+                    holds.remove(orderId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the proceeds of a SELL fill to the wallet.
+     */
+    public void credit(int walletId, BigDecimal amount) {
+        WalletAccount account = accountFor(walletId);
+        synchronized (account) {
+            account.balance = account.balance.add(amount);
+        }
+    }
+
+    /**
+     * Moves the wallet's balance by a signed amount without touching its holds, as when the funds of fills
+     * that could not be settled are taken back.
+     */
+    public void adjust(int walletId, BigDecimal amount) {
+        WalletAccount account = accountFor(walletId);
+        synchronized (account) {
+            account.balance = account.balance.add(amount);
+        }
+    }
+
+    public BigDecimal getBalance(int walletId) {
+        WalletAccount account = accountFor(walletId);
+        synchronized (account) {
+            return account.balance;
+        }
+    }
+
+    /**
+     * @return balance net of the funds held by open BUY orders
+     */
+    public BigDecimal getAvailable(int walletId) {
+        WalletAccount account = accountFor(walletId);
+        synchronized (account) {
+            return account.balance.subtract(account.held);
+        }
+    }
+
+    /**
+     * Forgets a wallet, it is reloaded from the database on next use.
+     */
+    public void evict(int walletId) {
+        wallets.remove(walletId);
+        holds.values().removeIf(hold -> hold.walletId == walletId);
+    }
+
+    private WalletAccount accountFor(int walletId) {
+        return wallets.computeIfAbsent(walletId, this::load);
+    }
+
+    // holds taken after this point go through the ledger, so the stored ones are read exactly once
+    private WalletAccount load(int walletId) {
+        BigDecimal balance = walletLedgerRepository.findBalance(walletId)
+                .orElseThrow(() -> NotFoundException.with(format("Wallet not found for id: %s", walletId)));
+        WalletAccount account = new WalletAccount(balance);
+        for (WalletHoldRow row : walletLedgerRepository.findHolds(walletId)) {
+            holds.put(row.getOrderId(), new Hold(walletId, row.getPrice(), row.getRemainingQuantity()));
+            account.held = account.held.add(row.getPrice().multiply(BigDecimal.valueOf(row.getRemainingQuantity())));
+        }
+        log.info("Loaded wallet {} into the ledger. Balance: {}, held: {}", walletId, balance, account.held);
+        return account;
+    }
+
+    private static final class WalletAccount {
+        private BigDecimal balance;
+        private BigDecimal held = BigDecimal.ZERO;
+
+        private WalletAccount(BigDecimal balance) {
+            this.balance = balance;
+        }
+    }
+
+    /**
+     * Funds held for a BUY order: its limit price for every unit it may still fill.
+     * Changed only under its wallet's lock.
+     */
+    public static final class Hold {
+        private final int walletId;
+        private final BigDecimal price;
+        private int remainingQuantity;
+
+        private Hold(int walletId, BigDecimal price, int remainingQuantity) {
+            this.walletId = walletId;
+            this.price = price;
+            this.remainingQuantity = remainingQuantity;
+        }
+    }
+}
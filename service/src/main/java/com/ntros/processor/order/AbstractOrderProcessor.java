@@ -1,8 +1,12 @@
 package com.ntros.processor.order;
 
-import com.ntros.cache.OrderBook;
+import com.ntros.cache.OrderBookRegistry;
+import com.ntros.concurrent.WorkloadExecutor;
 import com.ntros.dto.order.request.OrderRequest;
 import com.ntros.dto.order.response.OrderResponse;
+import com.ntros.engine.MatchingEngine;
+import com.ntros.exception.MarketNotReadyException;
+import com.ntros.exception.ServiceBusyException;
 import com.ntros.model.order.Order;
 import com.ntros.processor.order.notification.CallbackNotifier;
 import com.ntros.service.order.OrderService;
@@ -12,23 +16,25 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-
-import static java.util.concurrent.CompletableFuture.runAsync;
 
 @Service
 @Slf4j
 public abstract class AbstractOrderProcessor<S extends OrderRequest, R extends OrderResponse> implements OrderProcessor<S, R> {
 
-    protected final Executor executor;
+    protected final WorkloadExecutor executor;
     protected final OrderService orderService;
+    protected final OrderBookRegistry orderBookRegistry;
+    protected final MatchingEngine matchingEngine;
 //    @Autowired
 //    protected CallbackNotifier<R> callbackNotifier;
 
     @Autowired
-    public AbstractOrderProcessor(@Qualifier("taskExecutor") Executor executor, OrderService orderService) {
+    public AbstractOrderProcessor(@Qualifier("matchingExecutor") WorkloadExecutor executor, OrderService orderService,
+                                  OrderBookRegistry orderBookRegistry, MatchingEngine matchingEngine) {
         this.executor = executor;
         this.orderService = orderService;
+        this.orderBookRegistry = orderBookRegistry;
+        this.matchingEngine = matchingEngine;
     }
 
     /**
@@ -39,15 +45,28 @@ public abstract class AbstractOrderProcessor<S extends OrderRequest, R extends O
      * and type(MARKET, LIMIT, STOP)
      * - Build response
      *
+     * Orders for a market whose book is still loading on startup, or while the settlement queue or the market's
+     * matching queue is full, are rejected before anything is written.
+     *
      * @param orderRequest - incoming order
      * @return Order Response
+     * @throws MarketNotReadyException if the market's book is not loaded yet
+     * @throws ServiceBusyException if the settlement queue or the market's matching queue is full
      * <p>
      */
     @Override
     public R processOrder(S orderRequest) {
+        long receivedAt = System.nanoTime();
+        if (!orderBookRegistry.isReady(orderRequest.getMarketCode())) {
+            throw MarketNotReadyException.with(String.format("Order book for market %s is still loading, retry later.",
+                    orderRequest.getMarketCode()));
+        }
+        if (executor.isSaturated() || matchingEngine.isSaturated(orderRequest.getMarketCode())) {
+            throw ServiceBusyException.with("Too many orders are waiting to be matched, retry later.");
+        }
         try {
             Order initializedOrder = initialize(orderRequest);
-            processInBackground(orderRequest, initializedOrder);
+            processInBackground(orderRequest, initializedOrder, receivedAt);
 
             return buildOrderSuccessResponse(initializedOrder);
         } catch (Exception ex) {
@@ -56,23 +75,36 @@ public abstract class AbstractOrderProcessor<S extends OrderRequest, R extends O
         }
     }
 
-    private void processInBackground(S orderRequest, Order initializedOrder) {
-        runAsync(() -> {
-            try {
-                Order processedOrder = process(initializedOrder).join();
+    /**
+     * Matching and settlement run on the engine's writer thread and the matching executor, nothing here
+     * blocks a pool thread while waiting for them.
+     */
+    private void processInBackground(S orderRequest, Order initializedOrder, long receivedAt) {
+        try {
+            process(initializedOrder).whenComplete((processedOrder, ex) -> {
+                if (ex != null) {
+                    log.error("Failed to process order: {}", initializedOrder, ex);
+                    return;
+                }
                 log.info("Successfully processed order: [{}]", processedOrder);
-
-                // remove order from orderBook
-                OrderBook.forMarket(processedOrder.market()).removeOrder(processedOrder.getOrderId());
+                onProcessed(processedOrder, receivedAt);
 //                callbackNotifier.notifyCallback(buildOrderSuccessResponse(processedOrder), orderRequest.getCallbackUrl());
-            } catch (Exception ex) {
-                log.error("Failed to process order: {}", initializedOrder, ex);
-            }
-        }, executor);
+            });
+        } catch (Exception ex) {
+            log.error("Failed to process order: {}", initializedOrder, ex);
+        }
     }
 
     protected abstract Order initialize(S orderRequest);
 
+    /**
+     * Called once background processing of an order completed successfully.
+     *
+     * @param receivedAt - System.nanoTime() taken when the request was picked up
+     */
+    protected void onProcessed(Order processedOrder, long receivedAt) {
+    }
+
     protected abstract CompletableFuture<Order> process(Order order);
 
     protected abstract R buildOrderSuccessResponse(Order order);
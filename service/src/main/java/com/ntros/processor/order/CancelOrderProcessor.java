@@ -1,30 +1,42 @@
 package com.ntros.processor.order;
 
+import com.ntros.cache.OrderBookRegistry;
+import com.ntros.cache.RestingOrder;
+import com.ntros.concurrent.WorkloadExecutor;
 import com.ntros.dto.order.request.CancelOrderRequest;
 import com.ntros.dto.order.response.CancelOrderResponse;
 import com.ntros.dto.order.response.Status;
+import com.ntros.engine.MatchingEngine;
+import com.ntros.exception.InvalidArgumentException;
+import com.ntros.ledger.PositionLedger;
+import com.ntros.ledger.WalletLedger;
 import com.ntros.model.order.CurrentOrderStatus;
 import com.ntros.model.order.Order;
 import com.ntros.model.order.OrderStatus;
 import com.ntros.processor.order.notification.CallbackNotifier;
 import com.ntros.service.order.OrderService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
 
 import static com.ntros.dto.order.response.Status.SUCCESS;
 import static java.lang.String.format;
-import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 @Service
 @Slf4j
 public class CancelOrderProcessor extends AbstractOrderProcessor<CancelOrderRequest, CancelOrderResponse> {
 
-    public CancelOrderProcessor(Executor executor, OrderService orderService) {
-        super(executor, orderService);
+    private final WalletLedger walletLedger;
+    private final PositionLedger positionLedger;
+
+    public CancelOrderProcessor(@Qualifier("matchingExecutor") WorkloadExecutor executor, OrderService orderService, OrderBookRegistry orderBookRegistry,
+                                MatchingEngine matchingEngine, WalletLedger walletLedger, PositionLedger positionLedger) {
+        super(executor, orderService, orderBookRegistry, matchingEngine);
+        this.walletLedger = walletLedger;
+        this.positionLedger = positionLedger;
     }
 
     @Override
@@ -34,13 +46,23 @@ public class CancelOrderProcessor extends AbstractOrderProcessor<CancelOrderRequ
 
     @Override
     protected CompletableFuture<Order> process(Order order) {
-        return supplyAsync(() -> {
+        // take the order off the book on its market's writer thread before persisting the cancellation
+        return matchingEngine.cancel(order).thenApplyAsync(removed -> {
+            RestingOrder restingOrder = removed.orElseThrow(() -> InvalidArgumentException.with(
+                    format("Order %s is not open, it was already filled or cancelled", order.getOrderId())));
+            // off the book, the order can't fill any further
+            walletLedger.release(order.getOrderId());
+            positionLedger.release(order.getOrderId());
+            // the entity was loaded before the cancel, the book has the quantities of every fill since
+            order.setRemainingQuantity(restingOrder.getRemainingQuantity());
+            order.setFilledQuantity(order.getQuantity() - restingOrder.getRemainingQuantity());
+            // status only, fill quantities are written by settlement
             OrderStatus orderStatus = orderService.updateOrderStatus(order, CurrentOrderStatus.CANCELLED);
             if (order.getOrderStatuses() == null) {
                 order.setOrderStatuses(new ArrayList<>());
             }
             order.getOrderStatuses().add(orderStatus);
-            return orderService.updateOrder(order.getOrderId(), order);
+            return order;
         }, executor);
     }
 
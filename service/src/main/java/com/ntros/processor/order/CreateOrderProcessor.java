@@ -1,8 +1,13 @@
 package com.ntros.processor.order;
 
+import com.ntros.cache.OrderBookRegistry;
+import com.ntros.concurrent.WorkloadExecutor;
 import com.ntros.dto.order.request.CreateOrderRequest;
 import com.ntros.dto.order.response.CreateOrderResponse;
 import com.ntros.dto.order.response.Status;
+import com.ntros.engine.MatchingEngine;
+import com.ntros.metrics.OrderMetrics;
+import com.ntros.metrics.OrderMetrics.Stage;
 import com.ntros.model.order.Order;
 import com.ntros.processor.order.execution.OrderExecution;
 import com.ntros.processor.order.initialization.create.CreateOrderInitialization;
@@ -10,10 +15,10 @@ import com.ntros.processor.order.notification.CallbackNotifier;
 import com.ntros.service.order.OrderService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
 
 import static java.lang.String.format;
 
@@ -23,22 +28,30 @@ public class CreateOrderProcessor extends AbstractOrderProcessor<CreateOrderRequ
 
     private final OrderExecution orderExecution;
     private final CreateOrderInitialization createOrderInitialization;
+    private final OrderMetrics orderMetrics;
 
     @Autowired
-    public CreateOrderProcessor(Executor executor,
+    public CreateOrderProcessor(@Qualifier("matchingExecutor") WorkloadExecutor executor,
                                 OrderService orderService,
+                                OrderBookRegistry orderBookRegistry,
+                                MatchingEngine matchingEngine,
                                 OrderExecution orderExecution,
-                                CreateOrderInitialization createOrderInitialization) {
+                                CreateOrderInitialization createOrderInitialization,
+                                OrderMetrics orderMetrics) {
 
-        super(executor, orderService);
+        super(executor, orderService, orderBookRegistry, matchingEngine);
 
         this.orderExecution = orderExecution;
         this.createOrderInitialization = createOrderInitialization;
+        this.orderMetrics = orderMetrics;
     }
 
     @Override
     protected Order initialize(CreateOrderRequest orderRequest) {
-        return createOrderInitialization.initializeOrder(orderRequest);
+        long start = System.nanoTime();
+        Order order = createOrderInitialization.initializeOrder(orderRequest);
+        orderMetrics.record(Stage.INITIALIZE, start);
+        return order;
     }
 
     @Override
@@ -46,6 +59,16 @@ public class CreateOrderProcessor extends AbstractOrderProcessor<CreateOrderRequ
         return orderExecution.executeOrder(order);
     }
 
+    /**
+     * Orders that traded on arrival count towards order-to-fill latency.
+     */
+    @Override
+    protected void onProcessed(Order processedOrder, long receivedAt) {
+        if (processedOrder.getFilledQuantity() > 0) {
+            orderMetrics.recordOrderToFill(receivedAt);
+        }
+    }
+
     @Override
     protected CreateOrderResponse buildOrderSuccessResponse(Order order) {
         CreateOrderResponse createOrderResponse = new CreateOrderResponse();
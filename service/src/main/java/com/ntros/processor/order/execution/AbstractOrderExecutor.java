@@ -1,16 +1,22 @@
 package com.ntros.processor.order.execution;
 
+import com.ntros.engine.Fill;
+import com.ntros.engine.MatchingEngine;
 import com.ntros.exception.OrderProcessingException;
-import com.ntros.model.Position;
+import com.ntros.ledger.PositionLedger;
+import com.ntros.ledger.WalletLedger;
+import com.ntros.metrics.OrderMetrics;
+import com.ntros.metrics.OrderMetrics.Stage;
+import com.ntros.model.account.Account;
+import com.ntros.model.order.CurrentOrderStatus;
 import com.ntros.model.order.MatchedOrdersHolder;
 import com.ntros.model.order.Order;
-import com.ntros.model.order.OrderStatus;
 import com.ntros.model.order.Side;
 import com.ntros.model.portfolio.Portfolio;
 import com.ntros.model.transaction.Transaction;
 import com.ntros.model.transaction.TransactionType;
-import com.ntros.model.wallet.Wallet;
-import com.ntros.processor.order.fulfillment.OrderFulfillment;
+import com.ntros.service.fill.FillBatch;
+import com.ntros.service.fill.FillPersistenceService;
 import com.ntros.service.order.OrderService;
 import com.ntros.service.portfolio.PortfolioService;
 import com.ntros.service.position.PositionService;
@@ -20,138 +26,222 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
-import java.util.stream.Collectors;
 
 import static com.ntros.model.order.Side.BUY;
-import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 @Service
 @Slf4j
-public abstract class AbstractOrderExecutor implements OrderExecutor, OrderFulfillment {
+public abstract class AbstractOrderExecutor implements OrderExecutor {
 
-    protected final Executor taskExecutor;
+    protected final Executor matchingExecutor;
+    protected final MatchingEngine matchingEngine;
     protected final OrderService orderService;
     protected final TransactionService transactionService;
     protected final PositionService positionService;
     protected final WalletService walletService;
     protected final PortfolioService portfolioService;
+    protected final FillPersistenceService fillPersistenceService;
+    protected final WalletLedger walletLedger;
+    protected final PositionLedger positionLedger;
+    protected final OrderMetrics orderMetrics;
 
     @Autowired
-    public AbstractOrderExecutor(@Qualifier("taskExecutor") Executor taskExecutor, OrderService orderService,
-                                 TransactionService transactionService, PositionService positionService,
-                                 WalletService walletService, PortfolioService portfolioService) {
-        this.taskExecutor = taskExecutor;
+    public AbstractOrderExecutor(@Qualifier("matchingExecutor") Executor matchingExecutor, MatchingEngine matchingEngine,
+                                 OrderService orderService, TransactionService transactionService,
+                                 PositionService positionService, WalletService walletService,
+                                 PortfolioService portfolioService, FillPersistenceService fillPersistenceService,
+                                 WalletLedger walletLedger, PositionLedger positionLedger,
+                                 OrderMetrics orderMetrics) {
+        this.matchingExecutor = matchingExecutor;
+        this.matchingEngine = matchingEngine;
         this.orderService = orderService;
         this.transactionService = transactionService;
         this.positionService = positionService;
         this.walletService = walletService;
         this.portfolioService = portfolioService;
+        this.fillPersistenceService = fillPersistenceService;
+        this.walletLedger = walletLedger;
+        this.positionLedger = positionLedger;
+        this.orderMetrics = orderMetrics;
     }
 
+    /**
+     * Matching runs on the market's single writer thread in the MatchingEngine.
+     * The returned fills are settled on the matching executor, which doesn't wait for them to be persisted.
+     * Funds or assets still held for an order that doesn't rest are released once its fills are settled or failed,
+     * and so are those of an order the engine refused, e.g. because its market's matching queue was full.
+     * Such an order never reached the book and is cancelled rather than left open.
+     */
     @Override
     public CompletableFuture<Order> execute(Order order) {
-        return supplyAsync(() -> {
-            List<Order> matchingOrders = orderService.findMatchingOrders(order);
-            if (matchingOrders.isEmpty()) {
-                log.info("No matching orders found for order: {}", order.getOrderId());
-                return order;  // no matches, keep order open
-            }
-            return executeFulfillment(order, matchingOrders);
-        }, taskExecutor)
+        CompletableFuture<List<Fill>> matched = submit(order);
+        return matched
+                .thenComposeAsync(fills -> {
+                    if (fills.isEmpty()) {
+                        log.info("No matching orders found for order: {}", order.getOrderId());
+                        return CompletableFuture.completedFuture(order);  // no matches, keep order open
+                    }
+                    return executeFulfillment(order, fills);
+                }, matchingExecutor)
+                .whenComplete((processedOrder, ex) -> {
+                    if (!matchingEngine.restsUnfilled(order) || matched.isCompletedExceptionally()) {
+                        walletLedger.release(order.getOrderId());
+                        positionLedger.release(order.getOrderId());
+                    }
+                    if (matched.isCompletedExceptionally()) {
+                        cancelRefused(order);
+                    }
+                })
                 .exceptionally(ex -> {
                     throw new OrderProcessingException(ex.getMessage(), ex);
                 });
     }
 
-    protected void transferFundsAndAssets(Order buyOrder, Order sellOrder, int matchedQuantity) {
-        // Use SELL order's price
-        BigDecimal orderPrice = sellOrder.getPrice();
-        BigDecimal totalCost = orderPrice.multiply(BigDecimal.valueOf(matchedQuantity));
-        log.info("totalCost:{}, buyOrder:{}, sellOrder:{}", totalCost, buyOrder, sellOrder);
-
-        Wallet buyOrderWallet = buyOrder.getWallet();
-        Wallet sellOrderWallet = sellOrder.getWallet();
-
-        // update wallets for both orders
-        buyOrderWallet.deductBalance(totalCost);
-        sellOrderWallet.increaseBalance(totalCost);
-        walletService.updateBalance(buyOrderWallet, buyOrderWallet.getBalance());
-        walletService.updateBalance(sellOrderWallet, sellOrderWallet.getBalance());
-
-        buyOrder.adjustQuantity(matchedQuantity);
-        sellOrder.adjustQuantity(matchedQuantity);
-        // OPEN buy orders don't have positions
-        positionService.updatePosition(sellOrderWallet.getAccount(),
-                sellOrder.getMarketProduct().getProduct(), matchedQuantity,
-                sellOrder.getSide());
+    // an order the engine refuses up front fails like one it rejects on the writer thread
+    private CompletableFuture<List<Fill>> submit(Order order) {
+        try {
+            return matchingEngine.submit(order);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
     }
 
-    @Transactional
-    private Order executeFulfillment(Order incomingOrder, List<Order> matchingOrders) {
-        MatchedOrdersHolder fulfilledOrders = fulfillOrders(incomingOrder, matchingOrders);
+    private void cancelRefused(Order order) {
+        try {
+            orderService.updateOrderStatus(order, CurrentOrderStatus.CANCELLED);
+        } catch (RuntimeException ex) {
+            log.error("Could not cancel order {} refused by the matching engine", order.getOrderId(), ex);
+        }
+    }
 
-        saveFulfilledOrders(fulfilledOrders.getAllOrders());
-        createBuyOrderPositions(fulfilledOrders.getAllOrders());
-        createOrderTransactions(fulfilledOrders.getAllOrders());
-        return fulfilledOrders.getIncomingOrder();
+    /**
+     * Moves funds and assets between the counterparties of a fill. Balances and quantities are moved in the
+     * WalletLedger and PositionLedger, the database changes are added to the cycle's batch.
+     * The incoming order was already adjusted by the MatchingEngine, the resting entity takes
+     * the quantities the book had right after the fill.
+     */
+    protected void settleFill(Order incomingOrder, Order restingOrder, Fill fill, FillBatch batch,
+                              Map<String, Portfolio> portfolios) {
+        restingOrder.setRemainingQuantity(fill.getRestingRemainingQuantity());
+        restingOrder.setFilledQuantity(restingOrder.getQuantity() - fill.getRestingRemainingQuantity());
+        Order buyOrder = incomingOrder.getSide().equals(BUY) ? incomingOrder : restingOrder;
+        Order sellOrder = incomingOrder.getSide().equals(BUY) ? restingOrder : incomingOrder;
+
+        BigDecimal totalCost = fill.getPrice().multiply(BigDecimal.valueOf(fill.getQuantity()));
+        log.info("totalCost:{}, buyOrder:{}, sellOrder:{}", totalCost, buyOrder, sellOrder);
+        moveFundsAndAssets(buyOrder, sellOrder, fill.getQuantity(), totalCost, batch, portfolios);
     }
 
-    private void saveFulfilledOrders(List<Order> fulfilledOrders) {
-        fulfilledOrders.forEach(order -> {
-            // will update statuses and remove FILLED orders from OrderBook
-            OrderStatus status = orderService.determineAndUpdateCurrentStatus(order);
-            List<OrderStatus> updatedOrderStatuses = new ArrayList<>(order.getOrderStatuses());
-            updatedOrderStatuses.add(status);
-            order.setOrderStatuses(updatedOrderStatuses);
+    /**
+     * Moves a match's funds and assets in the WalletLedger and PositionLedger and nets the database changes
+     * into the batch, so a counterparty hit several times is written once.
+     */
+    private void moveFundsAndAssets(Order buyOrder, Order sellOrder, int quantity, BigDecimal totalCost, FillBatch batch,
+                                    Map<String, Portfolio> portfolios) {
+        walletLedger.debit(buyOrder.getWallet().getWalletId(), buyOrder.getOrderId(), quantity, totalCost);
+        walletLedger.credit(sellOrder.getWallet().getWalletId(), totalCost);
+        int productId = buyOrder.getMarketProduct().getProduct().getProductId();
+        positionLedger.receive(buyOrder.getWallet().getAccount().getAccountId(), productId, quantity);
+        positionLedger.deliver(sellOrder.getWallet().getAccount().getAccountId(), productId, sellOrder.getOrderId(), quantity);
+        batch.addWalletDelta(buyOrder.getWallet(), totalCost.negate());
+        batch.addWalletDelta(sellOrder.getWallet(), totalCost);
+        batch.addPositionDelta(getPortfolio(buyOrder, portfolios), buyOrder.getMarketProduct().getProduct(), quantity);
+        batch.addPositionDelta(getPortfolio(sellOrder, portfolios), sellOrder.getMarketProduct().getProduct(), -quantity);
+    }
 
-            orderService.createOrder(order);
+    /**
+     * Settles a match cycle and persists its batch. Runs outside a transaction: the only writes are the batch's,
+     * which FillPersistenceService.persist applies in one transaction of its own.
+     * The cycle's ledger moves are taken back on the matching executor if the batch is not written.
+     */
+    private CompletableFuture<Order> executeFulfillment(Order incomingOrder, List<Fill> fills) {
+        long settleStart = System.nanoTime();
+        // the book only holds compact entries, resting entities are loaded once per match cycle
+        Map<Integer, Order> restingOrders = orderService.getOrdersByIds(fills.stream()
+                .map(Fill::getRestingOrderId)
+                .toList());
+        FillBatch batch = new FillBatch();
+        // a counterparty can appear in several fills of a cycle, look up each portfolio once
+        Map<String, Portfolio> portfolios = new HashMap<>();
+        List<Order> matchedOrders = fills.stream()
+                .map(fill -> {
+                    Order restingOrder = restingOrders.get(fill.getRestingOrderId());
+                    settleFill(incomingOrder, restingOrder, fill, batch, portfolios);
+                    return restingOrder;
+                })
+                .toList();
+        MatchedOrdersHolder fulfilledOrders = MatchedOrdersHolder.of(incomingOrder, matchedOrders);
+
+        Map<Side, TransactionType> transactionTypes = new EnumMap<>(Side.class);
+        OffsetDateTime now = OffsetDateTime.now();
+        fulfilledOrders.getAllOrders().forEach(order -> {
+            TransactionType transactionType = transactionTypes.computeIfAbsent(order.getSide(),
+                    side -> transactionService.getTransactionType(side.name()));
+            Transaction transaction = Transaction.builder()
+                    .order(order)
+                    .marketProduct(order.getMarketProduct())
+                    .wallet(order.getWallet())
+                    .currency(order.getWallet().getCurrency().getCurrencyCode())
+                    .price(order.getPrice())
+                    .quantity(order.getFilledQuantity())
+                    .transactionType(transactionType)
+                    .portfolio(getPortfolio(order, portfolios))
+                    .transactionDate(now)
+                    .build();
+            CurrentOrderStatus status = orderService.determineCurrentStatus(order);
+            order.setCurrentStatus(status);
+            batch.addOrder(order, status, transaction);
         });
+        long persistStart = System.nanoTime();
+        orderMetrics.record(Stage.SETTLE, settleStart);
+        return persist(batch).handleAsync((ignored, ex) -> {
+            if (ex != null) {
+                revertLedgerMoves(batch, fulfilledOrders, portfolios);
+                throw ex instanceof CompletionException completionException ? completionException : new CompletionException(ex);
+            }
+            orderMetrics.record(Stage.PERSIST, persistStart);
+            return fulfilledOrders.getIncomingOrder();
+        }, matchingExecutor);
     }
 
-    private void createBuyOrderPositions(List<Order> savedOrders) {
-        savedOrders.stream()
-                .filter(order -> order.getSide().equals(BUY))
-                .forEach(buyOrder -> {
-                    Portfolio portfolio = portfolioService.getPortfolioByAccountNumber(
-                            buyOrder.getWallet().getAccount().getAccountNumber());
-
-                    Position position = new Position();
-                    position.setQuantity(buyOrder.getQuantity());
-                    position.setProduct(buyOrder.getMarketProduct().getProduct());
-                    position.setPortfolio(portfolio);
-                    positionService.createPosition(position);
-                });
+    // a batch written on this thread fails by throwing, a deferred one by completing exceptionally
+    private CompletableFuture<Void> persist(FillBatch batch) {
+        try {
+            return fillPersistenceService.persist(batch);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Takes back the balances and quantities a cycle moved in the ledgers once its batch is rejected, so the
+     * ledgers keep matching the database. The holds the fills consumed stay consumed, as the book no longer
+     * rests the filled units either.
+     */
+    private void revertLedgerMoves(FillBatch batch, MatchedOrdersHolder orders, Map<String, Portfolio> portfolios) {
+        log.error("Fills of order {} were not settled, reverting their ledger moves: wallets: {}, positions: {}",
+                orders.getIncomingOrder().getOrderId(), batch.getWallets(), batch.getPositions());
+        batch.getWalletDeltas().forEach((walletId, amount) -> walletLedger.adjust(walletId, amount.negate()));
+        // the batch holds portfolios, the ledger accounts
+        Map<Integer, Integer> accounts = new HashMap<>();
+        orders.getAllOrders().forEach(order -> accounts.put(getPortfolio(order, portfolios).getPortfolioId(),
+                order.getWallet().getAccount().getAccountId()));
+        batch.getPositionDeltas().forEach((portfolioId, products) -> products.forEach((productId, quantity) ->
+                positionLedger.adjust(accounts.get(portfolioId), productId, -quantity)));
     }
 
-    private void createOrderTransactions(List<Order> savedOrders) {
-        List<Transaction> txs = savedOrders.stream()
-                .map(order -> {
-                    TransactionType transactionType = transactionService.getTransactionType(order.getSide().name());
-                    Portfolio portfolio = portfolioService.getPortfolioByAccount(order.getWallet().getAccount());
-
-                    Transaction transaction = Transaction.builder()
-                            .order(order)
-                            .marketProduct(order.getMarketProduct())
-                            .wallet(order.getWallet())
-                            .currency(order.getWallet().getCurrency().getCurrencyCode())
-                            .price(order.getPrice())
-                            .quantity(order.getFilledQuantity())
-                            .transactionType(transactionType)
-                            .portfolio(portfolio)
-                            .transactionDate(OffsetDateTime.now())
-                            .build();
-
-                    log.info("Saving transaction: {}", transaction);
-                    return transactionService.createTransaction(transaction);
-                }).toList();
-        log.info("transactions successfully saved: {}", txs);
+    private Portfolio getPortfolio(Order order, Map<String, Portfolio> portfolios) {
+        Account account = order.getWallet().getAccount();
+        return portfolios.computeIfAbsent(account.getAccountNumber(), accountNumber -> portfolioService.getPortfolioByAccount(account));
     }
 }
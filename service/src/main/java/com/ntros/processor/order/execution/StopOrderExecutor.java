@@ -1,16 +1,19 @@
 package com.ntros.processor.order.execution;
 
-import com.ntros.model.order.Order;
-import com.ntros.model.order.MatchedOrdersHolder;
+import com.ntros.engine.MatchingEngine;
+import com.ntros.ledger.PositionLedger;
+import com.ntros.ledger.WalletLedger;
+import com.ntros.metrics.OrderMetrics;
+import com.ntros.service.fill.FillPersistenceService;
 import com.ntros.service.order.OrderService;
 import com.ntros.service.portfolio.PortfolioService;
 import com.ntros.service.position.PositionService;
 import com.ntros.service.transaction.TransactionService;
 import com.ntros.service.wallet.WalletService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
 import java.util.concurrent.Executor;
 
 /**
@@ -22,14 +25,10 @@ import java.util.concurrent.Executor;
 public class StopOrderExecutor extends AbstractOrderExecutor implements OrderExecutor {
 
 
-    public StopOrderExecutor(Executor executor, OrderService orderService, TransactionService transactionService, PositionService positionService, WalletService walletService, PortfolioService portfolioService) {
-        super(executor, orderService, transactionService, positionService, walletService, portfolioService);
-    }
-
-
-    @Override
-    public MatchedOrdersHolder fulfillOrders(Order incomingOrder, List<Order> matchingOrders) {
-        return null;
+    public StopOrderExecutor(@Qualifier("matchingExecutor") Executor executor, MatchingEngine matchingEngine, OrderService orderService, TransactionService transactionService, PositionService positionService, WalletService walletService, PortfolioService portfolioService, FillPersistenceService fillPersistenceService, WalletLedger walletLedger,
+                              PositionLedger positionLedger, OrderMetrics orderMetrics) {
+        super(executor, matchingEngine, orderService, transactionService, positionService, walletService, portfolioService,
+                fillPersistenceService, walletLedger, positionLedger, orderMetrics);
     }
 
 
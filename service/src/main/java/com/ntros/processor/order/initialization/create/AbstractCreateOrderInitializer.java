@@ -1,7 +1,6 @@
 package com.ntros.processor.order.initialization.create;
 
 
-import com.ntros.cache.OrderBook;
 import com.ntros.converter.order.OrderProcessingConverter;
 import com.ntros.dto.order.request.CreateOrderRequest;
 import com.ntros.model.order.CurrentOrderStatus;
@@ -68,8 +67,8 @@ public abstract class AbstractCreateOrderInitializer implements CreateOrderIniti
         Order createdOrder = orderService.createOrder(openOrder);
         OrderStatus orderStatus = orderService.updateOrderStatus(createdOrder, CurrentOrderStatus.OPEN);
 
+        // the order is rested in the OrderBook by the MatchingEngine once it has been matched
         createdOrder.setOrderStatuses(List.of(orderStatus));
-        OrderBook.forMarket(openOrder.market()).addOrder(createdOrder);
         log.info("Order initialized: {} for [product = {}, currency = {}, account = {}] with status: {}",
                 createdOrder,
                 createdOrder.getMarketProduct(),
@@ -1,25 +1,42 @@
 package com.ntros.processor.order.initialization.create;
 
 import com.ntros.dto.order.request.CreateOrderRequest;
-import com.ntros.exception.InvalidArgumentException;
-import com.ntros.model.wallet.Wallet;
+import com.ntros.ledger.WalletLedger;
+import com.ntros.model.order.Order;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-
-import static java.lang.String.format;
-
 @Service("buy")
 @Slf4j
 public class BuyOrderInitializer extends AbstractCreateOrderInitializer {
 
+    private final WalletLedger walletLedger;
+
+    @Autowired
+    public BuyOrderInitializer(WalletLedger walletLedger) {
+        this.walletLedger = walletLedger;
+    }
+
     @Override
     protected void validateOrderRequest(CreateOrderRequest request) {
-        Wallet wallet = walletService.getWalletByCurrencyCodeAccountNumber(request.getCurrencyCode(), request.getAccountNumber());
-        BigDecimal requiredAmount = request.getPrice().multiply(BigDecimal.valueOf(request.getQuantity()));
-        if (wallet.getBalance().compareTo(requiredAmount) < 0) {
-            throw InvalidArgumentException.with(format("Not enough funds to complete the buy order. Current funds: %s", wallet.getBalance()));
+        // funds are checked when they are held, right before the order is created
+    }
+
+    /**
+     * Holds the order's funds in the WalletLedger before the order is created, so concurrent orders on the
+     * wallet can't both spend them. Fails with InvalidArgumentException if the wallet can't cover the order.
+     */
+    @Override
+    protected Order createOpenOrderAndStatus(Order openOrder) {
+        WalletLedger.Hold hold = walletLedger.reserve(openOrder.getWallet().getWalletId(), openOrder.getPrice(), openOrder.getQuantity());
+        try {
+            Order createdOrder = super.createOpenOrderAndStatus(openOrder);
+            walletLedger.assign(hold, createdOrder.getOrderId());
+            return createdOrder;
+        } catch (RuntimeException ex) {
+            walletLedger.release(hold);
+            throw ex;
         }
     }
 }
@@ -1,33 +1,44 @@
 package com.ntros.processor.order.initialization.create;
 
 import com.ntros.dto.order.request.CreateOrderRequest;
-import com.ntros.exception.InvalidArgumentException;
-import com.ntros.service.position.PositionService;
+import com.ntros.ledger.PositionLedger;
+import com.ntros.model.order.Order;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import static java.lang.String.format;
-
 @Service("sell")
 @Slf4j
 public class SellOrderInitializer extends AbstractCreateOrderInitializer {
 
 
-    private final PositionService positionService;
+    private final PositionLedger positionLedger;
 
     @Autowired
-    public SellOrderInitializer(PositionService positionService) {
-        this.positionService = positionService;
+    public SellOrderInitializer(PositionLedger positionLedger) {
+        this.positionLedger = positionLedger;
     }
 
     @Override
     protected void validateOrderRequest(CreateOrderRequest request) {
-        int positionQuantity = positionService.getQuantityByAccountNumberAndProductIsin(request.getAccountNumber(), request.getProductIsin());
-        if (positionQuantity < request.getQuantity()) {
-            throw InvalidArgumentException.with(
-                    format("Not enough assets to sell. Requested sells=%s, position quantity=%s",
-                            request.getQuantity(), positionQuantity));
+        // assets are checked when they are held, right before the order is created
+    }
+
+    /**
+     * Holds the units to sell in the PositionLedger before the order is created, so concurrent orders can't
+     * both sell them. Fails with InvalidArgumentException if the position can't cover the order.
+     */
+    @Override
+    protected Order createOpenOrderAndStatus(Order openOrder) {
+        PositionLedger.Hold hold = positionLedger.reserve(openOrder.getWallet().getAccount().getAccountId(),
+                openOrder.getMarketProduct().getProduct().getProductId(), openOrder.getQuantity());
+        try {
+            Order createdOrder = super.createOpenOrderAndStatus(openOrder);
+            positionLedger.assign(hold, createdOrder.getOrderId());
+            return createdOrder;
+        } catch (RuntimeException ex) {
+            positionLedger.release(hold);
+            throw ex;
         }
     }
 
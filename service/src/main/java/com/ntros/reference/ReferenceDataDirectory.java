@@ -0,0 +1,202 @@
+package com.ntros.reference;
+
+import com.ntros.currency.CurrencyRepository;
+import com.ntros.marketproduct.MarketProductRepository;
+import com.ntros.model.currency.Currency;
+import com.ntros.model.order.OrderType;
+import com.ntros.model.product.MarketProduct;
+import com.ntros.model.transaction.TransactionType;
+import com.ntros.order.OrderTypeRepository;
+import com.ntros.transaction.TransactionTypeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory directory of the static reference data every order needs: order types, transaction types,
+ * currencies and market products by (isin, market code). Everything is loaded on startup, lookups are
+ * hash map reads without a database round trip.
+ * The directory is re-synced with the tables every "reference-data.refresh-seconds": only rows that changed are
+ * replaced and deleted rows dropped, so lookups never see a partially loaded directory.
+ * A row added since the last refresh is loaded from the database on its first lookup.
+ * Entities handed out are detached and shared between threads, callers must not modify them.
+ */
+@Component
+@Slf4j
+public class ReferenceDataDirectory {
+
+    private final OrderTypeRepository orderTypeRepository;
+    private final TransactionTypeRepository transactionTypeRepository;
+    private final CurrencyRepository currencyRepository;
+    private final MarketProductRepository marketProductRepository;
+    private final long refreshSeconds;
+
+    // order type name -> order type
+    private final Map<String, OrderType> orderTypes;
+    // transaction type name -> transaction type
+    private final Map<String, TransactionType> transactionTypes;
+    // currency code -> currency
+    private final Map<String, Currency> currencies;
+    // market code -> isin -> market product
+    private final Map<String, Map<String, MarketProduct>> marketProducts;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ReferenceDataDirectory(OrderTypeRepository orderTypeRepository,
+                                  TransactionTypeRepository transactionTypeRepository,
+                                  CurrencyRepository currencyRepository,
+                                  MarketProductRepository marketProductRepository,
+                                  @Value("${reference-data.refresh-seconds:60}") long refreshSeconds) {
+        this.orderTypeRepository = orderTypeRepository;
+        this.transactionTypeRepository = transactionTypeRepository;
+        this.currencyRepository = currencyRepository;
+        this.marketProductRepository = marketProductRepository;
+        this.refreshSeconds = refreshSeconds;
+
+        orderTypes = new ConcurrentHashMap<>();
+        transactionTypes = new ConcurrentHashMap<>();
+        currencies = new ConcurrentHashMap<>();
+        marketProducts = new ConcurrentHashMap<>();
+    }
+
+    @PostConstruct
+    public void load() {
+        refresh();
+        log.info("Loaded reference data: {} order types, {} transaction types, {} currencies, {} market products",
+                orderTypes.size(), transactionTypes.size(), currencies.size(),
+                marketProducts.values().stream().mapToInt(Map::size).sum());
+        if (refreshSeconds > 0) {
+            schedule();
+        }
+    }
+
+    public Optional<OrderType> getOrderType(String orderTypeName) {
+        return lookup(orderTypes, orderTypeName, orderTypeRepository::findOneByOrderTypeName);
+    }
+
+    public Optional<TransactionType> getTransactionType(String transactionTypeName) {
+        return lookup(transactionTypes, transactionTypeName, transactionTypeRepository::findOneByTransactionTypeName);
+    }
+
+    public Optional<Currency> getCurrency(String currencyCode) {
+        return lookup(currencies, currencyCode, currencyRepository::findByCurrencyCode);
+    }
+
+    public Optional<MarketProduct> getMarketProduct(String isin, String marketCode) {
+        if (isin == null || marketCode == null) {
+            return Optional.empty();
+        }
+        Map<String, MarketProduct> products = marketProducts.get(marketCode);
+        MarketProduct cached = products == null ? null : products.get(isin);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // listed since the last refresh
+        Optional<MarketProduct> loaded = marketProductRepository.findByProductIsinMarketCode(isin, marketCode);
+        loaded.ifPresent(marketProduct -> marketProducts.computeIfAbsent(marketCode, code -> new ConcurrentHashMap<>())
+                .put(isin, marketProduct));
+        return loaded;
+    }
+
+    /**
+     * Re-syncs every table with the database.
+     */
+    public void refresh() {
+        refreshTypes();
+        refreshCurrencies();
+        refreshMarketProducts();
+    }
+
+    /**
+     * Re-syncs the currencies, called after they are changed through the API.
+     */
+    public void refreshCurrencies() {
+        sync("currencies", currencies, currencyRepository.findAll(), Currency::getCurrencyCode);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void refreshTypes() {
+        sync("order types", orderTypes, orderTypeRepository.findAll(), OrderType::getOrderTypeName);
+        sync("transaction types", transactionTypes, transactionTypeRepository.findAll(), TransactionType::getTransactionTypeName);
+    }
+
+    private void refreshMarketProducts() {
+        Map<String, List<MarketProduct>> byMarket = marketProductRepository.findAllWithProductAndMarket().stream()
+                .collect(Collectors.groupingBy(marketProduct -> marketProduct.getMarket().getMarketCode()));
+        byMarket.forEach((market, products) -> sync("market products of " + market,
+                marketProducts.computeIfAbsent(market, code -> new ConcurrentHashMap<>()),
+                products,
+                marketProduct -> marketProduct.getProduct().getIsin()));
+        marketProducts.keySet().retainAll(byMarket.keySet());
+    }
+
+    private void schedule() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reference-data-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException ex) {
+                // lookups keep serving the last loaded rows
+                log.error("Could not refresh reference data", ex);
+            }
+        }, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    private static <T> Optional<T> lookup(Map<String, T> cache, String key, Function<String, Optional<T>> loader) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        T cached = cache.get(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        // added since the last refresh
+        Optional<T> loaded = loader.apply(key);
+        loaded.ifPresent(value -> cache.put(key, value));
+        return loaded;
+    }
+
+    /**
+     * Replaces the entries whose row changed and drops the ones whose row is gone.
+     */
+    private static <T> void sync(String name, Map<String, T> cache, List<T> rows, Function<T, String> key) {
+        Map<String, T> current = rows.stream().collect(Collectors.toMap(key, Function.identity()));
+        int changed = 0;
+        for (Map.Entry<String, T> row : current.entrySet()) {
+            if (!row.getValue().equals(cache.get(row.getKey()))) {
+                cache.put(row.getKey(), row.getValue());
+                changed++;
+            }
+        }
+        int before = cache.size();
+        cache.keySet().retainAll(current.keySet());
+        int removed = before - cache.size();
+        if (changed > 0 || removed > 0) {
+            log.info("Refreshed {}: {} added or changed, {} removed", name, changed, removed);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.ntros.service.currency.CurrencyExchangeRateDataService;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Service;
@@ -20,6 +21,7 @@ import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static com.ntros.service.currency.CurrencyUtils.getScale;
@@ -31,14 +33,17 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 @Slf4j
 public class AccountDataService implements AccountService {
 
+    private final Executor executor;
     private final AccountRepository accountRepository;
     private final WalletRepository walletRepository;
     private final CurrencyExchangeRateDataService currencyExchangeRateDataService;
 
     @Autowired
-    AccountDataService(final AccountRepository accountRepository,
+    AccountDataService(@Qualifier("taskExecutor") Executor executor,
+                       final AccountRepository accountRepository,
                        final WalletRepository walletRepository,
                        final CurrencyExchangeRateDataService currencyExchangeRateDataService) {
+        this.executor = executor;
         this.accountRepository = accountRepository;
         this.walletRepository = walletRepository;
         this.currencyExchangeRateDataService = currencyExchangeRateDataService;
@@ -47,23 +52,23 @@ public class AccountDataService implements AccountService {
     @Override
     public CompletableFuture<Account> getAccount(int accountId) {
         return supplyAsync(() -> accountRepository.findById(accountId)
-                .orElseThrow(() -> NotFoundException.with("Account not found for id: " + accountId)));
+                .orElseThrow(() -> NotFoundException.with("Account not found for id: " + accountId)), executor);
     }
 
     @Override
     public CompletableFuture<Account> getAccountByAccountNumber(String accountNumber) {
         return supplyAsync(() -> accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> NotFoundException.with("Account not found for AN: " + accountNumber)));
+                .orElseThrow(() -> NotFoundException.with("Account not found for AN: " + accountNumber)), executor);
     }
 
     @Override
     public CompletableFuture<List<Account>> getAllAccounts() {
-        return supplyAsync(accountRepository::findAll);
+        return supplyAsync(accountRepository::findAll, executor);
     }
 
     @Override
     public CompletableFuture<List<Account>> getAllAccountsWalletCount(int walletCount) {
-        return supplyAsync(() -> accountRepository.findAllByWalletCount(walletCount));
+        return supplyAsync(() -> accountRepository.findAllByWalletCount(walletCount), executor);
 
     }
 
@@ -85,7 +90,7 @@ public class AccountDataService implements AccountService {
                 currentOrigin++;
             }
             return accountsByWalletCount;
-        });
+        }, executor);
     }
 
     @Override
@@ -98,7 +103,7 @@ public class AccountDataService implements AccountService {
                 log.error(err, ex);
                 throw DataConstraintFailureException.with(err, ex);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -158,8 +163,8 @@ public class AccountDataService implements AccountService {
     @Modifying
     @Transactional
     public CompletableFuture<Account> calculateTotalBalanceForAccount(final Account account) {
-        return supplyAsync(() -> updateTotalBalance(account))
-                .thenComposeAsync(this::createAccount);
+        return supplyAsync(() -> updateTotalBalance(account), executor)
+                .thenComposeAsync(this::createAccount, executor);
     }
 
     private BigDecimal getTotal(List<Wallet> wallets, int accountId, Wallet main) {
@@ -6,15 +6,18 @@ import com.ntros.exception.DataAccessViolationException;
 import com.ntros.exception.NotFoundException;
 import com.ntros.model.currency.Currency;
 import com.ntros.model.wallet.Wallet;
+import com.ntros.reference.ReferenceDataDirectory;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static java.lang.String.format;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
@@ -24,13 +27,19 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 @Slf4j
 public class CurrencyDataService implements CurrencyService {
 
+    private final Executor executor;
     private final CurrencyRepository currencyRepository;
     private final WalletRepository walletRepository;
+    private final ReferenceDataDirectory referenceDataDirectory;
 
     @Autowired
-    public CurrencyDataService(CurrencyRepository currencyRepository, WalletRepository walletRepository) {
+    public CurrencyDataService(@Qualifier("taskExecutor") Executor executor,
+                               CurrencyRepository currencyRepository, WalletRepository walletRepository,
+                               ReferenceDataDirectory referenceDataDirectory) {
+        this.executor = executor;
         this.currencyRepository = currencyRepository;
         this.walletRepository = walletRepository;
+        this.referenceDataDirectory = referenceDataDirectory;
     }
 
 
@@ -38,13 +47,12 @@ public class CurrencyDataService implements CurrencyService {
 
     @Override
     public CompletableFuture<Currency> getCurrencyByCodeAsync(String code) {
-        return supplyAsync(() -> currencyRepository.findByCurrencyCode(code)
-                .orElseThrow(() -> NotFoundException.with(format("Could not find currency with code:%s", code))));
+        return supplyAsync(() -> getCurrencyByCode(code), executor);
     }
 
     @Override
     public Currency getCurrencyByCode(String code) {
-        return currencyRepository.findByCurrencyCode(code)
+        return referenceDataDirectory.getCurrency(code)
                 .orElseThrow(() -> NotFoundException.with(format("Could not find currency with code:%s", code)));
     }
 
@@ -53,12 +61,13 @@ public class CurrencyDataService implements CurrencyService {
         return CompletableFuture.runAsync(() -> {
             try {
                 currencyRepository.activateAll();
+                referenceDataDirectory.refreshCurrencies();
                 log.info("All currencies activated successfully");
             } catch (DataAccessException ex) {
                 log.error("Error occurred while activating currencies: {}", ex.getMessage(), ex);
                 throw DataAccessViolationException.with(ex.getMessage(), ex);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -70,11 +79,12 @@ public class CurrencyDataService implements CurrencyService {
                 List<Wallet> wallets = walletRepository.findAllByCurrencyId(currencyId);
                 walletRepository.deleteAll(wallets);
                 currencyRepository.deleteById(currencyId);
+                referenceDataDirectory.refreshCurrencies();
             } catch (DataAccessException ex) {
                 String err = format("Currency with id %s could not be deleted.", currencyId);
                 log.error(err, ex);
                 throw DataAccessViolationException.with(err, ex);
             }
-        });
+        }, executor);
     }
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package com.ntros.service.fill;
+
+import com.ntros.fill.OrderFillRow;
+import com.ntros.fill.OrderStatusRow;
+import com.ntros.fill.PositionDelta;
+import com.ntros.fill.TransactionRow;
+import com.ntros.fill.WalletDelta;
+import com.ntros.model.order.CurrentOrderStatus;
+import com.ntros.model.order.Order;
+import com.ntros.model.portfolio.Portfolio;
+import com.ntros.model.product.Product;
+import com.ntros.model.transaction.Transaction;
+import com.ntros.model.wallet.Wallet;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows produced by one or more match cycles, written together by the FillPersistenceService.
+ * Entities are reduced to ids on the way in, so a batch can be journaled and rebuilt without them.
+ * Wallet and position changes are netted, so a counterparty hit several times costs one statement.
+ */
+@Getter
+public class FillBatch {
+
+    private final List<OrderFillRow> orderFills = new ArrayList<>();
+    private final List<OrderStatusRow> orderStatuses = new ArrayList<>();
+    private final List<TransactionRow> transactions = new ArrayList<>();
+    // walletId -> net amount
+    private final Map<Integer, BigDecimal> walletDeltas = new LinkedHashMap<>();
+    // portfolioId -> productId -> net quantity
+    private final Map<Integer, Map<Integer, Integer>> positionDeltas = new LinkedHashMap<>();
+
+    /**
+     * Adds an order touched by the cycle with its new status and the transaction recording the fill.
+     */
+    public void addOrder(Order order, CurrentOrderStatus status, Transaction transaction) {
+        addOrderFill(new OrderFillRow(order.getOrderId(), order.getFilledQuantity(), order.getRemainingQuantity()));
+        addOrderStatus(new OrderStatusRow(order.getOrderId(), status.name(), transaction.getTransactionDate()));
+        addTransaction(TransactionRow.builder()
+                .transactionTypeId(transaction.getTransactionType().getTransactionTypeId())
+                .walletId(transaction.getWallet().getWalletId())
+                .portfolioId(transaction.getPortfolio().getPortfolioId())
+                .marketProductId(transaction.getMarketProduct().getMarketProductId())
+                .orderId(order.getOrderId())
+                .quantity(transaction.getQuantity())
+                .price(transaction.getPrice())
+                .currency(transaction.getCurrency())
+                .transactionDate(transaction.getTransactionDate())
+                .build());
+    }
+
+    public void addOrderFill(OrderFillRow orderFill) {
+        orderFills.add(orderFill);
+    }
+
+    public void addOrderStatus(OrderStatusRow orderStatus) {
+        orderStatuses.add(orderStatus);
+    }
+
+    public void addTransaction(TransactionRow transaction) {
+        transactions.add(transaction);
+    }
+
+    public void addWalletDelta(Wallet wallet, BigDecimal amount) {
+        addWalletDelta(wallet.getWalletId(), amount);
+    }
+
+    public void addWalletDelta(int walletId, BigDecimal amount) {
+        walletDeltas.merge(walletId, amount, BigDecimal::add);
+    }
+
+    public void addPositionDelta(Portfolio portfolio, Product product, int quantity) {
+        addPositionDelta(portfolio.getPortfolioId(), product.getProductId(), quantity);
+    }
+
+    public void addPositionDelta(int portfolioId, int productId, int quantity) {
+        positionDeltas.computeIfAbsent(portfolioId, id -> new LinkedHashMap<>())
+                .merge(productId, quantity, Integer::sum);
+    }
+
+    /**
+     * Appends another batch to this one, netting its wallet and position changes into these.
+     */
+    public void merge(FillBatch other) {
+        orderFills.addAll(other.orderFills);
+        orderStatuses.addAll(other.orderStatuses);
+        transactions.addAll(other.transactions);
+        other.walletDeltas.forEach(this::addWalletDelta);
+        other.positionDeltas.forEach((portfolioId, products) ->
+                products.forEach((productId, quantity) -> addPositionDelta(portfolioId, productId, quantity)));
+    }
+
+    /**
+     * Net wallet changes, leaving out the ones that cancelled out.
+     */
+    public List<WalletDelta> getWallets() {
+        List<WalletDelta> wallets = new ArrayList<>();
+        walletDeltas.forEach((walletId, amount) -> {
+            if (amount.signum() != 0) {
+                wallets.add(new WalletDelta(walletId, amount));
+            }
+        });
+        return wallets;
+    }
+
+    /**
+     * Net position changes, leaving out the ones that cancelled out.
+     */
+    public List<PositionDelta> getPositions() {
+        List<PositionDelta> positions = new ArrayList<>();
+        positionDeltas.forEach((portfolioId, products) -> products.forEach((productId, quantity) -> {
+            if (quantity != 0) {
+                positions.add(new PositionDelta(portfolioId, productId, quantity));
+            }
+        }));
+        return positions;
+    }
+
+    /**
+     * Net position decreases, as positive quantities to deduct.
+     */
+    public List<PositionDelta> getDeductions() {
+        return getPositions().stream()
+                .filter(delta -> delta.getQuantity() < 0)
+                .map(delta -> new PositionDelta(delta.getPortfolioId(), delta.getProductId(), -delta.getQuantity()))
+                .toList();
+    }
+
+    /**
+     * Net position increases.
+     */
+    public List<PositionDelta> getAdditions() {
+        return getPositions().stream()
+                .filter(delta -> delta.getQuantity() > 0)
+                .toList();
+    }
+
+    public boolean isEmpty() {
+        return orderFills.isEmpty() && walletDeltas.isEmpty() && positionDeltas.isEmpty();
+    }
+}
@@ -0,0 +1,110 @@
+package com.ntros.service.fill;
+
+import com.ntros.exception.InvalidArgumentException;
+import com.ntros.fill.DeadLetterRow;
+import com.ntros.fill.FillBatchRepository;
+import com.ntros.fill.PositionDelta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static java.lang.String.format;
+
+/**
+ * Writes fill batches straight to the database, on the caller's thread.
+ */
+@Service
+@Slf4j
+public class FillPersistenceDataService implements FillPersistenceService {
+
+    private final FillBatchRepository fillBatchRepository;
+
+    @Autowired
+    public FillPersistenceDataService(FillBatchRepository fillBatchRepository) {
+        this.fillBatchRepository = fillBatchRepository;
+    }
+
+    @Override
+    @Transactional
+    public CompletableFuture<Void> persist(FillBatch batch) {
+        write(batch);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Writes journaled batches and moves the journal's checkpoint to their last sequence, in one transaction.
+     */
+    @Transactional
+    public void persist(FillBatch batch, String journalName, long lastSequence) {
+        write(batch);
+        fillBatchRepository.saveCheckpoint(journalName, lastSequence);
+    }
+
+    public long getCheckpoint(String journalName) {
+        return fillBatchRepository.findCheckpoint(journalName);
+    }
+
+    /**
+     * Parks a journal record the database rejected and moves the checkpoint past it, in one transaction,
+     * so the record is never dropped.
+     */
+    @Transactional
+    public void park(String journalName, long sequence, byte[] record, String error) {
+        fillBatchRepository.insertDeadLetter(journalName, sequence, record, error);
+        fillBatchRepository.saveCheckpoint(journalName, sequence);
+    }
+
+    public List<DeadLetterRow> getDeadLetters(String journalName) {
+        return fillBatchRepository.findDeadLetters(journalName);
+    }
+
+    /**
+     * Writes a parked record and deletes it from the dead letters, in one transaction.
+     */
+    @Transactional
+    public void persistDeadLetter(FillBatch batch, String journalName, long sequence) {
+        write(batch);
+        fillBatchRepository.deleteDeadLetter(journalName, sequence);
+    }
+
+    public void recordDeadLetterAttempt(String journalName, long sequence, String error) {
+        fillBatchRepository.updateDeadLetter(journalName, sequence, error);
+    }
+
+    private void write(FillBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // deductions first, so a seller short on assets rolls back the batch before anything else is written
+        List<PositionDelta> deductions = batch.getDeductions();
+        int[] deducted = fillBatchRepository.deductPositions(deductions);
+        for (int i = 0; i < deducted.length; i++) {
+            if (isMissed(deducted[i])) {
+                PositionDelta delta = deductions.get(i);
+                throw InvalidArgumentException.with(format("Insufficient assets to transfer: portfolio: %s, product: %s, quantity: %s",
+                        delta.getPortfolioId(), delta.getProductId(), delta.getQuantity()));
+            }
+        }
+        List<PositionDelta> additions = batch.getAdditions();
+        fillBatchRepository.addPositions(additions);
+        fillBatchRepository.updateWallets(batch.getWallets());
+        fillBatchRepository.updateOrders(batch.getOrderFills());
+        fillBatchRepository.insertOrderStatuses(batch.getOrderStatuses());
+        fillBatchRepository.updateCurrentStatuses(batch.getOrderStatuses());
+        fillBatchRepository.insertTransactions(batch.getTransactions());
+
+        log.info("Persisted fills: orders: {}, transactions: {}, wallets: {}, positions deducted: {}, added: {}",
+                batch.getOrderFills().size(), batch.getTransactions().size(), batch.getWalletDeltas().size(),
+                deductions.size(), additions.size());
+    }
+
+    private static boolean isMissed(int updateCount) {
+        // rewritten batches report SUCCESS_NO_INFO instead of a row count
+        return updateCount != Statement.SUCCESS_NO_INFO && updateCount < 1;
+    }
+}
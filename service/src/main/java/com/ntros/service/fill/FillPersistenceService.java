@@ -0,0 +1,15 @@
+package com.ntros.service.fill;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface FillPersistenceService {
+
+    /**
+     * Writes the orders, statuses, transactions and positions of a match cycle in one transaction,
+     * with one JDBC batch per statement.
+     * Implementations that write on the caller's thread have written the batch, or thrown, when this returns.
+     *
+     * @return completes once the batch is durable, exceptionally if it was not written
+     */
+    CompletableFuture<Void> persist(FillBatch batch);
+}
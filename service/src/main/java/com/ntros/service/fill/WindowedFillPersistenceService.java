@@ -0,0 +1,144 @@
+package com.ntros.service.fill;
+
+import com.ntros.exception.InvalidArgumentException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nets the batches of match cycles that finish within "fill.settlement.window-millis" of each other into one
+ * FillBatch, written in one transaction: one statement per distinct wallet and position for the whole window.
+ * A window is written early once it holds "fill.settlement.max-batches" cycles.
+ * Unlike the fill journal, a cycle is still acknowledged only once its window is in the database: persist returns
+ * the cycle's future right away and it completes when the window is written, so no caller thread waits on a window.
+ * A merged batch rejected for insufficient assets is retried cycle by cycle, so only the cycles that are still
+ * rejected fail, and their callers take back the cycles' ledger moves.
+ * Once stopping, new cycles are refused before they join a window, the last window is written on the way out.
+ * Enabled with a window above 0 while the fill journal is disabled, which already merges what it drains.
+ */
+@Service
+@Primary
+@ConditionalOnExpression("${fill.settlement.window-millis:0} > 0 and !${fill.journal.enabled:false}")
+@Slf4j
+public class WindowedFillPersistenceService implements FillPersistenceService {
+
+    private final FillPersistenceDataService fillPersistenceService;
+    private final long windowMillis;
+    private final int maxBatches;
+    // single thread, windows are written one at a time and in order
+    private final ScheduledExecutorService writer;
+
+    // guarded by this, together with stopping
+    private List<PendingBatch> window = new ArrayList<>();
+    private boolean stopping;
+
+    @Autowired
+    public WindowedFillPersistenceService(FillPersistenceDataService fillPersistenceService,
+                                          @Value("${fill.settlement.window-millis:0}") long windowMillis,
+                                          @Value("${fill.settlement.max-batches:500}") int maxBatches) {
+        this.fillPersistenceService = fillPersistenceService;
+        this.windowMillis = windowMillis;
+        this.maxBatches = maxBatches;
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "fill-settlement-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds the cycle's batch to the current window.
+     *
+     * @return completes once the window is written. Completes with an InvalidArgumentException if the cycle's own
+     * batch is rejected for insufficient assets, with an IllegalStateException if the service is stopping
+     */
+    @Override
+    public CompletableFuture<Void> persist(FillBatch batch) {
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        PendingBatch pending = new PendingBatch(batch);
+        // the flush is queued under the lock too, so a window never starts after stop() queued the last one
+        synchronized (this) {
+            if (stopping) {
+                return CompletableFuture.failedFuture(
+                        new IllegalStateException("Fill settlement is stopping, match cycle not written."));
+            }
+            window.add(pending);
+            if (window.size() >= maxBatches) {
+                writer.execute(this::flush);
+            } else if (window.size() == 1) {
+                writer.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        // callers chain onto a copy, the window completes its own future
+        return pending.written.copy();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        synchronized (this) {
+            if (stopping) {
+                return;
+            }
+            stopping = true;
+            writer.execute(this::flush);
+        }
+        writer.shutdown();
+        writer.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private void flush() {
+        List<PendingBatch> batches;
+        synchronized (this) {
+            if (window.isEmpty()) {
+                // already written early for being full
+                return;
+            }
+            batches = window;
+            window = new ArrayList<>();
+        }
+        FillBatch merged = new FillBatch();
+        batches.forEach(pending -> merged.merge(pending.batch));
+        try {
+            fillPersistenceService.persist(merged);
+            batches.forEach(pending -> pending.written.complete(null));
+            log.debug("Settled {} match cycles: wallets: {}, positions: {}",
+                    batches.size(), merged.getWalletDeltas().size(), merged.getPositions().size());
+        } catch (InvalidArgumentException ex) {
+            log.warn("Settlement window of {} match cycles rejected, writing them one by one: {}", batches.size(), ex.getMessage());
+            batches.forEach(this::persistOne);
+        } catch (RuntimeException ex) {
+            batches.forEach(pending -> pending.written.completeExceptionally(ex));
+        }
+    }
+
+    private void persistOne(PendingBatch pending) {
+        try {
+            fillPersistenceService.persist(pending.batch);
+            pending.written.complete(null);
+        } catch (RuntimeException ex) {
+            pending.written.completeExceptionally(ex);
+        }
+    }
+
+    private static final class PendingBatch {
+        private final FillBatch batch;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
+        private PendingBatch(FillBatch batch) {
+            this.batch = batch;
+        }
+    }
+}
@@ -6,9 +6,11 @@ import com.ntros.model.market.Market;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static java.lang.String.format;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
@@ -19,17 +21,20 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 @Transactional
 public class MarketDataService implements MarketService {
 
+    private final Executor executor;
     private final MarketRepository marketRepository;
 
 
     @Autowired
-    public MarketDataService(MarketRepository marketRepository) {
+    public MarketDataService(@Qualifier("taskExecutor") Executor executor,
+                             MarketRepository marketRepository) {
+        this.executor = executor;
         this.marketRepository = marketRepository;
     }
 
     @Override
     public CompletableFuture<Market> getMarketByCode(String marketCode) {
         return supplyAsync(() -> marketRepository.findByMarketCode(marketCode).orElseThrow(
-                () -> NotFoundException.with(format("Market not found for code: %s", marketCode))));
+                () -> NotFoundException.with(format("Market not found for code: %s", marketCode))), executor);
     }
 }
@@ -0,0 +1,130 @@
+package com.ntros.service.market;
+
+import com.ntros.cache.OrderBookRegistry;
+import com.ntros.cache.RestingOrder;
+import com.ntros.engine.MatchingEngine;
+import com.ntros.ledger.PositionLedger;
+import com.ntros.ledger.WalletLedger;
+import com.ntros.model.order.CurrentOrderStatus;
+import com.ntros.model.order.Order;
+import com.ntros.service.order.OrderService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops serving markets deleted from the market table. A market's book is closed on its writer thread, then
+ * every order that was resting in it is cancelled like a cancel request would: the funds and units it held
+ * are released in the ledgers and its status is set to CANCELLED.
+ * The markets are re-synced with the table every "orderbook.markets.refresh-seconds", 0 turns that off.
+ */
+@Service
+@Slf4j
+public class MarketRemovalService {
+
+    private final Executor executor;
+    private final OrderBookRegistry orderBookRegistry;
+    private final MatchingEngine matchingEngine;
+    private final OrderService orderService;
+    private final WalletLedger walletLedger;
+    private final PositionLedger positionLedger;
+    private final long refreshSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public MarketRemovalService(@Qualifier("taskExecutor") Executor executor, OrderBookRegistry orderBookRegistry,
+                                MatchingEngine matchingEngine, OrderService orderService,
+                                WalletLedger walletLedger, PositionLedger positionLedger,
+                                @Value("${orderbook.markets.refresh-seconds:60}") long refreshSeconds) {
+        this.executor = executor;
+        this.orderBookRegistry = orderBookRegistry;
+        this.matchingEngine = matchingEngine;
+        this.orderService = orderService;
+        this.walletLedger = walletLedger;
+        this.positionLedger = positionLedger;
+        this.refreshSeconds = refreshSeconds;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (refreshSeconds > 0) {
+            schedule();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Re-syncs the served markets with the market table, removing the markets deleted from it.
+     * A market whose book is still loading on startup is removed by a later refresh, once all its orders rest.
+     */
+    public CompletableFuture<Void> refreshMarkets() {
+        return CompletableFuture.allOf(orderBookRegistry.refreshMarkets().stream()
+                .filter(orderBookRegistry::isReady)
+                .map(this::removeMarket)
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Closes the market's book and cancels the orders that were resting in it.
+     *
+     * @return number of orders cancelled
+     */
+    public CompletableFuture<Integer> removeMarket(String market) {
+        return matchingEngine.closeMarket(market).thenApplyAsync(resting -> {
+            // off the book, the orders can't fill any further
+            resting.forEach(restingOrder -> {
+                walletLedger.release(restingOrder.getOrderId());
+                positionLedger.release(restingOrder.getOrderId());
+            });
+            if (!resting.isEmpty()) {
+                Map<Integer, Order> orders = orderService.getOrdersByIds(resting.stream()
+                        .map(RestingOrder::getOrderId)
+                        .toList());
+                resting.forEach(restingOrder -> cancel(restingOrder, orders.get(restingOrder.getOrderId())));
+            }
+            log.info("Removed market: {}, cancelled {} resting orders", market, resting.size());
+            return resting.size();
+        }, executor);
+    }
+
+    private void schedule() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "market-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                // a removal finishes before the next refresh looks at the table
+                refreshMarkets().join();
+            } catch (RuntimeException ex) {
+                log.error("Could not refresh markets", ex);
+            }
+        }, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    // the book has the quantities of every fill, the status is all that is written
+    private void cancel(RestingOrder restingOrder, Order order) {
+        order.setRemainingQuantity(restingOrder.getRemainingQuantity());
+        order.setFilledQuantity(order.getQuantity() - restingOrder.getRemainingQuantity());
+        orderService.updateOrderStatus(order, CurrentOrderStatus.CANCELLED);
+    }
+}
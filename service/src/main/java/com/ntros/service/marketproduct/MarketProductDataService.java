@@ -5,11 +5,14 @@ import com.ntros.marketproduct.MarketProductRepository;
 import com.ntros.model.currency.Currency;
 import com.ntros.model.product.MarketProduct;
 import com.ntros.model.product.Product;
+import com.ntros.reference.ReferenceDataDirectory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static java.lang.String.format;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
@@ -17,21 +20,27 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 @Service
 public class MarketProductDataService implements MarketProductService {
 
+    private final Executor executor;
     private final MarketProductRepository marketProductRepository;
+    private final ReferenceDataDirectory referenceDataDirectory;
 
     @Autowired
-    public MarketProductDataService(MarketProductRepository marketProductRepository) {
+    public MarketProductDataService(@Qualifier("taskExecutor") Executor executor,
+                                    MarketProductRepository marketProductRepository,
+                                    ReferenceDataDirectory referenceDataDirectory) {
+        this.executor = executor;
         this.marketProductRepository = marketProductRepository;
+        this.referenceDataDirectory = referenceDataDirectory;
     }
 
     @Override
     public CompletableFuture<MarketProduct> getMarketProductByIsinMarketCodeAsync(String isin, String marketCode) {
-        return supplyAsync(() -> getMarketProductByIsinMarketCode(isin, marketCode));
+        return supplyAsync(() -> getMarketProductByIsinMarketCode(isin, marketCode), executor);
     }
 
     @Override
     public MarketProduct getMarketProductByIsinMarketCode(String isin, String marketCode) {
-        return marketProductRepository.findByProductIsinMarketCode(isin, marketCode)
+        return referenceDataDirectory.getMarketProduct(isin, marketCode)
                 .orElseThrow(() ->
                         NotFoundException.with(format("Product not found for isin: %s, market_code: %s",
                                 isin, marketCode)));
@@ -43,7 +52,7 @@ public class MarketProductDataService implements MarketProductService {
                 marketProductRepository.findMarketPriceForProductCurrency(product, currency)
                         .orElseThrow(() ->
                                 NotFoundException.with(format("Failed to find market price for product %s",
-                                        product.getProductName()))));
+                                        product.getProductName()))), executor);
     }
 
 }
@@ -1,13 +1,15 @@
 package com.ntros.service.order;
 
-import com.ntros.cache.OrderBook;
+import com.ntros.dto.KeysetPage;
+import com.ntros.dto.order.OrderDTO;
 import com.ntros.exception.DataConstraintFailureException;
+import com.ntros.exception.InvalidArgumentException;
 import com.ntros.exception.NotFoundException;
 import com.ntros.model.order.*;
-import com.ntros.model.product.MarketProduct;
+import com.ntros.order.OrderReadRepository;
 import com.ntros.order.OrderRepository;
 import com.ntros.order.OrderStatusRepository;
-import com.ntros.order.OrderTypeRepository;
+import com.ntros.reference.ReferenceDataDirectory;
 import jakarta.persistence.OptimisticLockException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,14 +18,15 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import static com.ntros.model.order.Side.BUY;
-import static com.ntros.model.order.Side.SELL;
 import static java.lang.String.format;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 
@@ -31,31 +34,37 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 @Slf4j
 public class OrderDataService implements OrderService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final Executor executor;
+    // read API queries, kept off the executor the write path uses
+    private final Executor readExecutor;
     private final OrderRepository orderRepository;
-    private final OrderTypeRepository orderTypeRepository;
+    private final ReferenceDataDirectory referenceDataDirectory;
     private final OrderStatusRepository orderStatusRepository;
+    private final OrderReadRepository orderReadRepository;
 
 
     @Autowired
     public OrderDataService(@Qualifier("taskExecutor") Executor executor,
+                            @Qualifier("readExecutor") Executor readExecutor,
                             OrderRepository orderRepository,
-                            OrderTypeRepository orderTypeRepository,
-                            OrderStatusRepository orderStatusRepository) {
+                            ReferenceDataDirectory referenceDataDirectory,
+                            OrderStatusRepository orderStatusRepository,
+                            OrderReadRepository orderReadRepository) {
 
         this.executor = executor;
+        this.readExecutor = readExecutor;
         this.orderRepository = orderRepository;
-        this.orderTypeRepository = orderTypeRepository;
+        this.referenceDataDirectory = referenceDataDirectory;
         this.orderStatusRepository = orderStatusRepository;
+        this.orderReadRepository = orderReadRepository;
     }
 
     @Override
     public Order createOrder(Order order) {
         try {
             Order saved = orderRepository.save(order);
-
-            // add to order book
-            OrderBook.forMarket(order.market()).addOrder(order);
             log.info("Saved order: {}", saved);
             return saved;
         } catch (DataIntegrityViolationException | OptimisticLockException ex) {
@@ -74,91 +83,37 @@ public class OrderDataService implements OrderService {
     }
 
     @Override
-    public Order updateOrder(Integer orderId, Order order) {
-        Order existingOrder = orderRepository.findById(orderId)
-                .orElseThrow(() ->
-                        NotFoundException.with(
-                                format("Order not found for id: %s", orderId)));
-
-        // remove existing order from OrderBOok
-        OrderBook.forMarket(order.market()).removeOrder(orderId);
-
-        // update all fields
-        existingOrder.setOrderType(order.getOrderType());
-        existingOrder.setWallet(order.getWallet());
-        existingOrder.setPrice(order.getPrice());
-        existingOrder.setMarketProduct(order.getMarketProduct());
-        existingOrder.setQuantity(order.getQuantity());
-        existingOrder.setFilledQuantity(order.getFilledQuantity());
-        existingOrder.setRemainingQuantity(order.getRemainingQuantity());
-        existingOrder.setPlacedAt(order.getPlacedAt());
-
-        // Save updated order
-        Order updatedOrder = orderRepository.save(existingOrder);
-
-        // Add the updated order to the OrderBook
-        OrderBook.forMarket(order.market()).addOrder(updatedOrder);
-
-        return updatedOrder;
-    }
-
-    @Override
-    public CompletableFuture<List<Order>> getAllOrders() {
-        return supplyAsync(() -> Optional.of(orderRepository.findAll())
-                .orElseThrow(() -> NotFoundException.with("No orders found.")));
-    }
-
-    @Override
-    public CompletableFuture<List<Order>> getAllOpenOrders() {
-        return supplyAsync(() -> Optional.of(orderRepository.findAllOpen())
-                .orElseThrow(() -> NotFoundException.with("No OPEN orders found.")));
-    }
-
-    @Override
-    public CompletableFuture<List<Order>> getAllFilledOrders() {
-        return supplyAsync(() -> Optional.of(orderRepository.findAllFilled())
-                .orElseThrow(() -> NotFoundException.with("No OPEN orders found.")));
+    public Map<Integer, Order> getOrdersByIds(List<Integer> orderIds) {
+        Map<Integer, Order> orders = orderRepository.findAllById(orderIds).stream()
+                .collect(Collectors.toMap(Order::getOrderId, Function.identity()));
+        if (orders.size() < new HashSet<>(orderIds).size()) {
+            throw NotFoundException.with(format("Orders not found for ids: %s", orderIds.stream()
+                    .filter(id -> !orders.containsKey(id))
+                    .toList()));
+        }
+        return orders;
     }
 
     @Override
-    public CompletableFuture<List<Order>> getAllPartialOrders() {
-        return supplyAsync(() -> Optional.of(orderRepository.findAllPartial())
-                .orElseThrow(() -> NotFoundException.with("No OPEN orders found.")));
-
+    public CompletableFuture<KeysetPage<OrderDTO>> getOrdersPage(CurrentOrderStatus status, int afterOrderId, int limit) {
+        return supplyAsync(() -> {
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                throw InvalidArgumentException.with(format("Page size must be between 1 and %s: %s", MAX_PAGE_SIZE, limit));
+            }
+            return KeysetPage.of(orderReadRepository.findPage(status == null ? null : status.name(), afterOrderId, limit),
+                    limit,
+                    OrderDTO::getOrderId);
+        }, readExecutor);
     }
 
-    /**
-     * Finds all matching OPEN orders based on it's Side, available products and price
-     */
     @Override
-    public List<Order> findMatchingOrders(Order order) {
-        return order.getSide().equals(Side.BUY)
-                ? findMatchingSellOrders(order.getMarketProduct(), order.getPrice(), order.getOrderType().getOrderTypeName())
-                : findMatchingBuyOrders(order.getMarketProduct(), order.getPrice(), order.getOrderType().getOrderTypeName());
-    }
-
-
-    public List<Order> findMatchingSellOrders(MarketProduct marketProduct, BigDecimal bidPrice, String orderType) {
-        List<Order> orders = OrderBook.forMarket(marketProduct.getMarket().getMarketCode())
-                .getMatchingOrders(bidPrice, marketProduct.getProduct().getIsin(), BUY, orderType);
-
-        return (orders != null && !orders.isEmpty())
-                ? orders
-                : orderRepository.findAllMatchingAsks(marketProduct, bidPrice);
-    }
-
-    public List<Order> findMatchingBuyOrders(MarketProduct marketProduct, BigDecimal askPrice, String orderType) {
-        List<Order> orders = OrderBook.forMarket(marketProduct.getMarket().getMarketCode())
-                .getMatchingOrders(askPrice, marketProduct.getProduct().getIsin(), SELL, orderType);
-
-        return (orders != null && !orders.isEmpty())
-                ? orders
-                : orderRepository.findAllMatchingBids(marketProduct, askPrice);
+    public void streamOrders(CurrentOrderStatus status, int afterOrderId, Consumer<OrderDTO> consumer) {
+        orderReadRepository.stream(status == null ? null : status.name(), afterOrderId, consumer);
     }
 
     @Override
     public OrderType getOrderType(String type) {
-        return orderTypeRepository.findOneByOrderTypeName(type)
+        return referenceDataDirectory.getOrderType(type)
                 .orElseThrow(() -> NotFoundException.with(format("Order type not found for: %s", type)));
     }
 
@@ -171,6 +126,14 @@ public class OrderDataService implements OrderService {
     public OrderStatus updateOrderStatus(Order order, CurrentOrderStatus orderStatus) {
         try {
             log.info("Updating status:{} for order:{}", orderStatus, order);
+            // the guarded update decides the transition, history only records the ones it applied
+            if (orderRepository.updateCurrentStatus(order.getOrderId(), orderStatus.name()) != 1) {
+                throw InvalidArgumentException.with(
+                        format("Order %s can't move to status %s, it was already filled or cancelled",
+                                order.getOrderId(), orderStatus.name()));
+            }
+            // the entity too, so a later save of it doesn't write the previous status back
+            order.setCurrentStatus(orderStatus);
             return orderStatusRepository.save(OrderStatus.builder()
                     .order(order)
                     .currentStatus(orderStatus.name())
@@ -187,29 +150,12 @@ public class OrderDataService implements OrderService {
     }
 
     @Override
-    public OrderStatus determineAndUpdateCurrentStatus(Order order) {
+    public CurrentOrderStatus determineCurrentStatus(Order order) {
         if (order.getQuantity() == order.getFilledQuantity() && order.getRemainingQuantity() == 0) {
-            OrderStatus status = updateOrderStatus(order, CurrentOrderStatus.FILLED);
-            // remove from order book
-            OrderBook.forMarket(order.market()).removeOrder(order.getOrderId());
-            return status;
+            // FILLED orders were already taken off the OrderBook by the MatchingEngine
+            return CurrentOrderStatus.FILLED;
         }
-        return updateOrderStatus(order, CurrentOrderStatus.PARTIALLY_FILLED);
-    }
-
-    @Override
-    public void transferFunds(Order buyOrder, Order sellOrder, int matchedQuantity) {
-        log.info("Transferring funds for matched orders: Buy={}, Sell={}, Quantity={}",
-                buyOrder, sellOrder, matchedQuantity);
-
-        buyOrder.adjustQuantity(matchedQuantity);
-        determineAndUpdateCurrentStatus(buyOrder);
-
-        sellOrder.adjustQuantity(matchedQuantity);
-        determineAndUpdateCurrentStatus(sellOrder);
-
-        orderRepository.save(buyOrder);
-        orderRepository.save(sellOrder);
+        return CurrentOrderStatus.PARTIALLY_FILLED;
     }
 
     private List<OrderStatus> getOrderStatus(Order order) {
@@ -1,34 +1,47 @@
 package com.ntros.service.order;
 
+import com.ntros.dto.KeysetPage;
+import com.ntros.dto.order.OrderDTO;
 import com.ntros.model.order.CurrentOrderStatus;
 import com.ntros.model.order.Order;
 import com.ntros.model.order.OrderStatus;
 import com.ntros.model.order.OrderType;
-import com.ntros.model.product.MarketProduct;
 
-import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface OrderService {
 
     Order getOrder(String accountNumber, String productIsin);
+
+    /**
+     * Loads orders in one query, keyed by order id. Fails if any id is missing.
+     */
+    Map<Integer, Order> getOrdersByIds(List<Integer> orderIds);
     Order createOrder(Order order);
-    Order updateOrder(Integer orderId, Order order);
-    CompletableFuture<List<Order>> getAllOrders();
-    CompletableFuture<List<Order>> getAllOpenOrders();
-    CompletableFuture<List<Order>> getAllFilledOrders();
-    CompletableFuture<List<Order>> getAllPartialOrders();
+
+    /**
+     * Orders after the given id in id order, read as DTOs.
+     *
+     * @param status - current status to filter on, null for all orders
+     */
+    CompletableFuture<KeysetPage<OrderDTO>> getOrdersPage(CurrentOrderStatus status, int afterOrderId, int limit);
+
+    /**
+     * Hands every order after the given id to the consumer as it is read, on the calling thread.
+     *
+     * @param status - current status to filter on, null for all orders
+     */
+    void streamOrders(CurrentOrderStatus status, int afterOrderId, Consumer<OrderDTO> consumer);
     OrderType getOrderType(String type);
     CompletableFuture<List<OrderStatus>> getAllByOrder(Order order);
 
     OrderStatus updateOrderStatus(Order order, CurrentOrderStatus orderStatus);
-    OrderStatus determineAndUpdateCurrentStatus(Order order);
-
-    void transferFunds(Order buyOrder, Order sellOrder, int matchedQuantity);
 
     /**
-     * Order Matching Logic
+     * FILLED or PARTIALLY_FILLED from the order's quantities, without persisting anything.
      */
-    List<Order> findMatchingOrders(Order order);
+    CurrentOrderStatus determineCurrentStatus(Order order);
 }
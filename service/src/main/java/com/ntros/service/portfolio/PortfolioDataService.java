@@ -6,9 +6,11 @@ import com.ntros.model.portfolio.Portfolio;
 import com.ntros.portfolio.PortfolioRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static java.lang.String.format;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
@@ -17,16 +19,19 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 @Slf4j
 public class PortfolioDataService implements PortfolioService {
 
+    private final Executor executor;
     private final PortfolioRepository portfolioRepository;
 
     @Autowired
-    public PortfolioDataService(PortfolioRepository portfolioRepository) {
+    public PortfolioDataService(@Qualifier("taskExecutor") Executor executor,
+                                PortfolioRepository portfolioRepository) {
+        this.executor = executor;
         this.portfolioRepository = portfolioRepository;
     }
 
     @Override
     public CompletableFuture<Portfolio> getPortfolioByAccountNumberAsync(String accountNumber) {
-        return supplyAsync(() -> getPortfolioByAccountNumber(accountNumber));
+        return supplyAsync(() -> getPortfolioByAccountNumber(accountNumber), executor);
     }
 
     @Override
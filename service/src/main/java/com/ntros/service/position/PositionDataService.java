@@ -1,5 +1,6 @@
 package com.ntros.service.position;
 
+import com.ntros.dto.PositionDTO;
 import com.ntros.exception.InvalidArgumentException;
 import com.ntros.exception.NotFoundException;
 import com.ntros.position.PositionRepository;
@@ -10,6 +11,7 @@ import com.ntros.model.product.Product;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
@@ -27,13 +29,17 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 public class PositionDataService implements PositionService {
 
     private final Executor executor;
+    private final Executor readExecutor;
 
     private final PositionRepository positionRepository;
 
 
     @Autowired
-    public PositionDataService(Executor executor, PositionRepository positionRepository) {
+    public PositionDataService(@Qualifier("taskExecutor") Executor executor,
+                               @Qualifier("readExecutor") Executor readExecutor,
+                               PositionRepository positionRepository) {
         this.executor = executor;
+        this.readExecutor = readExecutor;
         this.positionRepository = positionRepository;
     }
 
@@ -49,13 +55,13 @@ public class PositionDataService implements PositionService {
     }
 
     @Override
-    public CompletableFuture<List<Position>> getAllPositionsAsync() {
-        return supplyAsync(positionRepository::findAll);
+    public CompletableFuture<List<PositionDTO>> getAllPositionsAsync() {
+        return supplyAsync(positionRepository::findAllPositionDTOs, readExecutor);
     }
 
     @Override
     public CompletableFuture<Position> getPositionByAccountAndProductAsync(Account account, Product product) {
-        return supplyAsync(() -> getPositionByAccountAndProduct(account, product));
+        return supplyAsync(() -> getPositionByAccountAndProduct(account, product), executor);
     }
 
     @Override
@@ -85,7 +91,7 @@ public class PositionDataService implements PositionService {
 
     @Override
     public CompletableFuture<Integer> getQuantityByAccountNumberAndProductIsinAsync(String accountNumber, String isin) {
-        return supplyAsync(() -> getQuantityByAccountNumberAndProductIsin(accountNumber, isin));
+        return supplyAsync(() -> getQuantityByAccountNumberAndProductIsin(accountNumber, isin), executor);
     }
 
     @Override
@@ -100,7 +106,7 @@ public class PositionDataService implements PositionService {
     public CompletableFuture<Boolean> compareCurrentProductQuantityAsync(String accountNumber, String isin, int orderQuantity) {
 
         return supplyAsync(() -> positionRepository.compareCurrentProductQuantity(orderQuantity, accountNumber, isin)
-                .orElseThrow(() -> NotFoundException.with("could not get position quantity")));
+                .orElseThrow(() -> NotFoundException.with("could not get position quantity")), executor);
     }
 
     @Override
@@ -108,23 +114,20 @@ public class PositionDataService implements PositionService {
         return runAsync(() -> updatePosition(account, product, matchedOrderQuantity, side), executor);
     }
 
+    /**
+     * Applies the quantity as a delta in one statement, without reading the position first.
+     * BUY fills create the position if the account has none in the product yet.
+     */
     @Override
     public void updatePosition(Account account, Product product, int matchedOrderQuantity, Side side) {
-        Position position = getPositionByAccountAndProduct(account, product);
         if (side.equals(Side.BUY)) {
-            position.setQuantity(position.getQuantity() + matchedOrderQuantity);
-        } else {
-            if (position.getQuantity() < matchedOrderQuantity) {
-                log.info("Position: {} for account: {} on product: {} has Insufficient assets. Assets to match:{}",
-                        position, account, product, matchedOrderQuantity);
-                throw InvalidArgumentException.with(format("Insufficient assets to transfer. Position assets: %s, Order assets: %s",
-                        position.getQuantity(), matchedOrderQuantity));
-            }
-            position.setQuantity(position.getQuantity() - matchedOrderQuantity);
-
+            positionRepository.addQuantity(account.getAccountId(), product.getProductId(), matchedOrderQuantity);
+        } else if (positionRepository.deductQuantity(account.getAccountId(), product.getProductId(), matchedOrderQuantity) == 0) {
+            log.info("Position for account: {} on product: {} has Insufficient assets. Assets to match:{}",
+                    account, product, matchedOrderQuantity);
+            throw InvalidArgumentException.with(format("Insufficient assets to transfer. Order assets: %s", matchedOrderQuantity));
         }
         log.info("Transferred {} units of Product {} from Account {}",
                 matchedOrderQuantity, product, account);
-        positionRepository.save(position);
     }
 }
@@ -1,5 +1,6 @@
 package com.ntros.service.position;
 
+import com.ntros.dto.PositionDTO;
 import com.ntros.model.Position;
 import com.ntros.model.account.Account;
 import com.ntros.model.order.Side;
@@ -12,7 +13,7 @@ public interface PositionService {
 
     Position createPosition(Position position);
 
-    CompletableFuture<List<Position>> getAllPositionsAsync();
+    CompletableFuture<List<PositionDTO>> getAllPositionsAsync();
     CompletableFuture<Position> getPositionByAccountAndProductAsync(Account account, Product product);
     Position getPositionByAccountAndProduct(Account account, Product product);
     CompletableFuture<Position> getPositionByAccountNumberAndProductIsinAsync(String accountNumber, String isin);
@@ -6,9 +6,11 @@ import com.ntros.product.ProductRepository;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static java.lang.String.format;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
@@ -18,16 +20,19 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 @Slf4j
 public class ProductDataService implements ProductService {
 
+    private final Executor executor;
     private final ProductRepository productRepository;
 
     @Autowired
-    public ProductDataService(ProductRepository productRepository) {
+    public ProductDataService(@Qualifier("taskExecutor") Executor executor,
+                              ProductRepository productRepository) {
+        this.executor = executor;
         this.productRepository = productRepository;
     }
 
     @Override
     public CompletableFuture<Product> getProduct(String isin) {
         return supplyAsync(() -> productRepository.findOneByIsin(isin)
-                .orElseThrow(() -> NotFoundException.with(format("Product not found for given isin: %s", isin))));
+                .orElseThrow(() -> NotFoundException.with(format("Product not found for given isin: %s", isin))), executor);
     }
 }
@@ -1,19 +1,24 @@
 package com.ntros.service.transaction;
 
+import com.ntros.dto.KeysetPage;
+import com.ntros.dto.TransactionDTO;
 import com.ntros.exception.DataConstraintFailureException;
+import com.ntros.exception.InvalidArgumentException;
 import com.ntros.exception.NotFoundException;
 import com.ntros.model.transaction.Transaction;
 import com.ntros.model.transaction.TransactionType;
+import com.ntros.reference.ReferenceDataDirectory;
+import com.ntros.transaction.TransactionReadRepository;
 import com.ntros.transaction.TransactionRepository;
-import com.ntros.transaction.TransactionTypeRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import static java.lang.String.format;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
@@ -22,18 +27,26 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 @Slf4j
 public class TransactionDataService implements TransactionService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final Executor executor;
+    private final Executor readExecutor;
 
     private final TransactionRepository transactionRepository;
-    private final TransactionTypeRepository transactionTypeRepository;
+    private final ReferenceDataDirectory referenceDataDirectory;
+    private final TransactionReadRepository transactionReadRepository;
 
     @Autowired
-    public TransactionDataService(Executor executor,
+    public TransactionDataService(@Qualifier("taskExecutor") Executor executor,
+                                  @Qualifier("readExecutor") Executor readExecutor,
                                   TransactionRepository transactionRepository,
-                                  TransactionTypeRepository transactionTypeRepository) {
+                                  ReferenceDataDirectory referenceDataDirectory,
+                                  TransactionReadRepository transactionReadRepository) {
         this.executor = executor;
+        this.readExecutor = readExecutor;
         this.transactionRepository = transactionRepository;
-        this.transactionTypeRepository = transactionTypeRepository;
+        this.referenceDataDirectory = referenceDataDirectory;
+        this.transactionReadRepository = transactionReadRepository;
     }
 
     @Override
@@ -48,23 +61,25 @@ public class TransactionDataService implements TransactionService {
     }
 
     @Override
-    public CompletableFuture<List<Transaction>> getAllTransactionsAsync() {
-        return supplyAsync(transactionRepository::findAll);
-    }
-
-    @Override
-    public CompletableFuture<List<Transaction>> getAllTransactionsByPortfolio(String portfolioName) {
-        return supplyAsync(() -> transactionRepository.findAllByPortfolioName(portfolioName));
+    public CompletableFuture<KeysetPage<TransactionDTO>> getTransactionsPage(int afterTransactionId, int limit) {
+        return supplyAsync(() -> {
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                throw InvalidArgumentException.with(format("Page size must be between 1 and %s: %s", MAX_PAGE_SIZE, limit));
+            }
+            return KeysetPage.of(transactionReadRepository.findPage(afterTransactionId, limit),
+                    limit,
+                    TransactionDTO::getTransactionId);
+        }, readExecutor);
     }
 
     @Override
-    public CompletableFuture<List<Transaction>> getAllTransactionsByAccountNumber(String accountNumber) {
-        return supplyAsync(() -> transactionRepository.findAllByAccountNumber(accountNumber));
+    public void streamTransactions(int afterTransactionId, Consumer<TransactionDTO> consumer) {
+        transactionReadRepository.stream(afterTransactionId, consumer);
     }
 
     @Override
     public TransactionType getTransactionType(String type) {
-        return transactionTypeRepository.findOneByTransactionTypeName(type)
+        return referenceDataDirectory.getTransactionType(type)
                 .orElseThrow(() -> NotFoundException.with(format("Could not find tx type with name: %s", type)));
     }
 }
@@ -1,15 +1,24 @@
 package com.ntros.service.transaction;
 
+import com.ntros.dto.KeysetPage;
+import com.ntros.dto.TransactionDTO;
 import com.ntros.model.transaction.Transaction;
 import com.ntros.model.transaction.TransactionType;
 
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface TransactionService {
     TransactionType getTransactionType(String type);
     Transaction createTransaction(Transaction transaction);
-    CompletableFuture<List<Transaction>> getAllTransactionsAsync();
-    CompletableFuture<List<Transaction>> getAllTransactionsByPortfolio(String portfolioName);
-    CompletableFuture<List<Transaction>> getAllTransactionsByAccountNumber(String accountNumber);
+
+    /**
+     * Transactions after the given id in id order, read as DTOs.
+     */
+    CompletableFuture<KeysetPage<TransactionDTO>> getTransactionsPage(int afterTransactionId, int limit);
+
+    /**
+     * Hands every transaction after the given id to the consumer as it is read, on the calling thread.
+     */
+    void streamTransactions(int afterTransactionId, Consumer<TransactionDTO> consumer);
 }
@@ -3,13 +3,14 @@ package com.ntros.service.wallet;
 import com.ntros.account.AccountRepository;
 import com.ntros.account.WalletRepository;
 import com.ntros.converter.WalletConverter;
-import com.ntros.currency.CurrencyRepository;
 import com.ntros.dto.UniqueWalletDTO;
 import com.ntros.dto.WalletDTO;
+import com.ntros.ledger.WalletLedger;
 import com.ntros.exception.*;
 import com.ntros.model.account.Account;
 import com.ntros.model.currency.Currency;
 import com.ntros.model.wallet.Wallet;
+import com.ntros.reference.ReferenceDataDirectory;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,7 +22,6 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
@@ -37,19 +37,22 @@ public class WalletDataService implements WalletService {
     private final WalletRepository walletRepository;
     private final WalletConverter walletConverter;
     private final AccountRepository accountRepository;
-    private final CurrencyRepository currencyRepository;
+    private final ReferenceDataDirectory referenceDataDirectory;
+    private final WalletLedger walletLedger;
 
 
     @Autowired
     public WalletDataService(@Qualifier("taskExecutor") Executor executor, final WalletRepository walletRepository,
                              final WalletConverter walletConverter,
                              final AccountRepository accountRepository,
-                             final CurrencyRepository currencyRepository) {
+                             final ReferenceDataDirectory referenceDataDirectory,
+                             final WalletLedger walletLedger) {
         this.executor = executor;
         this.walletRepository = walletRepository;
         this.walletConverter = walletConverter;
         this.accountRepository = accountRepository;
-        this.currencyRepository = currencyRepository;
+        this.referenceDataDirectory = referenceDataDirectory;
+        this.walletLedger = walletLedger;
     }
 
     @Override
@@ -125,7 +128,7 @@ public class WalletDataService implements WalletService {
 
     @Override
     public CompletableFuture<Wallet> createWallet(Wallet wallet) {
-        return supplyAsync(() -> create(wallet));
+        return supplyAsync(() -> create(wallet), executor);
     }
 
     @Override
@@ -137,25 +140,17 @@ public class WalletDataService implements WalletService {
                 executor);
     }
 
-    @Override
-    public void updateBalance(Wallet wallet, BigDecimal balance) {
-        try {
-            walletRepository.updateBalance(wallet, balance);
-        } catch (DataAccessException ex) {
-            String err = format("Could not update balance for wallet: %s", wallet);
-            log.error(err, ex);
-            // rethrowing as a completion exception so it is caught by exceptionally block in thenCombine
-            throw new CompletionException(err, DataAccessViolationException.with(err));
-        }
-    }
-
+    /**
+     * Checks the order value against the ledger's balance net of open BUY orders, not the entity's balance.
+     */
     @Override
     public CompletableFuture<Wallet> validateBalance(Wallet wallet, BigDecimal price, int quantity) {
         return supplyAsync(() -> {
             BigDecimal totalOrderValue = price.multiply(BigDecimal.valueOf(quantity));
-            if (wallet.getBalance().compareTo(totalOrderValue) < 0) {
-                String err = format("Not enough balance for order. Current balance: [%s], Order price: [%s]",
-                        wallet.getBalance(), totalOrderValue);
+            BigDecimal available = walletLedger.getAvailable(wallet.getWalletId());
+            if (available.compareTo(totalOrderValue) < 0) {
+                String err = format("Not enough balance for order. Available balance: [%s], Order price: [%s]",
+                        available, totalOrderValue);
                 log.error(err);
                 throw InvalidArgumentException.with(err);
             }
@@ -167,6 +162,8 @@ public class WalletDataService implements WalletService {
     private int delete(String code, String an) {
         int affectedRows;
         try {
+            walletRepository.findByCurrencyCodeAccountNumber(code, an)
+                    .ifPresent(wallet -> walletLedger.evict(wallet.getWalletId()));
             affectedRows = walletRepository.deleteByCurrencyCodeAccountNumber(code, an);
             if (affectedRows > 1) {
                 log.error("Modified {} rows after delete.", affectedRows);
@@ -182,7 +179,7 @@ public class WalletDataService implements WalletService {
     }
 
     private Wallet getAndSetCurrencyAccount(String currencyCode, String accountNumber, Wallet wallet) {
-        Currency currency = currencyRepository.findByCurrencyCode(currencyCode).orElseThrow(() ->
+        Currency currency = referenceDataDirectory.getCurrency(currencyCode).orElseThrow(() ->
                 NotFoundException.with(format("Currency [%s] doesnt exist.", currencyCode)));
         Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow(() ->
                 NotFoundException.with(format("Account with AN:[%s] doesnt exist.", accountNumber)));
@@ -27,7 +27,6 @@ public interface WalletService {
 
     CompletableFuture<Integer> deleteWallet(final UniqueWalletDTO uniqueWalletDTO);
 
-    void updateBalance(Wallet wallet, BigDecimal balance);
     CompletableFuture<Wallet> validateBalance(Wallet wallet, BigDecimal price, int quantity);
 
 }
@@ -0,0 +1,143 @@
+package com.ntros.cache;
+
+import com.ntros.model.market.Market;
+import com.ntros.model.order.Order;
+import com.ntros.model.order.Side;
+import com.ntros.model.product.MarketProduct;
+import com.ntros.model.product.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.ntros.model.order.Side.BUY;
+import static com.ntros.model.order.Side.SELL;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapOrderBookTest {
+    private static final String TEST_MARKET = "TSX";
+    private static final String TEST_ISIN = "CA7800871021";
+    private static final String OTHER_ISIN = "CA0641491075";
+    private static final String LIMIT_ORDER_TYPE = "LIMIT";
+
+    private final MarketProduct marketProduct = new MarketProduct();
+    private OffHeapOrderBook orderBook;
+
+    @BeforeEach
+    void setUp() {
+        Market market = new Market();
+        market.setMarketCode(TEST_MARKET);
+        Product product = new Product();
+        product.setIsin(TEST_ISIN);
+        marketProduct.setMarket(market);
+        marketProduct.setProduct(product);
+
+        // tiny chunks so the tests cross chunk boundaries
+        orderBook = new OffHeapOrderBook(TEST_MARKET, 2);
+    }
+
+    @Test
+    void getMatchingOrders_limitBuy_returnsAsksByPriceThenTime() {
+        orderBook.addOrder(createOrder(1, SELL, "100.10", 5));
+        orderBook.addOrder(createOrder(2, SELL, "100.05", 5));
+        orderBook.addOrder(createOrder(3, SELL, "100.10", 5));
+        orderBook.addOrder(createOrder(4, SELL, "100.20", 5));
+
+        List<RestingOrder> matching = orderBook.getMatchingOrders(new BigDecimal("100.15"), TEST_ISIN, BUY, LIMIT_ORDER_TYPE);
+
+        assertEquals(List.of(2, 1, 3), matching.stream().map(RestingOrder::getOrderId).toList());
+        assertEquals(TEST_ISIN, matching.get(0).getIsin());
+        assertEquals(new BigDecimal("100.05"), matching.get(0).getPrice());
+    }
+
+    @Test
+    void fillOrder_keepsPartialAndRemovesFilled() {
+        orderBook.addOrder(createOrder(5, BUY, "99.00", 5));
+        orderBook.addOrder(createOrder(6, BUY, "99.00", 5));
+
+        assertEquals(2, orderBook.fillOrder(5, 3).getRemainingQuantity());
+        assertEquals(2, orderBook.getOrder(5).orElseThrow().getRemainingQuantity(), "Partial fills should be written to the slot.");
+        assertEquals(7, orderBook.getDepth(TEST_ISIN).getBestBid().orElseThrow().getQuantity(), "Partial fills should be taken off the level total.");
+
+        assertEquals(0, orderBook.fillOrder(5, 2).getRemainingQuantity());
+        assertTrue(orderBook.getOrder(5).isEmpty());
+        assertEquals(6, orderBook.getBestOrder(TEST_ISIN, BUY).map(RestingOrder::getOrderId).orElseThrow());
+        assertEquals(1, orderBook.getDepth(TEST_ISIN).getBestBid().orElseThrow().getOrderCount());
+    }
+
+    @Test
+    void removeOrder_freedSlotsAreReused() {
+        for (int id = 1; id <= 100; id++) {
+            orderBook.addOrder(createOrder(id, id % 2 == 0 ? BUY : SELL, id % 2 == 0 ? "99.00" : "101.00", 1));
+        }
+        for (int id = 1; id <= 100; id++) {
+            orderBook.removeOrder(id);
+        }
+        for (int id = 101; id <= 200; id++) {
+            orderBook.addOrder(createOrder(id, BUY, "98.00", 1));
+        }
+
+        assertEquals(100, orderBook.size());
+        assertEquals(101, orderBook.getBestOrder(TEST_ISIN, BUY).map(RestingOrder::getOrderId).orElseThrow());
+        assertTrue(orderBook.getBestOrder(TEST_ISIN, SELL).isEmpty());
+        assertThrows(NoSuchElementException.class, () -> orderBook.removeOrder(1));
+    }
+
+    @Test
+    void addAndRemove_concurrentInstruments_keepTheirOwnOrders() throws Exception {
+        MarketProduct otherProduct = new MarketProduct();
+        Product product = new Product();
+        product.setIsin(OTHER_ISIN);
+        otherProduct.setMarket(marketProduct.getMarket());
+        otherProduct.setProduct(product);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (MarketProduct instrument : List.of(marketProduct, otherProduct)) {
+            int firstId = instrument == marketProduct ? 1 : 100_001;
+            writers.add(pool.submit(() -> {
+                start.await();
+                for (int id = firstId; id < firstId + 10_000; id++) {
+                    Order order = createOrder(id, id % 2 == 0 ? BUY : SELL, id % 2 == 0 ? "99.00" : "101.00", 1);
+                    order.setMarketProduct(instrument);
+                    orderBook.addOrder(order);
+                    if (id % 4 < 2) {
+                        orderBook.removeOrder(id);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        pool.shutdown();
+
+        assertEquals(10_000, orderBook.size());
+        assertEquals(2_500, orderBook.getMatchingOrders(new BigDecimal("101.00"), OTHER_ISIN, BUY, LIMIT_ORDER_TYPE).size());
+        assertTrue(orderBook.getMatchingOrders(new BigDecimal("101.00"), OTHER_ISIN, BUY, LIMIT_ORDER_TYPE).stream()
+                .allMatch(order -> order.getOrderId() > 100_000 && OTHER_ISIN.equals(order.getIsin())));
+        assertEquals(TEST_ISIN, orderBook.getOrder(3).orElseThrow().getIsin());
+    }
+
+    private Order createOrder(Integer id, Side side, String price, int qty) {
+        return Order.builder()
+                .orderId(id)
+                .side(side)
+                .price(new BigDecimal(price))
+                .quantity(qty)
+                .remainingQuantity(qty)
+                .filledQuantity(0)
+                .marketProduct(marketProduct)
+                .build();
+    }
+}
@@ -12,10 +12,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
-import static com.ntros.cache.OrderBook.forMarket;
 import static com.ntros.model.order.Side.BUY;
 import static com.ntros.model.order.Side.SELL;
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,7 +30,8 @@ class OrderBookTest {
     private static final String MARKET_ORDER_TYPE = "MARKET";
     private static final String LIMIT_ORDER_TYPE = "LIMIT";
 
-    private OrderBook orderBook;
+    private OrderBookRegistry registry;
+    private OrderCache orderBook;
 
     private final OrderType orderType = new OrderType(1, MARKET_ORDER_TYPE);
     private Order buyOrder1;
@@ -43,9 +48,9 @@ class OrderBookTest {
 
     @BeforeEach
     void setUp() {
-        orderBook = forMarket(TEST_MARKET);
-        // clearing the instance state before each test
-        orderBook.clear();
+        registry = new OrderBookRegistry(OrderBookType.TREE);
+        registry.addMarket(TEST_MARKET);
+        orderBook = registry.forMarket(TEST_MARKET);
 
         prod.setProductName("Apple Inc.");
         prod.setIsin("US0378331005");
@@ -68,31 +73,46 @@ class OrderBookTest {
 
     @Test
     void getOrderBookInstance_forMarket_successfulInitialization() {
-        OrderBook orderBook = forMarket(TEST_MARKET);
+        OrderCache orderBook = registry.forMarket(TEST_MARKET);
         assertNotNull(orderBook);
         assertEquals(TEST_MARKET, orderBook.getMarket());
+        assertSame(orderBook, registry.forMarket(TEST_MARKET), "A market should keep a single book.");
     }
 
     @Test
     void getOrderBookInstance_forMarket_failsToInitialize() {
         String expectedError = "Unsupported market: " + INVALID_MARKET;
         try {
-            forMarket(INVALID_MARKET);
+            registry.forMarket(INVALID_MARKET);
         } catch (IllegalArgumentException ex) {
             assertEquals(expectedError, ex.getMessage());
         }
     }
 
+    @Test
+    void removeMarket_dropsBookAndRejectsMarket() {
+        orderBook.addOrder(buyOrder1);
+
+        OrderCache removed = registry.removeMarket(TEST_MARKET).orElseThrow();
+
+        assertEquals(1, removed.size());
+        assertFalse(registry.getMarkets().contains(TEST_MARKET));
+        assertThrows(IllegalArgumentException.class, () -> registry.forMarket(TEST_MARKET));
+
+        registry.addMarket(TEST_MARKET);
+        assertEquals(0, registry.forMarket(TEST_MARKET).size(), "A re-added market should start with an empty book.");
+    }
+
     @Test
     void getMatchingBuysForSellOrder() {
         orderBook.addOrder(buyOrder1); // Price: 100
         orderBook.addOrder(buyOrder2); // Price: 105
 
 
-        List<Order> matchingOrders = orderBook.getMatchingOrders(BigDecimal.valueOf(101), prod.getIsin(), SELL, MARKET_ORDER_TYPE);
+        List<RestingOrder> matchingOrders = orderBook.getMatchingOrders(BigDecimal.valueOf(101), prod.getIsin(), SELL, MARKET_ORDER_TYPE);
 
         assertEquals(1, matchingOrders.size(), "Should return buy orders with price <= 102.");
-        assertEquals(BigDecimal.valueOf(105), matchingOrders.get(0).getPrice(), "Matching order should have the highest buy price.");
+        assertEquals(0, BigDecimal.valueOf(105).compareTo(matchingOrders.get(0).getPrice()), "Matching order should have the highest buy price.");
     }
 
     @Test
@@ -101,10 +121,10 @@ class OrderBookTest {
         orderBook.addOrder(sellOrder2); // Price: 120
 
 
-        List<Order> matchingOrders = orderBook.getMatchingOrders(BigDecimal.valueOf(115), prod.getIsin(), BUY, MARKET_ORDER_TYPE);
+        List<RestingOrder> matchingOrders = orderBook.getMatchingOrders(BigDecimal.valueOf(115), prod.getIsin(), BUY, MARKET_ORDER_TYPE);
 
         assertEquals(1, matchingOrders.size(), "Should return sell orders with price >= 115.");
-        assertEquals(BigDecimal.valueOf(120), matchingOrders.get(0).getPrice(), "Matching order should have the lowest sell price.");
+        assertEquals(0, BigDecimal.valueOf(120).compareTo(matchingOrders.get(0).getPrice()), "Matching order should have the lowest sell price.");
     }
 
     @Test
@@ -124,7 +144,7 @@ class OrderBookTest {
     void getMatchingOrders_whenNoneFound_returnEmptyList() {
         orderBook.addOrder(sellOrder1);
 
-        List<Order> matchingOrders = orderBook.getMatchingOrders(BigDecimal.valueOf(90), "123", BUY, MARKET_ORDER_TYPE);
+        List<RestingOrder> matchingOrders = orderBook.getMatchingOrders(BigDecimal.valueOf(90), "123", BUY, MARKET_ORDER_TYPE);
 
         assertTrue(matchingOrders.isEmpty(), "Should return an empty list when no matching orders are found.");
     }
@@ -143,11 +163,137 @@ class OrderBookTest {
 
         orderBook.addOrder(createOrder(6, BUY, BigDecimal.valueOf(105), 10, mp));
 
-        List<Order> matchingOrders = orderBook.getMatchingOrders(BigDecimal.valueOf(90), prod.getIsin(), SELL, MARKET_ORDER_TYPE);
+        List<RestingOrder> matchingOrders = orderBook.getMatchingOrders(BigDecimal.valueOf(90), prod.getIsin(), SELL, MARKET_ORDER_TYPE);
 
         assertEquals(1, matchingOrders.size(), "Should return only orders matching the price and ISIN.");
-        assertEquals(expectedMatching, matchingOrders.get(0));
-        assertEquals(prod.getIsin(), matchingOrders.get(0).getMarketProduct().getProduct().getIsin(), "Returned order must have the correct ISIN.");
+        assertEquals(expectedMatching.getOrderId(), matchingOrders.get(0).getOrderId());
+        assertEquals(prod.getIsin(), matchingOrders.get(0).getIsin(), "Returned order must have the correct ISIN.");
+    }
+
+    @Test
+    void getMatchingOrders_sameLevel_keepsArrivalOrder() {
+        orderBook.addOrder(createOrder(7, SELL, BigDecimal.valueOf(110), 1, marketProduct));
+        orderBook.addOrder(createOrder(8, SELL, BigDecimal.valueOf(110), 1, marketProduct));
+        orderBook.addOrder(createOrder(9, SELL, BigDecimal.valueOf(110), 1, marketProduct));
+
+        List<RestingOrder> matchingOrders = orderBook.getMatchingOrders(BigDecimal.valueOf(110), prod.getIsin(), BUY, LIMIT_ORDER_TYPE);
+
+        assertEquals(List.of(7, 8, 9), matchingOrders.stream().map(RestingOrder::getOrderId).toList(), "Orders at one price should keep time priority.");
+    }
+
+    @Test
+    void removeOrder_middleOfLevel_keepsRemainingQueue() {
+        orderBook.addOrder(createOrder(7, SELL, BigDecimal.valueOf(110), 1, marketProduct));
+        orderBook.addOrder(createOrder(8, SELL, BigDecimal.valueOf(110), 1, marketProduct));
+        orderBook.addOrder(createOrder(9, SELL, BigDecimal.valueOf(110), 1, marketProduct));
+
+        orderBook.removeOrder(8);
+
+        List<RestingOrder> matchingOrders = orderBook.getMatchingOrders(BigDecimal.valueOf(110), prod.getIsin(), BUY, LIMIT_ORDER_TYPE);
+        assertEquals(List.of(7, 9), matchingOrders.stream().map(RestingOrder::getOrderId).toList());
+        assertEquals(7, orderBook.getBestOrder(prod.getIsin(), SELL).map(RestingOrder::getOrderId).orElseThrow());
+    }
+
+    @Test
+    void removeOrder_headOfLevel_promotesNextOrder() {
+        orderBook.addOrder(createOrder(7, BUY, BigDecimal.valueOf(100), 1, marketProduct));
+        orderBook.addOrder(createOrder(8, BUY, BigDecimal.valueOf(100), 1, marketProduct));
+
+        orderBook.removeOrder(7);
+        assertEquals(8, orderBook.getBestOrder(prod.getIsin(), BUY).map(RestingOrder::getOrderId).orElseThrow());
+
+        orderBook.addOrder(createOrder(9, BUY, BigDecimal.valueOf(100), 1, marketProduct));
+        orderBook.removeOrder(8);
+        assertEquals(9, orderBook.getBestOrder(prod.getIsin(), BUY).map(RestingOrder::getOrderId).orElseThrow(),
+                "Orders joining after a removal should queue at the tail.");
+    }
+
+    @Test
+    void removeOrder_cancelStorm_leavesEmptyBook() {
+        int count = 10_000;
+        for (int id = 1; id <= count; id++) {
+            orderBook.addOrder(createOrder(id, id % 2 == 0 ? BUY : SELL, BigDecimal.valueOf(100 + id % 3), 1, marketProduct));
+        }
+        // cancel from the back of every level first, then the rest
+        for (int id = count; id > count / 2; id--) {
+            orderBook.removeOrder(id);
+        }
+        for (int id = 1; id <= count / 2; id++) {
+            orderBook.removeOrder(id);
+        }
+
+        assertEquals(0, orderBook.size());
+        assertTrue(orderBook.getBestOrder(prod.getIsin(), BUY).isEmpty());
+        assertTrue(orderBook.getBestOrder(prod.getIsin(), SELL).isEmpty());
+        assertThrows(NoSuchElementException.class, () -> orderBook.removeOrder(1), "Cancelled orders should not be removable twice.");
+    }
+
+    @Test
+    void getDepth_aggregatesLevelsAndPublishesNewVersions() {
+        String isin = prod.getIsin();
+        assertEquals(0, orderBook.getDepth(isin).getVersion());
+
+        orderBook.addOrder(buyOrder1); // 100 x 10
+        orderBook.addOrder(createOrder(5, BUY, BigDecimal.valueOf(100), 7, marketProduct));
+        orderBook.addOrder(buyOrder2); // 105 x 5
+        orderBook.addOrder(sellOrder1); // 110 x 8
+        DepthSnapshot before = orderBook.getDepth(isin);
+
+        orderBook.fillOrder(5, 3);
+        orderBook.removeOrder(buyOrder2.getOrderId());
+        DepthSnapshot after = orderBook.getDepth(isin);
+
+        assertEquals(4, before.getVersion());
+        assertEquals(List.of("105.00", "100.00"), before.getBids().stream().map(level -> level.getPrice().toPlainString()).toList());
+        assertEquals(17, before.getBids().get(1).getQuantity());
+        assertEquals(2, before.getBids().get(1).getOrderCount());
+        assertEquals(8, before.getBestAsk().orElseThrow().getQuantity());
+
+        assertEquals(6, after.getVersion());
+        assertEquals(1, after.getBids().size());
+        assertEquals(14, after.getBestBid().orElseThrow().getQuantity(), "Fills should be taken off the level total.");
+        assertSame(before.getAsks(), after.getAsks(), "An untouched side should be shared between versions.");
+    }
+
+    @Test
+    void addAndRemove_concurrentlyAcrossIsins_keepsEachInstrumentConsistent() throws Exception {
+        int instruments = 4;
+        int ordersPerInstrument = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(instruments);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int i = 0; i < instruments; i++) {
+            MarketProduct instrument = createMarketProduct("US000000000" + i);
+            int firstId = i * ordersPerInstrument + 1;
+            writers.add(executor.submit(() -> {
+                for (int id = firstId; id < firstId + ordersPerInstrument; id++) {
+                    orderBook.addOrder(createOrder(id, id % 2 == 0 ? BUY : SELL, BigDecimal.valueOf(id % 2 == 0 ? 99 : 101), 1, instrument));
+                }
+                for (int id = firstId; id < firstId + ordersPerInstrument / 2; id++) {
+                    orderBook.removeOrder(id);
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(instruments * ordersPerInstrument / 2, orderBook.size());
+        for (int i = 0; i < instruments; i++) {
+            String isin = "US000000000" + i;
+            int firstRemaining = i * ordersPerInstrument + ordersPerInstrument / 2 + 1;
+            assertEquals(firstRemaining, orderBook.getBestOrder(isin, SELL).map(RestingOrder::getOrderId).orElseThrow());
+            assertEquals(ordersPerInstrument / 4, orderBook.getMatchingOrders(BigDecimal.valueOf(101), isin, BUY, LIMIT_ORDER_TYPE).size());
+        }
+    }
+
+    private MarketProduct createMarketProduct(String isin) {
+        Product product = new Product();
+        product.setIsin(isin);
+        MarketProduct mp = new MarketProduct();
+        mp.setProduct(product);
+        mp.setMarket(market);
+        return mp;
     }
 
     private Order createOrder(Integer id, Side side, BigDecimal price, int qty, MarketProduct mp) {
@@ -0,0 +1,144 @@
+package com.ntros.cache;
+
+import com.ntros.model.market.Market;
+import com.ntros.model.order.Order;
+import com.ntros.model.order.Side;
+import com.ntros.model.product.MarketProduct;
+import com.ntros.model.product.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static com.ntros.model.order.Side.BUY;
+import static com.ntros.model.order.Side.SELL;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickOrderBookTest {
+    private static final String TEST_MARKET = "LSE";
+    private static final String TEST_ISIN = "GB0002634946";
+    private static final String MARKET_ORDER_TYPE = "MARKET";
+    private static final String LIMIT_ORDER_TYPE = "LIMIT";
+
+    private final MarketProduct marketProduct = new MarketProduct();
+    private TickOrderBook orderBook;
+
+    @BeforeEach
+    void setUp() {
+        Market market = new Market();
+        market.setMarketCode(TEST_MARKET);
+        Product product = new Product();
+        product.setIsin(TEST_ISIN);
+        marketProduct.setMarket(market);
+        marketProduct.setProduct(product);
+
+        orderBook = new TickOrderBook(TEST_MARKET);
+    }
+
+    @Test
+    void priceTicks_roundTrip() {
+        PriceTicks ticks = PriceTicks.ORDER_PRICE;
+
+        assertEquals(10_005, ticks.toTicks(new BigDecimal("100.05")));
+        assertEquals(new BigDecimal("100.05"), ticks.toPrice(10_005));
+        assertThrows(IllegalArgumentException.class, () -> ticks.toTicks(new BigDecimal("100.005")),
+                "Off-tick prices should be rejected.");
+    }
+
+    @Test
+    void getMatchingOrders_limitBuy_returnsAsksAtOrBelowPriceAscending() {
+        orderBook.addOrder(createOrder(1, SELL, "100.10", 5));
+        orderBook.addOrder(createOrder(2, SELL, "100.05", 5));
+        orderBook.addOrder(createOrder(3, SELL, "100.20", 5));
+
+        List<RestingOrder> matching = orderBook.getMatchingOrders(new BigDecimal("100.15"), TEST_ISIN, BUY, LIMIT_ORDER_TYPE);
+
+        assertEquals(List.of(2, 1), matching.stream().map(RestingOrder::getOrderId).toList());
+    }
+
+    @Test
+    void getMatchingOrders_marketSell_returnsBidsAtOrAbovePriceDescending() {
+        orderBook.addOrder(createOrder(4, BUY, "99.90", 5));
+        orderBook.addOrder(createOrder(5, BUY, "100.00", 5));
+        orderBook.addOrder(createOrder(6, BUY, "100.10", 5));
+
+        // off-tick query price is rounded towards the inclusive bound
+        List<RestingOrder> matching = orderBook.getMatchingOrders(new BigDecimal("99.995"), TEST_ISIN, SELL, MARKET_ORDER_TYPE);
+
+        assertEquals(List.of(6, 5), matching.stream().map(RestingOrder::getOrderId).toList());
+    }
+
+    @Test
+    void getBestOrder_keepsTimePriorityWithinLevel() {
+        orderBook.addOrder(createOrder(7, BUY, "100.00", 5));
+        orderBook.addOrder(createOrder(8, BUY, "100.00", 5));
+
+        assertEquals(7, orderBook.getBestOrder(TEST_ISIN, BUY).map(RestingOrder::getOrderId).orElseThrow());
+        orderBook.removeOrder(7);
+        assertEquals(8, orderBook.getBestOrder(TEST_ISIN, BUY).map(RestingOrder::getOrderId).orElseThrow());
+        orderBook.removeOrder(8);
+        assertTrue(orderBook.getBestOrder(TEST_ISIN, BUY).isEmpty());
+    }
+
+    @Test
+    void ladderBook_bestAndMatchingSpanWindowAndOverflow() {
+        // window of 10 ticks around 100.00: 99.95 - 100.04
+        marketProduct.setCurrentPrice(100.00);
+        marketProduct.setAvgDailyVolume(1_000_000);
+        TickOrderBook ladderBook = new TickOrderBook(TEST_MARKET, LadderPolicy.of(10, 1_000));
+        ladderBook.registerInstrument(marketProduct);
+
+        ladderBook.addOrder(createOrder(9, SELL, "100.02", 5));
+        ladderBook.addOrder(createOrder(10, SELL, "99.50", 5)); // below the window
+        ladderBook.addOrder(createOrder(11, SELL, "101.00", 5)); // above the window
+
+        assertEquals(10, ladderBook.getBestOrder(TEST_ISIN, SELL).map(RestingOrder::getOrderId).orElseThrow());
+        assertEquals(List.of(10, 9, 11), ladderBook.getMatchingOrders(new BigDecimal("101.00"), TEST_ISIN, BUY, LIMIT_ORDER_TYPE)
+                .stream().map(RestingOrder::getOrderId).toList());
+
+        ladderBook.removeOrder(10);
+        assertEquals(9, ladderBook.getBestOrder(TEST_ISIN, SELL).map(RestingOrder::getOrderId).orElseThrow());
+        ladderBook.removeOrder(9);
+        assertEquals(11, ladderBook.getBestOrder(TEST_ISIN, SELL).map(RestingOrder::getOrderId).orElseThrow());
+    }
+
+    @Test
+    void ladderPolicy_isinOverride_beatsTheVolumeThreshold() {
+        LadderPolicy policy = LadderPolicy.of(10, 1_000).withOverrides(Map.of(TEST_ISIN, 64));
+        marketProduct.setAvgDailyVolume(10);
+        assertEquals(64, policy.widthFor(marketProduct), "An override should give an illiquid product a window.");
+
+        marketProduct.setAvgDailyVolume(1_000_000);
+        assertFalse(policy.withOverrides(Map.of(TEST_ISIN, 0)).appliesTo(marketProduct),
+                "An override of 0 should keep a liquid product sorted only.");
+        assertEquals(10, LadderPolicy.of(10, 1_000).widthFor(marketProduct));
+    }
+
+    @Test
+    void getDepth_publishesTheConfiguredLevels() {
+        TickOrderBook shallowBook = new TickOrderBook(TEST_MARKET, LadderPolicy.DISABLED, 2);
+        shallowBook.addOrder(createOrder(1, BUY, "100.00", 5));
+        shallowBook.addOrder(createOrder(2, BUY, "99.99", 5));
+        long version = shallowBook.getDepth(TEST_ISIN).getVersion();
+
+        shallowBook.addOrder(createOrder(3, BUY, "99.98", 5));
+
+        DepthSnapshot depth = shallowBook.getDepth(TEST_ISIN);
+        assertEquals(2, depth.getBids().size());
+        assertEquals(version, depth.getVersion(), "A level below the published depth should not publish a snapshot.");
+    }
+
+    private Order createOrder(Integer id, Side side, String price, int qty) {
+        return Order.builder()
+                .orderId(id)
+                .side(side)
+                .price(new BigDecimal(price))
+                .quantity(qty)
+                .remainingQuantity(qty)
+                .filledQuantity(0)
+                .marketProduct(marketProduct)
+                .build();
+    }
+}
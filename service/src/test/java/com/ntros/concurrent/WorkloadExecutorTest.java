@@ -0,0 +1,72 @@
+package com.ntros.concurrent;
+
+import com.ntros.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private WorkloadExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_fullQueue_rejectsWithServiceBusy() throws InterruptedException {
+        executor = start(false);
+
+        assertFalse(executor.isSaturated());
+        fillUp();
+
+        assertTrue(executor.isSaturated());
+        ServiceBusyException ex = assertThrows(ServiceBusyException.class, () -> executor.execute(() -> { }));
+        assertTrue(ex.getMessage().contains("test"));
+    }
+
+    @Test
+    void execute_fullQueueWithCallerRuns_runsOnCaller() throws InterruptedException {
+        executor = start(true);
+        fillUp();
+
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        executor.execute(() -> ranOn.set(Thread.currentThread()));
+
+        assertSame(Thread.currentThread(), ranOn.get());
+    }
+
+    private WorkloadExecutor start(boolean callerRunsWhenFull) {
+        WorkloadExecutor workloadExecutor = new WorkloadExecutor("test", 1, 2, callerRunsWhenFull);
+        workloadExecutor.initialize();
+        return workloadExecutor;
+    }
+
+    // one task blocks the only thread, two more take the queue
+    private void fillUp() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            await();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(this::await);
+        executor.execute(this::await);
+    }
+
+    private void await() {
+        try {
+            release.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.ntros.engine;
+
+import com.ntros.cache.OrderBookRegistry;
+import com.ntros.cache.OrderBookType;
+import com.ntros.cache.RestingOrder;
+import com.ntros.exception.ServiceBusyException;
+import com.ntros.metrics.OrderMetrics;
+import com.ntros.model.market.Market;
+import com.ntros.model.order.Order;
+import com.ntros.model.order.OrderType;
+import com.ntros.model.order.Side;
+import com.ntros.model.product.MarketProduct;
+import com.ntros.model.product.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.ntros.model.order.Side.BUY;
+import static com.ntros.model.order.Side.SELL;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchingEngineTest {
+    private static final String TEST_MARKET = "NYSE";
+    private static final String TEST_ISIN = "US5949181045";
+
+    private final OrderType limit = new OrderType(1, "LIMIT");
+    private final OrderType market = new OrderType(2, "MARKET");
+    private final MarketProduct marketProduct = new MarketProduct();
+
+    private OrderBookRegistry registry;
+    private MatchingEngine matchingEngine;
+
+    @BeforeEach
+    void setUp() {
+        Market mkt = new Market();
+        mkt.setMarketCode(TEST_MARKET);
+        Product product = new Product();
+        product.setIsin(TEST_ISIN);
+        marketProduct.setMarket(mkt);
+        marketProduct.setProduct(product);
+
+        registry = new OrderBookRegistry(OrderBookType.TREE);
+        registry.addMarket(TEST_MARKET);
+        matchingEngine = new MatchingEngine(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        matchingEngine.shutdown();
+    }
+
+    @Test
+    void submit_limitOrder_matchesBestPriceThenOldestFirst() {
+        Order worsePrice = createOrder(1, SELL, 101, 5, limit);
+        Order first = createOrder(2, SELL, 100, 5, limit);
+        Order second = createOrder(3, SELL, 100, 5, limit);
+        matchingEngine.submit(worsePrice).join();
+        matchingEngine.submit(first).join();
+        matchingEngine.submit(second).join();
+
+        List<Fill> fills = matchingEngine.submit(createOrder(4, BUY, 100, 7, limit)).join();
+
+        assertEquals(2, fills.size());
+        assertEquals(first.getOrderId(), fills.get(0).getRestingOrderId());
+        assertEquals(5, fills.get(0).getQuantity());
+        assertEquals(second.getOrderId(), fills.get(1).getRestingOrderId());
+        assertEquals(2, fills.get(1).getQuantity());
+        assertEquals(3, fills.get(1).getRestingRemainingQuantity());
+        RestingOrder resting = registry.forMarket(TEST_MARKET).getOrder(second.getOrderId()).orElseThrow();
+        assertEquals(3, resting.getRemainingQuantity(), "Partially filled order should keep its place in the book.");
+        assertEquals(2, registry.forMarket(TEST_MARKET).size(), "Filled resting order should be removed.");
+    }
+
+    @Test
+    void submit_limitOrderNotCrossing_restsInBook() {
+        matchingEngine.submit(createOrder(5, SELL, 110, 5, limit)).join();
+
+        Order bid = createOrder(6, BUY, 100, 5, limit);
+        List<Fill> fills = matchingEngine.submit(bid).join();
+
+        assertTrue(fills.isEmpty());
+        assertTrue(registry.forMarket(TEST_MARKET).getOrder(bid.getOrderId()).isPresent());
+    }
+
+    @Test
+    void submit_marketOrder_sweepsBookAndDoesNotRest() {
+        matchingEngine.submit(createOrder(7, SELL, 100, 5, limit)).join();
+        matchingEngine.submit(createOrder(8, SELL, 120, 5, limit)).join();
+
+        Order marketBuy = createOrder(9, BUY, 120, 20, market);
+        List<Fill> fills = matchingEngine.submit(marketBuy).join();
+
+        assertEquals(2, fills.size());
+        assertEquals(new BigDecimal("120.00"), fills.get(1).getPrice(), "Fills execute at the resting order's price.");
+        assertEquals(10, marketBuy.getRemainingQuantity());
+        assertEquals(0, registry.forMarket(TEST_MARKET).size());
+    }
+
+    @Test
+    void submit_marketBuy_stopsAtTheFundsItHolds() {
+        matchingEngine.submit(createOrder(17, SELL, 100, 5, limit)).join();
+        matchingEngine.submit(createOrder(18, SELL, 150, 5, limit)).join();
+
+        // 10 units at 110 hold 1100: 5 at 100, then only 4 of the asks at 150 fit in the remaining 600
+        Order marketBuy = createOrder(19, BUY, 110, 10, market);
+        List<Fill> fills = matchingEngine.submit(marketBuy).join();
+
+        assertEquals(2, fills.size());
+        assertEquals(4, fills.get(1).getQuantity());
+        assertEquals(1, marketBuy.getRemainingQuantity());
+        assertEquals(1, registry.forMarket(TEST_MARKET).getOrder(18).orElseThrow().getRemainingQuantity());
+    }
+
+    @Test
+    void submit_stopOrder_isRejectedWithoutTouchingTheBook() {
+        matchingEngine.submit(createOrder(15, SELL, 100, 5, limit)).join();
+
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> matchingEngine.submit(createOrder(16, BUY, 100, 5, new OrderType(3, "STOP"))).join());
+
+        assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+        assertEquals(5, registry.forMarket(TEST_MARKET).getOrder(15).orElseThrow().getRemainingQuantity(),
+                "A STOP order should not trade before it is triggered.");
+    }
+
+    @Test
+    void submit_fullWriterQueue_rejectsWithServiceBusy() throws InterruptedException {
+        matchingEngine.shutdown();
+        matchingEngine = new MatchingEngine(registry, Optional.empty(), OrderMetrics.NONE, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // keeps the writer thread busy, so the next task waits in the queue
+        CompletableFuture<Boolean> busy = matchingEngine.onBook(TEST_MARKET, book -> {
+            started.countDown();
+            return await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<List<Fill>> queued;
+        try {
+            queued = matchingEngine.submit(createOrder(20, SELL, 100, 5, limit));
+            assertTrue(matchingEngine.isSaturated(TEST_MARKET));
+
+            assertThrows(ServiceBusyException.class, () -> matchingEngine.submit(createOrder(21, BUY, 100, 5, limit)));
+        } finally {
+            release.countDown();
+        }
+
+        assertTrue(busy.join());
+        assertTrue(queued.join().isEmpty());
+        assertFalse(matchingEngine.isSaturated(TEST_MARKET));
+        assertTrue(registry.forMarket(TEST_MARKET).getOrder(21).isEmpty(), "A rejected order should not reach the book.");
+    }
+
+    @Test
+    void cancel_restingOrder_removesFromBook() {
+        Order bid = createOrder(10, BUY, 100, 5, limit);
+        matchingEngine.submit(bid).join();
+
+        assertTrue(matchingEngine.cancel(bid).join().isPresent());
+        assertTrue(matchingEngine.cancel(bid).join().isEmpty(), "Cancelling twice should be a no-op.");
+    }
+
+    @Test
+    void closeMarket_handsOverRestingOrdersAndStopsServingTheMarket() {
+        matchingEngine.submit(createOrder(11, BUY, 99, 5, limit)).join();
+        matchingEngine.submit(createOrder(12, SELL, 101, 5, limit)).join();
+        matchingEngine.submit(createOrder(13, BUY, 101, 2, limit)).join();
+
+        List<RestingOrder> resting = matchingEngine.closeMarket(TEST_MARKET).join();
+
+        assertEquals(List.of(11, 12), resting.stream().map(RestingOrder::getOrderId).sorted().toList());
+        assertEquals(3, resting.stream().filter(order -> order.getOrderId() == 12).findFirst().orElseThrow().getRemainingQuantity(),
+                "Resting orders should keep the quantities of their fills.");
+        assertFalse(registry.hasMarket(TEST_MARKET));
+        assertThrows(IllegalArgumentException.class, () -> matchingEngine.submit(createOrder(14, BUY, 100, 1, limit)),
+                "A closed market should not get a new writer.");
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Order createOrder(Integer id, Side side, int price, int qty, OrderType orderType) {
+        return Order.builder()
+                .orderId(id)
+                .side(side)
+                .price(BigDecimal.valueOf(price))
+                .quantity(qty)
+                .remainingQuantity(qty)
+                .filledQuantity(0)
+                .marketProduct(marketProduct)
+                .orderType(orderType)
+                .build();
+    }
+}
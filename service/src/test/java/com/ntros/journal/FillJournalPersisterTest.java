@@ -0,0 +1,159 @@
+package com.ntros.journal;
+
+import com.ntros.exception.InvalidArgumentException;
+import com.ntros.fill.DeadLetterRow;
+import com.ntros.service.fill.FillBatch;
+import com.ntros.service.fill.FillPersistenceDataService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FillJournalPersisterTest {
+
+    private static final int SHORT_PORTFOLIO = 99;
+
+    private Path directory;
+    private FillJournal journal;
+    private FillJournalPersister persister;
+
+    // no database: batches deducting from SHORT_PORTFOLIO are rejected until the portfolio is credited
+    private volatile boolean portfolioShort = true;
+    private volatile long checkpoint;
+    private final List<FillBatch> written = new CopyOnWriteArrayList<>();
+    private final Map<Long, DeadLetterRow> deadLetters = new ConcurrentSkipListMap<>();
+    private final FillPersistenceDataService database = new FillPersistenceDataService(null) {
+        @Override
+        public long getCheckpoint(String journalName) {
+            return checkpoint;
+        }
+
+        @Override
+        public void persist(FillBatch batch, String journalName, long lastSequence) {
+            write(batch);
+            checkpoint = lastSequence;
+        }
+
+        @Override
+        public void park(String journalName, long sequence, byte[] record, String error) {
+            deadLetters.put(sequence, new DeadLetterRow(sequence, record, 1));
+            checkpoint = sequence;
+        }
+
+        @Override
+        public List<DeadLetterRow> getDeadLetters(String journalName) {
+            return new ArrayList<>(deadLetters.values());
+        }
+
+        @Override
+        public void persistDeadLetter(FillBatch batch, String journalName, long sequence) {
+            write(batch);
+            deadLetters.remove(sequence);
+        }
+
+        @Override
+        public void recordDeadLetterAttempt(String journalName, long sequence, String error) {
+            DeadLetterRow deadLetter = deadLetters.get(sequence);
+            deadLetters.put(sequence, new DeadLetterRow(sequence, deadLetter.getPayload(), deadLetter.getAttempts() + 1));
+        }
+
+        private void write(FillBatch batch) {
+            if (portfolioShort && batch.getDeductions().stream().anyMatch(delta -> delta.getPortfolioId() == SHORT_PORTFOLIO)) {
+                throw InvalidArgumentException.with("Insufficient assets to transfer");
+            }
+            written.add(batch);
+        }
+    };
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("fill-journal");
+        journal = new FillJournal(directory, 4096, false);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        persister.stop();
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    void drain_parksRejectedRecordAndRetriesItUntilItApplies() {
+        persister = new FillJournalPersister(journal, database, 500, 50);
+        persister.start();
+
+        journal.append(FillBatchCodec.encode(fill(10)));
+        journal.append(FillBatchCodec.encode(fill(SHORT_PORTFOLIO)));
+        journal.append(FillBatchCodec.encode(fill(20)));
+
+        await(() -> checkpoint == 3);
+        assertEquals(2, written.size(), "The records that apply should be written.");
+        DeadLetterRow parked = deadLetters.get(2L);
+        assertNotNull(parked, "The rejected record should be parked, not dropped.");
+        FillBatch parkedBatch = FillBatchCodec.decode(ByteBuffer.wrap(parked.getPayload()));
+        assertEquals(-5, parkedBatch.getPositions().get(1).getQuantity(), "The parked record should keep its fills.");
+
+        await(() -> deadLetters.get(2L).getAttempts() > 1);
+        assertEquals(2, written.size());
+
+        portfolioShort = false;
+        await(deadLetters::isEmpty);
+        assertEquals(3, written.size(), "The parked record should be written once it applies.");
+        assertEquals(3, checkpoint);
+    }
+
+    @Test
+    void awaitReplay_returnsOnceTheRecordsJournaledBeforeTheRestartAreWritten() {
+        journal.open(0);
+        journal.append(FillBatchCodec.encode(fill(10)));
+        journal.append(FillBatchCodec.encode(fill(20)));
+        journal.close();
+
+        journal = new FillJournal(directory, 4096, false);
+        persister = new FillJournalPersister(journal, database, 1, 50);
+        persister.start();
+        persister.awaitReplay();
+
+        assertEquals(2, checkpoint, "The replay should end at the last record journaled before the restart.");
+        assertEquals(2, written.size());
+        assertEquals(0, persister.getLag());
+    }
+
+    // five units bought from the seller's portfolio into portfolio 1 for 50.00
+    private static FillBatch fill(int sellerPortfolio) {
+        FillBatch batch = new FillBatch();
+        batch.addWalletDelta(1, new BigDecimal("-50.00"));
+        batch.addWalletDelta(2, new BigDecimal("50.00"));
+        batch.addPositionDelta(1, 42, 5);
+        batch.addPositionDelta(sellerPortfolio, 42, -5);
+        return batch;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for the persister.");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.ntros.journal;
+
+import com.ntros.fill.OrderFillRow;
+import com.ntros.fill.OrderStatusRow;
+import com.ntros.fill.PositionDelta;
+import com.ntros.fill.TransactionRow;
+import com.ntros.service.fill.FillBatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FillJournalTest {
+    // small enough that a handful of records roll over to new segments
+    private static final int SEGMENT_SIZE = 256;
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("fill-journal");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    void append_readsBackInSequenceAcrossSegments() {
+        FillJournal journal = openJournal(0);
+        for (int i = 1; i <= 20; i++) {
+            assertEquals(i, journal.append(record(i)));
+        }
+
+        MappedJournal.Cursor cursor = journal.cursor(0);
+        for (int i = 1; i <= 20; i++) {
+            assertEquals(i, readRecord(cursor.next()));
+            assertEquals(i, cursor.getSequence());
+        }
+        assertNull(cursor.next(), "The cursor should stop at the last appended record.");
+        assertTrue(segmentCount() > 1);
+    }
+
+    @Test
+    void open_recoversAfterRestartAndReplaysFromCheckpoint() {
+        FillJournal journal = openJournal(0);
+        for (int i = 1; i <= 20; i++) {
+            journal.append(record(i));
+        }
+        journal.close();
+
+        FillJournal reopened = openJournal(12);
+        assertEquals(20, reopened.getLastSequence());
+        assertEquals(21, reopened.append(record(21)));
+
+        MappedJournal.Cursor cursor = reopened.cursor(12);
+        for (int i = 13; i <= 21; i++) {
+            assertEquals(i, readRecord(cursor.next()));
+        }
+        assertNull(cursor.next());
+    }
+
+    @Test
+    void open_startsAfterCheckpointWhenJournalIsBehind() {
+        FillJournal journal = openJournal(100);
+
+        assertEquals(100, journal.getLastSequence());
+        assertEquals(101, journal.append(record(1)));
+        assertEquals(1, readRecord(journal.cursor(100).next()));
+    }
+
+    @Test
+    void release_deletesSegmentsBelowCheckpoint() {
+        FillJournal journal = openJournal(0);
+        for (int i = 1; i <= 20; i++) {
+            journal.append(record(i));
+        }
+        long segments = segmentCount();
+
+        journal.release(5);
+        assertTrue(segmentCount() < segments);
+        assertEquals(6, readRecord(journal.cursor(5).next()), "Records after the checkpoint should be kept.");
+
+        journal.release(20);
+        assertEquals(1, segmentCount(), "The segment being written should be kept.");
+    }
+
+    @Test
+    void codec_roundTripsBatch() {
+        OffsetDateTime now = OffsetDateTime.of(2025, 3, 14, 9, 30, 0, 123_000, ZoneOffset.ofHours(2));
+        FillBatch batch = new FillBatch();
+        batch.addOrderFill(new OrderFillRow(7, 10, 0));
+        batch.addOrderStatus(new OrderStatusRow(7, "FILLED", now));
+        batch.addTransaction(TransactionRow.builder()
+                .transactionTypeId(1).walletId(2).portfolioId(3).marketProductId(4).orderId(7)
+                .quantity(10).price(new BigDecimal("101.25")).currency("USD").transactionDate(now)
+                .build());
+        batch.addWalletDelta(2, new BigDecimal("-1012.500000"));
+        batch.addPositionDelta(3, 5, -10);
+
+        FillBatch decoded = FillBatchCodec.decode(ByteBuffer.wrap(FillBatchCodec.encode(batch)));
+
+        assertEquals(7, decoded.getOrderFills().get(0).getOrderId());
+        assertEquals("FILLED", decoded.getOrderStatuses().get(0).getCurrentStatus());
+        assertEquals(now, decoded.getOrderStatuses().get(0).getUpdatedDate());
+        TransactionRow transaction = decoded.getTransactions().get(0);
+        assertEquals(new BigDecimal("101.25"), transaction.getPrice());
+        assertEquals("USD", transaction.getCurrency());
+        assertEquals(now, transaction.getTransactionDate());
+        assertEquals(new BigDecimal("-1012.500000"), decoded.getWallets().get(0).getAmount());
+        PositionDelta position = decoded.getPositions().get(0);
+        assertEquals(5, position.getProductId());
+        assertEquals(-10, position.getQuantity());
+    }
+
+    private FillJournal openJournal(long checkpoint) {
+        FillJournal journal = new FillJournal(directory, SEGMENT_SIZE, false);
+        journal.open(checkpoint);
+        return journal;
+    }
+
+    private static byte[] record(int value) {
+        return ByteBuffer.allocate(64).putInt(0, value).array();
+    }
+
+    private static int readRecord(ByteBuffer payload) {
+        return payload.getInt(0);
+    }
+
+    private long segmentCount() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        } catch (IOException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.ntros.journal;
+
+import com.ntros.cache.OrderBookRegistry;
+import com.ntros.cache.OrderBookType;
+import com.ntros.cache.OrderCache;
+import com.ntros.cache.RestingOrder;
+import com.ntros.engine.MatchingEngine;
+import com.ntros.model.market.Market;
+import com.ntros.model.order.Order;
+import com.ntros.model.order.OrderType;
+import com.ntros.model.order.Side;
+import com.ntros.model.product.MarketProduct;
+import com.ntros.model.product.Product;
+import com.ntros.order.OpenOrderCount;
+import com.ntros.order.OpenOrderCountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.ntros.model.order.Side.BUY;
+import static com.ntros.model.order.Side.SELL;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookSnapshotterTest {
+    private static final String TEST_MARKET = "NYSE";
+    private static final String TEST_ISIN = "US5949181045";
+    private static final int SEGMENT_SIZE = 4096;
+
+    private final OrderType limit = new OrderType(1, "LIMIT");
+    private final MarketProduct marketProduct = new MarketProduct();
+
+    private Path directory;
+    private OrderEventJournal journal;
+    private MatchingEngine matchingEngine;
+    private OrderBookSnapshotter snapshotter;
+
+    // no database: it holds the open orders the book held when it was last stopped
+    private OpenOrderCount databaseOrders = new OpenOrderCount(0, 0);
+    private final OpenOrderCountRepository openOrderCountRepository = new OpenOrderCountRepository(null) {
+        @Override
+        public OpenOrderCount countOpenOrders(String marketCode) {
+            return databaseOrders;
+        }
+    };
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Market market = new Market();
+        market.setMarketCode(TEST_MARKET);
+        Product product = new Product();
+        product.setIsin(TEST_ISIN);
+        marketProduct.setMarket(market);
+        marketProduct.setProduct(product);
+
+        directory = Files.createTempDirectory("orderbook-snapshots");
+        start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        matchingEngine.shutdown();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    void recover_restoresSnapshotAndReplaysLaterEvents() {
+        matchingEngine.submit(createOrder(1, SELL, 101, 5)).join();
+        matchingEngine.submit(createOrder(2, SELL, 100, 5)).join();
+        matchingEngine.submit(createOrder(3, SELL, 100, 5)).join();
+        matchingEngine.submit(createOrder(4, BUY, 98, 5)).join();
+        snapshotter.snapshotAll();
+
+        // after the snapshot: a partial fill of 2, a full fill of 3, a new bid and a cancel
+        matchingEngine.submit(createOrder(5, BUY, 100, 7)).join();
+        matchingEngine.submit(createOrder(6, BUY, 99, 4)).join();
+        matchingEngine.cancel(createOrder(4, BUY, 98, 5)).join();
+        List<String> expected = describe(matchingEngine);
+
+        restart();
+
+        assertTrue(snapshotter.recover());
+        assertEquals(expected, describe(matchingEngine));
+        assertEquals(List.of("6:BUY:99.00:4", "3:SELL:100.00:3", "1:SELL:101.00:5"), expected);
+    }
+
+    @Test
+    void recover_keepsTimePriorityWithinALevel() {
+        for (int id = 1; id <= 5; id++) {
+            matchingEngine.submit(createOrder(id, SELL, 100, 1)).join();
+        }
+        snapshotter.snapshotAll();
+        matchingEngine.submit(createOrder(6, SELL, 100, 1)).join();
+
+        restart();
+
+        assertTrue(snapshotter.recover());
+        List<Integer> queue = matchingEngine.onBook(TEST_MARKET, book -> book
+                .getMatchingOrders(BigDecimal.valueOf(100), TEST_ISIN, BUY, "LIMIT").stream()
+                .map(RestingOrder::getOrderId)
+                .toList()).join();
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), queue);
+    }
+
+    @Test
+    void recover_bookBehindDatabase_fallsBackToColdLoad() {
+        matchingEngine.submit(createOrder(1, SELL, 101, 5)).join();
+        matchingEngine.submit(createOrder(2, BUY, 99, 5)).join();
+        snapshotter.snapshotAll();
+        matchingEngine.submit(createOrder(3, SELL, 102, 5)).join();
+
+        restart();
+        // order 4 rests in the database, its event was in the journal tail a host crash lost
+        databaseOrders = new OpenOrderCount(4, 4);
+
+        assertFalse(snapshotter.recover());
+        assertEquals(0, matchingEngine.onBook(TEST_MARKET, OrderCache::size).join());
+    }
+
+    @Test
+    void recover_withoutSnapshot_fallsBackToColdLoad() {
+        matchingEngine.submit(createOrder(1, SELL, 100, 1)).join();
+
+        restart();
+
+        assertFalse(snapshotter.recover());
+        assertEquals(0, matchingEngine.onBook(TEST_MARKET, OrderCache::size).join());
+    }
+
+    @Test
+    void recover_journalReleasedPastSnapshot_fallsBackToColdLoad() throws IOException {
+        matchingEngine.submit(createOrder(1, SELL, 100, 1)).join();
+        snapshotter.snapshotAll();
+        // a stale snapshot the journal no longer reaches back to
+        byte[] stale = Files.readAllBytes(directory.resolve(TEST_MARKET + ".snapshot"));
+        for (int id = 2; id <= 200; id++) {
+            matchingEngine.submit(createOrder(id, SELL, 100, 1)).join();
+        }
+        snapshotter.snapshotAll();
+        Files.write(directory.resolve(TEST_MARKET + ".snapshot"), stale);
+
+        restart();
+
+        assertFalse(snapshotter.recover());
+    }
+
+    private void start() {
+        OrderBookRegistry registry = new OrderBookRegistry(OrderBookType.TREE);
+        registry.addMarket(TEST_MARKET);
+        journal = new OrderEventJournal(directory.resolve("events"), SEGMENT_SIZE);
+        journal.open();
+        matchingEngine = new MatchingEngine(registry, Optional.of(journal));
+        snapshotter = new OrderBookSnapshotter(registry, matchingEngine, journal, openOrderCountRepository, directory, 300);
+    }
+
+    private void restart() {
+        databaseOrders = matchingEngine.onBook(TEST_MARKET, book -> {
+            int[] maxOrderId = new int[1];
+            book.forEachOrder(order -> maxOrderId[0] = Math.max(maxOrderId[0], order.getOrderId()));
+            return new OpenOrderCount(book.size(), maxOrderId[0]);
+        }).join();
+        matchingEngine.shutdown();
+        journal.close();
+        start();
+    }
+
+    private static List<String> describe(MatchingEngine engine) {
+        return engine.onBook(TEST_MARKET, book -> {
+            List<String> orders = new ArrayList<>();
+            book.forEachOrder(order -> orders.add(order.getOrderId() + ":" + order.getSide() + ":" + order.getPrice()
+                    + ":" + order.getRemainingQuantity()));
+            return orders;
+        }).join();
+    }
+
+    private Order createOrder(Integer id, Side side, int price, int qty) {
+        return Order.builder()
+                .orderId(id)
+                .side(side)
+                .price(BigDecimal.valueOf(price))
+                .quantity(qty)
+                .remainingQuantity(qty)
+                .filledQuantity(0)
+                .marketProduct(marketProduct)
+                .orderType(limit)
+                .build();
+    }
+}
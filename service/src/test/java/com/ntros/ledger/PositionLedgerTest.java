@@ -0,0 +1,74 @@
+package com.ntros.ledger;
+
+import com.ntros.exception.InvalidArgumentException;
+import com.ntros.position.PositionHoldRow;
+import com.ntros.position.PositionLedgerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionLedgerTest {
+
+    private static final int SELLER = 1;
+    private static final int BUYER = 2;
+    private static final int PRODUCT_ID = 42;
+
+    private PositionLedger positionLedger;
+
+    @BeforeEach
+    void setUp() {
+        // no database: the seller holds 100 units, 30 of them for resting SELL order 9
+        positionLedger = new PositionLedger(new PositionLedgerRepository(null) {
+            @Override
+            public int findQuantity(int accountId, int productId) {
+                return accountId == SELLER ? 100 : 0;
+            }
+
+            @Override
+            public List<PositionHoldRow> findHolds(int accountId, int productId) {
+                return accountId == SELLER ? List.of(new PositionHoldRow(9, 30)) : List.of();
+            }
+        });
+    }
+
+    @Test
+    void reserve_concurrentSells_neverHoldMoreThanThePosition() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        AtomicInteger accepted = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            pool.execute(() -> {
+                try {
+                    positionLedger.reserve(SELLER, PRODUCT_ID, 3);
+                    accepted.incrementAndGet();
+                } catch (InvalidArgumentException ignored) {
+                    // position exhausted
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(23, accepted.get(), "Only as many orders as the free units cover should be accepted.");
+        assertEquals(1, positionLedger.getAvailable(SELLER, PRODUCT_ID));
+    }
+
+    @Test
+    void fill_movesUnitsAndConsumesStoredHold() {
+        positionLedger.deliver(SELLER, PRODUCT_ID, 9, 10);
+        positionLedger.receive(BUYER, PRODUCT_ID, 10);
+
+        assertEquals(90, positionLedger.getQuantity(SELLER, PRODUCT_ID));
+        assertEquals(70, positionLedger.getAvailable(SELLER, PRODUCT_ID));
+        assertEquals(10, positionLedger.getAvailable(BUYER, PRODUCT_ID));
+
+        positionLedger.release(9);
+        assertEquals(90, positionLedger.getAvailable(SELLER, PRODUCT_ID), "A cancelled order should hold nothing.");
+    }
+}
@@ -0,0 +1,100 @@
+package com.ntros.ledger;
+
+import com.ntros.account.WalletHoldRow;
+import com.ntros.account.WalletLedgerRepository;
+import com.ntros.exception.InvalidArgumentException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletLedgerTest {
+
+    private static final int WALLET_ID = 7;
+
+    private final List<WalletHoldRow> storedHolds = new ArrayList<>();
+    private WalletLedger walletLedger;
+
+    @BeforeEach
+    void setUp() {
+        // no database: the wallet is stored with a balance of 1000
+        walletLedger = new WalletLedger(new WalletLedgerRepository(null) {
+            @Override
+            public Optional<BigDecimal> findBalance(int walletId) {
+                return walletId == WALLET_ID ? Optional.of(new BigDecimal("1000.00")) : Optional.empty();
+            }
+
+            @Override
+            public List<WalletHoldRow> findHolds(int walletId) {
+                return storedHolds;
+            }
+        });
+    }
+
+    @Test
+    void reserve_concurrentOrders_neverHoldMoreThanTheBalance() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    walletLedger.reserve(WALLET_ID, new BigDecimal("30.00"), 1);
+                    return true;
+                } catch (InvalidArgumentException ex) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int accepted = 0;
+        for (Future<Boolean> result : results) {
+            accepted += result.get() ? 1 : 0;
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(33, accepted, "Only as many orders as the balance covers should be accepted.");
+        assertEquals(0, new BigDecimal("10.00").compareTo(walletLedger.getAvailable(WALLET_ID)));
+    }
+
+    @Test
+    void debit_consumesHoldAndReleasesPriceImprovementOnceFilled() {
+        WalletLedger.Hold hold = walletLedger.reserve(WALLET_ID, new BigDecimal("10.00"), 10);
+        walletLedger.assign(hold, 1);
+        assertEquals(0, new BigDecimal("900.00").compareTo(walletLedger.getAvailable(WALLET_ID)));
+
+        // filled below the limit price
+        walletLedger.debit(WALLET_ID, 1, 4, new BigDecimal("36.00"));
+        assertEquals(0, new BigDecimal("964.00").compareTo(walletLedger.getBalance(WALLET_ID)));
+        assertEquals(0, new BigDecimal("904.00").compareTo(walletLedger.getAvailable(WALLET_ID)));
+
+        walletLedger.debit(WALLET_ID, 1, 6, new BigDecimal("54.00"));
+        assertEquals(0, new BigDecimal("910.00").compareTo(walletLedger.getBalance(WALLET_ID)));
+        assertEquals(0, new BigDecimal("910.00").compareTo(walletLedger.getAvailable(WALLET_ID)),
+                "A filled order should hold nothing.");
+    }
+
+    @Test
+    void release_givesBackStoredHoldOfCancelledOrder() {
+        storedHolds.add(new WalletHoldRow(5, new BigDecimal("20.00"), 10));
+        assertEquals(0, new BigDecimal("800.00").compareTo(walletLedger.getAvailable(WALLET_ID)));
+        assertThrows(InvalidArgumentException.class, () -> walletLedger.reserve(WALLET_ID, new BigDecimal("900.00"), 1));
+
+        walletLedger.release(5);
+        walletLedger.release(5);
+
+        assertEquals(0, new BigDecimal("1000.00").compareTo(walletLedger.getAvailable(WALLET_ID)));
+    }
+}
@@ -0,0 +1,115 @@
+package com.ntros.service.fill;
+
+import com.ntros.exception.InvalidArgumentException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowedFillPersistenceServiceTest {
+
+    private static final int BUYER_WALLET = 1;
+    private static final int SELLER_WALLET = 2;
+    private static final int SHORT_PORTFOLIO = 99;
+
+    // no database: batches that would deduct from SHORT_PORTFOLIO are rejected, the rest are recorded
+    private final List<FillBatch> written = new CopyOnWriteArrayList<>();
+    private final FillPersistenceDataService database = new FillPersistenceDataService(null) {
+        @Override
+        public CompletableFuture<Void> persist(FillBatch batch) {
+            if (batch.getDeductions().stream().anyMatch(delta -> delta.getPortfolioId() == SHORT_PORTFOLIO)) {
+                throw InvalidArgumentException.with("Insufficient assets to transfer");
+            }
+            written.add(batch);
+            return CompletableFuture.completedFuture(null);
+        }
+    };
+    private WindowedFillPersistenceService service;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.stop();
+    }
+
+    @Test
+    void persist_netsCyclesOfAWindowIntoOneWrite() throws Exception {
+        service = new WindowedFillPersistenceService(database, 200, 10);
+
+        // one caller thread fills the whole window, persist doesn't wait for it
+        List<CompletableFuture<Void>> cycles = persistCycles(10, i -> cycle(10, 20));
+        for (CompletableFuture<Void> cycle : cycles) {
+            cycle.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, written.size(), "A full window should be written once.");
+        FillBatch window = written.get(0);
+        assertEquals(2, window.getWallets().size());
+        assertEquals(0, new BigDecimal("-100.00").compareTo(window.getWalletDeltas().get(BUYER_WALLET)));
+        assertEquals(0, new BigDecimal("100.00").compareTo(window.getWalletDeltas().get(SELLER_WALLET)));
+        assertEquals(2, window.getPositions().size());
+    }
+
+    @Test
+    void persist_rejectedWindow_failsOnlyTheCycleShortOnAssets() throws Exception {
+        service = new WindowedFillPersistenceService(database, 200, 3);
+
+        List<CompletableFuture<Void>> cycles = persistCycles(3, i -> cycle(10, i == 1 ? SHORT_PORTFOLIO : 20));
+
+        int failed = 0;
+        for (CompletableFuture<Void> cycle : cycles) {
+            try {
+                cycle.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException ex) {
+                assertInstanceOf(InvalidArgumentException.class, ex.getCause());
+                failed++;
+            }
+        }
+        assertEquals(1, failed);
+        assertEquals(2, written.size(), "The other cycles should be written on their own.");
+    }
+
+    @Test
+    void persist_afterStop_refusesTheCycleAndWritesTheLastWindow() throws Exception {
+        service = new WindowedFillPersistenceService(database, 60_000, 10);
+
+        // both cycles wait in a window that would not close for a minute
+        List<CompletableFuture<Void>> cycles = persistCycles(2, i -> cycle(10, 20));
+        service.stop();
+
+        for (CompletableFuture<Void> cycle : cycles) {
+            cycle.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(1, written.size(), "The last window should be written on stop.");
+        ExecutionException refused = assertThrows(ExecutionException.class,
+                () -> service.persist(cycle(10, 20)).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, refused.getCause());
+        assertEquals(1, written.size());
+    }
+
+    private List<CompletableFuture<Void>> persistCycles(int count, IntFunction<FillBatch> cycles) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            futures.add(service.persist(cycles.apply(i)));
+        }
+        return futures;
+    }
+
+    // one fill of a unit at 10.00 from the seller's portfolio to the buyer's
+    private static FillBatch cycle(int buyerPortfolio, int sellerPortfolio) {
+        FillBatch batch = new FillBatch();
+        batch.addWalletDelta(BUYER_WALLET, new BigDecimal("-10.00"));
+        batch.addWalletDelta(SELLER_WALLET, new BigDecimal("10.00"));
+        batch.addPositionDelta(buyerPortfolio, 42, 1);
+        batch.addPositionDelta(sellerPortfolio, 42, -1);
+        return batch;
+    }
+}
@@ -0,0 +1,203 @@
+package com.ntros.service.market;
+
+import com.ntros.account.WalletHoldRow;
+import com.ntros.account.WalletLedgerRepository;
+import com.ntros.cache.OrderBookRegistry;
+import com.ntros.cache.OrderBookType;
+import com.ntros.dto.KeysetPage;
+import com.ntros.dto.order.OrderDTO;
+import com.ntros.engine.MatchingEngine;
+import com.ntros.ledger.PositionLedger;
+import com.ntros.ledger.WalletLedger;
+import com.ntros.model.market.Market;
+import com.ntros.model.order.CurrentOrderStatus;
+import com.ntros.model.order.Order;
+import com.ntros.model.order.OrderStatus;
+import com.ntros.model.order.OrderType;
+import com.ntros.model.product.MarketProduct;
+import com.ntros.model.product.Product;
+import com.ntros.service.order.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.ntros.model.order.Side.BUY;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketRemovalServiceTest {
+
+    private static final String DELISTED_MARKET = "NYSE";
+    private static final String LISTED_MARKET = "LSE";
+    private static final int WALLET_ID = 7;
+    private static final int ORDER_ID = 1;
+
+    // no database: the market table is the listed set
+    private final Set<String> listed = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, CurrentOrderStatus> statuses = new ConcurrentHashMap<>();
+    private final Order order = Order.builder()
+            .orderId(ORDER_ID)
+            .side(BUY)
+            .price(BigDecimal.valueOf(100))
+            .quantity(5)
+            .remainingQuantity(5)
+            .filledQuantity(0)
+            .orderType(new OrderType(1, "LIMIT"))
+            .build();
+
+    private OrderBookRegistry registry;
+    private MatchingEngine matchingEngine;
+    private WalletLedger walletLedger;
+    private MarketRemovalService marketRemovalService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new OrderBookRegistry(OrderBookType.TREE) {
+            @Override
+            public Set<String> refreshMarkets() {
+                listed.forEach(this::addMarket);
+                return getMarkets().stream()
+                        .filter(market -> !listed.contains(market))
+                        .collect(Collectors.toSet());
+            }
+        };
+        listed.addAll(Set.of(DELISTED_MARKET, LISTED_MARKET));
+        registry.loadMarkets();
+        matchingEngine = new MatchingEngine(registry);
+        // the wallet is stored with a balance of 1000
+        walletLedger = new WalletLedger(new WalletLedgerRepository(null) {
+            @Override
+            public Optional<BigDecimal> findBalance(int walletId) {
+                return Optional.of(new BigDecimal("1000.00"));
+            }
+
+            @Override
+            public List<WalletHoldRow> findHolds(int walletId) {
+                return List.of();
+            }
+        });
+        marketRemovalService = new MarketRemovalService(Runnable::run, registry, matchingEngine, orderService(),
+                walletLedger, new PositionLedger(null), 1);
+
+        Market market = new Market();
+        market.setMarketCode(DELISTED_MARKET);
+        Product product = new Product();
+        product.setIsin("US5949181045");
+        MarketProduct marketProduct = new MarketProduct();
+        marketProduct.setMarket(market);
+        marketProduct.setProduct(product);
+        order.setMarketProduct(marketProduct);
+        // a BUY resting in the market, holding 500 of the wallet's funds
+        WalletLedger.Hold hold = walletLedger.reserve(WALLET_ID, order.getPrice(), order.getQuantity());
+        walletLedger.assign(hold, ORDER_ID);
+        matchingEngine.submit(order).join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        marketRemovalService.stop();
+        matchingEngine.shutdown();
+    }
+
+    @Test
+    void refreshMarkets_closesDeletedMarketAndCancelsItsRestingOrders() {
+        registry.markReady(DELISTED_MARKET);
+        registry.markReady(LISTED_MARKET);
+        listed.remove(DELISTED_MARKET);
+
+        marketRemovalService.refreshMarkets().join();
+
+        assertFalse(registry.hasMarket(DELISTED_MARKET));
+        assertTrue(registry.hasMarket(LISTED_MARKET), "A market still in the table should be served.");
+        assertEquals(CurrentOrderStatus.CANCELLED, statuses.get(ORDER_ID));
+        assertEquals(new BigDecimal("1000.00"), walletLedger.getAvailable(WALLET_ID), "The order's hold should be released.");
+    }
+
+    @Test
+    void refreshMarkets_leavesMarketStillLoadingForALaterRefresh() {
+        listed.remove(DELISTED_MARKET);
+
+        marketRemovalService.refreshMarkets().join();
+
+        assertTrue(registry.hasMarket(DELISTED_MARKET), "A book still loading may miss resting orders, it should not be closed.");
+        assertTrue(statuses.isEmpty());
+    }
+
+    @Test
+    void start_removesDeletedMarketsOnSchedule() {
+        registry.markReady(DELISTED_MARKET);
+        listed.remove(DELISTED_MARKET);
+
+        marketRemovalService.start();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (registry.hasMarket(DELISTED_MARKET) || !statuses.containsKey(ORDER_ID)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for the scheduled refresh.");
+            }
+            Thread.onSpinWait();
+        }
+        assertEquals(CurrentOrderStatus.CANCELLED, statuses.get(ORDER_ID));
+    }
+
+    // no database: only what removal reads and writes
+    private OrderService orderService() {
+        return new OrderService() {
+            @Override
+            public Map<Integer, Order> getOrdersByIds(List<Integer> orderIds) {
+                return orderIds.stream().collect(Collectors.toMap(Function.identity(), id -> order));
+            }
+
+            @Override
+            public OrderStatus updateOrderStatus(Order order, CurrentOrderStatus orderStatus) {
+                statuses.put(order.getOrderId(), orderStatus);
+                return null;
+            }
+
+            @Override
+            public Order getOrder(String accountNumber, String productIsin) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Order createOrder(Order order) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<KeysetPage<OrderDTO>> getOrdersPage(CurrentOrderStatus status, int afterOrderId, int limit) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void streamOrders(CurrentOrderStatus status, int afterOrderId, Consumer<OrderDTO> consumer) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public OrderType getOrderType(String type) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<List<OrderStatus>> getAllByOrder(Order order) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CurrentOrderStatus determineCurrentStatus(Order order) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -309,6 +309,8 @@ CREATE TABLE IF NOT EXISTS `order` (
     placed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     filled_quantity INT NOT NULL,
     remaining_quantity INT NOT NULL,
+    -- latest order_status, kept in step with every transition: 'OPEN', 'PARTIALLY_FILLED', 'FILLED', 'CANCELLED'
+    current_status VARCHAR(32) NOT NULL DEFAULT 'OPEN',
     version INT DEFAULT 0,
 
     FOREIGN KEY (order_type_id) REFERENCES order_type(order_type_id),
@@ -318,6 +320,15 @@ CREATE TABLE IF NOT EXISTS `order` (
 CREATE INDEX idx_order_wallet_id ON `order`(wallet_id);
 CREATE INDEX idx_order_market_product_id ON `order`(market_product_id);
 CREATE INDEX idx_order_placed_at ON `order`(placed_at);
+-- matching fallback and book reloads: one range scan per instrument, side and live status, in price-time order
+CREATE INDEX idx_order_book ON `order`(market_product_id, side, current_status, price, placed_at);
+-- keyset pages by status: InnoDB appends order_id to the index
+CREATE INDEX idx_order_current_status ON `order`(current_status);
+-- existing databases:
+-- ALTER TABLE `order` ADD COLUMN current_status VARCHAR(32) NOT NULL DEFAULT 'OPEN' AFTER remaining_quantity;
+-- UPDATE `order` o JOIN order_status os ON os.order_status_id =
+--     (SELECT MAX(s.order_status_id) FROM order_status s WHERE s.order_id = o.order_id)
+-- SET o.current_status = os.current_status;
 
 
 
@@ -371,6 +382,27 @@ CREATE INDEX idx_transaction_market_product_id ON `transaction`(market_product_i
 CREATE INDEX idx_transaction_order_id ON `transaction`(order_id);
 CREATE INDEX idx_transaction_date ON `transaction`(transaction_date); -- for faster time-based lookups
 
+-- Last fill journal record written to the tables above, per journal.
+-- Moved forward in the same database transaction as the records, so a replay after a crash skips exactly those.
+CREATE TABLE IF NOT EXISTS fill_journal_checkpoint (
+    journal_name VARCHAR(64) PRIMARY KEY,
+    last_sequence BIGINT NOT NULL,
+    updated_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- Fill journal records the tables above rejected, e.g. for insufficient assets.
+-- Parked in the transaction that moves the checkpoint past them and retried until they apply, then deleted.
+CREATE TABLE IF NOT EXISTS fill_dead_letter (
+    journal_name VARCHAR(64) NOT NULL,
+    sequence BIGINT NOT NULL,
+    payload MEDIUMBLOB NOT NULL,
+    error VARCHAR(512),
+    attempts INT NOT NULL,
+    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (journal_name, sequence)
+);
+
 
 -- user service (address, role, user)
 -- account service (account, wallet, portfolio, position)